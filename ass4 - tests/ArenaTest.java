@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ArenaTest {
+    static String value(Expression ex, Map<String, Double> assignment) {
+        try {
+            return Double.toString(assignment == null ? ex.evaluate() : ex.evaluate(assignment));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    static String value(ExpressionArena arena, int root, Map<String, Double> assignment) {
+        try {
+            return Double.toString(assignment == null ? arena.evaluate(root) : arena.evaluate(root, assignment));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    static String value(ExpressionArena arena, int root, double[] variables) {
+        try {
+            return Double.toString(arena.evaluate(root, variables));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression x = new Var("x");
+        Expression y = new Var("y");
+        Map<String, Double> assignment = new TreeMap<>();
+        assignment.put("x", 2.0);
+        assignment.put("y", -3.0);
+
+        // round trips of mixed trees
+        Expression[] trees = {
+            new Num(1.5),
+            y,
+            new Plus(new Mult(new Num(3), x), new Neg(y)),
+            new Div(new Sin(new Pow(x, new Num(2))), new Cos(new Minus(y, new Num(90)))),
+            new Log(new Num(2), new Plus(new Mult(x, x), new Num(4))),
+            new Neg(new Neg(new Neg(new Var("z")))),
+        };
+        ExpressionArena arena = new ExpressionArena();
+        int[] roots = new int[trees.length];
+        for (int i = 0; i < trees.length; i++) {
+            roots[i] = arena.add(trees[i]);
+        }
+        int nodes = 0;
+        for (int i = 0; i < trees.length; i++) {
+            Expression copy = arena.toExpression(roots[i]);
+            if (copy == trees[i] || !copy.toString().equals(trees[i].toString()))
+                System.out.println("#1:Error in " + copy + " for " + trees[i]);
+            if (arena.getSize(roots[i]) != TreeSize.of(trees[i]).getNodes())
+                System.out.println("#2:Error in the size " + arena.getSize(roots[i]) + " of " + trees[i]);
+            nodes += arena.getSize(roots[i]);
+            if (roots[i] != nodes - 1)
+                System.out.println("#3:Error in the root " + roots[i] + " of " + trees[i]);
+        }
+        if (arena.getSize() != nodes)
+            System.out.println("#4:Error in " + arena.getSize() + " nodes");
+        // the variables of all the trees share one table of slots
+        if (!arena.getVariables().equals(Arrays.asList("y", "x", "z")) || arena.getSlot("x") != 1
+                || arena.getSlot("w") != -1)
+            System.out.println("#5:Error in " + arena.getVariables());
+        if (!arena.toExpression(arena.add(trees[2])).toString().equals(trees[2].toString())
+                || arena.getVariables().size() != 3)
+            System.out.println("#6:Error in adding a tree twice");
+
+        // evaluate matches evaluate(Map), including the undefined cases
+        double[] variables = {-3, 2, 7};
+        assignment.put("z", 7.0);
+        for (int i = 0; i < trees.length; i++) {
+            String expected = value(trees[i], assignment);
+            if (!value(arena, roots[i], assignment).equals(expected)
+                    || !value(arena, roots[i], variables).equals(expected))
+                System.out.println("#7:Error in " + trees[i] + ": " + value(arena, roots[i], assignment) + " "
+                        + value(arena, roots[i], variables) + " expected " + expected);
+        }
+        double[] registers = new double[16];
+        if (arena.evaluate(roots[2], variables, registers) != 9 || registers[arena.getSize(roots[2]) - 1] != 9)
+            System.out.println("#8:Error in evaluating into registers");
+        Expression[] undefined = {
+            new Div(x, new Minus(x, new Num(2))),
+            new Log(new Num(2), new Minus(new Num(2), x)),
+            new Log(new Num(1), x),
+            new Log(new Neg(x), new Num(8)),
+            new Pow(new Num(-8), new Num(0.5)),
+            new Plus(new Div(new Num(1), new Num(0)), new Log(new Num(2), new Num(-1))),
+            new Plus(x, new Var("missing")),
+        };
+        for (int i = 0; i < undefined.length; i++) {
+            int root = arena.add(undefined[i]);
+            String expected = value(undefined[i], assignment);
+            if (!expected.startsWith("error: ") || !value(arena, root, assignment).equals(expected))
+                System.out.println("#9:Error in " + undefined[i] + ": " + value(arena, root, assignment)
+                        + " expected " + expected);
+            String slots = value(arena, root, new double[] {-3, 2, 7, 0});
+            if (i < undefined.length - 1 && !slots.equals(expected))
+                System.out.println("#10:Error in " + undefined[i] + ": " + slots + " expected " + expected);
+        }
+        // random trees, with and without variables
+        ExpressionGenerator generator = new ExpressionGenerator(33);
+        for (int i = 0; i < 300; i++) {
+            Expression ex = generator.generate();
+            int root = arena.add(ex);
+            Map<String, Double> values = generator.assignment();
+            String expected = value(ex, values);
+            if (!value(arena, root, values).equals(expected)) {
+                System.out.println("#11:Error in " + ex + ": " + value(arena, root, values) + " expected "
+                        + expected);
+                break;
+            }
+            if (!value(arena, root, (Map<String, Double>) null).equals(value(ex, null))) {
+                System.out.println("#12:Error in " + ex + ": " + value(arena, root, (Map<String, Double>) null)
+                        + " expected " + value(ex, null));
+                break;
+            }
+        }
+
+        // the fallback paths: a missing slot, a short array and no variables
+        int sum = arena.add(new Plus(x, new Var("w")));
+        if (!value(arena, sum, new double[] {0, 1}).equals(value(new Plus(x, new Var("w")), assignment)))
+            System.out.println("#13:Error in " + value(arena, sum, new double[] {0, 1}));
+        if (!value(arena, roots[5], (Map<String, Double>) null).equals(value(trees[5], null)))
+            System.out.println("#14:Error in " + value(arena, roots[5], (Map<String, Double>) null));
+        if (arena.evaluate(roots[0]) != 1.5 || arena.evaluate(roots[4], new double[] {0, 2}) != 3)
+            System.out.println("#15:Error in evaluating constant trees");
+
+        // capacity growth keeps the trees written before
+        ExpressionArena small = new ExpressionArena(1);
+        List<Integer> smallRoots = new ArrayList<>();
+        for (Expression tree : trees) {
+            smallRoots.add(small.add(tree));
+        }
+        Expression deep = x;
+        for (int i = 0; i < 100000; i++) {
+            deep = new Plus(deep, new Num(1));
+        }
+        int deepRoot = small.add(deep);
+        for (int i = 0; i < trees.length; i++) {
+            if (!small.toExpression(smallRoots.get(i)).toString().equals(trees[i].toString())
+                    || !value(small, smallRoots.get(i), assignment).equals(value(trees[i], assignment)))
+                System.out.println("#16:Error in " + trees[i] + " after growing");
+        }
+        if (small.getSize() != nodes + 200001 || small.getSize(deepRoot) != 200001
+                || small.evaluate(deepRoot, assignment) != 100002)
+            System.out.println("#17:Error in a deep tree: " + small.getSize());
+        if (((BaseExpression) small.toExpression(deepRoot)).getDepth() != 100001)
+            System.out.println("#18:Error in rebuilding a deep tree");
+
+        // errors
+        try {
+            new ExpressionArena(0);
+            System.out.println("#19:Error in an empty capacity");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().equals("capacity must be positive: 0"))
+                System.out.println("#19:Error in " + e.getMessage());
+        }
+        try {
+            arena.evaluate(arena.getSize());
+            System.out.println("#20:Error in a missing root");
+        } catch (IndexOutOfBoundsException e) {
+            if (!e.getMessage().equals("no node " + arena.getSize() + " in an arena of " + arena.getSize()))
+                System.out.println("#20:Error in " + e.getMessage());
+        }
+        try {
+            arena.toExpression(-1);
+            System.out.println("#21:Error in a negative root");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            arena.add(ExpressionMetrics.meter(x));
+            System.out.println("#22:Error in adding a foreign expression");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        System.out.println("End of checking");
+    }
+}
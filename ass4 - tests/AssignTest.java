@@ -0,0 +1,87 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class AssignTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression x = new Var("x");
+        Expression y = new Var("y");
+        Expression z = new Var("z");
+
+        // the substitutions are simultaneous: a swap does not chain
+        Map<String, Expression> swap = new HashMap<>();
+        swap.put("x", y);
+        swap.put("y", x);
+        Expression ex = new Minus(new Pow(x, new Num(2)), new Div(y, new Sin(x)));
+        Expression swapped = ex.assign(swap);
+        if (!swapped.toString().equals("((y^2) - (x / sin(y)))"))
+            System.out.println("#1:Error in " + swapped);
+        if (!swapped.assign(swap).toString().equals(ex.toString()))
+            System.out.println("#2:Error in swapping twice: " + swapped.assign(swap));
+        // the assigned expressions are not assigned into again
+        Map<String, Expression> cycle = new TreeMap<>();
+        cycle.put("x", new Plus(y, new Num(1)));
+        cycle.put("y", new Mult(z, x));
+        cycle.put("z", new Neg(x));
+        Expression cycled = new Log(x, new Plus(y, z)).assign(cycle);
+        if (!cycled.toString().equals("log((y + 1), ((z * x) + (-x)))"))
+            System.out.println("#3:Error in " + cycled);
+        // the one-variable assignments, one after the other, do chain
+        Expression chained = ex.assign("x", y).assign("y", x);
+        if (!chained.toString().equals("((x^2) - (x / sin(x)))"))
+            System.out.println("#4:Error in " + chained);
+        // assigning the variable to itself changes nothing
+        Map<String, Expression> identity = new HashMap<>();
+        identity.put("x", x);
+        if (!ex.assign(identity).toString().equals(ex.toString()))
+            System.out.println("#5:Error in " + ex.assign(identity));
+
+        // the subtrees without any assigned variable are kept as they are
+        Expression constant = new Plus(new Num(1), new Cos(new Num(0)));
+        Expression withZ = new Mult(z, new Num(3));
+        Plus tree = new Plus(new Plus(constant, withZ), new Div(x, constant));
+        Map<String, Expression> onlyX = new HashMap<>();
+        onlyX.put("x", new Num(5));
+        onlyX.put("w", new Num(6));
+        Plus assigned = (Plus) tree.assign(onlyX);
+        Plus left = (Plus) assigned.getLeft();
+        if (assigned.getLeft() != tree.getLeft() || left.getLeft() != constant || left.getRight() != withZ)
+            System.out.println("#6:Error in copying a subtree without assigned variables");
+        if (((Div) assigned.getRight()).getRight() != constant
+                || !assigned.getRight().toString().equals("(5 / (1 + cos(0)))"))
+            System.out.println("#7:Error in " + assigned.getRight());
+        Map<String, Expression> others = new HashMap<>();
+        others.put("w", x);
+        others.put("v", y);
+        if (tree.assign(others) != tree || tree.assign(new HashMap<String, Expression>()) != tree)
+            System.out.println("#8:Error in an assignment of absent variables");
+        Expression two = new Num(2);
+        if (constant.assign(onlyX) != constant || x.assign(others) != x || two.assign(onlyX) != two)
+            System.out.println("#9:Error in leaves without assigned variables");
+
+        // the one-variable assignment returns the expression when nothing changes
+        if (tree.assign("w", x) != tree || constant.assign("x", y) != constant || x.assign("y", z) != x)
+            System.out.println("#10:Error in an assignment of an absent variable");
+        Plus once = (Plus) tree.assign("z", new Num(2));
+        if (((Plus) once.getLeft()).getLeft() != constant || once.getRight() != tree.getRight())
+            System.out.println("#11:Error in copying a subtree without the variable");
+        if (!once.toString().equals("(((1 + cos(0)) + (2 * 3)) + (x / (1 + cos(0))))"))
+            System.out.println("#12:Error in " + once);
+
+        // the same contracts on a tree deeper than the call stack
+        Expression deep = x;
+        for (int i = 0; i < 100000; i++) {
+            deep = new Plus(deep, i == 50000 ? y : new Num(1));
+        }
+        Expression deepSwapped = deep.assign(swap);
+        Map<String, Double> values = new HashMap<>();
+        values.put("x", 10.0);
+        values.put("y", 1000.0);
+        if (deepSwapped.evaluate(values) != 1000 + 10 + 99999)
+            System.out.println("#13:Error in " + deepSwapped.evaluate(values));
+        if (deep.assign(others) != deep || deep.assign("w", x) != deep)
+            System.out.println("#14:Error in a deep assignment of absent variables");
+        System.out.println("End of checking");
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.Collections;
+import java.util.Map;
+
+public class BuilderTest {
+    static Expression rebuild(ExpressionBuilder builder, Expression ex) {
+        if (ex instanceof Num) {
+            return builder.num(((Num) ex).getValue());
+        }
+        if (ex instanceof Var) {
+            return builder.var(((Var) ex).getName());
+        }
+        if (ex instanceof UnaryExpression) {
+            Expression x = rebuild(builder, ((UnaryExpression) ex).getOperand());
+            if (ex instanceof Sin) {
+                return builder.sin(x);
+            }
+            if (ex instanceof Cos) {
+                return builder.cos(x);
+            }
+            return builder.neg(x);
+        }
+        Expression x = rebuild(builder, ((BinaryExpression) ex).getLeft());
+        Expression y = rebuild(builder, ((BinaryExpression) ex).getRight());
+        if (ex instanceof Plus) {
+            return builder.plus(x, y);
+        }
+        if (ex instanceof Minus) {
+            return builder.minus(x, y);
+        }
+        if (ex instanceof Mult) {
+            return builder.mult(x, y);
+        }
+        if (ex instanceof Div) {
+            return builder.div(x, y);
+        }
+        if (ex instanceof Pow) {
+            return builder.pow(x, y);
+        }
+        return builder.log(x, y);
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        ExpressionBuilder b = new ExpressionBuilder(true);
+        Expression ex;
+        ex = b.plus(b.num(2), b.mult(b.num(3), b.num(4)));
+        if (!ex.toString().equals("14"))
+            System.out.println("#1:Error in " + ex);
+        // 0 * x is not 0 when x is infinite or NaN, so it is kept
+        ex = b.mult(b.num(0), b.var("x"));
+        if (!ex.toString().equals("(0x)"))
+            System.out.println("#2:Error in " + ex);
+        ex = b.neg(b.neg(b.var("x")));
+        if (!ex.toString().equals("x"))
+            System.out.println("#3:Error in " + ex);
+        ex = b.plus(b.mult(b.num(1), b.var("x")), b.pow(b.var("y"), b.num(1)));
+        if (!ex.toString().equals("(x + y)"))
+            System.out.println("#4:Error in " + ex);
+        ex = b.minus(b.num(0), b.sin(b.var("x")));
+        if (!ex.toString().equals("(-sin(x))"))
+            System.out.println("#5:Error in " + ex);
+        ex = b.minus(b.var("x"), b.neg(b.var("y")));
+        if (!ex.toString().equals("(x + y)"))
+            System.out.println("#6:Error in " + ex);
+        ex = b.plus(b.sin(b.num(90)), b.log(b.num(2), b.num(8)));
+        if (!ex.toString().equals("4"))
+            System.out.println("#7:Error in " + ex);
+        // undefined constants are kept, so that evaluating them still throws
+        ex = b.div(b.var("x"), b.minus(b.num(2), b.num(2)));
+        if (!ex.toString().equals("(x / 0)"))
+            System.out.println("#8:Error in " + ex);
+        ex = b.pow(b.num(-8), b.num(0.5));
+        if (!(ex instanceof Pow))
+            System.out.println("#9:Error in " + ex);
+        ex = new ExpressionBuilder(false).plus(new Num(1), new Num(2));
+        if (!ex.toString().equals("(1 + 2)"))
+            System.out.println("#10:Error in " + ex);
+        // the rules that hold only for some values are not applied
+        ex = b.mult(b.num(0), b.log(b.num(-1), b.var("x")));
+        if (!ex.toString().equals("(0 * log(-1, x))"))
+            System.out.println("#13:Error in " + ex);
+        try {
+            ex.evaluate(Collections.singletonMap("x", 2.0));
+            System.out.println("#14:Error in an undefined factor of 0");
+        } catch (Exception e) {
+            if (!e.getMessage().startsWith("the logarithm operation is undefined"))
+                System.out.println("#14:Error in " + e.getMessage());
+        }
+        ex = b.mult(b.var("x"), b.num(0));
+        double[] values = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN, -5};
+        for (double value : values) {
+            double expected = new Mult(new Var("x"), new Num(0)).evaluate(Collections.singletonMap("x", value));
+            double folded = ex.evaluate(Collections.singletonMap("x", value));
+            if (Double.doubleToLongBits(folded) != Double.doubleToLongBits(expected))
+                System.out.println("#15:Error in " + ex + " at " + value + ": " + folded);
+        }
+        ex = b.div(b.var("x"), b.var("x"));
+        if (!(ex instanceof Div))
+            System.out.println("#16:Error in " + ex);
+        try {
+            ex.evaluate(Collections.singletonMap("x", 0.0));
+            System.out.println("#17:Error in x / x at 0");
+        } catch (Exception e) {
+            // expected
+        }
+        ex = b.log(b.var("x"), b.var("x"));
+        if (!(ex instanceof Log))
+            System.out.println("#18:Error in " + ex);
+        try {
+            ex.evaluate(Collections.singletonMap("x", -2.0));
+            System.out.println("#19:Error in log(x, x) at -2");
+        } catch (Exception e) {
+            // expected
+        }
+        ex = b.minus(b.var("x"), b.var("x"));
+        try {
+            ex.evaluate();
+            System.out.println("#20:Error in x - x without a value");
+        } catch (Exception e) {
+            // expected
+        }
+        // the neutral constants are still dropped
+        ex = b.div(b.minus(b.mult(b.var("x"), b.num(1)), b.num(0)), b.pow(b.num(1), b.num(1)));
+        if (!ex.toString().equals("x"))
+            System.out.println("#21:Error in " + ex);
+
+        // folded trees evaluate like the trees they replace
+        for (long seed = 0; seed < 300; seed++) {
+            ExpressionGenerator generator = new ExpressionGenerator(seed);
+            generator.setVariables(2);
+            generator.setConstantDensity(0.6);
+            generator.setWeight(Div.class, 1);
+            generator.setWeight(Sin.class, 1);
+            generator.setWeight(Neg.class, 1);
+            Expression original = generator.generate(25);
+            Expression folded = rebuild(b, original);
+            Map<String, Double> assignment = generator.assignment();
+            if (Math.abs(folded.evaluate(assignment) - original.evaluate(assignment)) > 1e-9)
+                System.out.println("#11:Error in seed " + seed + ": " + folded);
+            if (TreeSize.of(folded).getNodes() > TreeSize.of(original).getNodes())
+                System.out.println("#12:Error in seed " + seed + ": " + folded);
+        }
+        System.out.println("End of checking");
+    }
+}
@@ -0,0 +1,306 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class CompilerTest {
+    static String value(Expression ex, Map<String, Double> assignment) {
+        try {
+            return Double.toString(ex.evaluate(assignment));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    static String value(CompiledExpression compiled, Map<String, Double> assignment) {
+        try {
+            return Double.toString(compiled.evaluate(assignment));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        Map<String, Double> assignment = new TreeMap<>();
+        assignment.put("x", 2.0);
+        assignment.put("y", 0.25);
+        assignment.put("e", 2.71);
+        Expression ex;
+        CompiledExpression compiled;
+
+        // compiled programs compute the same values as the tree
+        ex = new Plus(new Mult(new Num(2), new Var("x")), new Sin(new Pow(new Var("y"), new Var("x"))));
+        compiled = compiler.compile(ex);
+        if (!value(compiled, assignment).equals(value(ex, assignment)))
+            System.out.println("#1:Error in " + ex);
+        if (!compiled.getVariables().toString().equals("[x, y]"))
+            System.out.println("#2:Error in " + compiled.getVariables());
+        if (compiled.evaluate(new double[] {2, 0.25}) != ex.evaluate(assignment))
+            System.out.println("#3:Error in " + ex);
+        ex = new Log(new Var("e"), new Div(new Cos(new Var("x")), new Neg(new Var("y"))));
+        if (!value(compiler.compile(ex), assignment).equals(value(ex, assignment)))
+            System.out.println("#4:Error in " + ex);
+        ex = new Minus(new Mult(new Num(-0.0), new Var("x")), new Num(0));
+        if (!value(compiler.compile(ex), assignment).equals(value(ex, assignment)))
+            System.out.println("#5:Error in " + ex);
+
+        // errors have the messages of the tree
+        ex = new Div(new Var("x"), new Minus(new Var("x"), new Num(2)));
+        if (!value(compiler.compile(ex), assignment).equals(value(ex, assignment)))
+            System.out.println("#6:Error in " + ex);
+        ex = new Pow(new Neg(new Var("x")), new Var("y"));
+        if (!value(compiler.compile(ex), assignment).equals(value(ex, assignment)))
+            System.out.println("#7:Error in " + ex);
+        ex = new Plus(new Var("x"), new Var("z"));
+        if (!value(compiler.compile(ex), assignment).equals(value(ex, assignment)))
+            System.out.println("#8:Error in " + ex);
+
+        // specialization folds everything that only depends on bound variables
+        Map<String, Double> bound = new HashMap<>();
+        bound.put("y", 0.25);
+        bound.put("e", 2.71);
+        ex = new Plus(new Mult(new Var("x"), new Log(new Var("e"), new Var("y"))),
+                new Sin(new Pow(new Var("y"), new Num(2))));
+        compiled = compiler.specialize(ex, bound);
+        if (!compiled.getVariables().toString().equals("[x]"))
+            System.out.println("#9:Error in " + compiled.getVariables());
+        if (compiled.getInstructionCount() != 2)
+            System.out.println("#10:Error in " + compiled.getResidual());
+        if (compiled.evaluate(new double[] {2}) != ex.evaluate(assignment))
+            System.out.println("#11:Error in " + compiled.getResidual());
+        bound.put("y", -1.0);
+        assignment.put("y", -1.0);
+        compiled = compiled.specialize(bound);
+        if (!value(compiled, assignment).equals(value(ex, assignment)))
+            System.out.println("#12:Error in " + compiled.getResidual());
+        assignment.put("y", 0.25);
+
+        // batch evaluation
+        ex = new Div(new Num(1), new Var("x"));
+        compiled = compiler.compile(ex);
+        double[][] columns = new double[1][1000];
+        double[] out = new double[1000];
+        for (int i = 0; i < 1000; i++) {
+            columns[0][i] = i + 1;
+        }
+        compiled.evaluate(columns, out);
+        if (out[0] != 1 || out[999] != 1.0 / 1000)
+            System.out.println("#13:Error in " + ex);
+        columns[0][500] = 0;
+        try {
+            compiled.evaluate(columns, out);
+            System.out.println("#14:Error in " + ex);
+        } catch (Exception e) {
+            if (!e.getMessage().equals("math error!"))
+                System.out.println("#14:Error in " + e.getMessage());
+        }
+
+        // random expressions
+        for (long seed = 0; seed < 200; seed++) {
+            ExpressionGenerator generator = new ExpressionGenerator(seed);
+            generator.setVariables(3);
+            generator.setWeight(Div.class, 1);
+            generator.setWeight(Log.class, 1);
+            generator.setWeight(Sin.class, 1);
+            ex = generator.generate(20);
+            Map<String, Double> values = generator.assignment();
+            bound = new HashMap<>();
+            bound.put("x1", values.get("x1"));
+            if (!value(compiler.specialize(ex, bound), values).equals(value(ex, values)))
+                System.out.println("#15:Error in seed " + seed + ": " + ex);
+        }
+
+        // fast trigonometry, compared to Math, whose error grows with the angle
+        if (FastTrig.sin(180) != 0 || FastTrig.cos(-90) != 0 || FastTrig.sin(270) != -1)
+            System.out.println("#16:Error in FastTrig");
+        for (int degrees = -1000; degrees <= 1000; degrees++) {
+            double x = degrees + degrees / 7.0;
+            if (Math.abs(FastTrig.sin(x) - Math.sin(Math.toRadians(x))) > 1e-14
+                    || Math.abs(FastTrig.cos(x) - Math.cos(Math.toRadians(x))) > 1e-14)
+                System.out.println("#17:Error in FastTrig of " + x);
+        }
+        compiler.setFastTrig(true);
+        ex = new Plus(new Sin(new Var("x")), new Cos(new Mult(new Num(3), new Var("x"))));
+        compiled = compiler.compile(ex);
+        columns = new double[1][300];
+        out = new double[300];
+        for (int i = 0; i < 300; i++) {
+            columns[0][i] = i * 1.5;
+        }
+        compiled.evaluate(columns, out);
+        for (int i = 0; i < 300; i++) {
+            assignment.put("x", columns[0][i]);
+            if (Math.abs(out[i] - ex.evaluate(assignment)) > 1e-14
+                    || out[i] != compiled.evaluate(new double[] {columns[0][i]}))
+                System.out.println("#18:Error in " + ex + " at " + columns[0][i]);
+        }
+
+        // sin and cos of the same operand share its evaluation
+        compiler.setFastTrig(false);
+        ex = new Plus(new Sin(new Pow(new Var("x"), new Num(2))), new Cos(new Pow(new Var("x"), new Num(2))));
+        compiled = compiler.compile(ex);
+        if (compiled.getInstructionCount() != 4)
+            System.out.println("#19:Error in " + ex);
+        assignment.put("x", 7.5);
+        if (compiled.evaluate(new double[] {7.5}) != ex.evaluate(assignment))
+            System.out.println("#20:Error in " + ex);
+        ex = new Mult(new Sin(new Mult(new Num(3), new Var("x"))), new Var("x")).differentiate("x");
+        if (!value(compiler.compile(ex), assignment).equals(value(ex, assignment)))
+            System.out.println("#21:Error in " + ex);
+        compiler.setFastTrig(true);
+        compiled = compiler.compile(ex);
+        if (Math.abs(compiled.evaluate(assignment) - ex.evaluate(assignment)) > 1e-12)
+            System.out.println("#22:Error in " + ex);
+        double[] sinCos = new double[2];
+        for (int degrees = -720; degrees <= 720; degrees += 5) {
+            FastTrig.sinCos(degrees + 0.5, sinCos, 0);
+            if (sinCos[0] != FastTrig.sin(degrees + 0.5) || sinCos[1] != FastTrig.cos(degrees + 0.5))
+                System.out.println("#23:Error in FastTrig.sinCos of " + (degrees + 0.5));
+        }
+
+        // logarithms of a constant base
+        compiler.setFastTrig(false);
+        ex = new Plus(new Log(new Num(10), new Var("x")), new Log(new Num(2.5), new Mult(new Var("x"), new Var("x"))));
+        compiled = compiler.compile(ex);
+        for (int i = 1; i < 200; i++) {
+            assignment.put("x", i * 0.37);
+            if (compiled.evaluate(assignment) != ex.evaluate(assignment))
+                System.out.println("#24:Error in " + ex + " at " + i * 0.37);
+        }
+        assignment.put("x", -1.0);
+        if (!value(compiled, assignment).equals(value(ex, assignment)))
+            System.out.println("#25:Error in " + ex);
+        ex = new Log(new Num(1), new Var("x"));
+        if (!value(compiler.compile(ex), assignment).equals(value(ex, assignment)))
+            System.out.println("#26:Error in " + ex);
+        compiler.setFastLog(true);
+        ex = new Log(new Num(10), new Var("x"));
+        compiled = compiler.compile(ex);
+        if (compiled.evaluate(new double[] {1000}) != 3)
+            System.out.println("#27:Error in " + ex);
+        ex = new Log(new Num(3), new Var("x"));
+        compiled = compiler.compile(ex);
+        if (Math.abs(compiled.evaluate(new double[] {81}) - 4) > 1e-15)
+            System.out.println("#28:Error in " + ex);
+
+        // structurally identical subexpressions are computed once
+        compiler.setFastLog(false);
+        ex = new Plus(new Mult(new Var("x"), new Var("x")), new Mult(new Var("x"), new Var("x")));
+        compiled = compiler.compile(ex);
+        if (compiled.getInstructionCount() != 2 || compiled.evaluate(new double[] {3}) != 18)
+            System.out.println("#29:Error in " + ex);
+        ex = new Var("x");
+        for (int i = 0; i < 40; i++) {
+            ex = new Plus(ex, ex);
+        }
+        compiled = compiler.compile(ex);
+        if (compiled.getInstructionCount() != 40 || compiled.evaluate(new double[] {1}) != Math.pow(2, 40))
+            System.out.println("#30:Error in shared sums");
+        for (long seed = 0; seed < 100; seed++) {
+            ExpressionGenerator generator = new ExpressionGenerator(seed);
+            generator.setVariables(2);
+            generator.setWeight(Div.class, 1);
+            generator.setWeight(Pow.class, 1);
+            generator.setWeight(Sin.class, 1);
+            Expression derivative = generator.generate(30).differentiate("x0");
+            compiled = compiler.compile(derivative);
+            Map<String, Double> values = generator.assignment();
+            if (!value(compiled, values).equals(value(derivative, values)))
+                System.out.println("#31:Error in seed " + seed + ": " + derivative);
+            if (compiled.getInstructionCount() * 2 > TreeSize.of(derivative).getNodes())
+                System.out.println("#32:Error in seed " + seed + ": " + compiled.getInstructionCount());
+        }
+
+        // several expressions compiled together share their subexpressions
+        Expression square = new Mult(new Var("x"), new Var("x"));
+        List<Expression> formulas = Arrays.asList(new Plus(square, new Num(1)),
+                new Sin(new Mult(new Var("x"), new Var("x"))), square, new Var("y"));
+        CompiledGroup group = compiler.compileAll(formulas);
+        if (group.size() != 4 || group.getInstructionCount() != 3 || !group.getVariables().toString().equals("[x, y]"))
+            System.out.println("#33:Error in " + formulas);
+        double[] outputs = new double[4];
+        group.evaluate(new double[] {3, 5}, outputs);
+        if (outputs[0] != 10 || outputs[1] != Math.sin(Math.toRadians(9)) || outputs[2] != 9 || outputs[3] != 5)
+            System.out.println("#34:Error in " + Arrays.toString(outputs));
+        for (long seed = 0; seed < 20; seed++) {
+            ExpressionGenerator generator = new ExpressionGenerator(seed);
+            generator.setVariables(3);
+            generator.setWeight(Div.class, 1);
+            generator.setWeight(Log.class, 1);
+            generator.setWeight(Cos.class, 1);
+            Expression shared = generator.generate(8);
+            formulas = new ArrayList<>();
+            int separate = 0;
+            for (int i = 0; i < 30; i++) {
+                Expression formula = i % 2 == 0 ? new Plus(shared, generator.generate(6)) : generator.generate(6);
+                formulas.add(i % 3 == 0 ? formula.differentiate("x0") : formula);
+                separate += compiler.compile(formulas.get(i)).getInstructionCount();
+            }
+            group = compiler.compileAll(formulas);
+            if (group.getInstructionCount() >= separate)
+                System.out.println("#35:Error in seed " + seed + ": " + group.getInstructionCount());
+            outputs = new double[formulas.size()];
+            for (int row = 0; row < 5; row++) {
+                Map<String, Double> values = generator.assignment();
+                String error = null;
+                try {
+                    group.evaluate(values, outputs);
+                } catch (Exception e) {
+                    error = e.getMessage();
+                }
+                for (int i = 0; i < formulas.size(); i++) {
+                    String expected = value(compiler.compile(formulas.get(i)), values);
+                    if (error == null ? !expected.equals(Double.toString(outputs[i]))
+                            : expected.startsWith("error") && !expected.equals("error: " + error)) {
+                        System.out.println("#36:Error in seed " + seed + " formula " + i + ": " + expected);
+                    }
+                    if (error != null && expected.startsWith("error")) {
+                        break;
+                    }
+                }
+            }
+        }
+        formulas = Arrays.asList(new Plus(new Var("x"), new Num(1)), new Div(new Num(1), new Minus(new Var("x"),
+                new Num(2))), new Var("z"));
+        group = compiler.compileAll(formulas);
+        outputs = new double[3];
+        try {
+            group.evaluate(new double[] {2, 0}, outputs);
+            System.out.println("#37:Error in " + formulas);
+        } catch (Exception e) {
+            if (!e.getMessage().equals("math error!") || outputs[0] != 3)
+                System.out.println("#37:Error in " + e.getMessage());
+        }
+        assignment = new TreeMap<>();
+        assignment.put("x", 4.0);
+        try {
+            group.evaluate(assignment, outputs);
+            System.out.println("#38:Error in " + formulas);
+        } catch (Exception e) {
+            if (!e.getMessage().equals("You didn't entered value for this variable") || outputs[1] != 0.5)
+                System.out.println("#38:Error in " + e.getMessage());
+        }
+        // the batches of a group, with and without an undefined row
+        double[][] batch = {{0, 1, 3, 2, 5}, {0, 0, 0, 0, 0}};
+        double[][] rows = new double[3][3];
+        group.evaluate(batch, rows);
+        for (int row = 0; row < 3; row++) {
+            group.evaluate(new double[] {batch[0][row], 0}, outputs);
+            if (rows[0][row] != outputs[0] || rows[1][row] != outputs[1] || rows[2][row] != outputs[2])
+                System.out.println("#39:Error in row " + row + ": " + rows[1][row]);
+        }
+        rows = new double[3][5];
+        try {
+            group.evaluate(batch, rows);
+            System.out.println("#40:Error in " + formulas);
+        } catch (Exception e) {
+            if (!e.getMessage().equals("math error!") || rows[1][2] != 1 || rows[0][3] != 0)
+                System.out.println("#40:Error in " + e.getMessage() + " " + Arrays.toString(rows[1]));
+        }
+        System.out.println("End of checking");
+    }
+}
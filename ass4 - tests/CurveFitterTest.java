@@ -0,0 +1,104 @@
+import java.util.Arrays;
+import java.util.Random;
+
+public class CurveFitterTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression x = new Var("x");
+        // a * e^(b * x) + c
+        Expression model = new Plus(new Mult(new Var("a"), new Pow(new Num(Math.E), new Mult(new Var("b"), x))),
+                new Var("c"));
+        CurveFitter fitter = new CurveFitter(model, Arrays.asList("a", "b", "c"), Arrays.asList("x"));
+        int n = 2000;
+        double[][] data = new double[1][n];
+        double[] observed = new double[n];
+        for (int i = 0; i < n; i++) {
+            data[0][i] = i * 0.005;
+            observed[i] = 2 * Math.exp(-0.5 * data[0][i]) + 1;
+        }
+        Minimum fit = fitter.fit(data, observed, new double[] {1, -0.1, 0});
+        double[] theta = fit.getPoint();
+        if (!fit.isConverged() || Math.abs(theta[0] - 2) > 1e-8 || Math.abs(theta[1] + 0.5) > 1e-8
+                || Math.abs(theta[2] - 1) > 1e-8 || fit.getValue() > 1e-15)
+            System.out.println("#1:Error in " + fit);
+
+        // a line through noisy data is the linear least squares line
+        fitter = new CurveFitter(new Plus(new Mult(new Var("a"), x), new Var("c")), Arrays.asList("a", "c"),
+                Arrays.asList("x"));
+        Random random = new Random(7);
+        double sx = 0;
+        double sy = 0;
+        double sxx = 0;
+        double sxy = 0;
+        for (int i = 0; i < n; i++) {
+            observed[i] = 3 * data[0][i] - 4 + random.nextGaussian() * 0.1;
+            sx += data[0][i];
+            sy += observed[i];
+            sxx += data[0][i] * data[0][i];
+            sxy += data[0][i] * observed[i];
+        }
+        double slope = (n * sxy - sx * sy) / (n * sxx - sx * sx);
+        double intercept = (sy - slope * sx) / n;
+        fit = fitter.fit(data, observed, new double[] {0, 0});
+        theta = fit.getPoint();
+        if (Math.abs(theta[0] - slope) > 1e-9 || Math.abs(theta[1] - intercept) > 1e-9)
+            System.out.println("#2:Error in " + fit + " instead of " + slope + ", " + intercept);
+
+        // two columns, and a parameter that appears only with a column
+        Expression plane = new Div(new Plus(new Mult(new Var("p"), x), new Var("y")), new Var("q"));
+        fitter = new CurveFitter(plane, Arrays.asList("p", "q"), Arrays.asList("x", "y"));
+        double[][] grid = new double[2][100];
+        double[] values = new double[100];
+        for (int i = 0; i < 100; i++) {
+            grid[0][i] = i % 10;
+            grid[1][i] = i / 10;
+            values[i] = (1.5 * grid[0][i] + grid[1][i]) / 4;
+        }
+        fit = fitter.fit(grid, values, new double[] {1, 1});
+        if (Math.abs(fit.getPoint()[0] - 1.5) > 1e-8 || Math.abs(fit.getPoint()[1] - 4) > 1e-8)
+            System.out.println("#3:Error in " + fit);
+
+        // a parameter inside Sin, b * sin(a * t), and a power at negative columns
+        Expression t = new Var("t");
+        fitter = new CurveFitter(new Mult(new Var("b"), new Sin(new Mult(new Var("a"), t))), Arrays.asList("a", "b"),
+                Arrays.asList("t"));
+        double[][] angles = new double[1][200];
+        double[] waves = new double[200];
+        for (int i = 0; i < 200; i++) {
+            angles[0][i] = i * 0.5;
+            waves[i] = 3 * Math.sin(Math.toRadians(2 * angles[0][i]));
+        }
+        fit = fitter.fit(angles, waves, new double[] {1.8, 2.5});
+        if (!fit.isConverged() || Math.abs(fit.getPoint()[0] - 2) > 1e-8 || Math.abs(fit.getPoint()[1] - 3) > 1e-8
+                || fit.getIterations() > 50)
+            System.out.println("#6:Error in " + fit);
+        fitter = new CurveFitter(new Mult(new Var("a"), new Pow(t, new Num(2))), Arrays.asList("a"),
+                Arrays.asList("t"));
+        for (int i = 0; i < 200; i++) {
+            angles[0][i] = i * 0.05 - 5;
+            waves[i] = 1.5 * angles[0][i] * angles[0][i];
+        }
+        fit = fitter.fit(angles, waves, new double[] {1});
+        if (!fit.isConverged() || Math.abs(fit.getPoint()[0] - 1.5) > 1e-10)
+            System.out.println("#7:Error in " + fit);
+
+        // errors
+        fitter = new CurveFitter(new Log(new Var("a"), x), Arrays.asList("a"), Arrays.asList("x"));
+        try {
+            fitter.fit(data, observed, new double[] {1});
+            System.out.println("#4:Error in an undefined model");
+        } catch (Exception e) {
+            if (!e.getMessage().startsWith("the logarithm operation is undefined"))
+                System.out.println("#4:Error in " + e.getMessage());
+        }
+        try {
+            new CurveFitter(model, Arrays.asList("a", "b"), Arrays.asList("x")).fit(data, observed,
+                    new double[] {1, 1});
+            System.out.println("#5:Error in a missing variable");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().equals("no slot for variable c"))
+                System.out.println("#5:Error in " + e.getMessage());
+        }
+        System.out.println("End of checking");
+    }
+}
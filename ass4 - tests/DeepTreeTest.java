@@ -0,0 +1,127 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class DeepTreeTest {
+    static final int DEPTH = 100000;
+    static final int MIXED = 3000;
+
+    static String value(Expression ex, Map<String, Double> assignment) {
+        try {
+            return Double.toString(assignment == null ? ex.evaluate() : ex.evaluate(assignment));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Map<String, Double> assignment = new TreeMap<>();
+        assignment.put("x", 2.0);
+        Expression ex;
+
+        // a left-deep chain of sums
+        ex = new Var("x");
+        for (int i = 0; i < DEPTH; i++) {
+            ex = new Plus(ex, new Num(1));
+        }
+        if (((BaseExpression) ex).getDepth() != DEPTH + 1)
+            System.out.println("#1:Error in getDepth");
+        if (ex.evaluate(assignment) != DEPTH + 2)
+            System.out.println("#2:Error in evaluate");
+        if (!ex.getVariables().toString().equals("[x]"))
+            System.out.println("#3:Error in getVariables");
+        if (ex.toString().length() != 6 * DEPTH + 1)
+            System.out.println("#4:Error in toString");
+        if (ex.assign("y", new Num(3)) != ex)
+            System.out.println("#5:Error in assign");
+        if (ex.assign("x", new Num(3)).evaluate() != DEPTH + 3)
+            System.out.println("#6:Error in assign");
+        if (ex.assign(Collections.singletonMap("x", (Expression) new Num(4))).evaluate() != DEPTH + 4)
+            System.out.println("#7:Error in assign");
+        if (ex.differentiate("x").evaluate(assignment) != 1)
+            System.out.println("#8:Error in differentiate");
+        if (ex.assign("x", new Num(0)).simplify().toString().equals(Integer.toString(DEPTH)) == false)
+            System.out.println("#9:Error in simplify");
+
+        // errors have the messages of the recursive evaluation
+        if (!value(ex, Collections.<String, Double>emptyMap()).equals(
+                "error: You didn't entered value for this variable"))
+            System.out.println("#10:Error in " + value(ex, Collections.<String, Double>emptyMap()));
+        if (!value(ex, null).equals("error: This var has no value"))
+            System.out.println("#11:Error in " + value(ex, null));
+        Expression log = new Log(new Num(1), ex);
+        if (!value(log, assignment).equals("error: the logarithm operation is undefined for"
+                + " numbers that are equal or smaller than 0"))
+            System.out.println("#12:Error in " + value(log, assignment));
+        if (!value(log.assign("x", new Num(2)), null).equals("error: the logarithm operation is undefined for"
+                + " numbers that are equal or smaller than 0, and for base 1"))
+            System.out.println("#13:Error in " + value(log, null));
+        // the denominator is evaluated first, so its error comes first
+        Expression div = new Div(new Log(new Num(-1), ex), new Minus(ex, ex));
+        if (!value(div, assignment).equals("error: math error!"))
+            System.out.println("#14:Error in " + value(div, assignment));
+
+        // a chain of every operator, deeper than the recursive walks go
+        assignment.put("e", Math.E);
+        double expected = 2;
+        ex = new Var("x");
+        for (int i = 0; i < MIXED; i++) {
+            switch (i % 6) {
+                case 0:
+                    ex = new Minus(ex, new Neg(new Num(1)));
+                    expected++;
+                    break;
+                case 1:
+                    ex = new Mult(new Num(1), ex);
+                    break;
+                case 2:
+                    ex = new Div(ex, new Pow(new Num(1), new Var("x")));
+                    break;
+                case 3:
+                    ex = new Plus(new Sin(new Num(0)), ex);
+                    break;
+                case 4:
+                    ex = new Neg(new Neg(ex));
+                    break;
+                default:
+                    ex = new Div(new Mult(ex, new Log(new Num(4), new Num(2))), new Cos(new Num(-60)));
+                    break;
+            }
+        }
+        if (Math.abs(ex.evaluate(assignment) - expected) > 1e-6)
+            System.out.println("#15:Error in evaluate " + ex.evaluate(assignment));
+        if (Math.abs(ex.differentiate("x").evaluate(assignment) - 1) > 1e-6)
+            System.out.println("#16:Error in differentiate");
+        Expression simplified = ex.simplify();
+        if (Math.abs(simplified.evaluate(assignment) - expected) > 1e-6)
+            System.out.println("#17:Error in simplify");
+        if (Math.abs(simplified.assign("x", new Num(2)).simplify().evaluate() - expected) > 1e-6)
+            System.out.println("#18:Error in simplify");
+
+        // simplify takes linear time on chains with variables at every level
+        Expression y = new Var("y");
+        Expression sum = y;
+        Expression difference = y;
+        Expression negation = y;
+        for (int i = 0; i < DEPTH; i++) {
+            sum = new Plus(sum, y);
+            difference = new Minus(difference, new Sin(y));
+            negation = new Neg(new Cos(negation));
+        }
+        long start = System.nanoTime();
+        Expression simplifiedSum = sum.simplify();
+        Expression simplifiedDifference = difference.simplify();
+        Expression simplifiedNegation = negation.simplify();
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > 5000000000L)
+            System.out.println("#19:Error in " + elapsed / 1000000 + " ms to simplify chains");
+        if (TreeSize.of(simplifiedSum).getNodes() != 2 * DEPTH + 1
+                || simplifiedSum.evaluate(Collections.singletonMap("y", 3.0)) != 3.0 * (DEPTH + 1))
+            System.out.println("#20:Error in simplify of a sum");
+        if (TreeSize.of(simplifiedDifference).getNodes() != 3 * DEPTH + 1
+                || TreeSize.of(simplifiedNegation).getNodes() != 2 * DEPTH + 1)
+            System.out.println("#21:Error in simplify of a difference or a negation");
+        System.out.println("End of checking");
+    }
+}
@@ -0,0 +1,81 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class EventTest {
+    static int count(List<RecordedEvent> events, String name) {
+        int count = 0;
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static RecordedEvent first(List<RecordedEvent> events, String name) {
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression x = new Var("x");
+        Expression shallow = new Plus(new Mult(x, new Num(1)), new Sin(new Plus(x, new Num(0))));
+        Expression deep = x;
+        for (int i = 0; i < 2000; i++) {
+            deep = new Plus(deep, new Mult(new Num(2), x));
+        }
+
+        // while the events are disabled nothing is recorded
+        Recording recording = new Recording();
+        recording.start();
+        shallow.simplify();
+        deep.differentiate("x");
+        recording.stop();
+        Path file = Files.createTempFile("events", ".jfr");
+        recording.dump(file);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        if (count(events, "expressions.Simplify") != 0 || count(events, "expressions.Differentiate") != 0)
+            System.out.println("#1:Error in recording disabled events");
+        recording.close();
+
+        // one event per outermost call, however deep the tree
+        recording = new Recording();
+        recording.enable("expressions.Simplify").withThreshold(Duration.ZERO);
+        recording.enable("expressions.Differentiate").withThreshold(Duration.ZERO);
+        recording.start();
+        Expression simplified = shallow.simplify();
+        Expression derivative = deep.differentiate("x");
+        deep.simplify();
+        recording.stop();
+        recording.dump(file);
+        events = RecordingFile.readAllEvents(file);
+        if (count(events, "expressions.Simplify") != 2)
+            System.out.println("#2:Error in " + count(events, "expressions.Simplify") + " simplify events");
+        if (count(events, "expressions.Differentiate") != 1)
+            System.out.println("#3:Error in " + count(events, "expressions.Differentiate")
+                    + " differentiate events");
+        RecordedEvent event = first(events, "expressions.Simplify");
+        if (event == null || event.getInt("inputNodes") != 8 || event.getInt("inputDepth") != 4
+                || event.getInt("outputNodes") != TreeSize.of(simplified).getNodes())
+            System.out.println("#4:Error in " + event);
+        event = first(events, "expressions.Differentiate");
+        if (event == null || !"x".equals(event.getString("variable")) || event.getInt("inputDepth") != 2002
+                || event.getInt("outputNodes") != TreeSize.of(derivative).getNodes())
+            System.out.println("#5:Error in " + event);
+        recording.close();
+
+        Files.delete(file);
+        System.out.println("End of checking");
+    }
+}
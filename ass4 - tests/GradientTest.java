@@ -0,0 +1,187 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class GradientTest {
+    static String value(Expression ex, Map<String, Double> assignment) {
+        try {
+            return Double.toString(ex.evaluate(assignment));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        Expression ex = new Plus(new Mult(new Pow(new Var("x"), new Num(2)), new Var("y")), new Sin(new Var("x")));
+        CompiledGradient gradient = compiler.compileGradient(ex);
+        if (!gradient.getVariables().toString().equals("[x, y]"))
+            System.out.println("#1:Error in " + gradient.getVariables());
+        double[] point = {3, 2};
+        double[] derivatives = new double[2];
+        Map<String, Double> assignment = new TreeMap<>();
+        assignment.put("x", 3.0);
+        assignment.put("y", 2.0);
+        assignment.put("e", Math.E);
+        if (gradient.evaluate(point, derivatives) != ex.evaluate(assignment))
+            System.out.println("#2:Error in value of " + ex);
+        if (derivatives[0] != ExpressionEngine.derivative(ex, "x", false).evaluate(assignment)
+                || derivatives[1] != ExpressionEngine.derivative(ex, "y", false).evaluate(assignment))
+            System.out.println("#3:Error in gradient " + Arrays.toString(derivatives));
+        // the power that the rule of Pow embeds is computed once
+        ex = new Pow(new Var("x"), new Var("y"));
+        gradient = compiler.compileGradient(ex);
+        int separate = compiler.compile(ex).getInstructionCount();
+        for (String var : gradient.getVariables()) {
+            separate += compiler.specialize(ex.differentiate(var), Collections.singletonMap("e", Math.E))
+                    .getInstructionCount();
+        }
+        if (gradient.getInstructionCount() >= separate - 2)
+            System.out.println("#4:Error in " + gradient.getInstructionCount() + " instructions");
+        if (gradient.evaluate(assignment, derivatives) != 9 || derivatives[0] != 6
+                || Math.abs(derivatives[1] - 9 * Math.log(3)) > 1e-12)
+            System.out.println("#5:Error in gradient " + Arrays.toString(derivatives));
+
+        // the values and the errors are the ones of the trees
+        for (long seed = 0; seed < 200; seed++) {
+            ExpressionGenerator generator = new ExpressionGenerator(seed);
+            generator.setVariables(3);
+            generator.setWeight(Div.class, 1);
+            generator.setWeight(Pow.class, 1);
+            generator.setWeight(Log.class, 1);
+            generator.setWeight(Cos.class, 1);
+            ex = generator.generate(12);
+            gradient = compiler.compileGradient(ex, generator.getVariables());
+            derivatives = new double[3];
+            assignment = generator.assignment();
+            assignment.put("e", Math.E);
+            // the first of the value and the derivatives that throws decides the error
+            String[] expected = new String[4];
+            String error = null;
+            for (int i = 0; i < 4; i++) {
+                Expression tree = i == 0 ? ex
+                        : ExpressionEngine.derivative(ex, generator.getVariables().get(i - 1), false);
+                expected[i] = value(tree, assignment);
+                if (error == null && expected[i].startsWith("error")) {
+                    error = expected[i];
+                }
+            }
+            double[] actual = new double[4];
+            try {
+                actual[0] = gradient.evaluate(assignment, derivatives);
+                System.arraycopy(derivatives, 0, actual, 1, 3);
+                for (int i = 0; i < 4; i++) {
+                    if (!expected[i].equals(Double.toString(actual[i])))
+                        System.out.println("#6:Error in seed " + seed + ": " + actual[i] + " instead of " + expected[i]);
+                }
+            } catch (Exception e) {
+                if (!("error: " + e.getMessage()).equals(error))
+                    System.out.println("#7:Error in seed " + seed + ": " + e.getMessage() + " instead of " + error);
+            }
+        }
+        ex = new Div(new Num(1), new Var("x"));
+        try {
+            compiler.compileGradient(ex).evaluate(new double[] {0}, new double[1]);
+            System.out.println("#8:Error in " + ex);
+        } catch (Exception e) {
+            if (!e.getMessage().equals("math error!"))
+                System.out.println("#8:Error in " + e.getMessage());
+        }
+        try {
+            compiler.compileGradient(ex).evaluate(new TreeMap<String, Double>(), new double[1]);
+            System.out.println("#9:Error in " + ex);
+        } catch (Exception e) {
+            if (!e.getMessage().equals("You didn't entered value for this variable"))
+                System.out.println("#9:Error in " + e.getMessage());
+        }
+
+        // the degree factor gives the true derivatives of Sin and Cos
+        compiler.setDegreeFactor(true);
+        Expression x = new Var("x");
+        Expression y = new Var("y");
+        ex = new Mult(new Sin(new Pow(x, new Num(2))), new Cos(new Plus(new Mult(new Num(3), x), y)));
+        gradient = compiler.compileGradient(ex);
+        point = new double[] {7, 20};
+        gradient.evaluate(point, derivatives);
+        for (int i = 0; i < 2; i++) {
+            double h = 1e-5;
+            double[] above = point.clone();
+            double[] below = point.clone();
+            above[i] += h;
+            below[i] -= h;
+            double numeric = (gradient.evaluate(above, new double[2]) - gradient.evaluate(below, new double[2])) / (2 * h);
+            if (Math.abs(derivatives[i] - numeric) > 1e-6)
+                System.out.println("#10:Error in " + derivatives[i] + " instead of " + numeric);
+        }
+        ex = new Plus(new Div(x, y), new Mult(new Neg(x), new Minus(x, y)));
+        if (!ExpressionEngine.differentiateInDegrees(ex, "x").toString().equals(ex.differentiate("x").toString()))
+            System.out.println("#11:Error in " + ExpressionEngine.differentiateInDegrees(ex, "x"));
+        // a chain deeper than the call stack, with a cosine at every level
+        ex = x;
+        for (int i = 0; i < 20000; i++) {
+            ex = new Plus(new Cos(new Num(i)), ex);
+        }
+        assignment = new TreeMap<>();
+        assignment.put("x", 30.0);
+        double chain = Math.cos(Math.toRadians(ex.evaluate(assignment))) * Math.PI / 180;
+        ex = new Sin(ex);
+        if (Math.abs(ExpressionEngine.differentiateInDegrees(ex, "x").evaluate(assignment) - chain) > 1e-15)
+            System.out.println("#12:Error in a deep derivative");
+
+        // the derivatives of powers are defined wherever the powers are
+        compiler.setDegreeFactor(false);
+        Expression distance = new Plus(new Pow(new Minus(x, new Num(3)), new Num(2)),
+                new Pow(new Minus(y, new Num(1)), new Num(2)));
+        gradient = compiler.compileGradient(distance);
+        double[][] points = {{0, 0}, {3, 1}, {-4, -0.5}};
+        for (double[] at : points) {
+            double value = gradient.evaluate(at, derivatives);
+            if (value != (at[0] - 3) * (at[0] - 3) + (at[1] - 1) * (at[1] - 1)
+                    || derivatives[0] != 2 * (at[0] - 3) || derivatives[1] != 2 * (at[1] - 1))
+                System.out.println("#13:Error at " + Arrays.toString(at) + ": " + Arrays.toString(derivatives));
+        }
+        Expression[] powers = {new Pow(x, new Num(3)), new Pow(x, new Num(1)), new Pow(x, new Num(0)),
+            new Pow(x, new Plus(new Num(1), new Num(1))), new Plus(x, new Pow(new Num(-2), new Num(2)))};
+        double[][] expectedAt = {{12, 0}, {1, 1}, {0, 0}, {-4, 0}, {1, 1}};
+        for (int i = 0; i < powers.length; i++) {
+            gradient = compiler.compileGradient(powers[i]);
+            for (int j = 0; j < 2; j++) {
+                double at = j == 0 ? -2 : 0;
+                double[] derivative = new double[1];
+                String error = null;
+                try {
+                    gradient.evaluate(new double[] {at}, derivative);
+                } catch (Exception e) {
+                    error = e.getMessage();
+                }
+                if (i == 2 && j == 0) {
+                    // x^0 is itself undefined at a negative base
+                    if (error == null)
+                        System.out.println("#14:Error in " + powers[i] + " at " + at);
+                } else if (error != null || derivative[0] != expectedAt[i][j])
+                    System.out.println("#15:Error in " + powers[i] + " at " + at + ": " + derivative[0] + " " + error);
+            }
+        }
+        // an exponent with the variable keeps the logarithm of the base
+        gradient = compiler.compileGradient(new Pow(new Num(2), x));
+        if (Math.abs(gradient.evaluate(new double[] {-3}, derivatives) * Math.log(2) - derivatives[0]) > 1e-15)
+            System.out.println("#16:Error in the derivative of 2^x: " + derivatives[0]);
+
+        // a variable e is a variable like any other, not the constant of the rules
+        Expression scaled = new Mult(new Var("e"), new Pow(new Num(2), x));
+        try {
+            compiler.compileGradient(scaled, Collections.singletonList("x"));
+            System.out.println("#17:Error in compiling without a slot for e");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().equals("no slot for variable e"))
+                System.out.println("#17:Error in " + e.getMessage());
+        }
+        gradient = compiler.compileGradient(scaled, Arrays.asList("x", "e"));
+        if (gradient.evaluate(new double[] {3, 5}, derivatives) != 40
+                || Math.abs(derivatives[0] - 40 * Math.log(2)) > 1e-12 || derivatives[1] != 8)
+            System.out.println("#18:Error in " + Arrays.toString(derivatives));
+        System.out.println("End of checking");
+    }
+}
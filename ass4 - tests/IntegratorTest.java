@@ -0,0 +1,79 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class IntegratorTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Integrator integrator = new Integrator();
+        Expression x = new Var("x");
+        double value = integrator.integrate(new Mult(x, x), "x", 0, 1);
+        if (Math.abs(value - 1.0 / 3) > 1e-15)
+            System.out.println("#1:Error in " + value);
+        // Sin works in degrees
+        value = integrator.integrate(new Sin(x), "x", 0, 180);
+        if (Math.abs(value - 360 / Math.PI) > 1e-9)
+            System.out.println("#2:Error in " + value);
+        value = integrator.integrate(new Div(new Num(1), x), "x", 1, Math.E);
+        if (Math.abs(value - 1) > 1e-10)
+            System.out.println("#3:Error in " + value);
+        // the derivative of the square root is unbounded at 0
+        value = integrator.integrate(new Pow(x, new Num(0.5)), "x", 0, 1);
+        if (Math.abs(value - 2.0 / 3) > 1e-9)
+            System.out.println("#4:Error in " + value);
+        value = integrator.integrate(new Pow(x, new Num(0.5)), "x", 1, 0);
+        if (Math.abs(value + 2.0 / 3) > 1e-9)
+            System.out.println("#5:Error in " + value);
+        if (integrator.integrate(x, "x", 2, 2) != 0)
+            System.out.println("#6:Error in an empty interval");
+        Map<String, Double> parameters = new TreeMap<>();
+        parameters.put("a", 3.0);
+        value = integrator.integrate(new Mult(new Var("a"), new Cos(new Mult(new Var("a"), x))),
+                Collections.singletonList("x"), new double[] {0}, new double[] {30}, parameters);
+        if (Math.abs(value - 180 / Math.PI) > 1e-9)
+            System.out.println("#7:Error in " + value);
+
+        // boxes
+        Expression xy = new Mult(x, new Var("y"));
+        value = integrator.integrate(xy, Arrays.asList("x", "y"), new double[] {0, 0}, new double[] {1, 2},
+                parameters);
+        if (Math.abs(value - 1) > 1e-12)
+            System.out.println("#8:Error in " + value);
+        value = integrator.integrate(new Mult(xy, new Var("z")), Arrays.asList("x", "y", "z"),
+                new double[] {0, 0, 1}, new double[] {1, 1, 0}, parameters);
+        if (Math.abs(value + 0.125) > 1e-12)
+            System.out.println("#9:Error in " + value);
+        // the quarter disk, x^2 + y^2 <= 1 as a square root
+        Expression disk = new Pow(new Minus(new Num(1), new Mult(x, x)), new Num(0.5));
+        value = integrator.integrate(new Div(disk, new Plus(new Num(1), new Mult(new Var("y"), new Num(0)))),
+                Arrays.asList("x", "y"), new double[] {0, 0}, new double[] {1, 1}, parameters);
+        if (Math.abs(value - Math.PI / 4) > 1e-9)
+            System.out.println("#10:Error in " + value);
+
+        // errors
+        try {
+            integrator.integrate(new Div(new Num(1), x), "x", -1, 1);
+            System.out.println("#11:Error in an undefined abscissa");
+        } catch (Exception e) {
+            if (!e.getMessage().equals("math error!"))
+                System.out.println("#11:Error in " + e.getMessage());
+        }
+        integrator.setMaxEvaluations(100000);
+        try {
+            integrator.integrate(new Div(new Num(1), x), "x", 0, 1);
+            System.out.println("#12:Error in a divergent integral");
+        } catch (Exception e) {
+            if (!e.getMessage().startsWith("the integral does not converge"))
+                System.out.println("#12:Error in " + e.getMessage());
+        }
+        try {
+            integrator.integrate(xy, "x", 0, 1);
+            System.out.println("#13:Error in a missing variable");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().equals("no slot for variable y"))
+                System.out.println("#13:Error in " + e.getMessage());
+        }
+        System.out.println("End of checking");
+    }
+}
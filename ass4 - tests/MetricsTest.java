@@ -0,0 +1,140 @@
+import java.util.Map;
+import java.util.TreeMap;
+
+public class MetricsTest {
+    static String visits() {
+        StringBuilder visits = new StringBuilder();
+        for (Operator operator : Operator.values()) {
+            long count = ExpressionMetrics.getVisits(operator);
+            if (count != 0) {
+                visits.append(operator).append('=').append(count).append(' ');
+            }
+        }
+        return visits.toString().trim();
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Map<String, Double> assignment = new TreeMap<>();
+        assignment.put("x", 30.0);
+        Expression x = new Var("x");
+        Expression ex = new Mult(new Plus(x, new Num(2)), new Sin(x));
+
+        // the per-operator counters
+        ExpressionMetrics.reset();
+        ex.evaluate(assignment);
+        if (!visits().isEmpty())
+            System.out.println("#1:Error in counting while disabled: " + visits());
+        ExpressionMetrics.enable();
+        if (!ExpressionMetrics.isEnabled())
+            System.out.println("#2:Error in enable");
+        ex.evaluate(assignment);
+        if (!visits().equals("NUM=1 VAR=2 PLUS=1 MULT=1 SIN=1"))
+            System.out.println("#3:Error in " + visits());
+        new Neg(new Div(new Num(1), new Num(4))).evaluate();
+        if (!visits().equals("NUM=3 VAR=2 PLUS=1 MULT=1 DIV=1 SIN=1 NEG=1"))
+            System.out.println("#4:Error in " + visits());
+        try {
+            new Log(new Num(2), new Minus(x, new Num(30))).evaluate(assignment);
+            System.out.println("#5:Error in an undefined logarithm");
+        } catch (Exception e) {
+            if (ExpressionMetrics.getVisits(Operator.LOG) != 1 || ExpressionMetrics.getVisits(Operator.MINUS) != 1)
+                System.out.println("#5:Error in " + visits());
+        }
+        ExpressionMetrics.disable();
+        ex.evaluate(assignment);
+        if (ExpressionMetrics.getVisits(Operator.MULT) != 1)
+            System.out.println("#6:Error in counting after disable: " + visits());
+
+        // the metered expressions
+        Expression metered = ExpressionMetrics.meter(ex);
+        metered.evaluate(assignment);
+        metered.simplify();
+        if (ExpressionMetrics.getEvaluateLatency().getCount() != 0
+                || ExpressionMetrics.getSimplifyLatency().getCount() != 0)
+            System.out.println("#7:Error in timing while disabled");
+        ExpressionMetrics.enable();
+        if (metered.evaluate(assignment) != ex.evaluate(assignment))
+            System.out.println("#8:Error in the value of a metered expression");
+        metered.simplify();
+        metered.differentiate("x");
+        metered.differentiate("x");
+        if (ExpressionMetrics.getEvaluateLatency().getCount() != 1
+                || ExpressionMetrics.getSimplifyLatency().getCount() != 1
+                || ExpressionMetrics.getDifferentiateLatency().getCount() != 2)
+            System.out.println("#9:Error in " + ExpressionMetrics.report());
+        if (!metered.toString().equals(ex.toString()) || !metered.getVariables().equals(ex.getVariables()))
+            System.out.println("#10:Error in " + metered);
+        if (ExpressionMetrics.getVisits(Operator.MULT) != 3)
+            System.out.println("#11:Error in " + visits());
+        try {
+            ExpressionMetrics.meter(new Div(x, new Num(0))).evaluate(assignment);
+            System.out.println("#12:Error in an undefined metered expression");
+        } catch (Exception e) {
+            if (ExpressionMetrics.getEvaluateLatency().getCount() != 2)
+                System.out.println("#12:Error in timing a failed evaluation");
+        }
+        if (!ExpressionMetrics.report().startsWith("visits: NUM="))
+            System.out.println("#13:Error in " + ExpressionMetrics.report());
+
+        // reset
+        ExpressionMetrics.reset();
+        if (!visits().isEmpty() || ExpressionMetrics.getEvaluateLatency().getCount() != 0
+                || ExpressionMetrics.getSimplifyLatency().getCount() != 0
+                || ExpressionMetrics.getDifferentiateLatency().getCount() != 0
+                || ExpressionMetrics.getEvaluateLatency().getMax() != 0)
+            System.out.println("#14:Error in reset: " + ExpressionMetrics.report());
+        if (!ExpressionMetrics.isEnabled())
+            System.out.println("#15:Error in reset disabling the metrics");
+        ExpressionMetrics.disable();
+
+        // the histogram
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (histogram.getCount() != 0 || histogram.getPercentile(50) != 0 || histogram.getMean() != 0)
+            System.out.println("#16:Error in an empty histogram: " + histogram);
+        // durations below 16 nanoseconds are exact
+        for (long nanos = 0; nanos < 16; nanos++) {
+            histogram.record(nanos);
+        }
+        histogram.record(-5);
+        if (histogram.getCount() != 17 || histogram.getPercentile(100) != 15 || histogram.getPercentile(50) != 7)
+            System.out.println("#17:Error in " + histogram);
+        if (histogram.getPercentile(0) != 0 || histogram.getPercentile(10) != 0 || histogram.getPercentile(15) != 1)
+            System.out.println("#18:Error in " + histogram.getPercentile(10) + " " + histogram.getPercentile(15));
+        if (histogram.getMean() != 120.0 / 17)
+            System.out.println("#19:Error in " + histogram.getMean());
+        histogram.reset();
+        if (histogram.getCount() != 0 || histogram.getMax() != 0)
+            System.out.println("#20:Error in reset: " + histogram);
+        // from 16 to 32 the buckets are 2 wide, from 32 to 64 they are 4 wide
+        histogram.record(16);
+        histogram.record(17);
+        histogram.record(18);
+        histogram.record(31);
+        histogram.record(32);
+        histogram.record(100);
+        if (histogram.getPercentile(25) != 17 || histogram.getPercentile(33) != 17
+                || histogram.getPercentile(50) != 19 || histogram.getPercentile(60) != 31)
+            System.out.println("#21:Error in " + histogram.getPercentile(25) + " " + histogram.getPercentile(33)
+                    + " " + histogram.getPercentile(50) + " " + histogram.getPercentile(60));
+        if (histogram.getPercentile(80) != 35 || histogram.getPercentile(100) != 100 || histogram.getMax() != 100)
+            System.out.println("#22:Error in " + histogram.getPercentile(80) + " " + histogram.getPercentile(100));
+        if (!histogram.toString().equals("count=6 mean=36ns p50=19ns p99=100ns max=100ns"))
+            System.out.println("#23:Error in " + histogram);
+        // a bucket is at most 12.5% wide
+        histogram.reset();
+        histogram.record(1000000000L);
+        histogram.record(Long.MAX_VALUE);
+        long p50 = histogram.getPercentile(50);
+        if (p50 < 1000000000L || p50 > 1125000000L || histogram.getPercentile(100) != Long.MAX_VALUE)
+            System.out.println("#24:Error in " + p50 + " " + histogram.getPercentile(100));
+        try {
+            histogram.getPercentile(100.5);
+            System.out.println("#25:Error in a percentile above 100");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().equals("the percentile must be between 0 and 100"))
+                System.out.println("#25:Error in " + e.getMessage());
+        }
+        System.out.println("End of checking");
+    }
+}
@@ -0,0 +1,104 @@
+public class MinimizerTest {
+    static Expression square(Expression ex) {
+        return new Mult(ex, ex);
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression x = new Var("x");
+        Expression y = new Var("y");
+        Expression bowl = new Plus(square(new Minus(x, new Num(3))), new Mult(new Num(10), square(new Plus(y,
+                new Num(1)))));
+        Minimizer minimizer = new Minimizer(bowl);
+        Minimum minimum = minimizer.minimize(new double[] {0, 0});
+        double[] point = minimum.getPoint();
+        if (!minimum.isConverged() || Math.abs(point[0] - 3) > 1e-8 || Math.abs(point[1] + 1) > 1e-8)
+            System.out.println("#1:Error in " + minimum);
+        // the Rosenbrock function
+        Expression rosenbrock = new Plus(square(new Minus(new Num(1), x)),
+                new Mult(new Num(100), square(new Minus(y, square(x)))));
+        minimizer = new Minimizer(rosenbrock);
+        minimum = minimizer.minimize(new double[] {-1.2, 1});
+        point = minimum.getPoint();
+        if (Math.abs(point[0] - 1) > 1e-6 || Math.abs(point[1] - 1) > 1e-6 || minimum.getValue() > 1e-12)
+            System.out.println("#2:Error in " + minimum);
+        if (minimum.getIterations() > 100)
+            System.out.println("#3:Error in " + minimum.getIterations() + " iterations");
+
+        // bounds
+        minimizer = new Minimizer(bowl);
+        minimizer.setBounds(new double[] {0, Double.NEGATIVE_INFINITY}, new double[] {2, Double.POSITIVE_INFINITY});
+        minimum = minimizer.minimize(new double[] {-5, 7});
+        point = minimum.getPoint();
+        if (!minimum.isConverged() || point[0] != 2 || Math.abs(point[1] + 1) > 1e-8)
+            System.out.println("#4:Error in " + minimum);
+        try {
+            minimizer.randomStarts(10, 1);
+            System.out.println("#5:Error in random starts without finite bounds");
+        } catch (IllegalStateException e) {
+            if (!e.getMessage().equals("random starting points need finite bounds for y"))
+                System.out.println("#5:Error in " + e.getMessage());
+        }
+
+        // a double well, whose left minimum is the lower one
+        Expression well = new Plus(square(new Minus(square(x), new Num(4))), x);
+        minimizer = new Minimizer(well);
+        minimizer.setBounds(new double[] {-5}, new double[] {5});
+        Minimum[] minima = minimizer.minimizeAll(minimizer.randomStarts(64, 42));
+        Minimum best = Minimizer.best(minima);
+        if (best == null || Math.abs(best.getPoint()[0] + 2.0312) > 1e-3)
+            System.out.println("#6:Error in " + best);
+        for (int i = 0; i < minima.length; i++) {
+            if (minima[i] == null || Math.abs(Math.abs(minima[i].getPoint()[0]) - 2) > 0.05)
+                System.out.println("#7:Error in start " + i + ": " + minima[i]);
+        }
+
+        // points where the objective is undefined are avoided
+        minimizer = new Minimizer(new Minus(x, new Log(new Num(Math.E), x)));
+        minimum = minimizer.minimize(new double[] {5});
+        if (Math.abs(minimum.getPoint()[0] - 1) > 1e-6 || Math.abs(minimum.getValue() - 1) > 1e-12)
+            System.out.println("#8:Error in " + minimum);
+        try {
+            minimizer.minimize(new double[] {-1});
+            System.out.println("#9:Error in an undefined start");
+        } catch (Exception e) {
+            if (!e.getMessage().startsWith("the logarithm operation is undefined"))
+                System.out.println("#9:Error in " + e.getMessage());
+        }
+
+        // the gradient of Sin and Cos is the one of angles in degrees
+        minimizer = new Minimizer(new Plus(new Cos(x), new Mult(new Num(0.01), x)));
+        minimizer.setBounds(new double[] {90}, new double[] {270});
+        minimum = minimizer.minimize(new double[] {180});
+        double expected = 180 - Math.toDegrees(Math.asin(1.8 / Math.PI));
+        if (!minimum.isConverged() || Math.abs(minimum.getPoint()[0] - expected) > 1e-4
+                || Math.abs(minimum.getValue() - 0.631) > 1e-3)
+            System.out.println("#10:Error in " + minimum);
+
+        // squared distances, whose gradients are defined at non-positive coordinates
+        Expression distance = new Plus(new Pow(new Minus(x, new Num(3)), new Num(2)),
+                new Pow(new Minus(y, new Num(1)), new Num(2)));
+        minimum = new Minimizer(distance).minimize(new double[] {0, 0});
+        point = minimum.getPoint();
+        if (!minimum.isConverged() || Math.abs(point[0] - 3) > 1e-8 || Math.abs(point[1] - 1) > 1e-8)
+            System.out.println("#11:Error in " + minimum);
+        distance = new Plus(new Pow(new Plus(x, new Num(2)), new Num(2)), new Pow(new Plus(y, new Num(5)),
+                new Num(2)));
+        minimizer = new Minimizer(distance);
+        minimum = minimizer.minimize(new double[] {0, 0});
+        point = minimum.getPoint();
+        if (!minimum.isConverged() || Math.abs(point[0] + 2) > 1e-8 || Math.abs(point[1] + 5) > 1e-8)
+            System.out.println("#12:Error in " + minimum);
+        minimizer.setBounds(new double[] {-1, -10}, new double[] {0, 0});
+        minimum = minimizer.minimize(new double[] {0, 0});
+        point = minimum.getPoint();
+        if (!minimum.isConverged() || point[0] != -1 || Math.abs(point[1] + 5) > 1e-8)
+            System.out.println("#13:Error in " + minimum);
+        Expression quartic = new Plus(new Pow(new Plus(x, new Num(1)), new Num(4)), new Pow(y, new Num(2)));
+        minimum = new Minimizer(quartic).minimize(new double[] {-3, -2});
+        point = minimum.getPoint();
+        if (Math.abs(point[0] + 1) > 1e-2 || Math.abs(point[1]) > 1e-8 || minimum.getValue() > 1e-8)
+            System.out.println("#14:Error in " + minimum);
+        System.out.println("End of checking");
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+public class MonteCarloTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        // the summary on its own
+        SampleSummary summary = new SampleSummary();
+        SampleSummary other = new SampleSummary();
+        for (int i = 1; i <= 1000; i++) {
+            summary.add(i);
+            other.add(-i);
+        }
+        if (summary.getCount() != 1000 || summary.getMean() != 500.5)
+            System.out.println("#1:Error in " + summary);
+        if (Math.abs(summary.getVariance() - 1000.0 * 1001 / 12) > 1e-9)
+            System.out.println("#2:Error in " + summary.getVariance());
+        if (Math.abs(summary.getQuantile(0.5) - 500) > 500 * 0.004 || Math.abs(summary.getQuantile(0) - 1) > 0.004
+                || summary.getQuantile(1) != 1000)
+            System.out.println("#3:Error in " + summary);
+        summary.merge(other);
+        if (summary.getCount() != 2000 || Math.abs(summary.getMean()) > 1e-12 || summary.getMin() != -1000)
+            System.out.println("#4:Error in " + summary);
+        if (Math.abs(summary.getVariance() - 2.0 * 1000 * 1001 * 2001 / 6 / 1999) > 1e-6)
+            System.out.println("#5:Error in " + summary.getVariance());
+        if (Math.abs(summary.getQuantile(0.25) + 500) > 500 * 0.004 || summary.getQuantile(0.5) >= 0)
+            System.out.println("#6:Error in " + summary);
+        if (!Double.isNaN(new SampleSummary().getMean()) || !Double.isNaN(new SampleSummary().getQuantile(0.5)))
+            System.out.println("#7:Error in an empty summary");
+
+        // runs
+        MonteCarlo monteCarlo = new MonteCarlo();
+        Expression x = new Var("x");
+        Expression y = new Var("y");
+        Map<String, Distribution> inputs = new TreeMap<>();
+        inputs.put("x", Distribution.normal(2, 3));
+        inputs.put("y", Distribution.uniform(0, 1));
+        int n = 4000000;
+        SampleSummary sum = monteCarlo.run(new Plus(x, y), inputs, n);
+        if (sum.getCount() != n || Math.abs(sum.getMean() - 2.5) > 0.01)
+            System.out.println("#8:Error in " + sum);
+        if (Math.abs(sum.getVariance() - (9 + 1.0 / 12)) > 0.03)
+            System.out.println("#9:Error in " + sum.getVariance());
+        if (Math.abs(sum.getQuantile(0.5) - 2.5) > 0.03)
+            System.out.println("#10:Error in " + sum.getQuantile(0.5));
+        // the same seed gives the same summary, on any pool
+        SampleSummary again = monteCarlo.run(new Plus(x, y), inputs, n);
+        SampleSummary single = new MonteCarlo(new ForkJoinPool(1)).run(new Plus(x, y), inputs, n);
+        if (again.getMean() != sum.getMean() || single.getVariance() != sum.getVariance()
+                || single.getQuantile(0.9) != sum.getQuantile(0.9))
+            System.out.println("#11:Error in " + again + " " + single);
+        monteCarlo.setSeed(1);
+        if (monteCarlo.run(new Plus(x, y), inputs, n).getMean() == sum.getMean())
+            System.out.println("#12:Error in another seed");
+
+        // the product of uniforms, with a parameter; P(a * x * y <= a / 4) = (1 + ln 4) / 4
+        inputs.put("x", Distribution.uniform(0, 1));
+        Map<String, Double> parameters = Collections.singletonMap("a", 10.0);
+        SampleSummary product = monteCarlo.run(new Mult(new Var("a"), new Mult(x, y)), inputs, parameters, n);
+        if (Math.abs(product.getMean() - 2.5) > 0.01)
+            System.out.println("#13:Error in " + product);
+        double q = (1 + Math.log(4)) / 4;
+        if (Math.abs(product.getQuantile(q) - 2.5) > 0.03)
+            System.out.println("#14:Error in " + product.getQuantile(q));
+        // the log-normal and exponential distributions
+        SampleSummary log = monteCarlo.run(x, Collections.singletonMap("x", Distribution.logNormal(0, 0.5)), n);
+        if (Math.abs(log.getMean() - Math.exp(0.125)) > 0.01 || Math.abs(log.getQuantile(0.5) - 1) > 0.01
+                || !(log.getMin() > 0))
+            System.out.println("#15:Error in " + log);
+        SampleSummary exp = monteCarlo.run(x, Collections.singletonMap("x", Distribution.exponential(2)), n);
+        if (Math.abs(exp.getMean() - 2) > 0.01 || Math.abs(exp.getQuantile(0.5) - 2 * Math.log(2)) > 0.02)
+            System.out.println("#16:Error in " + exp);
+        SampleSummary triangle = monteCarlo.run(x,
+                Collections.singletonMap("x", Distribution.triangular(0, 0, 3)), n);
+        if (Math.abs(triangle.getMean() - 1) > 0.01 || triangle.getMax() > 3)
+            System.out.println("#17:Error in " + triangle);
+
+        // errors
+        try {
+            monteCarlo.run(new Log(x, new Num(2)), Collections.singletonMap("x", Distribution.normal(0, 1)), 10);
+            System.out.println("#18:Error in an undefined draw");
+        } catch (Exception e) {
+            if (!e.getMessage().startsWith("the logarithm operation is undefined"))
+                System.out.println("#18:Error in " + e.getMessage());
+        }
+        try {
+            monteCarlo.run(new Plus(x, y), Collections.singletonMap("x", Distribution.normal(0, 1)), 10);
+            System.out.println("#19:Error in a missing variable");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().equals("no slot for variable y"))
+                System.out.println("#19:Error in " + e.getMessage());
+        }
+        try {
+            Distribution.normal(0, 0);
+            System.out.println("#20:Error in a degenerate distribution");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().startsWith("the standard deviation must be positive"))
+                System.out.println("#20:Error in " + e.getMessage());
+        }
+        System.out.println("End of checking");
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class OdeSolverTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression y = new Var("y");
+        // y' = -y
+        OdeSolver solver = new OdeSolver(Collections.<Expression>singletonList(new Neg(y)), "t",
+                Collections.singletonList("y"));
+        double[] end = solver.rk4(0, new double[] {1}, 1, 100);
+        if (Math.abs(end[0] - Math.exp(-1)) > 1e-9)
+            System.out.println("#1:Error in rk4 " + end[0]);
+        end = solver.dormandPrince(0, new double[] {1}, 1);
+        if (Math.abs(end[0] - Math.exp(-1)) > 1e-8)
+            System.out.println("#2:Error in dormandPrince " + end[0]);
+        end = solver.dormandPrince(1, new double[] {Math.exp(-1)}, 0);
+        if (Math.abs(end[0] - 1) > 1e-8)
+            System.out.println("#3:Error in dormandPrince backwards " + end[0]);
+        if (solver.dormandPrince(2, new double[] {3}, 2)[0] != 3)
+            System.out.println("#4:Error in an empty interval");
+
+        // the harmonic oscillator comes back after a period
+        Expression x = new Var("x");
+        Expression v = new Var("v");
+        solver = new OdeSolver(Arrays.asList(v, new Neg(x)), "t", Arrays.asList("x", "v"));
+        solver.setAbsoluteTolerance(1e-12);
+        solver.setRelativeTolerance(1e-12);
+        end = solver.dormandPrince(0, new double[] {1, 0}, 2 * Math.PI);
+        if (Math.abs(end[0] - 1) > 1e-9 || Math.abs(end[1]) > 1e-9)
+            System.out.println("#5:Error in " + Arrays.toString(end));
+        end = solver.rk4(0, new double[] {1, 0}, 2 * Math.PI, 1000);
+        if (Math.abs(end[0] - 1) > 1e-9 || Math.abs(end[1]) > 1e-9)
+            System.out.println("#6:Error in " + Arrays.toString(end));
+
+        // a right-hand side of the time: y' = 3t^2
+        solver = new OdeSolver(Collections.<Expression>singletonList(new Mult(new Num(3), new Mult(new Var("t"),
+                new Var("t")))), "t", Collections.singletonList("y"));
+        end = solver.rk4(0, new double[] {0}, 2, 4);
+        if (Math.abs(end[0] - 8) > 1e-12)
+            System.out.println("#7:Error in " + end[0]);
+
+        // Lotka-Volterra with parameters
+        Map<String, Double> parameters = new TreeMap<>();
+        parameters.put("a", 1.1);
+        parameters.put("b", 0.4);
+        parameters.put("c", 0.4);
+        parameters.put("d", 0.1);
+        Expression prey = new Var("prey");
+        Expression predators = new Var("predators");
+        solver = new OdeSolver(Arrays.asList(
+                new Minus(new Mult(new Var("a"), prey), new Mult(new Var("b"), new Mult(prey, predators))),
+                new Minus(new Mult(new Var("d"), new Mult(prey, predators)), new Mult(new Var("c"), predators))),
+                "t", Arrays.asList("prey", "predators"), parameters);
+        double[] fixed = solver.rk4(0, new double[] {10, 10}, 20, 20000);
+        solver.setAbsoluteTolerance(1e-10);
+        solver.setRelativeTolerance(1e-10);
+        double[] adaptive = solver.dormandPrince(0, new double[] {10, 10}, 20);
+        if (Math.abs(fixed[0] - adaptive[0]) > 1e-6 || Math.abs(fixed[1] - adaptive[1]) > 1e-6)
+            System.out.println("#8:Error in " + Arrays.toString(fixed) + " and " + Arrays.toString(adaptive));
+        double[] derivatives = new double[2];
+        solver.derivatives(0, new double[] {10, 10}, derivatives);
+        if (Math.abs(derivatives[0] + 29) > 1e-12 || Math.abs(derivatives[1] - 6) > 1e-12)
+            System.out.println("#9:Error in " + Arrays.toString(derivatives));
+
+        // errors
+        solver = new OdeSolver(Collections.<Expression>singletonList(new Div(new Num(1), new Minus(new Var("t"),
+                new Num(1)))), "t", Collections.singletonList("y"));
+        try {
+            solver.rk4(0, new double[] {0}, 2, 2);
+            System.out.println("#10:Error in an undefined right-hand side");
+        } catch (Exception e) {
+            if (!e.getMessage().equals("math error!"))
+                System.out.println("#10:Error in " + e.getMessage());
+        }
+        try {
+            new OdeSolver(Arrays.asList(x, v), "t", Collections.singletonList("x"));
+            System.out.println("#11:Error in a mismatched system");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().equals("expected 1 right-hand sides, got 2"))
+                System.out.println("#11:Error in " + e.getMessage());
+        }
+        System.out.println("End of checking");
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.List;
+
+public class OperandsTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression x = new Var("x");
+        Expression y = new Num(2);
+        BinaryExpression[] binaries = {
+            new Plus(x, y), new Minus(x, y), new Mult(x, y), new Div(x, y), new Pow(x, y), new Log(x, y),
+        };
+        for (BinaryExpression binary : binaries) {
+            String name = binary.getClass().getName();
+            if (binary.getLeft() != x || binary.getRight() != y)
+                System.out.println("#1:Error in the operands of " + name);
+            List<Expression> operands = binary.getOperands();
+            if (operands.size() != 2 || operands.get(0) != x || operands.get(1) != y)
+                System.out.println("#2:Error in getOperands of " + name + ": " + operands);
+            // the legacy list is a new list every time, and changing it does
+            // not change the expression
+            operands.set(0, y);
+            operands.add(x);
+            if (binary.getOperands() == operands || binary.getOperands().size() != 2 || binary.getLeft() != x)
+                System.out.println("#3:Error in a shared list of " + name);
+        }
+        UnaryExpression[] unaries = {new Sin(x), new Cos(x), new Neg(x)};
+        for (UnaryExpression unary : unaries) {
+            String name = unary.getClass().getName();
+            if (unary.getOperand() != x)
+                System.out.println("#4:Error in the operand of " + name);
+            List<Expression> operands = unary.getOperands();
+            if (operands.size() != 1 || operands.get(0) != x)
+                System.out.println("#5:Error in getOperands of " + name + ": " + operands);
+            operands.clear();
+            if (unary.getOperands().size() != 1 || unary.getOperand() != x)
+                System.out.println("#6:Error in a shared list of " + name);
+        }
+
+        // the accessors of nested expressions, and of the results of operations
+        Plus sum = new Plus(new Neg(x), new Mult(y, x));
+        if (((Neg) sum.getLeft()).getOperand() != x || ((Mult) sum.getRight()).getLeft() != y
+                || ((Mult) sum.getRight()).getRight() != x)
+            System.out.println("#7:Error in nested operands");
+        Expression assigned = sum.assign("x", new Num(5));
+        if (!(assigned instanceof Plus) || !((Plus) assigned).getLeft().toString().equals("(-5)")
+                || !((Plus) assigned).getOperands().get(1).toString().equals("(2 * 5)"))
+            System.out.println("#8:Error in " + assigned);
+        if (sum.assign("z", new Num(5)) != sum)
+            System.out.println("#9:Error in an unchanged assignment");
+        System.out.println("End of checking");
+    }
+}
@@ -0,0 +1,91 @@
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+public class RebalanceTest {
+    static String value(Expression ex, Map<String, Double> assignment) {
+        try {
+            return Double.toString(ex.evaluate(assignment));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    static String value(ForkJoinEvaluator evaluator, Expression ex, Map<String, Double> assignment) {
+        try {
+            return Double.toString(evaluator.evaluate(ex, assignment));
+        } catch (Exception e) {
+            return "error: " + e.getMessage();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Map<String, Double> assignment = new TreeMap<>();
+        assignment.put("x", 0.1);
+        ExpressionRebalancer rebalancer = new ExpressionRebalancer();
+        Expression ex;
+
+        // a chain of sums becomes a balanced tree, only when selected
+        ex = new Var("x");
+        for (int i = 1; i < 100000; i++) {
+            ex = new Plus(ex, new Var("x"));
+        }
+        if (rebalancer.rebalance(ex) != ex)
+            System.out.println("#1:Error in rebalance");
+        rebalancer.setSums(true);
+        Expression balanced = rebalancer.rebalance(ex);
+        if (((BaseExpression) balanced).getDepth() != 18)
+            System.out.println("#2:Error in depth " + ((BaseExpression) balanced).getDepth());
+        // pairwise summation is closer to the exact sum, 10000
+        double chained = ex.evaluate(assignment);
+        double pairwise = balanced.evaluate(assignment);
+        if (Math.abs(pairwise - 10000) > Math.abs(chained - 10000) || Math.abs(pairwise - 10000) > 1e-9)
+            System.out.println("#3:Error in " + chained + " " + pairwise);
+        if (balanced.toString().length() != ex.toString().length())
+            System.out.println("#4:Error in toString");
+
+        // the terms keep their order, and chains inside terms are rebalanced too
+        ex = new Plus(new Plus(new Plus(new Var("a"), new Sin(new Plus(new Plus(new Var("b"), new Var("c")),
+                new Var("d")))), new Var("e")), new Var("f"));
+        if (!rebalancer.rebalance(ex).toString().equals("((a + sin(((b + c) + d))) + (e + f))"))
+            System.out.println("#5:Error in " + rebalancer.rebalance(ex));
+        ex = new Mult(new Mult(new Mult(new Var("a"), new Var("b")), new Var("c")), new Var("d"));
+        if (rebalancer.rebalance(ex) != ex)
+            System.out.println("#6:Error in " + rebalancer.rebalance(ex));
+        rebalancer.setProducts(true);
+        if (!rebalancer.rebalance(ex).toString().equals("((a * b) * (c * d))"))
+            System.out.println("#7:Error in " + rebalancer.rebalance(ex));
+        ex = new Minus(new Var("a"), new Pow(new Var("b"), new Num(2)));
+        if (rebalancer.rebalance(ex) != ex)
+            System.out.println("#8:Error in " + rebalancer.rebalance(ex));
+
+        // shared subexpressions are rebalanced once
+        Expression shared = new Plus(new Plus(new Var("x"), new Num(1)), new Num(2));
+        for (int i = 0; i < 12; i++) {
+            shared = new Mult(new Sin(shared), new Cos(shared));
+        }
+        if (Math.abs(rebalancer.rebalance(shared).evaluate(assignment) - shared.evaluate(assignment)) > 1e-12)
+            System.out.println("#9:Error in shared expression");
+
+        // the fork/join evaluator computes the values and errors of evaluate()
+        ForkJoinEvaluator evaluator = new ForkJoinEvaluator(new ForkJoinPool(4), 4);
+        if (evaluator.evaluate(balanced, assignment) != pairwise)
+            System.out.println("#10:Error in ForkJoinEvaluator");
+        for (long seed = 0; seed < 100; seed++) {
+            ExpressionGenerator generator = new ExpressionGenerator(seed);
+            generator.setVariables(3);
+            generator.setWeight(Div.class, 1);
+            generator.setWeight(Log.class, 1);
+            generator.setWeight(Sin.class, 1);
+            ex = rebalancer.rebalance(generator.generate(200));
+            Map<String, Double> values = generator.assignment();
+            if (!value(evaluator, ex, values).equals(value(ex, values)))
+                System.out.println("#11:Error in seed " + seed + ": " + ex);
+            values.remove("x1");
+            if (!value(evaluator, ex, values).equals(value(ex, values)))
+                System.out.println("#12:Error in seed " + seed + ": " + ex);
+        }
+        System.out.println("End of checking");
+    }
+}
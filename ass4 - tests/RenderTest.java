@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.util.List;
+
+public class RenderTest {
+    // The string representation as the operators built it before appendTo,
+    // one concatenation per node
+    static String legacy(Expression ex) {
+        if (!(ex instanceof BaseExpression)) {
+            return ex.toString();
+        }
+        List<Expression> operands = ((BaseExpression) ex).getOperands();
+        String x = legacy(operands.get(0));
+        String y = operands.size() > 1 ? legacy(operands.get(1)) : null;
+        if (ex instanceof Plus) {
+            return "(" + x + " + " + y + ")";
+        } else if (ex instanceof Minus) {
+            return "(" + x + " - " + y + ")";
+        } else if (ex instanceof Mult) {
+            if (operands.get(0) instanceof Num && operands.get(1) instanceof Var) {
+                return "(" + x + y + ")";
+            }
+            return "(" + x + " * " + y + ")";
+        } else if (ex instanceof Div) {
+            return "(" + x + " / " + y + ")";
+        } else if (ex instanceof Pow) {
+            return "(" + x + "^" + y + ")";
+        } else if (ex instanceof Log) {
+            return "log(" + x + ", " + y + ")";
+        } else if (ex instanceof Sin) {
+            return "sin(" + x + ")";
+        } else if (ex instanceof Cos) {
+            return "cos(" + x + ")";
+        }
+        return "(-" + x + ")";
+    }
+
+    static String appended(Expression ex) throws IOException {
+        StringBuilder out = new StringBuilder("> ");
+        ex.appendTo(out);
+        return out.substring(2);
+    }
+
+    // An Appendable that fails after a number of characters
+    static class Failing implements Appendable {
+        private int left;
+        private StringBuilder written = new StringBuilder();
+
+        Failing(int left) {
+            this.left = left;
+        }
+
+        public Appendable append(CharSequence csq) throws IOException {
+            for (int i = 0; i < csq.length(); i++) {
+                this.append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            return this.append(csq.subSequence(start, end));
+        }
+
+        public Appendable append(char c) throws IOException {
+            if (this.left-- == 0) {
+                throw new IOException("full after " + this.written);
+            }
+            this.written.append(c);
+            return this;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression x = new Var("x");
+        Expression y = new Var("y");
+        Expression[] all = {
+            new Num(2), new Num(-2.5), x,
+            new Plus(x, new Num(1)), new Minus(x, y), new Mult(x, y), new Mult(new Num(3), x),
+            new Mult(x, new Num(3)), new Div(x, new Num(0.5)), new Pow(x, y), new Log(new Num(2), x),
+            new Sin(x), new Cos(new Num(90)), new Neg(x),
+        };
+        String[] expected = {
+            "2", "-2.5", "x",
+            "(x + 1)", "(x - y)", "(x * y)", "(3x)",
+            "(x * 3)", "(x / 0.5)", "(x^y)", "log(2, x)",
+            "sin(x)", "cos(90)", "(-x)",
+        };
+        for (int i = 0; i < all.length; i++) {
+            if (!all[i].toString().equals(expected[i]) || !appended(all[i]).equals(expected[i]))
+                System.out.println("#1:Error in " + expected[i] + ": " + all[i] + " " + appended(all[i]));
+        }
+
+        // nested negatives and powers
+        Expression ex = new Neg(new Neg(new Neg(new Num(-1))));
+        if (!appended(ex).equals("(-(-(--1)))") || !ex.toString().equals(appended(ex)))
+            System.out.println("#2:Error in " + appended(ex));
+        ex = new Pow(new Pow(x, new Neg(y)), new Pow(new Num(2), new Pow(new Neg(x), new Num(0.5))));
+        if (!appended(ex).equals("((x^(-y))^(2^((-x)^0.5)))") || !ex.toString().equals(appended(ex)))
+            System.out.println("#3:Error in " + appended(ex));
+        ex = new Neg(new Mult(new Num(-3), new Var("z")));
+        if (!appended(ex).equals("(-(-3z))"))
+            System.out.println("#4:Error in " + appended(ex));
+        ex = new Log(new Neg(new Sin(new Pow(x, new Num(2)))), new Cos(new Neg(new Div(x, y))));
+        if (!appended(ex).equals("log((-sin((x^2))), cos((-(x / y))))"))
+            System.out.println("#5:Error in " + appended(ex));
+        if (!appended(ExpressionMetrics.meter(ex)).equals(appended(ex)))
+            System.out.println("#6:Error in a metered expression");
+
+        // random trees of every operator, and a chain deeper than the call stack
+        ExpressionGenerator generator = new ExpressionGenerator(30);
+        for (int i = 0; i < 200; i++) {
+            ex = generator.generate();
+            String legacy = legacy(ex);
+            if (!ex.toString().equals(legacy) || !appended(ex).equals(legacy)) {
+                System.out.println("#7:Error in " + legacy);
+                break;
+            }
+        }
+        ex = x;
+        for (int i = 0; i < 100000; i++) {
+            ex = new Neg(new Pow(ex, new Num(1)));
+        }
+        String deep = appended(ex);
+        if (!deep.equals(ex.toString()) || !deep.startsWith("(-((-((-(") || !deep.endsWith("^1))^1))^1))"))
+            System.out.println("#8:Error in a deep tree");
+
+        // a failing Appendable
+        try {
+            new Plus(x, new Sin(y)).appendTo(new Failing(7));
+            System.out.println("#9:Error in a failing Appendable");
+        } catch (IOException e) {
+            if (!e.getMessage().equals("full after (x + si"))
+                System.out.println("#9:Error in " + e.getMessage());
+        }
+        try {
+            new Num(12345).appendTo(new Failing(3));
+            System.out.println("#10:Error in a failing Appendable");
+        } catch (IOException e) {
+            if (!e.getMessage().equals("full after 123"))
+                System.out.println("#10:Error in " + e.getMessage());
+        }
+        try {
+            ExpressionMetrics.meter(new Var("xyz")).appendTo(new Failing(0));
+            System.out.println("#11:Error in a failing Appendable");
+        } catch (IOException e) {
+            if (!e.getMessage().equals("full after "))
+                System.out.println("#11:Error in " + e.getMessage());
+        }
+        System.out.println("End of checking");
+    }
+}
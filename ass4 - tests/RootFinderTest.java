@@ -0,0 +1,91 @@
+public class RootFinderTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        // x^3 - 2x - 5
+        Expression ex = new Minus(new Minus(new Pow(new Var("x"), new Num(3)), new Mult(new Num(2), new Var("x"))),
+                new Num(5));
+        RootFinder finder = new RootFinder(ex, "x");
+        double root = 2.0945514815423265;
+        if (Math.abs(finder.newton(2) - root) > 1e-12)
+            System.out.println("#1:Error in newton " + finder.newton(2));
+        if (Math.abs(finder.brent(2, 3) - root) > 1e-12)
+            System.out.println("#2:Error in brent " + finder.brent(2, 3));
+        if (Math.abs(finder.solve(-10, 10) - root) > 1e-12)
+            System.out.println("#3:Error in solve " + finder.solve(-10, 10));
+        if (Math.abs(finder.solve(3, 2) - root) > 1e-12)
+            System.out.println("#4:Error in solve " + finder.solve(3, 2));
+        // Sin works in degrees, but its derivative omits the factor of degrees
+        finder = new RootFinder(new Sin(new Var("t")), "t");
+        if (Math.abs(finder.solve(90, 250) - 180) > 1e-6 || Math.abs(finder.brent(90, 250) - 180) > 1e-9)
+            System.out.println("#5:Error in sin " + finder.solve(90, 250));
+        try {
+            finder.brent(10, 20);
+            System.out.println("#6:Error in brent without a bracket");
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().startsWith("[10.0, 20.0] is not a bracket"))
+                System.out.println("#6:Error in " + e.getMessage());
+        }
+        finder = new RootFinder(new Minus(new Mult(new Var("x"), new Var("x")), new Num(1)), "x");
+        try {
+            finder.newton(0);
+            System.out.println("#7:Error in newton with a zero derivative");
+        } catch (IllegalArgumentException e) {
+            System.out.println("#7:Error in " + e.getMessage());
+        } catch (Exception e) {
+            if (!e.getMessage().startsWith("no root found"))
+                System.out.println("#7:Error in " + e.getMessage());
+        }
+        // errors are the ones of the expression
+        finder = new RootFinder(new Log(new Var("e"), new Var("x")), "x");
+        try {
+            finder.newton(-1, Math.E);
+            System.out.println("#8:Error in newton of an undefined point");
+        } catch (Exception e) {
+            if (!e.getMessage().startsWith("the logarithm operation is undefined"))
+                System.out.println("#8:Error in " + e.getMessage());
+        }
+        if (!finder.getParameters().toString().equals("[e]") || Math.abs(finder.solve(0.5, 3, Math.E) - 1) > 1e-12)
+            System.out.println("#9:Error in " + finder.getParameters());
+
+        // the square roots of many parameters, x*x - a
+        finder = new RootFinder(new Minus(new Mult(new Var("x"), new Var("x")), new Var("a")), "x");
+        double[][] rows = new double[1000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new double[] {i - 1};
+        }
+        double[] roots = finder.solveAll(0, 100, rows);
+        if (!Double.isNaN(roots[0]))
+            System.out.println("#10:Error in row 0: " + roots[0]);
+        for (int i = 1; i < rows.length; i++) {
+            if (Math.abs(roots[i] - Math.sqrt(i - 1)) > 1e-10 * (1 + Math.sqrt(i)))
+                System.out.println("#11:Error in row " + i + ": " + roots[i]);
+            if (roots[i] != finder.solve(0, 100, i - 1))
+                System.out.println("#12:Error in row " + i + ": " + roots[i]);
+        }
+
+        // Newton through Sin and Cos, whose derivatives are the ones of degrees
+        Expression x = new Var("x");
+        finder = new RootFinder(new Minus(new Sin(x), new Num(0.5)), "x");
+        root = finder.newton(20);
+        if (Math.abs(root - 30) > 1e-10)
+            System.out.println("#13:Error in " + root);
+        finder = new RootFinder(new Minus(new Cos(new Mult(new Num(2), x)), new Var("c")), "x");
+        root = finder.newton(50, 0.25);
+        if (Math.abs(Math.cos(Math.toRadians(2 * root)) - 0.25) > 1e-12 || Math.abs(root - 37.761243907) > 1e-6)
+            System.out.println("#14:Error in " + root);
+        if (Math.abs(finder.solve(0, 80, 0.25) - root) > 1e-10)
+            System.out.println("#15:Error in " + finder.solve(0, 80, 0.25));
+        // Newton through even powers, at negative and zero iterates
+        finder = new RootFinder(new Minus(new Pow(x, new Num(2)), new Num(2)), "x");
+        root = finder.newton(-1);
+        if (Math.abs(root + Math.sqrt(2)) > 1e-12)
+            System.out.println("#16:Error in " + root);
+        finder = new RootFinder(new Minus(new Pow(x, new Num(4)), new Num(16)), "x");
+        if (Math.abs(finder.newton(-3) + 2) > 1e-12 || Math.abs(finder.solve(-3, 0) + 2) > 1e-12)
+            System.out.println("#17:Error in the roots of x^4 - 16");
+        finder = new RootFinder(new Pow(new Plus(x, new Num(1)), new Num(2)), "x");
+        if (Math.abs(finder.newton(-4) + 1) > 1e-6)
+            System.out.println("#18:Error in " + finder.newton(-4));
+        System.out.println("End of checking");
+    }
+}
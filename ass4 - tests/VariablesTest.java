@@ -0,0 +1,79 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class VariablesTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("Start of checking...");
+        Expression x = new Var("x");
+        Expression y = new Var("y");
+        Expression z = new Var("z");
+
+        // leaves
+        if (!new Num(3).getVariables().isEmpty() || !new Num(3).getVariableSet().isEmpty())
+            System.out.println("#1:Error in the variables of a number");
+        if (!x.getVariables().equals(Collections.singletonList("x")))
+            System.out.println("#2:Error in " + x.getVariables());
+
+        // first occurrence order, without duplicates
+        Expression ex = new Plus(new Mult(z, x), new Minus(new Sin(x), new Pow(y, z)));
+        if (!ex.getVariables().equals(Arrays.asList("z", "x", "y")))
+            System.out.println("#3:Error in " + ex.getVariables());
+        ex = new Log(new Num(2), new Div(new Neg(y), new Plus(y, new Cos(new Plus(x, y)))));
+        if (!ex.getVariables().equals(Arrays.asList("y", "x")))
+            System.out.println("#4:Error in " + ex.getVariables());
+        if (!new Plus(new Num(1), new Num(2)).getVariables().isEmpty())
+            System.out.println("#5:Error in the variables of constants");
+        Set<String> set = ex.getVariableSet();
+        if (set.size() != 2 || !set.contains("x") || set.contains("z") || !set.equals(new TreeSet<>(set)))
+            System.out.println("#6:Error in " + set);
+        try {
+            set.add("z");
+            System.out.println("#7:Error in a modifiable variable set");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        ex.getVariables().add("z");
+        if (ex.getVariables().size() != 2)
+            System.out.println("#8:Error in getVariables sharing the set");
+
+        // two expressions built on the same operand do not see each other's
+        // variables
+        Expression base = new Plus(x, y);
+        Expression left = new Plus(base, z);
+        Expression right = new Plus(base, new Var("w"));
+        Expression both = new Mult(left, right);
+        if (!base.getVariables().equals(Arrays.asList("x", "y"))
+                || !left.getVariables().equals(Arrays.asList("x", "y", "z"))
+                || !right.getVariables().equals(Arrays.asList("x", "y", "w"))
+                || !both.getVariables().equals(Arrays.asList("x", "y", "z", "w")))
+            System.out.println("#9:Error in " + base.getVariables() + " " + left.getVariables() + " "
+                    + right.getVariables() + " " + both.getVariables());
+        if (right.getVariableSet().contains("z") || base.getVariableSet().contains("w")
+                || !left.getVariableSet().containsAll(base.getVariableSet())
+                || right.getVariableSet().containsAll(left.getVariableSet()))
+            System.out.println("#10:Error in the sets of shared operands");
+        Expression swapped = new Plus(z, base);
+        if (!swapped.getVariables().equals(Arrays.asList("z", "x", "y")))
+            System.out.println("#11:Error in " + swapped.getVariables());
+
+        // a chain that adds a variable at every level takes linear time
+        int n = 200000;
+        long start = System.nanoTime();
+        ex = x;
+        for (int i = 0; i < n; i++) {
+            ex = new Plus(ex, new Var("x" + i));
+        }
+        long elapsed = System.nanoTime() - start;
+        if (ex.getVariableSet().size() != n + 1 || !ex.getVariableSet().contains("x" + (n - 1))
+                || !ex.getVariables().get(n).equals("x" + (n - 1)))
+            System.out.println("#12:Error in a chain of " + ex.getVariableSet().size() + " variables");
+        if (elapsed > 5000000000L)
+            System.out.println("#13:Error in " + elapsed / 1000000 + " ms to build a chain");
+        if (!ex.assign("x7", new Num(1)).getVariableSet().contains("x8")
+                || ex.assign("x7", new Num(1)).getVariableSet().contains("x7"))
+            System.out.println("#14:Error in the variables of an assigned chain");
+        System.out.println("End of checking");
+    }
+}
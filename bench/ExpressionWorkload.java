@@ -0,0 +1,92 @@
+// itay alter 206132284
+import benchmarks.Workload;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ExpressionWorkload class builds a random expression of a given shape and
+ * size with the ExpressionGenerator and exposes the Expression operations on it
+ * to the benchmarks. Plus, Mult and Pow are the most common operations, and the
+ * same seed always yields the same expression and assignment.
+ */
+public class ExpressionWorkload implements Workload {
+    private Expression expression;
+    private Map<String, Double> assignment;
+    private Expression replacement;
+    private CompiledExpression compiled;
+    private double[] values;
+    private double[] registers;
+
+    /**
+     * Constructs a workload with a random expression.
+     *
+     * @param shape "random" for a tree of logarithmic depth on average, or
+     *              "chain" for a left-deep chain whose depth equals its size
+     * @param size the number of leaves in the expression
+     * @param variables the number of distinct variables in the expression
+     * @param seed the seed of the random generator
+     */
+    public ExpressionWorkload(String shape, int size, int variables, long seed) {
+        ExpressionGenerator generator = new ExpressionGenerator(seed);
+        generator.setVariables(variables);
+        generator.setWeight(Plus.class, 3);
+        generator.setWeight(Mult.class, 3);
+        generator.setWeight(Pow.class, 2);
+        if (shape.equals("chain")) {
+            this.expression = generator.chain(size);
+        } else if (shape.equals("random")) {
+            this.expression = generator.generate(size);
+        } else {
+            throw new IllegalArgumentException("unknown shape: " + shape);
+        }
+        this.assignment = generator.assignment();
+        this.replacement = new Plus(new Var("x0"), new Num(1));
+        Map<String, Double> bound = new HashMap<>(this.assignment);
+        bound.remove("x0");
+        this.compiled = new ExpressionCompiler().specialize(this.expression, bound);
+        this.values = new double[this.compiled.getVariables().size()];
+        if (this.values.length > 0) {
+            this.values[0] = this.assignment.get("x0");
+        }
+        this.registers = new double[this.compiled.getRegisterCount()];
+    }
+
+    @Override
+    public double evaluate() {
+        try {
+            return this.expression.evaluate(this.assignment);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public double evaluateCompiled() {
+        try {
+            return this.compiled.evaluate(this.values, this.registers);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Object differentiate() {
+        return this.expression.differentiate("x0");
+    }
+
+    @Override
+    public Object simplify() {
+        return this.expression.simplify();
+    }
+
+    @Override
+    public String render() {
+        return this.expression.toString();
+    }
+
+    @Override
+    public Object assign() {
+        return this.expression.assign("x0", this.replacement);
+    }
+}
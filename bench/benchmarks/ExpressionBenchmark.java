@@ -0,0 +1,127 @@
+// itay alter 206132284
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ExpressionBenchmark class measures each Expression operation on random
+ * trees of different sizes, shapes (and therefore depths) and numbers of
+ * variables. Run it through the "bench" target of the build file, which adds
+ * the GC profiler so that the allocation rate is reported next to ns/op. The
+ * operations recurse once per level of the tree, so the forked JVM gets a large
+ * thread stack for the deep "chain" trees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+public class ExpressionBenchmark {
+    /**
+     * The number of leaves in the benchmarked expression.
+     */
+    @Param({"16", "256", "4096"})
+    private int size;
+
+    /**
+     * The shape of the benchmarked expression: "random" trees have a
+     * logarithmic depth on average, and "chain" trees are as deep as they are
+     * large.
+     */
+    @Param({"random", "chain"})
+    private String shape;
+
+    /**
+     * The number of distinct variables in the benchmarked expression.
+     */
+    @Param({"1", "8"})
+    private int variables;
+
+    private Workload workload;
+
+    /**
+     * Builds the workload of the current parameters. The same seed is used
+     * for every fork so that all runs measure the same expression.
+     *
+     * @throws ReflectiveOperationException if the workload cannot be created
+     */
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        this.workload = (Workload) Class.forName("ExpressionWorkload")
+                .getConstructor(String.class, int.class, int.class, long.class)
+                .newInstance(this.shape, this.size, this.variables, 42L);
+    }
+
+    /**
+     * Measures the evaluation of the expression.
+     *
+     * @return the value of the expression
+     */
+    @Benchmark
+    public double evaluate() {
+        return this.workload.evaluate();
+    }
+
+    /**
+     * Measures the evaluation of the specialized, compiled expression.
+     *
+     * @return the value of the expression
+     */
+    @Benchmark
+    public double evaluateCompiled() {
+        return this.workload.evaluateCompiled();
+    }
+
+    /**
+     * Measures the differentiation of the expression.
+     *
+     * @return the derivative of the expression
+     */
+    @Benchmark
+    public Object differentiate() {
+        return this.workload.differentiate();
+    }
+
+    /**
+     * Measures the simplification of the expression.
+     *
+     * @return the simplified expression
+     */
+    @Benchmark
+    public Object simplify() {
+        return this.workload.simplify();
+    }
+
+    /**
+     * Measures the string representation of the expression.
+     *
+     * @return the string representation of the expression
+     */
+    @Benchmark
+    public String render() {
+        return this.workload.render();
+    }
+
+    /**
+     * Measures the assignment of an expression to a variable.
+     *
+     * @return the expression after the assignment
+     */
+    @Benchmark
+    public Object assign() {
+        return this.workload.assign();
+    }
+}
@@ -0,0 +1,55 @@
+// itay alter 206132284
+package benchmarks;
+
+/**
+ * The Workload interface is the bridge between the JMH benchmarks and the
+ * expression classes. JMH refuses to generate code for benchmarks in the
+ * default package, and classes in a named package cannot refer to the
+ * expression classes, so the benchmarks only talk to this interface and the
+ * implementation (which lives in the default package) is loaded by name.
+ */
+public interface Workload {
+    /**
+     * Evaluates the benchmarked expression with the workload's assignment.
+     *
+     * @return the value of the expression
+     */
+    double evaluate();
+
+    /**
+     * Evaluates the benchmarked expression after compiling it with the first
+     * variable of the workload left free and the others bound.
+     *
+     * @return the value of the expression
+     */
+    double evaluateCompiled();
+
+    /**
+     * Differentiates the benchmarked expression with respect to the first
+     * variable of the workload.
+     *
+     * @return the derivative expression
+     */
+    Object differentiate();
+
+    /**
+     * Simplifies the benchmarked expression.
+     *
+     * @return the simplified expression
+     */
+    Object simplify();
+
+    /**
+     * Renders the benchmarked expression as a string.
+     *
+     * @return the string representation of the expression
+     */
+    String render();
+
+    /**
+     * Assigns an expression to the first variable of the workload.
+     *
+     * @return the expression after the assignment
+     */
+    Object assign();
+}
@@ -1,48 +1,369 @@
 // itay alter 206132284
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The BaseExpression class is an abstract class that serves as a base for other
- * expression classes. It provides common functionality and data structure for
- * managing operands in an expression. This class is designed to be extended by
- * other classes that represent specific types of expressions. By inheriting
- * from this class, derived expression classes can benefit from the shared
- * functionality for managing operands.
+ * expression classes. It provides the functionality shared by all operators,
+ * such as the variables of the expression, its rendering and the hooks of the
+ * simplify and differentiate operations. The operands themselves are held in
+ * fields of the derived BinaryExpression and UnaryExpression classes, so
+ * reaching an operand never allocates.
  */
-public abstract class BaseExpression {
-    private List<Expression> operands = new ArrayList<>();
+public abstract class BaseExpression implements Expression {
+    private static final int SIMPLIFY = 0;
+    private static final int DIFFERENTIATE = 1;
+    private static final ThreadLocal<int[]> NESTING = new ThreadLocal<>();
+
+    private Set<String> variables;
+    private int depth;
 
     /**
-     * It is a constructor that takes two expressions as operands and adds them
-     * to the list of operands.
+     * It is a constructor that takes two expressions as operands and computes
+     * the variables of the expression from the variables of the operands.
      *
      * @param x the first expression operand
      * @param y the second expression operand
      */
     public BaseExpression(Expression x, Expression y) {
-        this.operands.add(x);
-        this.operands.add(y);
+        this.variables = union(x.getVariableSet(), y.getVariableSet());
+        this.depth = 1 + Math.max(depthOf(x), depthOf(y));
     }
 
     /**
-     *  It is a constructor that takes a single expression (x) as an operand and
-     *  adds it to the list of operands.
+     *  It is a constructor that takes a single expression (x) as an operand.
+     *  The expression has the same variables as its operand.
      *
      * @param x the expression operand
      */
     public BaseExpression(Expression x) {
-        this.operands.add(x);
+        this.variables = x.getVariableSet();
+        this.depth = 1 + depthOf(x);
     }
 
     /**
-     * Returns a copy of the list of operands in this BaseExpression.
+     * Returns the depth of an operand. Leaves, and expressions that are not
+     * operators, have a depth of 1.
      *
-     * @return a list of Expression operands
+     * @param x the operand
+     * @return the depth of the operand
+     */
+    private static int depthOf(Expression x) {
+        if (x instanceof BaseExpression) {
+            return ((BaseExpression) x).depth;
+        }
+        return 1;
+    }
+
+    /**
+     * Returns whether two operands have the same depth. The simplification
+     * rules that compare the strings of two operands check it first, because
+     * operands of different depths do not render the same (unless a variable
+     * is named like an expression), and rendering
+     * both at every level of a chain would take quadratic time.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @return true if the operands have the same depth
+     */
+    protected static boolean sameDepth(Expression x, Expression y) {
+        return depthOf(x) == depthOf(y);
+    }
+
+    /**
+     * Returns the depth of the expression, the number of nodes on its longest
+     * path from the root to a leaf, which was computed when the expression
+     * was constructed.
+     *
+     * @return the depth of the expression
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Returns whether the expression is too deep to be walked recursively, in
+     * which case its operations are done by the ExpressionEngine.
+     *
+     * @return true if the depth is above ExpressionEngine.MAX_RECURSION_DEPTH
+     */
+    protected boolean isDeep() {
+        return this.depth > ExpressionEngine.MAX_RECURSION_DEPTH;
+    }
+
+    /**
+     * Returns the union of the variables of two operands. When one set already
+     * holds the whole union it is shared instead of copied, which is the
+     * common case of an operand combined with a constant or with variables it
+     * already has, and otherwise the new variables are appended to the
+     * VariableSet of the first operand, in place when nothing was appended to
+     * it before.
+     *
+     * @param x the variables of the first operand
+     * @param y the variables of the second operand
+     * @return the variables of both operands, in the order of first occurrence
+     */
+    private static Set<String> union(Set<String> x, Set<String> y) {
+        return VariableSet.union(x, y);
+    }
+
+    /**
+     * Returns a list of the variables in the expression, copied from the set
+     * computed when the expression was constructed.
+     *
+     * @return a list of the variables
      */
-    public List<Expression> getOperands() {
-        List<Expression> operandsCopy = new ArrayList();
-        operandsCopy.addAll(this.operands);
-        return operandsCopy;
+    public List<String> getVariables() {
+        return new ArrayList<>(this.variables);
     }
+
+    /**
+     * Returns the set of the variables in the expression, which was computed
+     * when the expression was constructed.
+     *
+     * @return the set of the variables
+     */
+    public Set<String> getVariableSet() {
+        return this.variables;
+    }
+
+    /**
+     * Returns whether the expression contains any of the variables that are
+     * keys of the given map. The smaller of the two is scanned.
+     *
+     * @param assignments a map whose keys are variable names
+     * @return true if one of the keys is a variable of the expression
+     */
+    protected boolean hasAnyOf(Map<String, ?> assignments) {
+        if (this.variables.size() <= assignments.size()) {
+            for (String var : this.variables) {
+                if (assignments.containsKey(var)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (String var : assignments.keySet()) {
+            if (this.variables.contains(var)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Simplifies the expression with the simplification rules of the derived
+     * class. A deep expression is simplified by the ExpressionEngine. When the
+     * expressions.Simplify event is enabled in the Java Flight Recorder, calls
+     * that take longer than its threshold are recorded. Only the outermost
+     * call is recorded: the calls on the operands are part of it, and
+     * recording them too would measure the same nodes once per level.
+     *
+     * @return the simplified expression
+     */
+    public Expression simplify() {
+        SimplifyEvent event = new SimplifyEvent();
+        if (!event.isEnabled()) {
+            return this.simplifyUntimed();
+        }
+        int[] nesting = nesting();
+        if (nesting[SIMPLIFY] > 0) {
+            return this.simplifyUntimed();
+        }
+        nesting[SIMPLIFY]++;
+        Expression simplified;
+        event.begin();
+        try {
+            simplified = this.simplifyUntimed();
+        } finally {
+            nesting[SIMPLIFY]--;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.measure(this, simplified);
+            event.commit();
+        }
+        return simplified;
+    }
+
+    /**
+     * Differentiates the expression with the differentiation rule of the
+     * derived class. A deep expression is differentiated by the
+     * ExpressionEngine. When the expressions.Differentiate event is enabled in the
+     * Java Flight Recorder, calls that take longer than its threshold are
+     * recorded, only the outermost one like for simplify().
+     *
+     * @param var the variable with respect to which the derivative is calculated
+     * @return the derivative of the expression
+     */
+    public Expression differentiate(String var) {
+        DifferentiateEvent event = new DifferentiateEvent();
+        if (!event.isEnabled()) {
+            return this.differentiateUntimed(var);
+        }
+        int[] nesting = nesting();
+        if (nesting[DIFFERENTIATE] > 0) {
+            return this.differentiateUntimed(var);
+        }
+        nesting[DIFFERENTIATE]++;
+        Expression derivative;
+        event.begin();
+        try {
+            derivative = this.differentiateUntimed(var);
+        } finally {
+            nesting[DIFFERENTIATE]--;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setVariable(var);
+            event.measure(this, derivative);
+            event.commit();
+        }
+        return derivative;
+    }
+
+    /**
+     * Simplifies the expression, by the ExpressionEngine if it is deep.
+     *
+     * @return the simplified expression
+     */
+    private Expression simplifyUntimed() {
+        return this.isDeep() ? ExpressionEngine.simplify(this) : this.simplifyNode();
+    }
+
+    /**
+     * Differentiates the expression, by the ExpressionEngine if it is deep.
+     *
+     * @param var the variable with respect to which the derivative is calculated
+     * @return the derivative of the expression
+     */
+    private Expression differentiateUntimed(String var) {
+        return this.isDeep() ? ExpressionEngine.differentiate(this, var) : this.differentiateNode(var);
+    }
+
+    /**
+     * Returns the number of simplify() and differentiate() calls of the
+     * current thread that are recording an event. It is only read while one
+     * of the events is enabled.
+     *
+     * @return the counters of the thread, indexed by SIMPLIFY and
+     * DIFFERENTIATE
+     */
+    private static int[] nesting() {
+        int[] nesting = NESTING.get();
+        if (nesting == null) {
+            nesting = new int[2];
+            NESTING.set(nesting);
+        }
+        return nesting;
+    }
+
+    /**
+     * Simplifies the operands of this node recursively, and then this node
+     * with simplifyWith().
+     *
+     * @return the simplified expression
+     */
+    protected abstract Expression simplifyNode();
+
+    /**
+     * Differentiates the operands of this node recursively, and then this node
+     * with differentiateWith().
+     *
+     * @param var the variable with respect to which the derivative is calculated
+     * @return the derivative of the expression
+     */
+    protected abstract Expression differentiateNode(String var);
+
+    /**
+     * Computes the value of this node from the values of its operands, the way
+     * the derived class does it. It is the local rule of evaluate(), which
+     * the ExpressionEngine applies to the nodes of deep expressions.
+     *
+     * @param x the value of the first operand
+     * @param y the value of the second operand, or 0 for a unary expression
+     * @param assigned true if the values come from evaluate(Map), false if
+     * they come from evaluate(); the messages of some errors differ
+     * @return the value of the expression
+     * @throws Exception if the operator is not defined for the values
+     */
+    protected abstract double evaluateWith(double x, double y, boolean assigned) throws Exception;
+
+    /**
+     * Simplifies this node given its simplified operands, the way the derived
+     * class does it. It is the local rule of simplify().
+     *
+     * @param x the simplified first operand
+     * @param y the simplified second operand, or null for a unary expression
+     * @return the simplified expression
+     */
+    protected abstract Expression simplifyWith(Expression x, Expression y);
+
+    /**
+     * Differentiates this node given the derivatives of its operands, the way
+     * the derived class does it. It is the local rule of differentiate().
+     *
+     * @param var the variable with respect to which the derivative is calculated
+     * @param dx the derivative of the first operand
+     * @param dy the derivative of the second operand, or null for a unary
+     * expression
+     * @return the derivative of the expression
+     */
+    protected abstract Expression differentiateWith(String var, Expression dx, Expression dy);
+
+    /**
+     * Appends the string representation of the expression with the
+     * ExpressionRenderer, which writes the prefix, operands and suffix of every
+     * node in a single pass over the tree.
+     *
+     * @param out where to append the representation
+     * @throws IOException if appending to the Appendable fails
+     */
+    public void appendTo(Appendable out) throws IOException {
+        ExpressionRenderer.render(this, out);
+    }
+
+    /**
+     * Returns the string representation of the expression, as written by
+     * appendTo().
+     *
+     * @return the string representation of the expression
+     */
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        try {
+            this.appendTo(out);
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Returns the text written before the operands, e.g. "(" or "sin(".
+     *
+     * @return the prefix of the expression
+     */
+    protected abstract String prefix();
+
+    /**
+     * Returns the text written after the operands, e.g. ")".
+     *
+     * @return the suffix of the expression
+     */
+    protected abstract String suffix();
+
+    /**
+     * Returns a new list of the operands in this BaseExpression. It is kept for
+     * compatibility; the derived classes give direct access to their operands,
+     * which does not allocate.
+     *
+     * @return a list of Expression operands
+     */
+    public abstract List<Expression> getOperands();
 }
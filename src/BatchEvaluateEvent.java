@@ -0,0 +1,38 @@
+// itay alter 206132284
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The BatchEvaluateEvent class is the Java Flight Recorder event of a batch
+ * evaluation of a CompiledExpression that took longer than the threshold. It
+ * is disabled by default, like the other events of the expressions.
+ */
+@Name("expressions.BatchEvaluate")
+@Label("Batch Evaluate")
+@Category("Expressions")
+@Description("Evaluation of a compiled expression over many rows of variables")
+@Enabled(false)
+@Threshold("10 ms")
+public class BatchEvaluateEvent extends Event {
+    @Label("Rows")
+    private int rows;
+
+    @Label("Instructions")
+    private int instructions;
+
+    /**
+     * Sets the size of the evaluation.
+     *
+     * @param rowCount the number of rows that were evaluated
+     * @param instructionCount the number of instructions of the program
+     */
+    public void measure(int rowCount, int instructionCount) {
+        this.rows = rowCount;
+        this.instructions = instructionCount;
+    }
+}
@@ -11,6 +11,9 @@ import java.util.List;
  * expressions.
  */
 public abstract class BinaryExpression extends BaseExpression {
+    private final Expression left;
+    private final Expression right;
+
     /**
      * This is a constructor that takes two expressions as operands and passes
      * them to the superclass constructor to initialize the operands.
@@ -20,25 +23,105 @@ public abstract class BinaryExpression extends BaseExpression {
      */
     public BinaryExpression(Expression x, Expression y) {
         super(x, y);
+        this.left = x;
+        this.right = y;
+    }
+
+    /**
+     * Returns the first operand of the expression.
+     *
+     * @return the left operand
+     */
+    public Expression getLeft() {
+        return this.left;
+    }
+
+    /**
+     * Returns the second operand of the expression.
+     *
+     * @return the right operand
+     */
+    public Expression getRight() {
+        return this.right;
+    }
+
+    /**
+     * Returns a new list holding the two operands, left first.
+     *
+     * @return a list of Expression operands
+     */
+    @Override
+    public List<Expression> getOperands() {
+        List<Expression> operands = new ArrayList<>(2);
+        operands.add(this.left);
+        operands.add(this.right);
+        return operands;
     }
 
     /**
-     * This is a method that returns a list of variables present in the binary
-     * expression. It iterates over the operands and collects the variables from
-     * each operand. The variables are stored in a list. The returned list
-     * contains all the variables present in the binary expression.
+     * Simplifies the operands recursively, and then this node with
+     * simplifyWith(). When simplifyTarget() rewrites the node, the rewritten
+     * expression is simplified instead.
      *
-     * @return a list of variables
+     * @return the simplified expression
      */
-    public List<String> getVariables() {
-        List<String> vars = new ArrayList();
-        vars.add("");
-        for (Expression operand : super.getOperands()) {
-            if (operand.getVariables() != null) {
-                vars.addAll(operand.getVariables());
-            }
+    @Override
+    protected Expression simplifyNode() {
+        Expression target = this.simplifyTarget();
+        if (target != this) {
+            return target.simplify();
         }
-        vars.remove(0);
-        return vars;
+        return this.simplifyWith(this.getLeft().simplify(), this.getRight().simplify());
+    }
+
+    /**
+     * Differentiates the operands recursively, and then this node with
+     * differentiateWith().
+     *
+     * @param var the variable with respect to which the derivative is calculated
+     * @return the derivative of the expression
+     */
+    @Override
+    protected Expression differentiateNode(String var) {
+        return this.differentiateWith(var, this.getLeft().differentiate(var),
+                this.getRight().differentiate(var));
+    }
+
+    /**
+     * Returns the expression whose simplification is the simplification of
+     * this one. It is this expression itself, unless the derived class rewrites
+     * it before simplifying it.
+     *
+     * @return the expression to simplify instead of this one
+     */
+    protected Expression simplifyTarget() {
+        return this;
+    }
+
+    /**
+     * Returns whether the second operand is evaluated before the first one, and
+     * checked with checkRight() before the first one is evaluated at all.
+     *
+     * @return false, unless the derived class overrides it
+     */
+    protected boolean isRightFirst() {
+        return false;
+    }
+
+    /**
+     * Checks the value of the second operand of an expression that evaluates
+     * it first. Nothing is checked unless the derived class overrides it.
+     *
+     * @param y the value of the second operand
+     * @throws Exception if the expression is undefined for this value
+     */
+    protected void checkRight(double y) throws Exception {
     }
+
+    /**
+     * Returns the text written between the two operands, e.g. " + ".
+     *
+     * @return the infix of the expression
+     */
+    protected abstract String infix();
 }
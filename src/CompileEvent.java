@@ -0,0 +1,54 @@
+// itay alter 206132284
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The CompileEvent class is the Java Flight Recorder event of an
+ * ExpressionCompiler call that took longer than the threshold. It is disabled
+ * by default, like the other events of the expressions. The size of the input
+ * is only measured for events that are actually committed.
+ */
+@Name("expressions.Compile")
+@Label("Compile")
+@Category("Expressions")
+@Description("Compilation of an expression into a CompiledExpression")
+@Enabled(false)
+@Threshold("10 ms")
+public class CompileEvent extends Event {
+    @Label("Input Nodes")
+    private int inputNodes;
+
+    @Label("Input Depth")
+    private int inputDepth;
+
+    @Label("Bound Variables")
+    private int boundVariables;
+
+    @Label("Slots")
+    private int slots;
+
+    @Label("Instructions")
+    private int instructions;
+
+    /**
+     * Measures the expression that was compiled and the program it was
+     * compiled into.
+     *
+     * @param input the expression that was compiled
+     * @param bound the number of variables that were bound to constants
+     * @param output the compiled expression
+     */
+    public void measure(Expression input, int bound, CompiledExpression output) {
+        TreeSize in = TreeSize.of(input);
+        this.inputNodes = in.getNodes();
+        this.inputDepth = in.getDepth();
+        this.boundVariables = bound;
+        this.slots = output.getVariables().size();
+        this.instructions = output.getInstructionCount();
+    }
+}
@@ -0,0 +1,568 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CompiledExpression class is an expression compiled by the
+ * ExpressionCompiler into a flat program. The values of the variables are
+ * given by slot, and every instruction applies one operator to two registers
+ * and writes the next register, so evaluating it is a single loop over arrays.
+ *
+ * <p>The results are identical to evaluate(Map) of the expression, unless
+ * the compiler was set to use FastTrig for Sin and Cos or the fast logarithm
+ * of a constant base. When an
+ * instruction is undefined, e.g. a division by zero, the residual expression
+ * is evaluated instead, so the exception and its message are the ones the
+ * expression throws. A CompiledExpression does not change after it is
+ * created and can be shared between threads, as long as every thread uses its
+ * own registers.
+ */
+public final class CompiledExpression {
+    private static final int CHUNK = 256;
+    private static final Operator[] OPERATORS = Operator.values();
+    private static final double INVERSE_LN_10 = 1 / Math.log(10);
+
+    private ExpressionCompiler compiler;
+    private Expression source;
+    private Map<String, Double> bound;
+    private Expression residual;
+    private List<String> variables;
+    private Map<String, Integer> slots = new HashMap<>();
+    private double[] constants;
+    private Operator[] operators;
+    private int[] lefts;
+    private int[] rights;
+    private boolean[] paired;
+    private int result;
+    private boolean fastTrig;
+    private boolean fastLog;
+    private double[] logScales;
+
+    /**
+     * Constructs a compiled expression. Use ExpressionCompiler to create one.
+     *
+     * @param compiler the compiler that created the program
+     * @param source the expression that was compiled
+     * @param bound the values of the variables that were bound when compiling
+     * @param residual the expression after the bound variables were folded
+     * @param variables the variables of the slots
+     * @param constants the constants, which follow the variables in the
+     * registers
+     * @param code three numbers for every instruction: the ordinal of its
+     * operator and the registers of its two operands. The result is the
+     * register of the last instruction, or the register of the variable or the
+     * constant of a residual expression without operators
+     */
+    CompiledExpression(ExpressionCompiler compiler, Expression source, Map<String, Double> bound,
+                       Expression residual, List<String> variables, double[] constants, int[] code) {
+        this.compiler = compiler;
+        this.fastTrig = compiler.isFastTrig();
+        this.fastLog = compiler.isFastLog();
+        this.source = source;
+        this.bound = Collections.unmodifiableMap(bound);
+        this.residual = residual;
+        this.variables = Collections.unmodifiableList(new ArrayList<>(variables));
+        for (String var : variables) {
+            this.slots.put(var, this.slots.size());
+        }
+        this.constants = constants;
+        int count = code.length / 3;
+        this.operators = new Operator[count];
+        this.lefts = new int[count];
+        this.rights = new int[count];
+        for (int i = 0; i < count; i++) {
+            this.operators[i] = OPERATORS[code[3 * i]];
+            this.lefts[i] = code[3 * i + 1];
+            this.rights[i] = code[3 * i + 2];
+        }
+        this.logScales = logScales(variables.size(), constants);
+        // A Sin followed by a Cos of the same register is computed at once
+        this.paired = new boolean[count];
+        for (int i = 0; i + 1 < count; i++) {
+            this.paired[i] = this.operators[i] == Operator.SIN && this.operators[i + 1] == Operator.COS
+                    && this.lefts[i] == this.lefts[i + 1];
+        }
+        if (count > 0) {
+            this.result = variables.size() + constants.length + count - 1;
+        } else if (residual instanceof Var) {
+            this.result = this.slots.get(((Var) residual).getName());
+        } else {
+            this.result = variables.size();
+        }
+    }
+
+    /**
+     * Returns the variables of the slots, in the order of the slots.
+     *
+     * @return the list of the variables
+     */
+    public List<String> getVariables() {
+        return this.variables;
+    }
+
+    /**
+     * Returns the slot of a variable.
+     *
+     * @param var the name of the variable
+     * @return the slot of the variable, or -1 if it has none
+     */
+    public int getSlot(String var) {
+        Integer slot = this.slots.get(var);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Returns the values of the variables that were bound when compiling.
+     *
+     * @return the bound values, by variable name
+     */
+    public Map<String, Double> getBound() {
+        return this.bound;
+    }
+
+    /**
+     * Returns the expression that is evaluated, after the bound variables were
+     * folded into constants.
+     *
+     * @return the residual expression
+     */
+    public Expression getResidual() {
+        return this.residual;
+    }
+
+    /**
+     * Returns the number of instructions of the program.
+     *
+     * @return the number of instructions
+     */
+    public int getInstructionCount() {
+        return this.operators.length;
+    }
+
+    /**
+     * Returns the number of registers evaluate() needs.
+     *
+     * @return the length of the registers
+     */
+    public int getRegisterCount() {
+        return this.variables.size() + this.constants.length + this.operators.length;
+    }
+
+    /**
+     * Compiles the original expression again with other values of the bound
+     * variables, e.g. when the parameters of a formula change.
+     *
+     * @param values the values of the bound variables
+     * @return the new compiled expression
+     */
+    public CompiledExpression specialize(Map<String, Double> values) {
+        return this.compiler.specialize(this.source, values);
+    }
+
+    /**
+     * Evaluates the program with the values of the variables given by slot.
+     *
+     * @param values the values of the variables, indexed by slot
+     * @return the result of the evaluation
+     * @throws Exception if the evaluation is undefined, with the same message
+     * as evaluate(Map) of the expression
+     */
+    public double evaluate(double[] values) throws Exception {
+        return this.evaluate(values, new double[this.getRegisterCount()]);
+    }
+
+    /**
+     * Evaluates the program with the values of the variables given by slot,
+     * using the given registers so that nothing is allocated.
+     *
+     * @param values the values of the variables, indexed by slot
+     * @param registers the registers, at least getRegisterCount() long
+     * @return the result of the evaluation
+     * @throws Exception if the evaluation is undefined, with the same message
+     * as evaluate(Map) of the expression
+     * @throws IllegalArgumentException if there are fewer values than slots or
+     * fewer registers than needed
+     */
+    public double evaluate(double[] values, double[] registers) throws Exception {
+        if (values.length < this.variables.size()) {
+            throw new IllegalArgumentException("expected " + this.variables.size() + " values, got "
+                    + values.length);
+        }
+        if (registers.length < this.getRegisterCount()) {
+            throw new IllegalArgumentException("expected " + this.getRegisterCount() + " registers, got "
+                    + registers.length);
+        }
+        if (this.run(values, registers)) {
+            return registers[this.result];
+        }
+        return this.residual.evaluate(this.assignment(values));
+    }
+
+    /**
+     * Evaluates the program with the values of the variables given by name.
+     *
+     * @param assignment the values of the variables
+     * @return the result of the evaluation
+     * @throws Exception if a variable has no value or the evaluation is
+     * undefined, with the same message as evaluate(Map) of the expression
+     */
+    public double evaluate(Map<String, Double> assignment) throws Exception {
+        double[] values = new double[this.variables.size()];
+        for (int slot = 0; slot < values.length; slot++) {
+            Double value = assignment.get(this.variables.get(slot));
+            if (value == null) {
+                if (this.residual.getVariableSet().contains(this.variables.get(slot))) {
+                    return this.residual.evaluate(assignment);
+                }
+            } else {
+                values[slot] = value;
+            }
+        }
+        return this.evaluate(values);
+    }
+
+    /**
+     * Evaluates the program for many rows of variables at once. The rows are
+     * evaluated in chunks, one instruction over the whole chunk at a time, so
+     * the loops are short and the operators are dispatched once per chunk.
+     *
+     * @param columns the values of the variables, one array of rows per slot
+     * @param out the results, one per row; its length is the number of rows
+     * @throws Exception if the evaluation of a row is undefined, with the same
+     * message as evaluate(Map) of the expression; the rows before it were
+     * already written to out
+     * @throws IllegalArgumentException if there are fewer columns than slots
+     * or a column is shorter than out
+     */
+    public void evaluate(double[][] columns, double[] out) throws Exception {
+        BatchEvaluateEvent event = new BatchEvaluateEvent();
+        event.begin();
+        int row = this.evaluate(columns, out.length, new int[] {this.result}, new double[][] {out});
+        if (row >= 0) {
+            // Evaluate the rows from the first undefined one again, one at a
+            // time, so that a row the residual expression defines gets its
+            // value and one it does not throws its exception
+            double[] values = new double[this.variables.size()];
+            double[] registers = new double[this.getRegisterCount()];
+            for (; row < out.length; row++) {
+                for (int slot = 0; slot < values.length; slot++) {
+                    values[slot] = columns[slot][row];
+                }
+                out[row] = this.evaluate(values, registers);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.measure(out.length, this.operators.length);
+            event.commit();
+        }
+    }
+
+    /**
+     * Evaluates the program for many rows of variables at once, and copies
+     * the given registers of every row to the outputs. The rows are evaluated
+     * in chunks, one instruction over the whole chunk at a time, and a chunk
+     * with an undefined row is evaluated again row by row, up to that row.
+     *
+     * @param columns the values of the variables, one array of rows per slot
+     * @param rows the number of rows
+     * @param results the registers to output
+     * @param outs the outputs, one array of rows per register to output
+     * @return the first undefined row, whose outputs and the ones of the rows
+     * after it were not written, or -1 if every row was defined
+     * @throws IllegalArgumentException if there are fewer columns than slots
+     * or a column is shorter than the number of rows
+     */
+    int evaluate(double[][] columns, int rows, int[] results, double[][] outs) {
+        int slotCount = this.variables.size();
+        if (columns.length < slotCount) {
+            throw new IllegalArgumentException("expected " + slotCount + " columns, got " + columns.length);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (columns[slot].length < rows) {
+                throw new IllegalArgumentException("column " + slot + " has " + columns[slot].length
+                        + " rows, expected " + rows);
+            }
+        }
+        double[][] lanes = new double[this.getRegisterCount()][CHUNK];
+        for (int i = 0; i < this.constants.length; i++) {
+            Arrays.fill(lanes[slotCount + i], this.constants[i]);
+        }
+        for (int from = 0; from < rows; from += CHUNK) {
+            int chunk = Math.min(CHUNK, rows - from);
+            for (int slot = 0; slot < slotCount; slot++) {
+                System.arraycopy(columns[slot], from, lanes[slot], 0, chunk);
+            }
+            boolean defined = true;
+            int base = slotCount + this.constants.length;
+            for (int i = 0; i < this.operators.length; i++) {
+                if (this.paired[i]) {
+                    this.sinCosLane(lanes[this.lefts[i]], lanes[base + i], lanes[base + i + 1], chunk);
+                    i++;
+                } else if (this.logScales[i] != 0) {
+                    defined &= this.logLane(lanes[this.rights[i]], lanes[base + i], chunk, this.logScales[i]);
+                } else {
+                    defined &= lane(this.operators[i], lanes[this.lefts[i]], lanes[this.rights[i]],
+                            lanes[base + i], chunk, this.fastTrig);
+                }
+            }
+            if (defined) {
+                for (int k = 0; k < results.length; k++) {
+                    System.arraycopy(lanes[results[k]], 0, outs[k], from, chunk);
+                }
+                continue;
+            }
+            double[] values = new double[slotCount];
+            double[] registers = new double[this.getRegisterCount()];
+            for (int row = from; row < from + chunk; row++) {
+                for (int slot = 0; slot < slotCount; slot++) {
+                    values[slot] = columns[slot][row];
+                }
+                if (!this.run(values, registers)) {
+                    return row;
+                }
+                for (int k = 0; k < results.length; k++) {
+                    outs[k][row] = registers[results[k]];
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Runs the program once.
+     *
+     * @param values the values of the variables, indexed by slot
+     * @param registers the registers
+     * @return true if every instruction was defined
+     */
+    boolean run(double[] values, double[] registers) {
+        int slotCount = this.variables.size();
+        System.arraycopy(values, 0, registers, 0, slotCount);
+        System.arraycopy(this.constants, 0, registers, slotCount, this.constants.length);
+        int base = slotCount + this.constants.length;
+        for (int i = 0; i < this.operators.length; i++) {
+            double x = registers[this.lefts[i]];
+            double y = registers[this.rights[i]];
+            Operator operator = this.operators[i];
+            if (this.paired[i]) {
+                this.sinCos(x, registers, base + i);
+                i++;
+                continue;
+            }
+            if (this.logScales[i] != 0) {
+                if (y <= 0) {
+                    return false;
+                }
+                registers[base + i] = this.logOf(y, this.logScales[i]);
+                continue;
+            }
+            if (!operator.isDefined(x, y)) {
+                return false;
+            }
+            registers[base + i] = this.fastTrig ? applyFast(operator, x, y) : operator.apply(x, y);
+        }
+        return true;
+    }
+
+    /**
+     * Applies an operator to a chunk of rows. The arithmetic is the same as in
+     * Operator.apply().
+     *
+     * @param operator the operator
+     * @param x the values of the first operand
+     * @param y the values of the second operand
+     * @param z where to write the results
+     * @param rows the number of rows
+     * @param fast whether Sin and Cos use FastTrig
+     * @return true if the operator was defined for all the rows
+     */
+    private static boolean lane(Operator operator, double[] x, double[] y, double[] z, int rows,
+                                boolean fast) {
+        boolean defined = true;
+        switch (operator) {
+            case PLUS:
+                for (int i = 0; i < rows; i++) {
+                    z[i] = 0.0 + x[i] + y[i];
+                }
+                break;
+            case MINUS:
+                for (int i = 0; i < rows; i++) {
+                    z[i] = x[i] - y[i];
+                }
+                break;
+            case MULT:
+                for (int i = 0; i < rows; i++) {
+                    z[i] = (0.0 + x[i]) * y[i];
+                }
+                break;
+            case DIV:
+                for (int i = 0; i < rows; i++) {
+                    defined &= y[i] != 0;
+                    z[i] = x[i] / y[i];
+                }
+                break;
+            case NEG:
+                for (int i = 0; i < rows; i++) {
+                    z[i] = -x[i];
+                }
+                break;
+            case SIN:
+                for (int i = 0; i < rows; i++) {
+                    z[i] = fast ? FastTrig.sin(x[i]) : Math.sin(Math.toRadians(x[i]));
+                }
+                break;
+            case COS:
+                for (int i = 0; i < rows; i++) {
+                    z[i] = fast ? FastTrig.cos(x[i]) : Math.cos(Math.toRadians(x[i]));
+                }
+                break;
+            default:
+                for (int i = 0; i < rows; i++) {
+                    defined &= operator.isDefined(x[i], y[i]);
+                    z[i] = operator.apply(x[i], y[i]);
+                }
+                break;
+        }
+        return defined;
+    }
+
+    /**
+     * Precomputes the logarithms whose base is a constant. Their domain check
+     * is then only that the argument is positive, and the logarithm of the
+     * base is not computed again: in exact mode it is kept, so the result
+     * still divides by the same value as Log does, and in fast mode its
+     * reciprocal is kept, so the division becomes a multiplication. Bases
+     * that are never defined, 1 and the ones that are not positive, are left
+     * to the general instruction.
+     *
+     * @param slotCount the number of slots, which precede the constants
+     * @param constants the constants
+     * @return the scale of every instruction, or 0 for the ones that are not a
+     * logarithm of a constant base
+     */
+    private double[] logScales(int slotCount, double[] constants) {
+        double[] scales = new double[this.operators.length];
+        for (int i = 0; i < scales.length; i++) {
+            int constant = this.lefts[i] - slotCount;
+            if (this.operators[i] != Operator.LOG || constant < 0 || constant >= constants.length) {
+                continue;
+            }
+            double base = constants[constant];
+            if (base > 0 && base != 1 && !Double.isNaN(base)) {
+                scales[i] = this.fastLog ? 1 / Math.log(base) : Math.log(base);
+            }
+        }
+        return scales;
+    }
+
+    /**
+     * Computes the logarithm of a positive argument for a base whose
+     * logarithm is precomputed. In fast mode, logarithms of base 10 use
+     * Math.log10(), which is both faster and more accurate.
+     *
+     * @param y the argument
+     * @param scale the logarithm of the base, or its reciprocal in fast mode
+     * @return the logarithm
+     */
+    private double logOf(double y, double scale) {
+        if (!this.fastLog) {
+            return Math.log(y) / scale;
+        }
+        if (scale == INVERSE_LN_10) {
+            return Math.log10(y);
+        }
+        return Math.log(y) * scale;
+    }
+
+    /**
+     * Computes the logarithms of a chunk of arguments for a base whose
+     * logarithm is precomputed.
+     *
+     * @param y the arguments
+     * @param z where to write the results
+     * @param rows the number of rows
+     * @param scale the logarithm of the base, or its reciprocal in fast mode
+     * @return true if all the arguments were positive
+     */
+    private boolean logLane(double[] y, double[] z, int rows, double scale) {
+        boolean defined = true;
+        for (int i = 0; i < rows; i++) {
+            defined &= !(y[i] <= 0);
+            z[i] = this.logOf(y[i], scale);
+        }
+        return defined;
+    }
+
+    /**
+     * Computes the sine and the cosine of an angle in degrees for a pair of
+     * instructions.
+     *
+     * @param x the angle in degrees
+     * @param out where to write the sine, at index, and the cosine, after it
+     * @param index the register of the sine
+     */
+    private void sinCos(double x, double[] out, int index) {
+        if (this.fastTrig) {
+            FastTrig.sinCos(x, out, index);
+        } else {
+            double radians = Math.toRadians(x);
+            out[index] = Math.sin(radians);
+            out[index + 1] = Math.cos(radians);
+        }
+    }
+
+    /**
+     * Computes the sine and the cosine of a chunk of angles in degrees for a
+     * pair of instructions.
+     *
+     * @param x the angles in degrees
+     * @param sines where to write the sines
+     * @param cosines where to write the cosines
+     * @param rows the number of rows
+     */
+    private void sinCosLane(double[] x, double[] sines, double[] cosines, int rows) {
+        double[] pair = new double[2];
+        for (int i = 0; i < rows; i++) {
+            this.sinCos(x[i], pair, 0);
+            sines[i] = pair[0];
+            cosines[i] = pair[1];
+        }
+    }
+
+    /**
+     * Applies an operator with FastTrig for Sin and Cos.
+     *
+     * @param operator the operator
+     * @param x the value of the first operand
+     * @param y the value of the second operand
+     * @return the value of the operator
+     */
+    private static double applyFast(Operator operator, double x, double y) {
+        if (operator == Operator.SIN) {
+            return FastTrig.sin(x);
+        }
+        if (operator == Operator.COS) {
+            return FastTrig.cos(x);
+        }
+        return operator.apply(x, y);
+    }
+
+    /**
+     * Returns the values of the variables by name.
+     *
+     * @param values the values of the variables, indexed by slot
+     * @return the assignment of the variables
+     */
+    Map<String, Double> assignment(double[] values) {
+        Map<String, Double> assignment = new HashMap<>();
+        for (int slot = 0; slot < this.variables.size(); slot++) {
+            assignment.put(this.variables.get(slot), values[slot]);
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,167 @@
+// itay alter 206132284
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CompiledGradient class is an expression compiled by the
+ * ExpressionCompiler together with its derivatives with respect to each of
+ * its variables, for optimization loops that need the value and the gradient
+ * at every point. One run of the program computes both, and the
+ * subexpressions of the expression that the derivatives repeat are computed
+ * once, instead of once for evaluate() and once more for every
+ * differentiate(var).evaluate().
+ *
+ * <p>The value and every component of the gradient are identical to the ones
+ * of the CompiledExpression of the expression and of its derivative, as
+ * ExpressionEngine.derivative() builds it, whose powers are differentiated so
+ * that they are defined wherever the powers are. When an
+ * instruction is undefined, the value and then the derivatives are evaluated
+ * as trees, so the exception and its message are the ones of the first of
+ * them that throws. A CompiledGradient does not change after it is created
+ * and can be shared between threads, as long as every thread uses its own
+ * registers.
+ */
+public final class CompiledGradient {
+    private CompiledGroup group;
+
+    /**
+     * Constructs a compiled gradient. Use ExpressionCompiler to create one.
+     *
+     * @param group the compiled expression, followed by its derivatives in the
+     * order of the slots
+     */
+    CompiledGradient(CompiledGroup group) {
+        this.group = group;
+    }
+
+    /**
+     * Returns the expression that was compiled.
+     *
+     * @return the expression
+     */
+    public Expression getExpression() {
+        return this.group.getExpressions().get(0);
+    }
+
+    /**
+     * Returns the variables of the slots, which are also the components of
+     * the gradient, in order.
+     *
+     * @return the list of the variables
+     */
+    public List<String> getVariables() {
+        return this.group.getVariables();
+    }
+
+    /**
+     * Returns the number of instructions of the program, for the value and
+     * the gradient together.
+     *
+     * @return the number of instructions
+     */
+    public int getInstructionCount() {
+        return this.group.getInstructionCount();
+    }
+
+    /**
+     * Returns the number of registers evaluate() needs.
+     *
+     * @return the length of the registers
+     */
+    public int getRegisterCount() {
+        return this.group.getRegisterCount();
+    }
+
+    /**
+     * Evaluates the expression and its gradient at a point.
+     *
+     * @param point the values of the variables, indexed by slot
+     * @param gradient where to write the derivative with respect to every
+     * variable, indexed by slot
+     * @return the value of the expression
+     * @throws Exception if the value or a derivative is undefined, with the
+     * same message as evaluate(Map) of the expression or the derivative
+     */
+    public double evaluate(double[] point, double[] gradient) throws Exception {
+        return this.evaluate(point, new double[this.getRegisterCount()], gradient);
+    }
+
+    /**
+     * Evaluates the expression and its gradient at a point, using the given
+     * registers so that nothing is allocated.
+     *
+     * @param point the values of the variables, indexed by slot
+     * @param registers the registers, at least getRegisterCount() long
+     * @param gradient where to write the derivative with respect to every
+     * variable, indexed by slot
+     * @return the value of the expression
+     * @throws Exception if the value or a derivative is undefined, with the
+     * same message as evaluate(Map) of the expression or the derivative
+     * @throws IllegalArgumentException if there are fewer values or gradient
+     * components than slots, or fewer registers than needed
+     */
+    public double evaluate(double[] point, double[] registers, double[] gradient) throws Exception {
+        int slotCount = this.getVariables().size();
+        if (point.length < slotCount) {
+            throw new IllegalArgumentException("expected " + slotCount + " values, got " + point.length);
+        }
+        if (gradient.length < slotCount) {
+            throw new IllegalArgumentException("expected " + slotCount + " gradient components, got "
+                    + gradient.length);
+        }
+        if (registers.length < this.getRegisterCount()) {
+            throw new IllegalArgumentException("expected " + this.getRegisterCount() + " registers, got "
+                    + registers.length);
+        }
+        if (!this.group.run(point, registers)) {
+            return this.evaluateTrees(this.group.assignment(point), gradient);
+        }
+        for (int i = 0; i < slotCount; i++) {
+            gradient[i] = this.group.output(registers, i + 1);
+        }
+        return this.group.output(registers, 0);
+    }
+
+    /**
+     * Evaluates the expression and its gradient with the values of the
+     * variables given by name.
+     *
+     * @param assignment the values of the variables
+     * @param gradient where to write the derivative with respect to every
+     * variable, indexed by slot
+     * @return the value of the expression
+     * @throws Exception if a variable has no value, or the value or a
+     * derivative is undefined, with the same message as evaluate(Map) of the
+     * expression or the derivative
+     */
+    public double evaluate(Map<String, Double> assignment, double[] gradient) throws Exception {
+        List<String> variables = this.getVariables();
+        double[] point = new double[variables.size()];
+        for (int slot = 0; slot < point.length; slot++) {
+            Double value = assignment.get(variables.get(slot));
+            if (value == null) {
+                return this.evaluateTrees(assignment, gradient);
+            }
+            point[slot] = value;
+        }
+        return this.evaluate(point, gradient);
+    }
+
+    /**
+     * Evaluates the residual expression and then its derivatives as trees, so
+     * that the first one that is undefined throws its exception.
+     *
+     * @param assignment the values of the variables
+     * @param gradient where to write the derivatives
+     * @return the value of the expression
+     * @throws Exception if the value or a derivative is undefined
+     */
+    private double evaluateTrees(Map<String, Double> assignment, double[] gradient) throws Exception {
+        List<Expression> residuals = this.group.getResiduals();
+        double value = residuals.get(0).evaluate(assignment);
+        for (int i = 1; i < residuals.size(); i++) {
+            gradient[i - 1] = residuals.get(i).evaluate(assignment);
+        }
+        return value;
+    }
+}
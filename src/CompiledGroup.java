@@ -0,0 +1,279 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CompiledGroup class is a list of expressions compiled by the
+ * ExpressionCompiler into one flat program, with one slot per variable and
+ * one output per expression. The values of the variables are loaded into the
+ * registers once per evaluation, and every subexpression that the
+ * expressions share, by reference or by structure, is computed once, so
+ * evaluating a group of related formulas costs about as much as evaluating
+ * their distinct subexpressions.
+ *
+ * <p>Every output is identical to the one of the CompiledExpression of its
+ * expression. When an instruction is undefined, the residual expressions are
+ * evaluated instead, in order, so the exception and its message are the ones
+ * of the first expression that throws. A CompiledGroup does not change after
+ * it is created and can be shared between threads, as long as every thread
+ * uses its own registers.
+ */
+public final class CompiledGroup {
+    private List<Expression> sources;
+    private List<Expression> residuals;
+    private CompiledExpression program;
+    private int[] results;
+
+    /**
+     * Constructs a compiled group. Use ExpressionCompiler to create one.
+     *
+     * @param sources the expressions that were compiled
+     * @param residuals the expressions after the bound variables were folded
+     * @param program the program that computes all the expressions
+     * @param results the register of the result of every expression
+     */
+    CompiledGroup(List<Expression> sources, List<Expression> residuals, CompiledExpression program,
+                  int[] results) {
+        this.sources = Collections.unmodifiableList(new ArrayList<>(sources));
+        this.residuals = Collections.unmodifiableList(new ArrayList<>(residuals));
+        this.program = program;
+        this.results = results;
+    }
+
+    /**
+     * Returns the number of expressions, which is the number of outputs.
+     *
+     * @return the number of expressions
+     */
+    public int size() {
+        return this.results.length;
+    }
+
+    /**
+     * Returns the expressions that were compiled, in the order of the outputs.
+     *
+     * @return the list of the expressions
+     */
+    public List<Expression> getExpressions() {
+        return this.sources;
+    }
+
+    /**
+     * Returns the expressions that are evaluated, after the bound variables
+     * were folded into constants.
+     *
+     * @return the list of the residual expressions
+     */
+    public List<Expression> getResiduals() {
+        return this.residuals;
+    }
+
+    /**
+     * Returns the variables of the slots, in the order of the slots.
+     *
+     * @return the list of the variables
+     */
+    public List<String> getVariables() {
+        return this.program.getVariables();
+    }
+
+    /**
+     * Returns the slot of a variable.
+     *
+     * @param var the name of the variable
+     * @return the slot of the variable, or -1 if it has none
+     */
+    public int getSlot(String var) {
+        return this.program.getSlot(var);
+    }
+
+    /**
+     * Returns the number of instructions of the program, for all the
+     * expressions together.
+     *
+     * @return the number of instructions
+     */
+    public int getInstructionCount() {
+        return this.program.getInstructionCount();
+    }
+
+    /**
+     * Returns the number of registers evaluate() needs.
+     *
+     * @return the length of the registers
+     */
+    public int getRegisterCount() {
+        return this.program.getRegisterCount();
+    }
+
+    /**
+     * Evaluates all the expressions with the values of the variables given by
+     * slot.
+     *
+     * @param values the values of the variables, indexed by slot
+     * @param out where to write the value of every expression, in order
+     * @throws Exception if the evaluation of an expression is undefined, with
+     * the same message as evaluate(Map) of the expression; the outputs before
+     * it were already written
+     */
+    public void evaluate(double[] values, double[] out) throws Exception {
+        this.evaluate(values, new double[this.getRegisterCount()], out);
+    }
+
+    /**
+     * Evaluates all the expressions with the values of the variables given by
+     * slot, using the given registers so that nothing is allocated.
+     *
+     * @param values the values of the variables, indexed by slot
+     * @param registers the registers, at least getRegisterCount() long
+     * @param out where to write the value of every expression, in order
+     * @throws Exception if the evaluation of an expression is undefined, with
+     * the same message as evaluate(Map) of the expression; the outputs before
+     * it were already written
+     * @throws IllegalArgumentException if there are fewer values than slots,
+     * fewer registers than needed or fewer outputs than expressions
+     */
+    public void evaluate(double[] values, double[] registers, double[] out) throws Exception {
+        int slotCount = this.getVariables().size();
+        if (values.length < slotCount) {
+            throw new IllegalArgumentException("expected " + slotCount + " values, got " + values.length);
+        }
+        if (registers.length < this.getRegisterCount()) {
+            throw new IllegalArgumentException("expected " + this.getRegisterCount() + " registers, got "
+                    + registers.length);
+        }
+        if (out.length < this.results.length) {
+            throw new IllegalArgumentException("expected " + this.results.length + " outputs, got " + out.length);
+        }
+        if (this.run(values, registers)) {
+            for (int i = 0; i < this.results.length; i++) {
+                out[i] = this.output(registers, i);
+            }
+            return;
+        }
+        this.evaluateResiduals(this.assignment(values), out);
+    }
+
+    /**
+     * Evaluates all the expressions with the values of the variables given by
+     * name. Every variable is read from the map once.
+     *
+     * @param assignment the values of the variables
+     * @param out where to write the value of every expression, in order
+     * @throws Exception if a variable has no value or the evaluation of an
+     * expression is undefined, with the same message as evaluate(Map) of the
+     * expression; the outputs before it were already written
+     * @throws IllegalArgumentException if there are fewer outputs than
+     * expressions
+     */
+    public void evaluate(Map<String, Double> assignment, double[] out) throws Exception {
+        List<String> variables = this.getVariables();
+        double[] values = new double[variables.size()];
+        for (int slot = 0; slot < values.length; slot++) {
+            Double value = assignment.get(variables.get(slot));
+            if (value == null) {
+                if (out.length < this.results.length) {
+                    throw new IllegalArgumentException("expected " + this.results.length + " outputs, got "
+                            + out.length);
+                }
+                this.evaluateResiduals(assignment, out);
+                return;
+            }
+            values[slot] = value;
+        }
+        this.evaluate(values, out);
+    }
+
+    /**
+     * Evaluates all the expressions for many rows of variables at once, like
+     * evaluate(double[][], double[]) of CompiledExpression.
+     *
+     * @param columns the values of the variables, one array of rows per slot
+     * @param out where to write the values of every expression, one array of
+     * rows per expression; the length of the first is the number of rows
+     * @throws Exception if the evaluation of an expression is undefined at a
+     * row, with the same message as evaluate(Map) of the first expression
+     * that is undefined there; the rows before it were already written
+     * @throws IllegalArgumentException if there are fewer columns than slots,
+     * fewer outputs than expressions, or a column or an output is shorter
+     * than the first output
+     */
+    public void evaluate(double[][] columns, double[][] out) throws Exception {
+        if (out.length < this.results.length) {
+            throw new IllegalArgumentException("expected " + this.results.length + " outputs, got " + out.length);
+        }
+        int rows = out[0].length;
+        for (int i = 0; i < this.results.length; i++) {
+            if (out[i].length < rows) {
+                throw new IllegalArgumentException("output " + i + " has " + out[i].length + " rows, expected "
+                        + rows);
+            }
+        }
+        int row = this.program.evaluate(columns, rows, this.results, out);
+        if (row >= 0) {
+            // Evaluate the rows from the first undefined one again, one at a
+            // time, like evaluate(double[], double[], double[])
+            double[] values = new double[this.getVariables().size()];
+            double[] registers = new double[this.getRegisterCount()];
+            double[] outputs = new double[this.results.length];
+            for (; row < rows; row++) {
+                for (int slot = 0; slot < values.length; slot++) {
+                    values[slot] = columns[slot][row];
+                }
+                this.evaluate(values, registers, outputs);
+                for (int i = 0; i < outputs.length; i++) {
+                    out[i][row] = outputs[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the program once.
+     *
+     * @param values the values of the variables, indexed by slot
+     * @param registers the registers, at least getRegisterCount() long
+     * @return true if every instruction was defined, and the outputs can be
+     * read with output()
+     */
+    boolean run(double[] values, double[] registers) {
+        return this.program.run(values, registers);
+    }
+
+    /**
+     * Returns an output of a successful run.
+     *
+     * @param registers the registers of the run
+     * @param index the index of the expression
+     * @return the value of the expression
+     */
+    double output(double[] registers, int index) {
+        return registers[this.results[index]];
+    }
+
+    /**
+     * Returns the values of the variables by name.
+     *
+     * @param values the values of the variables, indexed by slot
+     * @return the assignment of the variables
+     */
+    Map<String, Double> assignment(double[] values) {
+        return this.program.assignment(values);
+    }
+
+    /**
+     * Evaluates the residual expressions one by one, so that the first one
+     * that is undefined throws its exception.
+     *
+     * @param assignment the values of the variables
+     * @param out where to write the value of every expression, in order
+     * @throws Exception if the evaluation of an expression is undefined
+     */
+    private void evaluateResiduals(Map<String, Double> assignment, double[] out) throws Exception {
+        for (int i = 0; i < this.results.length; i++) {
+            out[i] = this.residuals.get(i).evaluate(assignment);
+        }
+    }
+}
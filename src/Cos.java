@@ -1,6 +1,4 @@
 // itay alter 206132284
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,10 +29,13 @@ public class Cos extends UnaryExpression implements Expression {
      * @return the cosine value of the expression with the given variable assignments
      * @throws Exception if an error occurs during evaluation
      */
+    @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        // Evaluate the operand expression and convert the result to radians
-        double x = Math.toRadians(super.getOperands().get(0).evaluate(assignment));
-        return Math.cos(x);
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
+        }
+        ExpressionMetrics.visit(Operator.COS);
+        return this.evaluateWith(this.getOperand().evaluate(assignment), 0, true);
     }
 
     /**
@@ -46,9 +47,24 @@ public class Cos extends UnaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        // Evaluate the operand expression and convert the result to radians
-        double x = Math.toRadians(super.getOperands().get(0).evaluate());
-        return Math.cos(x);
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
+        }
+        ExpressionMetrics.visit(Operator.COS);
+        return this.evaluateWith(this.getOperand().evaluate(), 0, false);
+    }
+
+    /**
+     * Computes the cosine of the value of the operand, in degrees.
+     *
+     * @param x the value of the operand
+     * @param y unused
+     * @param assigned whether the value comes from evaluate(Map)
+     * @return the cosine of the value
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) {
+        return Math.cos(Math.toRadians(x));
     }
 
     /**
@@ -62,9 +78,32 @@ public class Cos extends UnaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        newOperands.add(super.getOperands().get(0).assign(var, expression));
-        return new Cos(newOperands.get(0));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
+        }
+        return new Cos(this.getOperand().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the cosine expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the cosine expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
+        }
+        return new Cos(this.getOperand().assign(assignments));
     }
 
     /**
@@ -72,13 +111,14 @@ public class Cos extends UnaryExpression implements Expression {
      * specified variable.\, by applying the chain rule for the cosine function.
      *
      * @param var the variable with respect to which the derivative is computed.
+     * @param diffOperand the derivative of the operand
+     * @param dy null, as a unary expression has no second operand
      * @return the derivative of the expression with respect to the specified
      * variable.
      */
-    public Expression differentiate(String var) {
-        Expression operand = getOperands().get(0);
-        Expression diffOperand = operand.differentiate(var);
-        Expression sinOperand = new Sin(operand);
+    @Override
+    protected Expression differentiateWith(String var, Expression diffOperand, Expression dy) {
+        Expression sinOperand = new Sin(this.getOperand());
         Expression diffCos = new Mult(sinOperand, diffOperand);
         return new Neg(diffCos);
     }
@@ -89,31 +129,44 @@ public class Cos extends UnaryExpression implements Expression {
      * it and returns a new number. Otherwise, returns a new cosine function
      * with the simplified operand.It returns a simplified expression.
      *
+     * @param x the simplified operand
+     * @param y null, as a unary expression has no second operand
      * @return a simplified expression.
      */
     @Override
-    public Expression simplify() {
-        Expression x = super.getOperands().get(0);
-        try {
-            // If operand is a number, evaluates it and returns a new number
-            double cosResult = this.evaluate();
-            return new Num(cosResult);
-        } catch (Exception e) {
+    protected Expression simplifyWith(Expression x, Expression y) {
+        // If operand has no variables, evaluates it and returns a new number
+        if (this.getVariableSet().isEmpty()) {
+            try {
+                double cosResult = this.evaluate();
+                return new Num(cosResult);
+            } catch (Exception e) {
+            }
         }
         /*
          * If operand is not a number, returns a new cosine function with the
          *  simplified operand
          */
-        return new Cos(x.simplify());
+        return new Cos(x);
     }
 
     /**
-     * Returns a string representation of this cosine function.
+     * Returns the text written before the operand of the cosine.
      *
-     * @return a string representation of this cosine function.
+     * @return the prefix of the cosine
      */
-    public String toString() {
-        String x = super.getOperands().get(0).toString();
-        return "cos(" + x + ")";
+    @Override
+    protected String prefix() {
+        return "cos(";
+    }
+
+    /**
+     * Returns the text written after the operand of the cosine.
+     *
+     * @return the suffix of the cosine
+     */
+    @Override
+    protected String suffix() {
+        return ")";
     }
 }
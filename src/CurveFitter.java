@@ -0,0 +1,327 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The CurveFitter class fits the parameters of a model to data by nonlinear
+ * least squares, with the Levenberg-Marquardt method. The model is an
+ * expression whose variables are the parameters and the columns of the data,
+ * and the fit minimizes the sum of the squares of the differences between the
+ * observed values and the model at the rows of the data.
+ *
+ * <p>The model and its derivatives with respect to the parameters are
+ * compiled once, when the fitter is constructed, into one CompiledGroup whose
+ * slots are the columns and then the parameters. The derivatives are compiled
+ * with the factor of degrees, so the Jacobian is the true one of the model,
+ * also through Sin, Cos and powers at bases that are not positive. At every
+ * step, the parameters are written to constant columns and the group is
+ * evaluated over all the rows in one batch, which gives the residuals and the
+ * Jacobian together, without compiling again. The normal equations are
+ * accumulated from the columns of the Jacobian and solved by a Cholesky
+ * decomposition.
+ *
+ * <p>Levenberg-Marquardt damps the Gauss-Newton step by adding lambda times
+ * the diagonal of the normal equations, raising lambda after a step that does
+ * not lower the sum of squares and lowering it after one that does. A step
+ * where the model is undefined at a row is rejected like a step that does not
+ * lower the sum.
+ */
+public final class CurveFitter {
+    /**
+     * The default number of iterations after which a fit gives up.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 200;
+
+    /**
+     * The default tolerance of the relative change of the parameters and of
+     * the sum of squares.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+
+    private static final double INITIAL_LAMBDA = 1e-3;
+    private static final double MAX_LAMBDA = 1e16;
+
+    private final CompiledGroup group;
+    private final List<String> parameters;
+    private final List<String> columns;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double tolerance = DEFAULT_TOLERANCE;
+
+    /**
+     * Constructs a fitter.
+     *
+     * @param model the model
+     * @param parameters the variables of the model that are fitted
+     * @param columns the variables of the model that are given by the data,
+     * in the order of the columns
+     * @throws IllegalArgumentException if a variable is both a parameter and
+     * a column, or a variable of the model is neither
+     */
+    public CurveFitter(Expression model, List<String> parameters, List<String> columns) {
+        for (String var : parameters) {
+            if (columns.contains(var)) {
+                throw new IllegalArgumentException("variable " + var + " is both a parameter and a column");
+            }
+        }
+        List<String> slots = new ArrayList<>(columns);
+        slots.addAll(parameters);
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        compiler.setDegreeFactor(true);
+        this.group = compiler.compileDerivatives(model, slots, parameters);
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(parameters));
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+    }
+
+    /**
+     * Returns the parameters, in the order of the components of the fitted
+     * point.
+     *
+     * @return the list of the parameters
+     */
+    public List<String> getParameters() {
+        return this.parameters;
+    }
+
+    /**
+     * Returns the variables of the columns of the data.
+     *
+     * @return the list of the columns
+     */
+    public List<String> getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Sets the number of iterations after which a fit gives up.
+     *
+     * @param maxIterations the number of iterations, positive
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("the number of iterations must be positive: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Returns the number of iterations after which a fit gives up.
+     *
+     * @return the number of iterations
+     */
+    public int getMaxIterations() {
+        return this.maxIterations;
+    }
+
+    /**
+     * Sets the tolerance of the fit: it converges when an accepted step
+     * changes the parameters or the sum of squares by at most the tolerance,
+     * relative to their size.
+     *
+     * @param tolerance the tolerance, positive
+     */
+    public void setTolerance(double tolerance) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("the tolerance must be positive: " + tolerance);
+        }
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Returns the tolerance of the fit.
+     *
+     * @return the tolerance
+     */
+    public double getTolerance() {
+        return this.tolerance;
+    }
+
+    /**
+     * Fits the parameters to data.
+     *
+     * @param data the values of the variables of the columns, one array of
+     * rows per column
+     * @param observed the observed value of every row
+     * @param initial the initial values of the parameters
+     * @return the fitted parameters, with the sum of the squares of the
+     * residuals as the value
+     * @throws Exception if the model or a derivative is undefined at a row for
+     * the initial parameters, with the message of evaluate(Map)
+     * @throws IllegalArgumentException if the data or the initial values do not
+     * match the columns and the parameters
+     */
+    public Minimum fit(double[][] data, double[] observed, double[] initial) throws Exception {
+        int p = this.parameters.size();
+        int n = observed.length;
+        if (data.length != this.columns.size() || initial.length != p) {
+            throw new IllegalArgumentException("expected " + this.columns.size() + " columns and " + p
+                    + " parameters, got " + data.length + " and " + initial.length);
+        }
+        double[] theta = initial.clone();
+        // The slots of the group: the columns of the data, then one constant
+        // column per parameter
+        double[][] slots = Arrays.copyOf(data, data.length + p);
+        for (int i = 0; i < p; i++) {
+            slots[data.length + i] = new double[n];
+        }
+        double[][] outputs = new double[p + 1][n];
+        double sum = this.evaluate(theta, slots, observed, outputs);
+        double[][] normal = new double[p][p];
+        double[] gradient = new double[p];
+        double[] diagonal = new double[p];
+        double[] trial = new double[p];
+        double[][] trialOutputs = new double[p + 1][n];
+        double lambda = INITIAL_LAMBDA;
+        if (sum == 0) {
+            return new Minimum(theta, sum, 0, true);
+        }
+        accumulate(outputs, observed, normal, gradient);
+        for (int iteration = 0; iteration < this.maxIterations; iteration++) {
+            for (int i = 0; i < p; i++) {
+                diagonal[i] = normal[i][i] == 0 ? 1 : normal[i][i];
+            }
+            double[] step = solve(normal, gradient, diagonal, lambda);
+            double trialSum = Double.POSITIVE_INFINITY;
+            if (step != null) {
+                for (int i = 0; i < p; i++) {
+                    trial[i] = theta[i] + step[i];
+                }
+                try {
+                    trialSum = this.evaluate(trial, slots, observed, trialOutputs);
+                } catch (Exception e) {
+                    trialSum = Double.POSITIVE_INFINITY;
+                }
+            }
+            if (!(trialSum < sum)) {
+                lambda *= 10;
+                if (lambda > MAX_LAMBDA) {
+                    return new Minimum(theta, sum, iteration + 1, false);
+                }
+                continue;
+            }
+            boolean converged = sum - trialSum <= this.tolerance * sum;
+            boolean small = true;
+            for (int i = 0; i < p; i++) {
+                small &= Math.abs(step[i]) <= this.tolerance * (Math.abs(theta[i]) + this.tolerance);
+            }
+            converged |= small;
+            System.arraycopy(trial, 0, theta, 0, p);
+            double[][] swap = outputs;
+            outputs = trialOutputs;
+            trialOutputs = swap;
+            sum = trialSum;
+            if (converged || sum == 0) {
+                return new Minimum(theta, sum, iteration + 1, true);
+            }
+            lambda = Math.max(lambda / 10, 1e-12);
+            accumulate(outputs, observed, normal, gradient);
+        }
+        return new Minimum(theta, sum, this.maxIterations, false);
+    }
+
+    /**
+     * Evaluates the model and its derivatives at every row for given
+     * parameters.
+     *
+     * @param theta the values of the parameters
+     * @param slots the columns of the data, then the columns of the
+     * parameters, which are filled with their values
+     * @param observed the observed values
+     * @param outputs where to write the values of the model, then of its
+     * derivatives, one array of rows each
+     * @return the sum of the squares of the residuals
+     * @throws Exception if the model or a derivative is undefined at a row
+     */
+    private double evaluate(double[] theta, double[][] slots, double[] observed, double[][] outputs)
+            throws Exception {
+        int first = slots.length - theta.length;
+        for (int i = 0; i < theta.length; i++) {
+            Arrays.fill(slots[first + i], theta[i]);
+        }
+        this.group.evaluate(slots, outputs);
+        double sum = 0;
+        for (int row = 0; row < observed.length; row++) {
+            double residual = observed[row] - outputs[0][row];
+            sum += residual * residual;
+        }
+        return Double.isNaN(sum) ? Double.POSITIVE_INFINITY : sum;
+    }
+
+    /**
+     * Accumulates the normal equations, J^T J and J^T r, from the columns of
+     * the Jacobian.
+     *
+     * @param outputs the values of the model and of its derivatives
+     * @param observed the observed values
+     * @param normal where to write J^T J
+     * @param gradient where to write J^T r
+     */
+    private static void accumulate(double[][] outputs, double[] observed, double[][] normal, double[] gradient) {
+        int p = gradient.length;
+        for (int i = 0; i < p; i++) {
+            double[] column = outputs[i + 1];
+            double g = 0;
+            for (int row = 0; row < observed.length; row++) {
+                g += column[row] * (observed[row] - outputs[0][row]);
+            }
+            gradient[i] = g;
+            for (int j = 0; j <= i; j++) {
+                double[] other = outputs[j + 1];
+                double s = 0;
+                for (int row = 0; row < observed.length; row++) {
+                    s += column[row] * other[row];
+                }
+                normal[i][j] = s;
+                normal[j][i] = s;
+            }
+        }
+    }
+
+    /**
+     * Solves the damped normal equations (J^T J + lambda D) step = J^T r by a
+     * Cholesky decomposition.
+     *
+     * @param normal J^T J
+     * @param gradient J^T r
+     * @param diagonal the diagonal D
+     * @param lambda the damping
+     * @return the step, or null if the damped matrix is not positive definite
+     */
+    private static double[] solve(double[][] normal, double[] gradient, double[] diagonal, double lambda) {
+        int p = gradient.length;
+        double[][] l = new double[p][p];
+        for (int i = 0; i < p; i++) {
+            for (int j = 0; j <= i; j++) {
+                double s = normal[i][j] + (i == j ? lambda * diagonal[i] : 0);
+                for (int k = 0; k < j; k++) {
+                    s -= l[i][k] * l[j][k];
+                }
+                if (i == j) {
+                    if (!(s > 0)) {
+                        return null;
+                    }
+                    l[i][i] = Math.sqrt(s);
+                } else {
+                    l[i][j] = s / l[j][j];
+                }
+            }
+        }
+        double[] step = new double[p];
+        for (int i = 0; i < p; i++) {
+            double s = gradient[i];
+            for (int k = 0; k < i; k++) {
+                s -= l[i][k] * step[k];
+            }
+            step[i] = s / l[i][i];
+        }
+        for (int i = p - 1; i >= 0; i--) {
+            double s = step[i];
+            for (int k = i + 1; k < p; k++) {
+                s -= l[k][i] * step[k];
+            }
+            step[i] = s / l[i][i];
+        }
+        return step;
+    }
+}
@@ -0,0 +1,266 @@
+// itay alter 206132284
+import java.util.SplittableRandom;
+
+/**
+ * The Distribution class is the distribution of an input variable of a Monte
+ * Carlo run. A distribution draws its samples from the random stream it is
+ * given, and keeps no state of its own, so one distribution can be sampled by
+ * many tasks at the same time, each with its own stream.
+ */
+public abstract class Distribution {
+    /**
+     * Draws a sample.
+     *
+     * @param random the random stream of the calling task
+     * @return the sample
+     */
+    public abstract double sample(SplittableRandom random);
+
+    /**
+     * Returns a distribution that is always the same value.
+     *
+     * @param value the value
+     * @return the distribution
+     */
+    public static Distribution constant(double value) {
+        return new Constant(value);
+    }
+
+    /**
+     * Returns the uniform distribution over an interval.
+     *
+     * @param low the lower end of the interval
+     * @param high the upper end of the interval
+     * @return the distribution
+     * @throws IllegalArgumentException if the interval is empty or not finite
+     */
+    public static Distribution uniform(double low, double high) {
+        if (!(low < high) || Double.isInfinite(high - low)) {
+            throw new IllegalArgumentException("not a finite interval: [" + low + ", " + high + "]");
+        }
+        return new Uniform(low, high);
+    }
+
+    /**
+     * Returns the normal distribution.
+     *
+     * @param mean the mean
+     * @param deviation the standard deviation, positive
+     * @return the distribution
+     */
+    public static Distribution normal(double mean, double deviation) {
+        if (!(deviation > 0)) {
+            throw new IllegalArgumentException("the standard deviation must be positive: " + deviation);
+        }
+        return new Normal(mean, deviation, false);
+    }
+
+    /**
+     * Returns the log-normal distribution, whose logarithm is normal.
+     *
+     * @param mu the mean of the logarithm
+     * @param sigma the standard deviation of the logarithm, positive
+     * @return the distribution
+     */
+    public static Distribution logNormal(double mu, double sigma) {
+        if (!(sigma > 0)) {
+            throw new IllegalArgumentException("the standard deviation must be positive: " + sigma);
+        }
+        return new Normal(mu, sigma, true);
+    }
+
+    /**
+     * Returns the exponential distribution.
+     *
+     * @param mean the mean, positive
+     * @return the distribution
+     */
+    public static Distribution exponential(double mean) {
+        if (!(mean > 0)) {
+            throw new IllegalArgumentException("the mean must be positive: " + mean);
+        }
+        return new Exponential(mean);
+    }
+
+    /**
+     * Returns the triangular distribution over an interval, whose density
+     * rises linearly from the lower end to the mode and falls linearly to the
+     * upper end.
+     *
+     * @param low the lower end of the interval
+     * @param mode the mode, inside the interval
+     * @param high the upper end of the interval
+     * @return the distribution
+     */
+    public static Distribution triangular(double low, double mode, double high) {
+        if (!(low < high) || !(low <= mode && mode <= high) || Double.isInfinite(high - low)) {
+            throw new IllegalArgumentException("not a triangle: " + low + ", " + mode + ", " + high);
+        }
+        return new Triangular(low, mode, high);
+    }
+
+    /**
+     * The Constant class is a distribution of one value.
+     */
+    private static final class Constant extends Distribution {
+        private final double value;
+
+        /**
+         * Constructs the distribution.
+         *
+         * @param value the value
+         */
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double sample(SplittableRandom random) {
+            return this.value;
+        }
+
+        @Override
+        public String toString() {
+            return "constant(" + this.value + ")";
+        }
+    }
+
+    /**
+     * The Uniform class is the uniform distribution over an interval.
+     */
+    private static final class Uniform extends Distribution {
+        private final double low;
+        private final double high;
+
+        /**
+         * Constructs the distribution.
+         *
+         * @param low the lower end
+         * @param high the upper end
+         */
+        Uniform(double low, double high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public double sample(SplittableRandom random) {
+            return this.low + (this.high - this.low) * random.nextDouble();
+        }
+
+        @Override
+        public String toString() {
+            return "uniform(" + this.low + ", " + this.high + ")";
+        }
+    }
+
+    /**
+     * The Normal class is the normal distribution, or the log-normal one. The
+     * samples are drawn by the polar method of Marsaglia, which needs no
+     * trigonometric functions; the second sample it makes is dropped, so that
+     * the distribution keeps no state.
+     */
+    private static final class Normal extends Distribution {
+        private final double mean;
+        private final double deviation;
+        private final boolean log;
+
+        /**
+         * Constructs the distribution.
+         *
+         * @param mean the mean
+         * @param deviation the standard deviation
+         * @param log true for the exponential of the normal distribution
+         */
+        Normal(double mean, double deviation, boolean log) {
+            this.mean = mean;
+            this.deviation = deviation;
+            this.log = log;
+        }
+
+        @Override
+        public double sample(SplittableRandom random) {
+            double u;
+            double s;
+            do {
+                u = 2 * random.nextDouble() - 1;
+                double v = 2 * random.nextDouble() - 1;
+                s = u * u + v * v;
+            } while (s >= 1 || s == 0);
+            double x = this.mean + this.deviation * u * Math.sqrt(-2 * Math.log(s) / s);
+            return this.log ? Math.exp(x) : x;
+        }
+
+        @Override
+        public String toString() {
+            return (this.log ? "logNormal(" : "normal(") + this.mean + ", " + this.deviation + ")";
+        }
+    }
+
+    /**
+     * The Exponential class is the exponential distribution, drawn by
+     * inverting its distribution function.
+     */
+    private static final class Exponential extends Distribution {
+        private final double mean;
+
+        /**
+         * Constructs the distribution.
+         *
+         * @param mean the mean
+         */
+        Exponential(double mean) {
+            this.mean = mean;
+        }
+
+        @Override
+        public double sample(SplittableRandom random) {
+            // 1 - nextDouble() is in (0, 1], so its logarithm is finite
+            return -this.mean * Math.log(1 - random.nextDouble());
+        }
+
+        @Override
+        public String toString() {
+            return "exponential(" + this.mean + ")";
+        }
+    }
+
+    /**
+     * The Triangular class is the triangular distribution, drawn by inverting
+     * its distribution function.
+     */
+    private static final class Triangular extends Distribution {
+        private final double low;
+        private final double mode;
+        private final double high;
+
+        /**
+         * Constructs the distribution.
+         *
+         * @param low the lower end
+         * @param mode the mode
+         * @param high the upper end
+         */
+        Triangular(double low, double mode, double high) {
+            this.low = low;
+            this.mode = mode;
+            this.high = high;
+        }
+
+        @Override
+        public double sample(SplittableRandom random) {
+            double u = random.nextDouble();
+            double width = this.high - this.low;
+            double left = this.mode - this.low;
+            if (u * width < left) {
+                return this.low + Math.sqrt(u * width * left);
+            }
+            return this.high - Math.sqrt((1 - u) * width * (this.high - this.mode));
+        }
+
+        @Override
+        public String toString() {
+            return "triangular(" + this.low + ", " + this.mode + ", " + this.high + ")";
+        }
+    }
+}
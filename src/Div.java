@@ -1,6 +1,4 @@
 // itay alter 206132284
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,14 +30,14 @@ public class Div extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        if (super.getOperands().get(1).evaluate(assignment) == 0) {
-            throw new Exception("math error!");
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
         }
-        // Evaluate the numerator and denominator expressions
-        double numerator = super.getOperands().get(0).evaluate(assignment);
-        double denominator = super.getOperands().get(1).evaluate(assignment);
-        // return the result of evaluating the division expression
-        return numerator / denominator;
+        ExpressionMetrics.visit(Operator.DIV);
+        // Evaluate the denominator once, and the numerator only if it is not 0
+        double denominator = this.getRight().evaluate(assignment);
+        this.checkRight(denominator);
+        return this.evaluateWith(this.getLeft().evaluate(assignment), denominator, true);
     }
     /**
      * Evaluates the division expression without any variable assignments. This
@@ -52,14 +50,51 @@ public class Div extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        if (super.getOperands().get(1).evaluate() == 0) {
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
+        }
+        ExpressionMetrics.visit(Operator.DIV);
+        // Evaluate the denominator once, and the numerator only if it is not 0
+        double denominator = this.getRight().evaluate();
+        this.checkRight(denominator);
+        return this.evaluateWith(this.getLeft().evaluate(), denominator, false);
+    }
+
+    /**
+     * Divides the value of the numerator by the value of the denominator,
+     * which checkRight() has already checked.
+     *
+     * @param x the value of the numerator
+     * @param y the value of the denominator
+     * @param assigned whether the values come from evaluate(Map)
+     * @return the quotient of the values
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) {
+        return x / y;
+    }
+
+    /**
+     * The denominator is evaluated before the numerator.
+     *
+     * @return true
+     */
+    @Override
+    protected boolean isRightFirst() {
+        return true;
+    }
+
+    /**
+     * Checks that the denominator is not 0, before the numerator is evaluated.
+     *
+     * @param y the value of the denominator
+     * @throws Exception if the denominator is 0
+     */
+    @Override
+    protected void checkRight(double y) throws Exception {
+        if (y == 0) {
             throw new Exception("math error!");
         }
-        // Evaluate the numerator and denominator expressions
-        double numerator = super.getOperands().get(0).evaluate();
-        double denominator = super.getOperands().get(1).evaluate();
-        // return the result of evaluating the division expression
-        return numerator / denominator;
     }
     /**
      * Assigns a new value to a variable within the division expression.This
@@ -74,13 +109,34 @@ public class Div extends BinaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        // Iterate over the operands of the division expression
-        for (Expression operand : super.getOperands()) {
-            // Assign the variable with the expression in the current operand
-            newOperands.add(operand.assign(var, expression));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
+        }
+        return new Div(this.getLeft().assign(var, expression),
+                this.getRight().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the division expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the division expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
         }
-        return new Div(newOperands.get(0), newOperands.get(1));
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
+        }
+        return new Div(this.getLeft().assign(assignments),
+                this.getRight().assign(assignments));
     }
     /**
      * Calculates the derivative of the division expression with respect to the
@@ -88,15 +144,15 @@ public class Div extends BinaryExpression implements Expression {
      * calculated using the quotient rule: (f'g - fg') / g^2
      *
      * @param var the variable with respect to which the derivative is calculated
+     * @param dF the derivative of the numerator
+     * @param dG the derivative of the denominator
      * @return the derivative of the division expression
      */
-    public Expression differentiate(String var) {
+    @Override
+    protected Expression differentiateWith(String var, Expression dF, Expression dG) {
         // Retrieve the numerator and denominator expressions
-        Expression f = super.getOperands().get(0);
-        Expression g = super.getOperands().get(1);
-        // Differentiate the numerator and denominator
-        Expression dF = f.differentiate(var);
-        Expression dG = g.differentiate(var);
+        Expression f = this.getLeft();
+        Expression g = this.getRight();
         // Calculate the numerator of the derivative expression
         Expression numerator = new Minus(new Mult(dF, g), new Mult(f, dG));
         // Calculate the denominator of the derivative expression
@@ -119,11 +175,12 @@ public class Div extends BinaryExpression implements Expression {
      * If none of the above simplification rules apply, the expression is
      * returned as is.
      *
+     * @param x the simplified first operand
+     * @param y the simplified second operand
      * @return the simplified division expression
      */
-    public Expression simplify() {
-        Expression x = super.getOperands().get(0).simplify();
-        Expression y = super.getOperands().get(1).simplify();
+    @Override
+    protected Expression simplifyWith(Expression x, Expression y) {
         if (y instanceof Num) {
             try {
                 if (y.evaluate() == 0) {
@@ -155,7 +212,7 @@ public class Div extends BinaryExpression implements Expression {
             } catch (Exception e) {
             }
         }
-        if (x instanceof Expression && y instanceof Expression) {
+        if (sameDepth(x, y)) {
             try {
                 if (y.toString().equals(x.toString())) {
                     return new Num(1);
@@ -167,13 +224,32 @@ public class Div extends BinaryExpression implements Expression {
     }
 
     /**
-     * Returns a string representation of the division expression.
+     * Returns the text written before the operands of the division.
+     *
+     * @return the prefix of the division
+     */
+    @Override
+    protected String prefix() {
+        return "(";
+    }
+
+    /**
+     * Returns the text written between the operands of the division.
      *
-     * @return the string representation of the division expression
+     * @return the infix of the division
      */
-    public String toString() {
-        String x = super.getOperands().get(0).toString();
-        String y = super.getOperands().get(1).toString();
-        return "(" + x + " / " + y + ")";
+    @Override
+    protected String infix() {
+        return " / ";
+    }
+
+    /**
+     * Returns the text written after the operands of the division.
+     *
+     * @return the suffix of the division
+     */
+    @Override
+    protected String suffix() {
+        return ")";
     }
 }
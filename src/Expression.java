@@ -1,6 +1,8 @@
 // itay alter 206132284
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The Expression interface represents a mathematical expression that can be
@@ -34,12 +36,23 @@ public interface Expression {
 
     /**
      * This method returns a list of variables present in the expression. Each
-     * variable is represented as a string.
+     * variable is represented as a string and appears once, in the order of its
+     * first occurrence. The list is a new copy that the caller may modify.
      *
-     * @return a list of Expression operands
+     * @return a list of the variables in the expression
      */
     List<String> getVariables();
 
+    /**
+     * This method returns the set of variables present in the expression, in
+     * the order of their first occurrence. The set is computed once, when the
+     * expression is constructed, so this method takes constant time. The set
+     * cannot be modified.
+     *
+     * @return the set of the variables in the expression
+     */
+    Set<String> getVariableSet();
+
     /**
      * This method returns a string representation of the expression.
      *
@@ -47,6 +60,17 @@ public interface Expression {
      */
     String toString();
 
+    /**
+     * This method appends the string representation of the expression to the
+     * given Appendable, e.g. a StringBuilder or a Writer. The text is the same
+     * as the one returned by toString(), but it is written piece by piece
+     * instead of being built from the strings of the operands.
+     *
+     * @param out where to append the representation
+     * @throws IOException if appending to the Appendable fails
+     */
+    void appendTo(Appendable out) throws IOException;
+
     /**
      * This method creates a new expression by assigning a new value to a
      * specific variable in the expression. It takes a variable name and an
@@ -59,6 +83,18 @@ public interface Expression {
      */
     Expression assign(String var, Expression expression);
 
+    /**
+     * This method assigns expressions to several variables at once, in a single
+     * pass over the expression. Every subexpression that contains none of the
+     * variables is returned as it is instead of being copied, so the result
+     * shares it with the original expression.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the expression with the variables replaced, or this expression if
+     * it contains none of them
+     */
+    Expression assign(Map<String, Expression> assignments);
+
     /**
      * This method calculates the derivative of the expression with respect to
      * the specified variable. It returns a new expression representing the
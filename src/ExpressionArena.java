@@ -0,0 +1,395 @@
+// itay alter 206132284
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ExpressionArena class stores many expression trees off the Java heap.
+ * The nodes are kept as a structure of arrays in direct buffers: one byte for
+ * the operator, the indexes of the left and right children, and the constant
+ * value. Leaves have no children, so a Var keeps the slot of its variable in
+ * the left column. A node takes 17 bytes, and none of them are objects the
+ * garbage collector has to trace.
+ *
+ * <p>Every tree is written in post-order, so its nodes are contiguous, every
+ * child comes before its parent and the tree is identified by the index of its
+ * root. The variables of all the trees share one table of slots, and the
+ * evaluator reads the values of the variables from an array indexed by slot.
+ * Trees are only ever added; the buffers are released together with the
+ * arena.
+ */
+public final class ExpressionArena {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private ByteBuffer opcodes;
+    private IntBuffer lefts;
+    private IntBuffer rights;
+    private DoubleBuffer values;
+    private int size;
+    private int capacity;
+    private List<String> names = new ArrayList<>();
+    private Map<String, Integer> slots = new HashMap<>();
+
+    /**
+     * Constructs an empty arena.
+     */
+    public ExpressionArena() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty arena with room for the given number of nodes. The
+     * arena grows when it is full.
+     *
+     * @param capacity the initial number of nodes
+     */
+    public ExpressionArena(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.allocate(capacity);
+    }
+
+    /**
+     * Allocates the buffers for the given number of nodes and copies the
+     * nodes that are already stored.
+     *
+     * @param newCapacity the new number of nodes
+     */
+    private void allocate(int newCapacity) {
+        ByteBuffer newOpcodes = ByteBuffer.allocateDirect(newCapacity);
+        IntBuffer newLefts = ByteBuffer.allocateDirect(newCapacity * Integer.BYTES)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        IntBuffer newRights = ByteBuffer.allocateDirect(newCapacity * Integer.BYTES)
+                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        DoubleBuffer newValues = ByteBuffer.allocateDirect(newCapacity * Double.BYTES)
+                .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        for (int i = 0; i < this.size; i++) {
+            newOpcodes.put(i, this.opcodes.get(i));
+            newLefts.put(i, this.lefts.get(i));
+            newRights.put(i, this.rights.get(i));
+            newValues.put(i, this.values.get(i));
+        }
+        this.opcodes = newOpcodes;
+        this.lefts = newLefts;
+        this.rights = newRights;
+        this.values = newValues;
+        this.capacity = newCapacity;
+    }
+
+    /**
+     * Appends a node and returns its index.
+     *
+     * @param operator the operator of the node
+     * @param left the index of the left child, or the slot of a variable
+     * @param right the index of the right child
+     * @param value the value of a constant
+     * @return the index of the node
+     */
+    private int append(Operator operator, int left, int right, double value) {
+        if (this.size == this.capacity) {
+            if (this.capacity > Integer.MAX_VALUE / Double.BYTES / 2) {
+                throw new IllegalStateException("the arena is full");
+            }
+            this.allocate(this.capacity * 2);
+        }
+        int index = this.size;
+        this.opcodes.put(index, (byte) operator.ordinal());
+        this.lefts.put(index, left);
+        this.rights.put(index, right);
+        this.values.put(index, value);
+        this.size++;
+        return index;
+    }
+
+    /**
+     * Returns the slot of a variable, adding it to the table if it is new.
+     *
+     * @param name the name of the variable
+     * @return the slot of the variable
+     */
+    private int slot(String name) {
+        Integer slot = this.slots.get(name);
+        if (slot == null) {
+            slot = this.names.size();
+            this.names.add(name);
+            this.slots.put(name, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Copies an expression into the arena. The tree is walked with an explicit
+     * stack, so deep trees do not overflow the call stack.
+     *
+     * @param expression the expression to copy
+     * @return the index of the root of the copied tree
+     * @throws IllegalArgumentException if the expression contains a node that
+     * is not one of the Expression classes of this project
+     */
+    public int add(Expression expression) {
+        Deque<Expression> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        Deque<Integer> built = new ArrayDeque<>();
+        stack.push(expression);
+        expanded.push(false);
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            boolean children = expanded.pop();
+            Operator operator = Operator.of(node);
+            if (node instanceof Num) {
+                built.push(this.append(operator, -1, -1, ((Num) node).getValue()));
+            } else if (node instanceof Var) {
+                built.push(this.append(operator, this.slot(((Var) node).getName()), -1, 0));
+            } else if (!children) {
+                // Visit the node again once its children were written
+                stack.push(node);
+                expanded.push(true);
+                if (node instanceof BinaryExpression) {
+                    stack.push(((BinaryExpression) node).getRight());
+                    expanded.push(false);
+                    stack.push(((BinaryExpression) node).getLeft());
+                    expanded.push(false);
+                } else {
+                    stack.push(((UnaryExpression) node).getOperand());
+                    expanded.push(false);
+                }
+            } else if (node instanceof BinaryExpression) {
+                int right = built.pop();
+                int left = built.pop();
+                built.push(this.append(operator, left, right, 0));
+            } else {
+                built.push(this.append(operator, built.pop(), -1, 0));
+            }
+        }
+        return built.pop();
+    }
+
+    /**
+     * Returns the index of the first node of a tree, which is the leftmost
+     * leaf below its root.
+     *
+     * @param root the index of the root of the tree
+     * @return the index of the first node of the tree
+     */
+    private int start(int root) {
+        if (root < 0 || root >= this.size) {
+            throw new IndexOutOfBoundsException("no node " + root + " in an arena of " + this.size);
+        }
+        int node = root;
+        while (true) {
+            Operator operator = this.operator(node);
+            if (operator == Operator.NUM || operator == Operator.VAR) {
+                return node;
+            }
+            node = this.lefts.get(node);
+        }
+    }
+
+    /**
+     * Returns the operator of a node.
+     *
+     * @param node the index of the node
+     * @return the operator of the node
+     */
+    private Operator operator(int node) {
+        return OPERATORS[this.opcodes.get(node)];
+    }
+
+    /**
+     * Builds the expression objects of a tree in the arena.
+     *
+     * @param root the index of the root of the tree
+     * @return the expression the tree was copied from
+     */
+    public Expression toExpression(int root) {
+        int start = this.start(root);
+        Expression[] built = new Expression[root - start + 1];
+        for (int i = start; i <= root; i++) {
+            int left = this.lefts.get(i);
+            int right = this.rights.get(i);
+            Operator operator = this.operator(i);
+            Expression node;
+            if (operator == Operator.NUM) {
+                node = new Num(this.values.get(i));
+            } else if (operator == Operator.VAR) {
+                node = new Var(this.names.get(left));
+            } else {
+                node = operator.create(built[left - start], right >= 0 ? built[right - start] : null);
+            }
+            built[i - start] = node;
+        }
+        return built[root - start];
+    }
+
+    /**
+     * Returns the number of nodes of a tree, which is also the length of the
+     * registers the evaluator needs for it.
+     *
+     * @param root the index of the root of the tree
+     * @return the number of nodes of the tree
+     */
+    public int getSize(int root) {
+        return root - this.start(root) + 1;
+    }
+
+    /**
+     * Returns the number of nodes in the arena.
+     *
+     * @return the number of nodes of all the trees
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the names of the variables of all the trees, in the order of
+     * their slots.
+     *
+     * @return a list of the variable names
+     */
+    public List<String> getVariables() {
+        return new ArrayList<>(this.names);
+    }
+
+    /**
+     * Returns the slot of a variable.
+     *
+     * @param name the name of the variable
+     * @return the slot of the variable, or -1 if no tree uses it
+     */
+    public int getSlot(String name) {
+        Integer slot = this.slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Evaluates a tree with the values of the variables given by slot.
+     *
+     * @param root the index of the root of the tree
+     * @param variables the values of the variables, indexed by slot
+     * @return the result of the evaluation
+     * @throws Exception if the evaluation is undefined, with the same message
+     * as evaluate(Map) of the expression
+     */
+    public double evaluate(int root, double[] variables) throws Exception {
+        return this.evaluate(root, variables, new double[this.getSize(root)]);
+    }
+
+    /**
+     * Evaluates a tree with the values of the variables given by slot, using
+     * the given array for the intermediate results so that nothing is
+     * allocated.
+     *
+     * @param root the index of the root of the tree
+     * @param variables the values of the variables, indexed by slot
+     * @param registers the intermediate results, at least getSize(root) long
+     * @return the result of the evaluation
+     * @throws Exception if the evaluation is undefined, with the same message
+     * as evaluate(Map) of the expression
+     */
+    public double evaluate(int root, double[] variables, double[] registers) throws Exception {
+        int start = this.start(root);
+        if (this.run(start, root, variables, null, registers)) {
+            return registers[root - start];
+        }
+        Map<String, Double> assignment = new HashMap<>();
+        for (int slot = 0; slot < this.names.size() && slot < variables.length; slot++) {
+            assignment.put(this.names.get(slot), variables[slot]);
+        }
+        return this.toExpression(root).evaluate(assignment);
+    }
+
+    /**
+     * Evaluates a tree with the values of the variables given by name.
+     *
+     * @param root the index of the root of the tree
+     * @param assignment the values of the variables
+     * @return the result of the evaluation
+     * @throws Exception if a variable has no value or the evaluation is
+     * undefined, with the same message as evaluate(Map) of the expression
+     */
+    public double evaluate(int root, Map<String, Double> assignment) throws Exception {
+        int start = this.start(root);
+        double[] variables = new double[this.names.size()];
+        boolean[] bound = new boolean[this.names.size()];
+        for (int slot = 0; slot < variables.length; slot++) {
+            Double value = assignment.get(this.names.get(slot));
+            if (value != null) {
+                variables[slot] = value;
+                bound[slot] = true;
+            }
+        }
+        double[] registers = new double[root - start + 1];
+        if (this.run(start, root, variables, bound, registers)) {
+            return registers[root - start];
+        }
+        return this.toExpression(root).evaluate(assignment);
+    }
+
+    /**
+     * Evaluates a tree that has no variables.
+     *
+     * @param root the index of the root of the tree
+     * @return the result of the evaluation
+     * @throws Exception if the tree has variables or the evaluation is
+     * undefined, with the same message as evaluate() of the expression
+     */
+    public double evaluate(int root) throws Exception {
+        int start = this.start(root);
+        double[] registers = new double[root - start + 1];
+        if (this.run(start, root, new double[0], new boolean[0], registers)) {
+            return registers[root - start];
+        }
+        return this.toExpression(root).evaluate();
+    }
+
+    /**
+     * Evaluates the nodes of a tree in the order they are stored, so that the
+     * operands of every node are in the registers before the node itself. The
+     * arithmetic is the one of Operator.apply(), which is the same as in the
+     * evaluate() methods of the expression classes. When a node is undefined
+     * the pass stops, and the caller evaluates the expression objects instead,
+     * which throw the exception the user expects; the walk over the tree
+     * decides which of several errors is reported, and it is the rare case.
+     *
+     * @param start the index of the first node of the tree
+     * @param root the index of the root of the tree
+     * @param variables the values of the variables, indexed by slot
+     * @param bound which slots have a value, or null if all of them have one
+     * @param registers the result of every node, indexed from start
+     * @return true if the whole tree was evaluated, false if a node was
+     * undefined
+     */
+    private boolean run(int start, int root, double[] variables, boolean[] bound, double[] registers) {
+        for (int i = start; i <= root; i++) {
+            int left = this.lefts.get(i);
+            int right = this.rights.get(i);
+            Operator operator = this.operator(i);
+            if (operator == Operator.NUM) {
+                registers[i - start] = this.values.get(i);
+            } else if (operator == Operator.VAR) {
+                if (left >= variables.length || (bound != null && !bound[left])) {
+                    return false;
+                }
+                registers[i - start] = variables[left];
+            } else {
+                double x = registers[left - start];
+                double y = right >= 0 ? registers[right - start] : 0;
+                if (!operator.isDefined(x, y)) {
+                    return false;
+                }
+                registers[i - start] = operator.apply(x, y);
+            }
+        }
+        return true;
+    }
+}
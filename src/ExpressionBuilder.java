@@ -0,0 +1,272 @@
+// itay alter 206132284
+
+/**
+ * The ExpressionBuilder class creates expressions through factory methods. In
+ * folding mode every node is folded as it is created: operators over constants
+ * become a Num, and neutral constants are dropped, e.g. x + 0 is x, x * 1 is x
+ * and -(-x) is x. A tree that is built bottom-up therefore never holds the
+ * constant parts that simplify() would only remove at the end.
+ *
+ * <p>Constants are folded with the arithmetic of evaluate(), and a node whose
+ * evaluation would throw, such as a division by zero, is created as it is, so
+ * that evaluating it still throws. For the same reason the rules of simplify()
+ * that hold only for some values of the other operand are not applied: 0 * x
+ * is not 0 when x is infinite or NaN, and x / x and log(x, x) are not 1 when x
+ * is 0 or negative, and all of them throw when x has no value, so they are
+ * created as they are. Without folding the methods are the same as the
+ * constructors.
+ */
+public final class ExpressionBuilder {
+    private boolean folding;
+
+    /**
+     * Constructs a builder.
+     *
+     * @param folding true to fold every node as it is created
+     */
+    public ExpressionBuilder(boolean folding) {
+        this.folding = folding;
+    }
+
+    /**
+     * Returns whether the builder folds the nodes it creates.
+     *
+     * @return true in folding mode
+     */
+    public boolean isFolding() {
+        return this.folding;
+    }
+
+    /**
+     * Creates a number.
+     *
+     * @param value the value of the number
+     * @return the number
+     */
+    public Expression num(double value) {
+        return new Num(value);
+    }
+
+    /**
+     * Creates a variable.
+     *
+     * @param name the name of the variable
+     * @return the variable
+     */
+    public Expression var(String name) {
+        return new Var(name);
+    }
+
+    /**
+     * Creates the sum of two expressions. A 0 operand is dropped.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @return the sum
+     */
+    public Expression plus(Expression x, Expression y) {
+        if (this.folding) {
+            Expression folded = fold(Operator.PLUS, x, y);
+            if (folded != null) {
+                return folded;
+            }
+            if (isNum(x, 0)) {
+                return y;
+            }
+            if (isNum(y, 0)) {
+                return x;
+            }
+        }
+        return new Plus(x, y);
+    }
+
+    /**
+     * Creates the difference of two expressions. Subtracting 0 is dropped,
+     * subtracting from 0 is a negation and subtracting a negation is a sum.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @return the difference
+     */
+    public Expression minus(Expression x, Expression y) {
+        if (this.folding) {
+            Expression folded = fold(Operator.MINUS, x, y);
+            if (folded != null) {
+                return folded;
+            }
+            if (y instanceof Neg) {
+                return this.plus(x, ((Neg) y).getOperand());
+            }
+            if (isNum(y, 0)) {
+                return x;
+            }
+            if (isNum(x, 0)) {
+                return this.neg(y);
+            }
+        }
+        return new Minus(x, y);
+    }
+
+    /**
+     * Creates the product of two expressions. A 1 operand is dropped.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @return the product
+     */
+    public Expression mult(Expression x, Expression y) {
+        if (this.folding) {
+            Expression folded = fold(Operator.MULT, x, y);
+            if (folded != null) {
+                return folded;
+            }
+            if (isNum(x, 1)) {
+                return y;
+            }
+            if (isNum(y, 1)) {
+                return x;
+            }
+        }
+        return new Mult(x, y);
+    }
+
+    /**
+     * Creates the quotient of two expressions. Dividing by 1 is dropped.
+     *
+     * @param x the numerator
+     * @param y the denominator
+     * @return the quotient
+     */
+    public Expression div(Expression x, Expression y) {
+        if (this.folding) {
+            Expression folded = fold(Operator.DIV, x, y);
+            if (folded != null) {
+                return folded;
+            }
+            if (isNum(y, 1)) {
+                return x;
+            }
+        }
+        return new Div(x, y);
+    }
+
+    /**
+     * Creates a power. A power of 1 is dropped.
+     *
+     * @param x the base
+     * @param y the exponent
+     * @return the power
+     */
+    public Expression pow(Expression x, Expression y) {
+        if (this.folding) {
+            Expression folded = fold(Operator.POW, x, y);
+            if (folded != null) {
+                return folded;
+            }
+            if (isNum(y, 1)) {
+                return x;
+            }
+        }
+        return new Pow(x, y);
+    }
+
+    /**
+     * Creates a logarithm.
+     *
+     * @param x the base
+     * @param y the argument
+     * @return the logarithm
+     */
+    public Expression log(Expression x, Expression y) {
+        if (this.folding) {
+            Expression folded = fold(Operator.LOG, x, y);
+            if (folded != null) {
+                return folded;
+            }
+        }
+        return new Log(x, y);
+    }
+
+    /**
+     * Creates a sine, in degrees.
+     *
+     * @param x the operand
+     * @return the sine
+     */
+    public Expression sin(Expression x) {
+        if (this.folding) {
+            Expression folded = fold(Operator.SIN, x, null);
+            if (folded != null) {
+                return folded;
+            }
+        }
+        return new Sin(x);
+    }
+
+    /**
+     * Creates a cosine, in degrees.
+     *
+     * @param x the operand
+     * @return the cosine
+     */
+    public Expression cos(Expression x) {
+        if (this.folding) {
+            Expression folded = fold(Operator.COS, x, null);
+            if (folded != null) {
+                return folded;
+            }
+        }
+        return new Cos(x);
+    }
+
+    /**
+     * Creates a negation. The negation of a negation is its operand.
+     *
+     * @param x the operand
+     * @return the negation
+     */
+    public Expression neg(Expression x) {
+        if (this.folding) {
+            Expression folded = fold(Operator.NEG, x, null);
+            if (folded != null) {
+                return folded;
+            }
+            if (x instanceof Neg) {
+                return ((Neg) x).getOperand();
+            }
+        }
+        return new Neg(x);
+    }
+
+    /**
+     * Folds an operator whose operands are all numbers.
+     *
+     * @param operator the operator
+     * @param x the first operand
+     * @param y the second operand, or null for a unary operator
+     * @return the Num of the value, or null if an operand is not a number or
+     * the operator is not defined for them
+     */
+    private static Expression fold(Operator operator, Expression x, Expression y) {
+        if (!(x instanceof Num) || (y != null && !(y instanceof Num))) {
+            return null;
+        }
+        double a = ((Num) x).getValue();
+        double b = y == null ? 0 : ((Num) y).getValue();
+        if (!operator.isDefined(a, b)) {
+            return null;
+        }
+        return new Num(operator.apply(a, b));
+    }
+
+    /**
+     * Returns whether an expression is the given number.
+     *
+     * @param x the expression
+     * @param value the number
+     * @return true if the expression is a Num of the value
+     */
+    private static boolean isNum(Expression x, double value) {
+        return x instanceof Num && ((Num) x).getValue() == value;
+    }
+}
@@ -0,0 +1,702 @@
+// itay alter 206132284
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ExpressionCompiler class turns an expression into a CompiledExpression,
+ * a flat program over an array of registers that is evaluated without walking
+ * the tree. Some of the variables can be bound to values when compiling: every
+ * subexpression that depends only on bound variables is then folded into a
+ * constant, including ones under Sin, Cos, Log and Pow that simplify() leaves
+ * alone, and only the residual expression is compiled, over the slots of the
+ * remaining variables.
+ *
+ * <p>The compiled program computes exactly the values evaluate(Map) of the
+ * expression computes, unless the fast trigonometry or the fast logarithm is
+ * selected, and throws the same exceptions with the same messages.
+ * Subexpressions whose evaluation would throw are never folded.
+ *
+ * <p>Structurally identical subexpressions are compiled into one instruction,
+ * whose register the other occurrences read. The derivative rules repeat their
+ * operands, e.g. the rule of Div uses the denominator three times and the rule
+ * of Pow embeds the power itself, so a compiled derivative computes each
+ * distinct subexpression once.
+ */
+public final class ExpressionCompiler {
+    private boolean fastTrig;
+    private boolean fastLog;
+    private boolean degreeFactor;
+
+    /**
+     * Constructs a compiler.
+     */
+    public ExpressionCompiler() {
+    }
+
+    /**
+     * Selects the fast trigonometry of FastTrig for the Sin and Cos
+     * instructions of the programs compiled from now on, in both scalar and
+     * batch evaluation. Their results then differ from the ones of the tree by
+     * at most 2.3e-16 each (see FastTrig). Constants are always folded with
+     * Math.sin and Math.cos. It is off by default.
+     *
+     * @param fast true to use FastTrig
+     */
+    public void setFastTrig(boolean fast) {
+        this.fastTrig = fast;
+    }
+
+    /**
+     * Selects the fast logarithm of a constant base for the programs compiled
+     * from now on: the logarithm of the argument is multiplied by the
+     * precomputed reciprocal of the logarithm of the base instead of being
+     * divided by it, and Math.log10() is used for base 10. The results then
+     * differ from the ones of the tree by about an ulp. Logarithms of a
+     * constant base skip computing the logarithm of the base even when this is
+     * off, with identical results. It is off by default.
+     *
+     * @param fast true to multiply by the reciprocal
+     */
+    public void setFastLog(boolean fast) {
+        this.fastLog = fast;
+    }
+
+    /**
+     * Returns whether the compiled programs multiply by the reciprocal of the
+     * logarithm of a constant base.
+     *
+     * @return true if the fast logarithm is selected
+     */
+    public boolean isFastLog() {
+        return this.fastLog;
+    }
+
+    /**
+     * Returns whether the compiled programs use FastTrig.
+     *
+     * @return true if the fast trigonometry is selected
+     */
+    public boolean isFastTrig() {
+        return this.fastTrig;
+    }
+
+    /**
+     * Selects derivatives of Sin and Cos with the factor pi / 180 of angles
+     * in degrees for the derivatives compiled from now on by
+     * compileGradient() and compileDerivatives(). The rules of
+     * differentiate() omit the factor, so its derivatives of Sin and Cos are
+     * 180 / pi times too large. It is off by default, so the derivatives of
+     * Sin and Cos are the ones of differentiate().
+     *
+     * @param degrees true to include the factor
+     */
+    public void setDegreeFactor(boolean degrees) {
+        this.degreeFactor = degrees;
+    }
+
+    /**
+     * Returns whether the compiled derivatives of Sin and Cos include the
+     * factor of angles in degrees.
+     *
+     * @return true if the factor is selected
+     */
+    public boolean isDegreeFactor() {
+        return this.degreeFactor;
+    }
+
+    /**
+     * Compiles an expression. The slots are the variables of the expression,
+     * in the order of their first occurrence.
+     *
+     * @param expression the expression to compile
+     * @return the compiled expression
+     */
+    public CompiledExpression compile(Expression expression) {
+        return this.specialize(expression, Collections.<String, Double>emptyMap());
+    }
+
+    /**
+     * Compiles an expression with the given order of the slots.
+     *
+     * @param expression the expression to compile
+     * @param variables the variables of the slots, which must include all the
+     * variables of the expression
+     * @return the compiled expression
+     * @throws IllegalArgumentException if a variable of the expression is not
+     * in the list, or a variable appears twice
+     */
+    public CompiledExpression compile(Expression expression, List<String> variables) {
+        return this.specialize(expression, Collections.<String, Double>emptyMap(), variables);
+    }
+
+    /**
+     * Compiles an expression with some of its variables bound to values. The
+     * slots are the remaining variables, in the order of their first
+     * occurrence in the residual expression.
+     *
+     * @param expression the expression to compile
+     * @param bound the values of the bound variables
+     * @return the compiled expression
+     */
+    public CompiledExpression specialize(Expression expression, Map<String, Double> bound) {
+        return this.specialize(expression, bound, null);
+    }
+
+    /**
+     * Compiles an expression with some of its variables bound to values, and
+     * with the given order of the slots.
+     *
+     * @param expression the expression to compile
+     * @param bound the values of the bound variables
+     * @param variables the variables of the slots, which must include all the
+     * variables that are not bound, or null for the order of first occurrence
+     * @return the compiled expression
+     * @throws IllegalArgumentException if a variable that is not bound is not
+     * in the list, or a variable appears twice
+     */
+    public CompiledExpression specialize(Expression expression, Map<String, Double> bound,
+                                         List<String> variables) {
+        CompileEvent event = new CompileEvent();
+        event.begin();
+        Map<String, Double> values = new HashMap<>(bound);
+        Expression residual = this.partiallyEvaluate(expression, values);
+        List<String> slots = variables;
+        if (slots == null) {
+            slots = new ArrayList<>(residual.getVariableSet());
+        }
+        CompiledExpression compiled = this.emit(expression, values, Collections.singletonList(residual), slots,
+                new int[1]);
+        event.end();
+        if (event.shouldCommit()) {
+            event.measure(expression, values.size(), compiled);
+            event.commit();
+        }
+        return compiled;
+    }
+
+    /**
+     * Compiles several expressions into one program, e.g. related formulas
+     * that are evaluated for the same values. The slots are the variables of
+     * the expressions, in the order of their first occurrence.
+     *
+     * @param expressions the expressions to compile
+     * @return the compiled expressions
+     */
+    public CompiledGroup compileAll(List<Expression> expressions) {
+        return this.specializeAll(expressions, Collections.<String, Double>emptyMap(), null);
+    }
+
+    /**
+     * Compiles several expressions into one program, with the given order of
+     * the slots.
+     *
+     * @param expressions the expressions to compile
+     * @param variables the variables of the slots, which must include all the
+     * variables of the expressions
+     * @return the compiled expressions
+     * @throws IllegalArgumentException if a variable of an expression is not
+     * in the list, or a variable appears twice
+     */
+    public CompiledGroup compileAll(List<Expression> expressions, List<String> variables) {
+        return this.specializeAll(expressions, Collections.<String, Double>emptyMap(), variables);
+    }
+
+    /**
+     * Compiles several expressions into one program, with some of their
+     * variables bound to values. Subexpressions are shared between the
+     * expressions as well as within each one: a subexpression that appears
+     * in several of them, by reference or by structure, is folded once and
+     * computed once per evaluation.
+     *
+     * @param expressions the expressions to compile
+     * @param bound the values of the bound variables
+     * @param variables the variables of the slots, which must include all the
+     * variables that are not bound, or null for the order of first occurrence
+     * @return the compiled expressions
+     * @throws IllegalArgumentException if there are no expressions, a
+     * variable that is not bound is not in the list, or a variable appears
+     * twice
+     */
+    public CompiledGroup specializeAll(List<Expression> expressions, Map<String, Double> bound,
+                                       List<String> variables) {
+        if (expressions.isEmpty()) {
+            throw new IllegalArgumentException("no expressions to compile");
+        }
+        Map<String, Double> values = new HashMap<>(bound);
+        Map<Expression, Folded> done = new IdentityHashMap<>();
+        List<Expression> residuals = new ArrayList<>(expressions.size());
+        Set<String> occurrences = new LinkedHashSet<>();
+        for (Expression expression : expressions) {
+            Expression residual = partiallyEvaluate(expression, values, done);
+            residuals.add(residual);
+            occurrences.addAll(residual.getVariableSet());
+        }
+        List<String> slots = variables;
+        if (slots == null) {
+            slots = new ArrayList<>(occurrences);
+        }
+        int[] results = new int[residuals.size()];
+        CompiledExpression program = this.emit(expressions.get(expressions.size() - 1), values, residuals, slots,
+                results);
+        return new CompiledGroup(expressions, residuals, program, results);
+    }
+
+    /**
+     * Compiles an expression together with its derivatives with respect to
+     * all of its variables. The slots are the variables of the expression, in
+     * the order of their first occurrence, and so are the components of the
+     * gradient.
+     *
+     * @param expression the expression to compile
+     * @return the compiled value and gradient
+     */
+    public CompiledGradient compileGradient(Expression expression) {
+        return this.compileGradient(expression, new ArrayList<>(expression.getVariableSet()));
+    }
+
+    /**
+     * Compiles an expression together with its derivatives with respect to
+     * the given variables, which are also the slots. The derivatives are the
+     * ones of ExpressionEngine.derivative(), which differentiates the powers
+     * so that they are defined wherever the powers are, and they are compiled
+     * into one program with
+     * the expression, so the subexpressions of the expression that the
+     * derivative rules repeat, e.g. the power that the rule of Pow embeds, are
+     * computed once for the value and all the derivatives.
+     *
+     * @param expression the expression to compile
+     * @param variables the variables of the gradient, which must include all
+     * the variables of the expression
+     * @return the compiled value and gradient
+     * @throws IllegalArgumentException if a variable of the expression is not
+     * in the list, or a variable appears twice
+     */
+    public CompiledGradient compileGradient(Expression expression, List<String> variables) {
+        return new CompiledGradient(this.compileDerivatives(expression, variables, variables));
+    }
+
+    /**
+     * Compiles an expression together with its derivatives with respect to
+     * some of its variables, into one program whose outputs are the value
+     * and then the derivatives, in order. The derivatives are the ones of
+     * ExpressionEngine.derivative(), with the factor of degrees when it is
+     * selected. Their natural logarithms are taken in the constant e, so a
+     * variable e of the expression needs a slot like any other variable.
+     *
+     * @param expression the expression to compile
+     * @param variables the variables of the slots, which must include all the
+     * variables of the expression
+     * @param wrt the variables to differentiate with respect to
+     * @return the compiled value and derivatives
+     * @throws IllegalArgumentException if a variable of the expression is not
+     * in the list of the slots, or a variable appears twice
+     */
+    public CompiledGroup compileDerivatives(Expression expression, List<String> variables, List<String> wrt) {
+        List<Expression> expressions = new ArrayList<>(wrt.size() + 1);
+        expressions.add(expression);
+        for (String var : wrt) {
+            expressions.add(ExpressionEngine.derivative(expression, var, this.degreeFactor));
+        }
+        return this.specializeAll(expressions, Collections.<String, Double>emptyMap(), variables);
+    }
+
+    /**
+     * Folds every subexpression that depends only on bound variables into a
+     * constant. Subexpressions that do not change are shared with the given
+     * expression, and subexpressions whose evaluation would throw are kept, so
+     * that evaluating the result throws the same exception. The tree is
+     * walked with an explicit stack, and subexpressions that are shared by
+     * reference are folded once.
+     *
+     * @param expression the expression to fold
+     * @param bound the values of the bound variables
+     * @return the residual expression
+     */
+    public Expression partiallyEvaluate(Expression expression, Map<String, Double> bound) {
+        return partiallyEvaluate(expression, bound, new IdentityHashMap<Expression, Folded>());
+    }
+
+    /**
+     * Folds every subexpression that depends only on bound variables into a
+     * constant, reusing the subexpressions that were already folded.
+     *
+     * @param expression the expression to fold
+     * @param bound the values of the bound variables
+     * @param done the subexpressions that were already folded, by identity,
+     * which the new ones are added to
+     * @return the residual expression
+     */
+    private static Expression partiallyEvaluate(Expression expression, Map<String, Double> bound,
+                                                Map<Expression, Folded> done) {
+        Deque<Expression> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        Deque<Folded> folded = new ArrayDeque<>();
+        stack.push(expression);
+        expanded.push(false);
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            boolean children = expanded.pop();
+            Operator operator = Operator.of(node);
+            if (!children && done.containsKey(node)) {
+                folded.push(done.get(node));
+            } else if (operator == Operator.NUM) {
+                folded.push(new Folded(node, ((Num) node).getValue()));
+            } else if (operator == Operator.VAR) {
+                Double value = bound.get(((Var) node).getName());
+                folded.push(value == null ? new Folded(node) : new Folded(new Num(value), value));
+            } else if (!children) {
+                stack.push(node);
+                expanded.push(true);
+                if (operator.isBinary()) {
+                    stack.push(((BinaryExpression) node).getRight());
+                    expanded.push(false);
+                    stack.push(((BinaryExpression) node).getLeft());
+                    expanded.push(false);
+                } else {
+                    stack.push(((UnaryExpression) node).getOperand());
+                    expanded.push(false);
+                }
+            } else if (operator.isBinary()) {
+                Folded right = folded.pop();
+                Folded left = folded.pop();
+                BinaryExpression binary = (BinaryExpression) node;
+                folded.push(fold(operator, binary, binary.getLeft(), left, binary.getRight(), right));
+                done.put(node, folded.peek());
+            } else {
+                UnaryExpression unary = (UnaryExpression) node;
+                folded.push(fold(operator, unary, unary.getOperand(), folded.pop(), null, null));
+                done.put(node, folded.peek());
+            }
+        }
+        return folded.pop().getExpression();
+    }
+
+    /**
+     * Folds an operator whose operands were already folded.
+     *
+     * @param operator the operator of the node
+     * @param node the node
+     * @param x the first operand of the node
+     * @param left the folded first operand
+     * @param y the second operand of the node, or null for a unary node
+     * @param right the folded second operand, or null for a unary node
+     * @return the folded node
+     */
+    private static Folded fold(Operator operator, Expression node, Expression x, Folded left,
+                               Expression y, Folded right) {
+        boolean constant = left.isConstant() && (right == null || right.isConstant());
+        double a = left.getValue();
+        double b = right == null ? 0 : right.getValue();
+        if (constant && operator.isDefined(a, b)) {
+            double value = operator.apply(a, b);
+            return new Folded(new Num(value), value);
+        }
+        if (left.getExpression() == x && (right == null || right.getExpression() == y)) {
+            return new Folded(node);
+        }
+        return new Folded(operator.create(left.getExpression(), right == null ? null : right.getExpression()));
+    }
+
+    /**
+     * Compiles residual expressions into one program. Every operator becomes
+     * an instruction that reads its operands from registers and writes its
+     * own register. The registers hold the variables, then the constants, and
+     * then the results of the instructions. Subexpressions with the same
+     * structure, such as the operands that the derivative rules repeat, get a
+     * single instruction, and the other occurrences read its register, so
+     * every distinct subexpression is computed once per evaluation and
+     * subexpressions shared by reference are walked once. This holds across
+     * the residual expressions as well.
+     *
+     * @param source the expression that was compiled
+     * @param bound the values of the bound variables
+     * @param residuals the residual expressions; the result of the program is
+     * the one of the last
+     * @param variables the variables of the slots
+     * @param results where to write the register of the result of every
+     * residual expression
+     * @return the compiled program
+     */
+    private CompiledExpression emit(Expression source, Map<String, Double> bound, List<Expression> residuals,
+                                    List<String> variables, int[] results) {
+        Map<String, Integer> slots = new HashMap<>();
+        for (String var : variables) {
+            if (slots.put(var, slots.size()) != null) {
+                throw new IllegalArgumentException("variable " + var + " appears twice");
+            }
+        }
+        for (Expression residual : residuals) {
+            for (String var : residual.getVariableSet()) {
+                if (!slots.containsKey(var)) {
+                    throw new IllegalArgumentException("no slot for variable " + var);
+                }
+            }
+        }
+        int slotCount = variables.size();
+        List<Double> constants = new ArrayList<>();
+        Map<Long, Integer> constantRegisters = new HashMap<>();
+        List<Operator> operators = new ArrayList<>();
+        List<Integer> lefts = new ArrayList<>();
+        List<Integer> rights = new ArrayList<>();
+        // Sin and Cos of the same operand are computed together, from one
+        // evaluation of the operand
+        Map<Expression, Integer> numbers = number(residuals);
+        Set<Integer> pairs = sinCosPairs(numbers);
+        Map<Integer, Integer> pairInstructions = new HashMap<>();
+        // Structurally identical subexpressions are computed once, into the
+        // register of the first one
+        Map<Integer, Integer> emitted = new HashMap<>();
+        // The registers of instructions are numbered -1, -2, ... until the
+        // number of constants is known
+        Deque<Expression> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        Deque<Integer> registers = new ArrayDeque<>();
+        for (int k = 0; k < residuals.size(); k++) {
+            stack.push(residuals.get(k));
+            expanded.push(false);
+            while (!stack.isEmpty()) {
+                Expression node = stack.pop();
+                boolean children = expanded.pop();
+                Operator operator = Operator.of(node);
+                if (operator == Operator.NUM) {
+                    double value = ((Num) node).getValue();
+                    Integer register = constantRegisters.get(Double.doubleToRawLongBits(value));
+                    if (register == null) {
+                        register = slotCount + constants.size();
+                        constants.add(value);
+                        constantRegisters.put(Double.doubleToRawLongBits(value), register);
+                    }
+                    registers.push(register);
+                } else if (operator == Operator.VAR) {
+                    registers.push(slots.get(((Var) node).getName()));
+                } else if (!children && emitted.containsKey(numbers.get(node))) {
+                    registers.push(emitted.get(numbers.get(node)));
+                } else if (!children && isTrig(operator)
+                        && pairInstructions.containsKey(numbers.get(((UnaryExpression) node).getOperand()))) {
+                    int sin = pairInstructions.get(numbers.get(((UnaryExpression) node).getOperand()));
+                    registers.push(operator == Operator.SIN ? -sin - 1 : -sin - 2);
+                } else if (!children) {
+                    stack.push(node);
+                    expanded.push(true);
+                    if (operator.isBinary()) {
+                        stack.push(((BinaryExpression) node).getRight());
+                        expanded.push(false);
+                        stack.push(((BinaryExpression) node).getLeft());
+                        expanded.push(false);
+                    } else {
+                        stack.push(((UnaryExpression) node).getOperand());
+                        expanded.push(false);
+                    }
+                } else if (isTrig(operator) && pairs.contains(numbers.get(((UnaryExpression) node).getOperand()))) {
+                    // Emit the Sin and the Cos next to each other, which is how
+                    // CompiledExpression recognizes a pair
+                    int operand = registers.pop();
+                    int sin = operators.size();
+                    operators.add(Operator.SIN);
+                    lefts.add(operand);
+                    rights.add(operand);
+                    operators.add(Operator.COS);
+                    lefts.add(operand);
+                    rights.add(operand);
+                    pairInstructions.put(numbers.get(((UnaryExpression) node).getOperand()), sin);
+                    registers.push(operator == Operator.SIN ? -sin - 1 : -sin - 2);
+                    emitted.put(numbers.get(node), registers.peek());
+                } else {
+                    int right = operator.isBinary() ? registers.pop() : 0;
+                    int left = registers.pop();
+                    operators.add(operator);
+                    lefts.add(left);
+                    // A unary instruction reads its operand twice and ignores it
+                    rights.add(operator.isBinary() ? right : left);
+                    registers.push(-operators.size());
+                    emitted.put(numbers.get(node), registers.peek());
+                }
+            }
+            results[k] = registers.pop();
+        }
+        int base = slotCount + constants.size();
+        for (int k = 0; k < results.length; k++) {
+            results[k] = register(results[k], base);
+        }
+        int[] code = new int[3 * operators.size()];
+        for (int i = 0; i < operators.size(); i++) {
+            code[3 * i] = operators.get(i).ordinal();
+            code[3 * i + 1] = register(lefts.get(i), base);
+            code[3 * i + 2] = register(rights.get(i), base);
+        }
+        double[] constantArray = new double[constants.size()];
+        for (int i = 0; i < constantArray.length; i++) {
+            constantArray[i] = constants.get(i);
+        }
+        return new CompiledExpression(this, source, bound, residuals.get(residuals.size() - 1), variables,
+                constantArray, code);
+    }
+
+    /**
+     * Numbers the subexpressions of expressions so that two subexpressions
+     * get the same number if and only if they have the same structure: the
+     * same operators over the same variables and constants.
+     *
+     * @param expressions the expressions
+     * @return the number of every subexpression, by identity
+     */
+    private static Map<Expression, Integer> number(List<Expression> expressions) {
+        Map<Expression, Integer> numbers = new IdentityHashMap<>();
+        Map<String, Integer> keys = new HashMap<>();
+        Deque<Expression> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        for (Expression expression : expressions) {
+            stack.push(expression);
+            expanded.push(false);
+        }
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            boolean children = expanded.pop();
+            if (numbers.containsKey(node)) {
+                continue;
+            }
+            Operator operator = Operator.of(node);
+            String key;
+            if (operator == Operator.NUM) {
+                key = "n" + Double.doubleToRawLongBits(((Num) node).getValue());
+            } else if (operator == Operator.VAR) {
+                key = "v" + ((Var) node).getName();
+            } else if (!children) {
+                stack.push(node);
+                expanded.push(true);
+                if (operator.isBinary()) {
+                    stack.push(((BinaryExpression) node).getRight());
+                    expanded.push(false);
+                    stack.push(((BinaryExpression) node).getLeft());
+                    expanded.push(false);
+                } else {
+                    stack.push(((UnaryExpression) node).getOperand());
+                    expanded.push(false);
+                }
+                continue;
+            } else if (operator.isBinary()) {
+                key = operator.ordinal() + ":" + numbers.get(((BinaryExpression) node).getLeft()) + ":"
+                        + numbers.get(((BinaryExpression) node).getRight());
+            } else {
+                key = operator.ordinal() + ":" + numbers.get(((UnaryExpression) node).getOperand());
+            }
+            Integer number = keys.get(key);
+            if (number == null) {
+                number = keys.size();
+                keys.put(key, number);
+            }
+            numbers.put(node, number);
+        }
+        return numbers;
+    }
+
+    /**
+     * Returns the numbers of the operands that appear both under a Sin and
+     * under a Cos.
+     *
+     * @param numbers the numbers of the subexpressions
+     * @return the numbers of the shared operands
+     */
+    private static Set<Integer> sinCosPairs(Map<Expression, Integer> numbers) {
+        Set<Integer> sines = new HashSet<>();
+        Set<Integer> cosines = new HashSet<>();
+        for (Expression node : numbers.keySet()) {
+            if (node instanceof Sin) {
+                sines.add(numbers.get(((Sin) node).getOperand()));
+            } else if (node instanceof Cos) {
+                cosines.add(numbers.get(((Cos) node).getOperand()));
+            }
+        }
+        sines.retainAll(cosines);
+        return sines;
+    }
+
+    /**
+     * Returns whether an operator is Sin or Cos.
+     *
+     * @param operator the operator
+     * @return true for SIN and COS
+     */
+    private static boolean isTrig(Operator operator) {
+        return operator == Operator.SIN || operator == Operator.COS;
+    }
+
+    /**
+     * Returns the final number of a register.
+     *
+     * @param register a register of a variable or a constant, or the negative
+     * number of an instruction
+     * @param base the number of the register of the first instruction
+     * @return the number of the register
+     */
+    private static int register(int register, int base) {
+        return register < 0 ? base - register - 1 : register;
+    }
+
+    /**
+     * A subexpression after folding: the residual expression, and its value
+     * if it was folded into a constant.
+     */
+    private static final class Folded {
+        private Expression expression;
+        private boolean constant;
+        private double value;
+
+        /**
+         * Constructs a subexpression that was not folded.
+         *
+         * @param expression the residual expression
+         */
+        Folded(Expression expression) {
+            this.expression = expression;
+        }
+
+        /**
+         * Constructs a subexpression that was folded into a constant.
+         *
+         * @param expression the Num of the value
+         * @param value the value
+         */
+        Folded(Expression expression, double value) {
+            this.expression = expression;
+            this.constant = true;
+            this.value = value;
+        }
+
+        /**
+         * Returns the residual expression.
+         *
+         * @return the residual expression
+         */
+        Expression getExpression() {
+            return this.expression;
+        }
+
+        /**
+         * Returns whether the subexpression was folded into a constant.
+         *
+         * @return true if the subexpression is a constant
+         */
+        boolean isConstant() {
+            return this.constant;
+        }
+
+        /**
+         * Returns the value of a constant subexpression.
+         *
+         * @return the value, or 0 if the subexpression is not a constant
+         */
+        double getValue() {
+            return this.value;
+        }
+    }
+}
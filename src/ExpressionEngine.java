@@ -0,0 +1,477 @@
+// itay alter 206132284
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * The ExpressionEngine class evaluates, simplifies, differentiates and assigns
+ * expressions that are too deep to be walked recursively. The operators hand
+ * it every expression deeper than MAX_RECURSION_DEPTH, and it walks the deep
+ * part of the tree with an explicit stack, applying to each node the local rule
+ * that the recursive method of the node applies to the results of its
+ * operands: evaluateWith(), simplifyWith() and differentiateWith(). Subtrees
+ * that are shallow enough go back to their own recursive methods, so shallow
+ * trees, the common case, never reach this class, and a deep chain only pays
+ * for the explicit stack along its deep spine.
+ *
+ * <p>The operands are visited in the order of the recursive methods, the first
+ * operand first except for the denominator of a division, so the errors and
+ * the counts of ExpressionMetrics are the same as with recursion.
+ * getVariables() and toString() need no engine: the variables are computed
+ * when an expression is constructed, and the ExpressionRenderer already
+ * renders with an explicit stack.
+ */
+public final class ExpressionEngine {
+    /**
+     * The depth above which an expression is handed to the engine. Recursing
+     * to this depth takes a small part of the default thread stack, even with
+     * the frames of simplify(), which evaluates the simplified operands.
+     */
+    public static final int MAX_RECURSION_DEPTH = 512;
+
+    /**
+     * This class only has static members.
+     */
+    private ExpressionEngine() {
+    }
+
+    /**
+     * Returns whether an expression is too deep to be walked recursively.
+     *
+     * @param expression the expression
+     * @return true if it is an operator deeper than MAX_RECURSION_DEPTH
+     */
+    public static boolean isDeep(Expression expression) {
+        return expression instanceof BaseExpression && ((BaseExpression) expression).isDeep();
+    }
+
+    /**
+     * Evaluates an expression using a variable assignment, like
+     * evaluate(Map).
+     *
+     * @param expression the expression to evaluate
+     * @param assignment a map of variable names to values
+     * @return the value of the expression
+     * @throws Exception in the cases where evaluate(Map) throws
+     */
+    public static double evaluate(Expression expression, Map<String, Double> assignment) throws Exception {
+        return evaluate(expression, assignment, true);
+    }
+
+    /**
+     * Evaluates an expression without variables, like evaluate().
+     *
+     * @param expression the expression to evaluate
+     * @return the value of the expression
+     * @throws Exception in the cases where evaluate() throws
+     */
+    public static double evaluate(Expression expression) throws Exception {
+        return evaluate(expression, null, false);
+    }
+
+    /**
+     * Simplifies an expression, like simplify().
+     *
+     * @param expression the expression to simplify
+     * @return the simplified expression
+     */
+    public static Expression simplify(Expression expression) {
+        return transform(expression, new Transform() {
+            @Override
+            Expression recurse(Expression shallow) {
+                return shallow.simplify();
+            }
+
+            @Override
+            Expression replace(BaseExpression node) {
+                if (node instanceof BinaryExpression) {
+                    return ((BinaryExpression) node).simplifyTarget();
+                }
+                return node;
+            }
+
+            @Override
+            Expression combine(BaseExpression node, Expression x, Expression y) {
+                return node.simplifyWith(x, y);
+            }
+        });
+    }
+
+    /**
+     * Differentiates an expression, like differentiate().
+     *
+     * @param expression the expression to differentiate
+     * @param var the variable with respect to which the derivative is calculated
+     * @return the derivative of the expression
+     */
+    public static Expression differentiate(Expression expression, String var) {
+        return transform(expression, new Transform() {
+            @Override
+            Expression recurse(Expression shallow) {
+                return shallow.differentiate(var);
+            }
+
+            @Override
+            Expression combine(BaseExpression node, Expression dx, Expression dy) {
+                return node.differentiateWith(var, dx, dy);
+            }
+        });
+    }
+
+    /**
+     * Differentiates an expression like differentiate(), except that the
+     * derivatives of Sin and Cos include the factor pi / 180 of angles in
+     * degrees, which the rules of differentiate() omit. The powers are
+     * differentiated like derivative() does.
+     *
+     * @param expression the expression to differentiate
+     * @param var the variable with respect to which the derivative is calculated
+     * @return the derivative of the expression, of angles in degrees
+     */
+    public static Expression differentiateInDegrees(Expression expression, String var) {
+        return derivative(expression, var, true);
+    }
+
+    /**
+     * Differentiates an expression for the derivatives that the
+     * ExpressionCompiler compiles. The rules are the ones of differentiate(),
+     * except for the powers: the rule of Pow divides by the base and takes
+     * its logarithm, so it is undefined at a base that is not positive even
+     * where the power is defined, e.g. for x^2 at 0. A power whose exponent
+     * does not depend on the variable is differentiated as n * f^(n - 1) * f'
+     * instead, and one whose base does not depend on it as f^g * ln(f) * g'.
+     * The natural logarithms of the rules of Pow and Log are taken in the
+     * constant e, not in the variable e. When degrees is true, the derivatives of Sin and Cos also include the
+     * factor pi / 180 of angles in degrees.
+     *
+     * <p>Every node that depends on the variable is walked with the explicit
+     * stack, whatever its depth, so that no Sin, Cos or Pow goes through its
+     * own rule; the derivative of a subtree without the variable is 0.
+     *
+     * @param expression the expression to differentiate
+     * @param var the variable with respect to which the derivative is calculated
+     * @param degrees whether the derivatives of Sin and Cos include the factor
+     * of degrees
+     * @return the derivative of the expression
+     */
+    public static Expression derivative(Expression expression, String var, boolean degrees) {
+        return transform(expression, new Transform() {
+            @Override
+            boolean expand(Expression subtree) {
+                return (subtree instanceof UnaryExpression || subtree instanceof BinaryExpression)
+                        && subtree.getVariableSet().contains(var);
+            }
+
+            @Override
+            Expression recurse(Expression shallow) {
+                return shallow.getVariableSet().contains(var) ? shallow.differentiate(var) : new Num(0);
+            }
+
+            @Override
+            Expression combine(BaseExpression node, Expression dx, Expression dy) {
+                if (degrees && (node instanceof Sin || node instanceof Cos)) {
+                    return node.differentiateWith(var, new Mult(new Num(Math.PI / 180), dx), dy);
+                }
+                if (node instanceof Pow) {
+                    return powerDerivative((Pow) node, var, dx, dy);
+                }
+                if (node instanceof Log) {
+                    return logDerivative((Log) node, dx, dy);
+                }
+                return node.differentiateWith(var, dx, dy);
+            }
+        });
+    }
+
+    /**
+     * Differentiates a power, with the rule of Pow only when both the base
+     * and the exponent depend on the variable.
+     *
+     * @param power the power
+     * @param var the variable with respect to which the derivative is calculated
+     * @param dF the derivative of the base
+     * @param dG the derivative of the exponent
+     * @return the derivative of the power
+     */
+    private static Expression powerDerivative(Pow power, String var, Expression dF, Expression dG) {
+        Expression f = power.getLeft();
+        Expression g = power.getRight();
+        if (!g.getVariableSet().contains(var)) {
+            if (g instanceof Num) {
+                double n = ((Num) g).getValue();
+                if (n == 0) {
+                    return new Num(0);
+                }
+                if (n == 1) {
+                    return dF;
+                }
+                // A constant exponent is lowered by a constant, so that a
+                // power with an integer exponent of at least 2 stays defined
+                // at a negative base
+                return new Mult(new Mult(g, new Pow(f, new Num(n - 1))), dF);
+            }
+            return new Mult(new Mult(g, new Pow(f, new Minus(g, new Num(1)))), dF);
+        }
+        if (!f.getVariableSet().contains(var)) {
+            return new Mult(new Mult(power, ln(f)), dG);
+        }
+        return new Mult(power, new Plus(new Mult(dF, new Div(g, f)), new Mult(dG, ln(f))));
+    }
+
+    /**
+     * Differentiates a logarithm with the rule of Log, with the natural
+     * logarithms taken in the constant base e.
+     *
+     * @param log the logarithm
+     * @param dBase the derivative of the base
+     * @param dArgument the derivative of the argument
+     * @return the derivative of the logarithm
+     */
+    private static Expression logDerivative(Log log, Expression dBase, Expression dArgument) {
+        Expression base = log.getLeft();
+        Expression argument = log.getRight();
+        Expression numerator = new Minus(new Mult(new Mult(ln(base), base), dArgument),
+                new Mult(new Mult(ln(argument), argument), dBase));
+        Expression denominator = new Mult(new Mult(base, argument), new Pow(ln(base), new Num(2)));
+        return new Div(numerator, denominator);
+    }
+
+    /**
+     * Returns the natural logarithm of an expression. The rules of Pow and
+     * Log take it in the variable e, which is then indistinguishable from a
+     * variable e of the expression; the compiled derivatives take it in the
+     * constant e instead.
+     *
+     * @param expression the expression
+     * @return the natural logarithm of the expression
+     */
+    private static Expression ln(Expression expression) {
+        return new Log(new Num(Math.E), expression);
+    }
+
+    /**
+     * Assigns an expression to a variable, like assign(String, Expression).
+     * Subtrees without the variable are kept as they are.
+     *
+     * @param expression the expression to assign into
+     * @param var the variable to replace
+     * @param value the expression to replace it with
+     * @return the expression with the variable replaced
+     */
+    public static Expression assign(Expression expression, String var, Expression value) {
+        return transform(expression, new Transform() {
+            @Override
+            boolean expand(Expression subtree) {
+                return isDeep(subtree) && subtree.getVariableSet().contains(var);
+            }
+
+            @Override
+            Expression recurse(Expression shallow) {
+                return shallow.assign(var, value);
+            }
+
+            @Override
+            Expression combine(BaseExpression node, Expression x, Expression y) {
+                return Operator.of(node).create(x, y);
+            }
+        });
+    }
+
+    /**
+     * Assigns expressions to several variables, like assign(Map). Subtrees
+     * without any of the variables are kept as they are.
+     *
+     * @param expression the expression to assign into
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the expression with the variables replaced
+     */
+    public static Expression assign(Expression expression, Map<String, Expression> assignments) {
+        return transform(expression, new Transform() {
+            @Override
+            boolean expand(Expression subtree) {
+                return isDeep(subtree) && ((BaseExpression) subtree).hasAnyOf(assignments);
+            }
+
+            @Override
+            Expression recurse(Expression shallow) {
+                return shallow.assign(assignments);
+            }
+
+            @Override
+            Expression combine(BaseExpression node, Expression x, Expression y) {
+                return Operator.of(node).create(x, y);
+            }
+        });
+    }
+
+    /**
+     * Evaluates an expression with an explicit stack of the nodes being
+     * evaluated and a stack of the values of their evaluated operands. The
+     * state of a node counts its operands that were already pushed. The
+     * metrics flag is read once per evaluation.
+     *
+     * @param root the expression to evaluate
+     * @param assignment a map of variable names to values, or null
+     * @param assigned true to evaluate with evaluate(Map), false with evaluate()
+     * @return the value of the expression
+     * @throws Exception if a node cannot be evaluated
+     */
+    private static double evaluate(Expression root, Map<String, Double> assignment, boolean assigned)
+            throws Exception {
+        // A node is only pushed above its parent, and a value is only pending
+        // for a node on the stack, so the depth bounds both stacks
+        int depth = root instanceof BaseExpression ? ((BaseExpression) root).getDepth() : 1;
+        Expression[] nodes = new Expression[depth];
+        int[] states = new int[depth];
+        double[] values = new double[depth + 1];
+        boolean metered = ExpressionMetrics.isEnabled();
+        int top = 0;
+        int count = 0;
+        nodes[top++] = root;
+        while (top > 0) {
+            Expression expression = nodes[top - 1];
+            int state = states[top - 1];
+            Expression next = null;
+            if (state == 0 && !isDeep(expression)) {
+                top--;
+                values[count++] = assigned ? expression.evaluate(assignment) : expression.evaluate();
+            } else if (expression instanceof UnaryExpression) {
+                UnaryExpression unary = (UnaryExpression) expression;
+                if (state == 0) {
+                    if (metered) {
+                        ExpressionMetrics.visit(Operator.of(unary));
+                    }
+                    next = unary.getOperand();
+                } else {
+                    top--;
+                    values[count - 1] = unary.evaluateWith(values[count - 1], 0, assigned);
+                }
+            } else {
+                BinaryExpression binary = (BinaryExpression) expression;
+                boolean rightFirst = binary.isRightFirst();
+                if (state == 0) {
+                    if (metered) {
+                        ExpressionMetrics.visit(Operator.of(binary));
+                    }
+                    next = rightFirst ? binary.getRight() : binary.getLeft();
+                } else if (state == 1) {
+                    if (rightFirst) {
+                        binary.checkRight(values[count - 1]);
+                    }
+                    next = rightFirst ? binary.getLeft() : binary.getRight();
+                } else {
+                    top--;
+                    double second = values[--count];
+                    double first = values[count - 1];
+                    values[count - 1] = rightFirst ? binary.evaluateWith(second, first, assigned)
+                            : binary.evaluateWith(first, second, assigned);
+                }
+            }
+            if (next != null) {
+                states[top - 1] = state + 1;
+                nodes[top] = next;
+                states[top] = 0;
+                top++;
+            }
+        }
+        return values[0];
+    }
+
+    /**
+     * Transforms an expression bottom-up with an explicit stack. Every node that
+     * the transform expands is combined from the results of its operands, and
+     * every other subtree is transformed by its own recursive method.
+     *
+     * @param root the expression to transform
+     * @param transform the rules of the transformation
+     * @return the transformed expression
+     */
+    private static Expression transform(Expression root, Transform transform) {
+        Deque<Expression> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        Deque<Expression> results = new ArrayDeque<>();
+        stack.push(root);
+        expanded.push(false);
+        while (!stack.isEmpty()) {
+            Expression expression = stack.pop();
+            if (expanded.pop()) {
+                BaseExpression node = (BaseExpression) expression;
+                Expression y = node instanceof BinaryExpression ? results.pop() : null;
+                Expression x = results.pop();
+                results.push(transform.combine(node, x, y));
+                continue;
+            }
+            if (!transform.expand(expression)) {
+                results.push(transform.recurse(expression));
+                continue;
+            }
+            BaseExpression node = (BaseExpression) expression;
+            Expression replacement = transform.replace(node);
+            if (replacement != node) {
+                // The replacement is transformed instead, deep or not
+                stack.push(replacement);
+                expanded.push(false);
+                continue;
+            }
+            stack.push(node);
+            expanded.push(true);
+            // Push the operands in reverse order, so that the first one is done first
+            if (node instanceof BinaryExpression) {
+                stack.push(((BinaryExpression) node).getRight());
+                expanded.push(false);
+                stack.push(((BinaryExpression) node).getLeft());
+                expanded.push(false);
+            } else {
+                stack.push(((UnaryExpression) node).getOperand());
+                expanded.push(false);
+            }
+        }
+        return results.pop();
+    }
+
+    /**
+     * The Transform class holds the rules of a bottom-up transformation of an
+     * expression.
+     */
+    private abstract static class Transform {
+        /**
+         * Returns whether a subtree is expanded by the engine, rather than
+         * transformed by its own recursive method.
+         *
+         * @param subtree the subtree
+         * @return true if the subtree is too deep to be walked recursively
+         */
+        boolean expand(Expression subtree) {
+            return isDeep(subtree);
+        }
+
+        /**
+         * Transforms a subtree that is not expanded, with its own method.
+         *
+         * @param shallow the subtree
+         * @return the transformed subtree
+         */
+        abstract Expression recurse(Expression shallow);
+
+        /**
+         * Returns the expression to transform instead of a node, the node
+         * itself unless the transformation rewrites it first.
+         *
+         * @param node the node
+         * @return the expression to transform
+         */
+        Expression replace(BaseExpression node) {
+            return node;
+        }
+
+        /**
+         * Transforms a node given the transformed operands.
+         *
+         * @param node the node
+         * @param x the transformed first operand
+         * @param y the transformed second operand, or null for a unary node
+         * @return the transformed node
+         */
+        abstract Expression combine(BaseExpression node, Expression x, Expression y);
+    }
+}
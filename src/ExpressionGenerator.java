@@ -0,0 +1,452 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The ExpressionGenerator class produces random expression trees for
+ * benchmarks and for cross-checking other evaluators against the tree walker.
+ * A generator with the same seed and settings always produces the same
+ * expressions. The depth, the mix of operations, the number of variables and
+ * the share of constants among the leaves can all be controlled.
+ * The generator keeps track of the range of values every subtree can take when
+ * the variables are within the value range, and only puts a subtree under Div,
+ * Log or Pow when it is in the domain of that operation. Therefore every
+ * generated expression can be evaluated with any assignment returned by
+ * assignment() without a math error.
+ */
+public class ExpressionGenerator {
+    private static final List<Class<? extends Expression>> OPERATORS = new ArrayList<>();
+
+    static {
+        OPERATORS.add(Plus.class);
+        OPERATORS.add(Minus.class);
+        OPERATORS.add(Mult.class);
+        OPERATORS.add(Div.class);
+        OPERATORS.add(Pow.class);
+        OPERATORS.add(Log.class);
+        OPERATORS.add(Sin.class);
+        OPERATORS.add(Cos.class);
+        OPERATORS.add(Neg.class);
+    }
+
+    private Random random;
+    private Map<Class<? extends Expression>, Integer> weights = new HashMap<>();
+    private int minDepth = 1;
+    private int maxDepth = 6;
+    private double leafProbability = 0.3;
+    private int variables = 3;
+    private double constantDensity = 0.25;
+    private double low = 0.5;
+    private double high = 2;
+
+    /**
+     * Constructs a generator with the given seed. By default every operation
+     * is equally likely, the trees are between 1 and 6 levels deep, there are
+     * 3 variables and a quarter of the leaves are constants.
+     *
+     * @param seed the seed of the random generator
+     */
+    public ExpressionGenerator(long seed) {
+        this.random = new Random(seed);
+        for (Class<? extends Expression> operator : OPERATORS) {
+            this.weights.put(operator, 1);
+        }
+    }
+
+    /**
+     * Sets the depth of the trees produced by generate(). Nodes above the
+     * minimal depth are never leaves, nodes at the maximal depth are always
+     * leaves, and in between a node is a leaf with the leaf probability.
+     *
+     * @param min the minimal depth of a leaf
+     * @param max the maximal depth of a leaf
+     * @param leafChance the probability of a leaf between the two depths
+     */
+    public void setDepth(int min, int max, double leafChance) {
+        if (min < 0 || max < min || leafChance < 0 || leafChance > 1) {
+            throw new IllegalArgumentException("invalid depth settings");
+        }
+        this.minDepth = min;
+        this.maxDepth = max;
+        this.leafProbability = leafChance;
+    }
+
+    /**
+     * Sets the relative weight of an operation. An operation with weight 0 is
+     * never generated, and at least one binary operation must keep a positive
+     * weight.
+     *
+     * @param operator the class of the operation, e.g. Plus.class
+     * @param weight the weight of the operation
+     */
+    public void setWeight(Class<? extends Expression> operator, int weight) {
+        if (!OPERATORS.contains(operator) || weight < 0) {
+            throw new IllegalArgumentException("invalid weight for " + operator);
+        }
+        this.weights.put(operator, weight);
+    }
+
+    /**
+     * Sets the number of distinct variables. The variables are named x0, x1,
+     * and so on.
+     *
+     * @param count the number of variables
+     */
+    public void setVariables(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("at least one variable is needed");
+        }
+        this.variables = count;
+    }
+
+    /**
+     * Sets the probability of a leaf being a constant rather than a variable.
+     *
+     * @param density the share of constants among the leaves
+     */
+    public void setConstantDensity(double density) {
+        if (density < 0 || density > 1) {
+            throw new IllegalArgumentException("invalid constant density");
+        }
+        this.constantDensity = density;
+    }
+
+    /**
+     * Sets the range of the values of the variables. Both generated
+     * expressions and assignments depend on the range, so it should be set
+     * before generating.
+     *
+     * @param min the smallest value of a variable
+     * @param max the largest value of a variable
+     */
+    public void setRange(double min, double max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException("invalid range");
+        }
+        this.low = min;
+        this.high = max;
+    }
+
+    /**
+     * Returns the names of the variables used by the generated expressions.
+     *
+     * @return the list of variable names
+     */
+    public List<String> getVariables() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < this.variables; i++) {
+            names.add("x" + i);
+        }
+        return names;
+    }
+
+    /**
+     * Generates a random expression whose depth follows the depth settings.
+     *
+     * @return the generated expression
+     */
+    public Expression generate() {
+        return this.grow(0).expression;
+    }
+
+    /**
+     * Generates a random expression with exactly the given number of leaves.
+     * The leaves are split between the operands of every binary operation at
+     * a random point, so the depth is logarithmic in the size on average.
+     *
+     * @param leaves the number of leaves
+     * @return the generated expression
+     */
+    public Expression generate(int leaves) {
+        if (leaves < 1) {
+            throw new IllegalArgumentException("at least one leaf is needed");
+        }
+        return this.split(leaves).expression;
+    }
+
+    /**
+     * Generates a left-deep chain of binary operations with the given number
+     * of leaves, like a long generated sum. Unary operations are not used.
+     *
+     * @param leaves the number of leaves
+     * @return the generated expression
+     */
+    public Expression chain(int leaves) {
+        if (leaves < 1) {
+            throw new IllegalArgumentException("at least one leaf is needed");
+        }
+        Generated chain = this.leaf();
+        for (int i = 1; i < leaves; i++) {
+            chain = this.combine(this.pick(false), chain, this.leaf());
+        }
+        return chain.expression;
+    }
+
+    /**
+     * Returns a random assignment of all the variables within the value range.
+     * Every expression of this generator can be evaluated with it.
+     *
+     * @return the assignment of the variables
+     */
+    public Map<String, Double> assignment() {
+        Map<String, Double> assignment = new LinkedHashMap<>();
+        for (String name : this.getVariables()) {
+            assignment.put(name, this.low + (this.high - this.low) * this.random.nextDouble());
+        }
+        return assignment;
+    }
+
+    /**
+     * Grows a tree following the depth settings.
+     *
+     * @param depth the depth of the node to grow
+     * @return the generated node
+     */
+    private Generated grow(int depth) {
+        if (depth >= this.maxDepth
+                || (depth >= this.minDepth && this.random.nextDouble() < this.leafProbability)) {
+            return this.leaf();
+        }
+        Class<? extends Expression> operator = this.pick(true);
+        if (isUnary(operator)) {
+            return this.combine(operator, this.grow(depth + 1), null);
+        }
+        Generated x = this.grow(depth + 1);
+        return this.combine(operator, x, this.grow(depth + 1));
+    }
+
+    /**
+     * Generates a tree with the given number of leaves.
+     *
+     * @param leaves the number of leaves
+     * @return the generated node
+     */
+    private Generated split(int leaves) {
+        if (leaves == 1) {
+            return this.leaf();
+        }
+        Class<? extends Expression> operator = this.pick(true);
+        if (isUnary(operator)) {
+            return this.combine(operator, this.split(leaves), null);
+        }
+        int left = 1 + this.random.nextInt(leaves - 1);
+        Generated x = this.split(left);
+        return this.combine(operator, x, this.split(leaves - left));
+    }
+
+    /**
+     * Creates a random leaf: a constant with the constant density, and a
+     * variable otherwise.
+     *
+     * @return the generated leaf
+     */
+    private Generated leaf() {
+        if (this.random.nextDouble() < this.constantDensity) {
+            double value = 1 + this.random.nextInt(9);
+            return new Generated(new Num(value), value, value);
+        }
+        return new Generated(new Var("x" + this.random.nextInt(this.variables)), this.low, this.high);
+    }
+
+    /**
+     * Picks a random operation according to the weights.
+     *
+     * @param unary whether unary operations may be picked
+     * @return the class of the picked operation
+     */
+    private Class<? extends Expression> pick(boolean unary) {
+        int binary = 0;
+        int total = 0;
+        for (Class<? extends Expression> operator : OPERATORS) {
+            total += this.weights.get(operator);
+            if (!isUnary(operator)) {
+                binary += this.weights.get(operator);
+            }
+        }
+        if (binary == 0) {
+            throw new IllegalStateException("at least one binary operation needs a positive weight");
+        }
+        if (!unary) {
+            total = binary;
+        }
+        int choice = this.random.nextInt(total);
+        for (Class<? extends Expression> operator : OPERATORS) {
+            if (unary || !isUnary(operator)) {
+                choice -= this.weights.get(operator);
+                if (choice < 0) {
+                    return operator;
+                }
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    /**
+     * Checks whether an operation takes a single operand.
+     *
+     * @param operator the class of the operation
+     * @return true for Sin, Cos and Neg
+     */
+    private static boolean isUnary(Class<? extends Expression> operator) {
+        return operator == Sin.class || operator == Cos.class || operator == Neg.class;
+    }
+
+    /**
+     * Applies an operation to generated operands, and computes the range of
+     * values of the result. If an operand is outside the domain of Div, Log or
+     * Pow, one of Plus, Minus and Mult is used instead. Only when those all
+     * have weight 0, the operand is replaced by a constant inside the domain.
+     *
+     * @param operator the class of the operation
+     * @param x the first operand
+     * @param y the second operand, or null for unary operations
+     * @return the generated node
+     */
+    private Generated combine(Class<? extends Expression> operator, Generated x, Generated y) {
+        if (operator == Neg.class) {
+            return new Generated(new Neg(x.expression), -x.high, -x.low);
+        }
+        if (operator == Sin.class) {
+            return new Generated(new Sin(x.expression), -1, 1);
+        }
+        if (operator == Cos.class) {
+            return new Generated(new Cos(x.expression), -1, 1);
+        }
+        if (operator == Plus.class) {
+            return new Generated(new Plus(x.expression, y.expression), x.low + y.low, x.high + y.high);
+        }
+        if (operator == Minus.class) {
+            return new Generated(new Minus(x.expression, y.expression), x.low - y.high, x.high - y.low);
+        }
+        if (operator == Mult.class) {
+            double[] corners = {x.low * y.low, x.low * y.high, x.high * y.low, x.high * y.high};
+            return new Generated(new Mult(x.expression, y.expression), corners);
+        }
+        if (operator == Div.class) {
+            if (!(y.low > 0 || y.high < 0)) {
+                Class<? extends Expression> fallback = this.fallback();
+                if (fallback != null) {
+                    return this.combine(fallback, x, y);
+                }
+                y = this.constant(1, 9);
+            }
+            double[] corners = {x.low / y.low, x.low / y.high, x.high / y.low, x.high / y.high};
+            return new Generated(new Div(x.expression, y.expression), corners);
+        }
+        if (operator == Pow.class) {
+            if (!(x.low >= 0)) {
+                Class<? extends Expression> fallback = this.fallback();
+                if (fallback != null) {
+                    return this.combine(fallback, x, y);
+                }
+                x = this.constant(1, 9);
+            }
+            double[] corners = {Math.pow(x.low, y.low), Math.pow(x.low, y.high),
+                    Math.pow(x.high, y.low), Math.pow(x.high, y.high)};
+            return new Generated(new Pow(x.expression, y.expression), corners);
+        }
+        boolean base = x.low > 1 || (x.low > 0 && x.high < 1);
+        if (!(base && y.low > 0)) {
+            Class<? extends Expression> fallback = this.fallback();
+            if (fallback != null) {
+                return this.combine(fallback, x, y);
+            }
+        }
+        if (!base) {
+            x = this.constant(2, 9);
+        }
+        if (!(y.low > 0)) {
+            y = this.constant(1, 9);
+        }
+        double[] corners = {Math.log(y.low) / Math.log(x.low), Math.log(y.low) / Math.log(x.high),
+                Math.log(y.high) / Math.log(x.low), Math.log(y.high) / Math.log(x.high)};
+        return new Generated(new Log(x.expression, y.expression), corners);
+    }
+
+    /**
+     * Picks one of Plus, Minus and Mult according to their weights, to be used
+     * instead of an operation whose operand is outside its domain.
+     *
+     * @return the class of the picked operation, or null if Plus, Minus and
+     * Mult all have weight 0
+     */
+    private Class<? extends Expression> fallback() {
+        int plus = this.weights.get(Plus.class);
+        int minus = this.weights.get(Minus.class);
+        int total = plus + minus + this.weights.get(Mult.class);
+        if (total == 0) {
+            return null;
+        }
+        int choice = this.random.nextInt(total);
+        if (choice < plus) {
+            return Plus.class;
+        }
+        if (choice < plus + minus) {
+            return Minus.class;
+        }
+        return Mult.class;
+    }
+
+    /**
+     * Creates a random integer constant in the given range.
+     *
+     * @param min the smallest value
+     * @param max the largest value
+     * @return the generated constant
+     */
+    private Generated constant(int min, int max) {
+        double value = min + this.random.nextInt(max - min + 1);
+        return new Generated(new Num(value), value, value);
+    }
+
+    /**
+     * The Generated class holds a generated expression together with the range
+     * of values it can take when the variables are within the value range.
+     */
+    private static final class Generated {
+        private Expression expression;
+        private double low;
+        private double high;
+
+        /**
+         * Constructs a generated node with the given range.
+         *
+         * @param expression the generated expression
+         * @param low the smallest value of the expression
+         * @param high the largest value of the expression
+         */
+        Generated(Expression expression, double low, double high) {
+            this.expression = expression;
+            this.low = low;
+            this.high = high;
+        }
+
+        /**
+         * Constructs a generated node whose range is spanned by the given
+         * values. The operations that use it are monotonic in each operand, so
+         * the values at the corners of the operands' ranges bound the result.
+         * If any of them is NaN the range is unknown and is made unbounded.
+         *
+         * @param expression the generated expression
+         * @param corners the values of the expression at the corners
+         */
+        Generated(Expression expression, double[] corners) {
+            this.expression = expression;
+            this.low = Double.POSITIVE_INFINITY;
+            this.high = Double.NEGATIVE_INFINITY;
+            for (double corner : corners) {
+                if (Double.isNaN(corner)) {
+                    this.low = Double.NEGATIVE_INFINITY;
+                    this.high = Double.POSITIVE_INFINITY;
+                    return;
+                }
+                this.low = Math.min(this.low, corner);
+                this.high = Math.max(this.high, corner);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+// itay alter 206132284
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ExpressionMetrics class is an opt-in instrumentation of the expressions.
+ * While it is enabled, every evaluation of a node is counted per operator, and
+ * the expressions returned by meter() record how long their evaluate(),
+ * simplify() and differentiate() calls take. When it is disabled, which is the
+ * default, the cost is a single read of a flag per node. The counters are
+ * LongAdders, so concurrent evaluations do not contend on them.
+ */
+public final class ExpressionMetrics {
+    private static final LongAdder[] VISITS = new LongAdder[Operator.values().length];
+    private static final LatencyHistogram EVALUATE = new LatencyHistogram();
+    private static final LatencyHistogram SIMPLIFY = new LatencyHistogram();
+    private static final LatencyHistogram DIFFERENTIATE = new LatencyHistogram();
+    private static volatile boolean enabled;
+
+    static {
+        for (int i = 0; i < VISITS.length; i++) {
+            VISITS[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * This class only has static members.
+     */
+    private ExpressionMetrics() {
+    }
+
+    /**
+     * Starts collecting metrics.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Stops collecting metrics. The metrics collected so far are kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Checks whether metrics are being collected.
+     *
+     * @return true if the metrics are enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts the evaluation of a node. It is called by the evaluate() methods
+     * of the expressions.
+     *
+     * @param operator the operator of the evaluated node
+     */
+    public static void visit(Operator operator) {
+        if (enabled) {
+            VISITS[operator.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Returns the number of evaluations of nodes of the given operator.
+     *
+     * @param operator the operator
+     * @return the number of evaluated nodes
+     */
+    public static long getVisits(Operator operator) {
+        return VISITS[operator.ordinal()].sum();
+    }
+
+    /**
+     * Returns the histogram of the durations of metered evaluate() calls.
+     *
+     * @return the evaluation latencies
+     */
+    public static LatencyHistogram getEvaluateLatency() {
+        return EVALUATE;
+    }
+
+    /**
+     * Returns the histogram of the durations of metered simplify() calls.
+     *
+     * @return the simplification latencies
+     */
+    public static LatencyHistogram getSimplifyLatency() {
+        return SIMPLIFY;
+    }
+
+    /**
+     * Returns the histogram of the durations of metered differentiate() calls.
+     *
+     * @return the differentiation latencies
+     */
+    public static LatencyHistogram getDifferentiateLatency() {
+        return DIFFERENTIATE;
+    }
+
+    /**
+     * Clears all the counters and histograms.
+     */
+    public static void reset() {
+        for (LongAdder visits : VISITS) {
+            visits.reset();
+        }
+        EVALUATE.reset();
+        SIMPLIFY.reset();
+        DIFFERENTIATE.reset();
+    }
+
+    /**
+     * Returns a report of all the metrics: the number of evaluated nodes of
+     * every operator, and a summary of every histogram.
+     *
+     * @return the report
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder("visits:");
+        for (Operator operator : Operator.values()) {
+            report.append(' ').append(operator).append('=').append(getVisits(operator));
+        }
+        report.append("\nevaluate: ").append(EVALUATE);
+        report.append("\nsimplify: ").append(SIMPLIFY);
+        report.append("\ndifferentiate: ").append(DIFFERENTIATE);
+        return report.toString();
+    }
+
+    /**
+     * Wraps an expression so that the durations of its evaluate(), simplify()
+     * and differentiate() calls are recorded while the metrics are enabled.
+     * Only the calls on the returned expression itself are timed, so the
+     * histograms hold the latencies of whole operations rather than of every
+     * node.
+     *
+     * @param expression the expression to meter
+     * @return the metered expression
+     */
+    public static Expression meter(Expression expression) {
+        return new MeteredExpression(expression);
+    }
+}
@@ -0,0 +1,211 @@
+// itay alter 206132284
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ExpressionRebalancer class rebuilds the long Plus and Mult chains of an
+ * expression as balanced trees. A chain is a maximal subtree of nodes of the
+ * same operator, e.g. (((a + b) + c) + d), and its operands that are not of
+ * that operator are its terms, here a, b, c and d. The terms are kept in
+ * their order and combined pairwise, level by level, into ((a + b) + (c + d)),
+ * so a chain of n terms gets a depth of about log2(n). For sums this is the
+ * pairwise summation, whose rounding error grows with log(n) instead of n.
+ * The halves of a balanced tree are also independent, so ForkJoinEvaluator
+ * can evaluate them in parallel.
+ *
+ * <p>Floating-point addition and multiplication are not associative, so the
+ * rebalanced tree may evaluate to a slightly different value, and a sum of
+ * huge values may even overflow in one order and not in the other. Both
+ * rebalancings are therefore opt-in, with setSums() and setProducts(), and a
+ * rebalancer with neither returns expressions unchanged.
+ *
+ * <p>The tree is walked with an explicit stack, so chains of any length are
+ * rebalanced, and subexpressions that are shared, as in derivatives, are
+ * rebalanced once. Subexpressions without a chain are kept as they are.
+ */
+public final class ExpressionRebalancer {
+    private boolean sums;
+    private boolean products;
+
+    /**
+     * Constructs a rebalancer, with both rebalancings off.
+     */
+    public ExpressionRebalancer() {
+    }
+
+    /**
+     * Selects the rebalancing of Plus chains. It is off by default.
+     *
+     * @param rebalance true to rebalance sums
+     */
+    public void setSums(boolean rebalance) {
+        this.sums = rebalance;
+    }
+
+    /**
+     * Returns whether Plus chains are rebalanced.
+     *
+     * @return true if sums are rebalanced
+     */
+    public boolean isSums() {
+        return this.sums;
+    }
+
+    /**
+     * Selects the rebalancing of Mult chains. It is off by default.
+     *
+     * @param rebalance true to rebalance products
+     */
+    public void setProducts(boolean rebalance) {
+        this.products = rebalance;
+    }
+
+    /**
+     * Returns whether Mult chains are rebalanced.
+     *
+     * @return true if products are rebalanced
+     */
+    public boolean isProducts() {
+        return this.products;
+    }
+
+    /**
+     * Rebalances the selected chains of an expression.
+     *
+     * @param expression the expression to rebalance
+     * @return the rebalanced expression, or the expression itself if nothing
+     * was rebalanced
+     */
+    public Expression rebalance(Expression expression) {
+        // The rebalanced subexpressions, and the terms of the chains met so far
+        Map<Expression, Expression> done = new IdentityHashMap<>();
+        Map<Expression, List<Expression>> terms = new IdentityHashMap<>();
+        Deque<Expression> stack = new ArrayDeque<>();
+        Deque<Boolean> expanded = new ArrayDeque<>();
+        stack.push(expression);
+        expanded.push(false);
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            boolean combine = expanded.pop();
+            if (combine) {
+                done.put(node, this.combine(node, terms.remove(node), done));
+                continue;
+            }
+            if (done.containsKey(node)) {
+                continue;
+            }
+            List<Expression> operands = this.isChain(node) ? chainTerms((BinaryExpression) node)
+                    : operands(node);
+            if (operands.isEmpty()) {
+                done.put(node, node);
+                continue;
+            }
+            terms.put(node, operands);
+            stack.push(node);
+            expanded.push(true);
+            for (int i = operands.size() - 1; i >= 0; i--) {
+                if (!done.containsKey(operands.get(i))) {
+                    stack.push(operands.get(i));
+                    expanded.push(false);
+                }
+            }
+        }
+        return done.get(expression);
+    }
+
+    /**
+     * Returns whether an expression is the root of a chain that is rebalanced.
+     *
+     * @param node the expression
+     * @return true if it is a Plus and sums are rebalanced, or a Mult and
+     * products are
+     */
+    private boolean isChain(Expression node) {
+        return (this.sums && node instanceof Plus) || (this.products && node instanceof Mult);
+    }
+
+    /**
+     * Rebuilds a node from its rebalanced operands, or terms for the root of a
+     * chain.
+     *
+     * @param node the node
+     * @param operands the operands or terms of the node
+     * @param done the rebalanced subexpressions
+     * @return the rebalanced node
+     */
+    private Expression combine(Expression node, List<Expression> operands, Map<Expression, Expression> done) {
+        List<Expression> level = new ArrayList<>(operands.size());
+        boolean changed = false;
+        for (Expression operand : operands) {
+            Expression rebalanced = done.get(operand);
+            changed |= rebalanced != operand;
+            level.add(rebalanced);
+        }
+        Operator operator = Operator.of(node);
+        if (!this.isChain(node)) {
+            if (!changed) {
+                return node;
+            }
+            return operator.create(level.get(0), level.size() > 1 ? level.get(1) : null);
+        }
+        if (!changed && operands.size() == 2) {
+            // A single node is already balanced
+            return node;
+        }
+        while (level.size() > 1) {
+            List<Expression> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i + 1 < level.size(); i += 2) {
+                next.add(operator.create(level.get(i), level.get(i + 1)));
+            }
+            if (level.size() % 2 == 1) {
+                next.add(level.get(level.size() - 1));
+            }
+            level = next;
+        }
+        return level.get(0);
+    }
+
+    /**
+     * Returns the terms of a chain, from left to right.
+     *
+     * @param chain the root of the chain
+     * @return the operands of the chain that are not of its operator
+     */
+    private static List<Expression> chainTerms(BinaryExpression chain) {
+        List<Expression> terms = new ArrayList<>();
+        Deque<Expression> stack = new ArrayDeque<>();
+        stack.push(chain);
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            if (node.getClass() == chain.getClass()) {
+                BinaryExpression link = (BinaryExpression) node;
+                stack.push(link.getRight());
+                stack.push(link.getLeft());
+            } else {
+                terms.add(node);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Returns the operands of an expression.
+     *
+     * @param node the expression
+     * @return the operands, none for a leaf or an expression of another class
+     */
+    private static List<Expression> operands(Expression node) {
+        List<Expression> operands = new ArrayList<>(2);
+        if (node instanceof BinaryExpression) {
+            operands.add(((BinaryExpression) node).getLeft());
+            operands.add(((BinaryExpression) node).getRight());
+        } else if (node instanceof UnaryExpression) {
+            operands.add(((UnaryExpression) node).getOperand());
+        }
+        return operands;
+    }
+}
@@ -0,0 +1,55 @@
+// itay alter 206132284
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The ExpressionRenderer class writes the string representation of an
+ * expression to an Appendable in a single pass. Every operator is written as
+ * its prefix, its operands and its suffix (with the infix between the two
+ * operands of a binary operator), and the tree is walked with an explicit
+ * stack, so each character is written exactly once and deep trees do not
+ * overflow the call stack.
+ */
+public final class ExpressionRenderer {
+    /**
+     * This class only has static members.
+     */
+    private ExpressionRenderer() {
+    }
+
+    /**
+     * Appends the string representation of an expression.
+     *
+     * @param expression the expression to render
+     * @param out where to append the representation
+     * @throws IOException if appending fails
+     */
+    public static void render(Expression expression, Appendable out) throws IOException {
+        // The stack holds both expressions still to render and plain tokens
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(expression);
+        while (!stack.isEmpty()) {
+            Object item = stack.pop();
+            if (item instanceof String) {
+                out.append((String) item);
+            } else if (item instanceof BinaryExpression) {
+                BinaryExpression binary = (BinaryExpression) item;
+                // Push in reverse order, so that the prefix is written first
+                stack.push(binary.suffix());
+                stack.push(binary.getRight());
+                stack.push(binary.infix());
+                stack.push(binary.getLeft());
+                out.append(binary.prefix());
+            } else if (item instanceof UnaryExpression) {
+                UnaryExpression unary = (UnaryExpression) item;
+                stack.push(unary.suffix());
+                stack.push(unary.getOperand());
+                out.append(unary.prefix());
+            } else {
+                // Leaves render themselves
+                ((Expression) item).appendTo(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+// itay alter 206132284
+
+/**
+ * The FastTrig class computes the sine and the cosine of angles in degrees,
+ * the unit Sin and Cos use, faster than Math.sin(Math.toRadians(x)).
+ *
+ * <p>The angle is reduced in degrees, to r = x - 90q with q the nearest
+ * integer to x / 90. For |x| below 2^45 this subtraction is exact, so
+ * multiples of 90 degrees give exactly 0, 1 and -1 and large angles lose no
+ * accuracy, unlike with a reduction after the conversion to radians. The
+ * reduced angle, at most 45 degrees, is converted to radians and the sine or
+ * the cosine is computed with the minimax polynomials of fdlibm, and the
+ * quadrant q picks which one and its sign.
+ *
+ * <p>Compared to the exact sine and cosine of the angle in degrees, the
+ * absolute error was at most 1.2e-16 (half an ulp of 1) over 10^6 random
+ * angles of up to 10^13 degrees, and 2.3e-16 (an ulp of 1) is a safe bound.
+ * Math.sin(Math.toRadians(x)) is already off by up to 5.6e-16 for angles of
+ * at most 360 degrees, because of the conversion, so the results are usually
+ * closer to the exact values than the ones of Sin and Cos, but they are not
+ * identical to them. Angles of 2^45 degrees or more, infinities and NaN are
+ * passed to Math.sin and Math.cos.
+ */
+public final class FastTrig {
+    private static final double LIMIT = 0x1p45;
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180;
+    private static final double INVERSE_90 = 1.0 / 90;
+
+    private static final double S1 = -1.66666666666666324348e-01;
+    private static final double S2 = 8.33333333332248946124e-03;
+    private static final double S3 = -1.98412698298579493134e-04;
+    private static final double S4 = 2.75573137070700676789e-06;
+    private static final double S5 = -2.50507602534068634195e-08;
+    private static final double S6 = 1.58969099521155010221e-10;
+
+    private static final double C1 = 4.16666666666666019037e-02;
+    private static final double C2 = -1.38888888888741095749e-03;
+    private static final double C3 = 2.48015872894767294178e-05;
+    private static final double C4 = -2.75573143513906633035e-07;
+    private static final double C5 = 2.08757232129817482790e-09;
+    private static final double C6 = -1.13596475577881948265e-11;
+
+    /**
+     * This class only has static members.
+     */
+    private FastTrig() {
+    }
+
+    /**
+     * Returns the sine of an angle in degrees.
+     *
+     * @param degrees the angle in degrees
+     * @return the sine of the angle
+     */
+    public static double sin(double degrees) {
+        if (!(Math.abs(degrees) < LIMIT)) {
+            return Math.sin(Math.toRadians(degrees));
+        }
+        if (degrees == 0) {
+            // Keep the sign of -0
+            return degrees;
+        }
+        double q = Math.rint(degrees * INVERSE_90);
+        double t = reduce(degrees, q);
+        int quadrant = (int) ((long) q & 3);
+        double value = (quadrant & 1) == 0 ? sinKernel(t) : cosKernel(t);
+        return (quadrant & 2) == 0 ? value : -value;
+    }
+
+    /**
+     * Returns the cosine of an angle in degrees.
+     *
+     * @param degrees the angle in degrees
+     * @return the cosine of the angle
+     */
+    public static double cos(double degrees) {
+        if (!(Math.abs(degrees) < LIMIT)) {
+            return Math.cos(Math.toRadians(degrees));
+        }
+        double q = Math.rint(degrees * INVERSE_90);
+        double t = reduce(degrees, q);
+        int quadrant = (int) ((long) q & 3);
+        double value = (quadrant & 1) == 0 ? cosKernel(t) : sinKernel(t);
+        return ((quadrant + 1) & 2) == 0 ? value : -value;
+    }
+
+    /**
+     * Computes the sine and the cosine of an angle in degrees together, with
+     * one range reduction. The results are the same as the ones of sin() and
+     * cos().
+     *
+     * @param degrees the angle in degrees
+     * @param out where to write the sine, at index, and the cosine, after it
+     * @param index the index of the sine in out
+     */
+    public static void sinCos(double degrees, double[] out, int index) {
+        if (!(Math.abs(degrees) < LIMIT) || degrees == 0) {
+            out[index] = sin(degrees);
+            out[index + 1] = cos(degrees);
+            return;
+        }
+        double q = Math.rint(degrees * INVERSE_90);
+        double t = reduce(degrees, q);
+        int quadrant = (int) ((long) q & 3);
+        double s = sinKernel(t);
+        double c = cosKernel(t);
+        double sine = (quadrant & 1) == 0 ? s : c;
+        double cosine = (quadrant & 1) == 0 ? c : s;
+        out[index] = (quadrant & 2) == 0 ? sine : -sine;
+        out[index + 1] = ((quadrant + 1) & 2) == 0 ? cosine : -cosine;
+    }
+
+    /**
+     * Subtracts q quarter turns from an angle and converts the rest to
+     * radians. The subtraction is exact.
+     *
+     * @param degrees the angle in degrees
+     * @param q the number of quarter turns, the nearest integer to degrees / 90
+     * @return the rest of the angle, in radians
+     */
+    private static double reduce(double degrees, double q) {
+        if (q == 0) {
+            return degrees * RADIANS_PER_DEGREE;
+        }
+        return (degrees - 90 * q) * RADIANS_PER_DEGREE;
+    }
+
+    /**
+     * Returns the sine of an angle of at most pi/4 radians.
+     *
+     * @param t the angle in radians
+     * @return the sine of the angle
+     */
+    private static double sinKernel(double t) {
+        double z = t * t;
+        double r = S2 + z * (S3 + z * (S4 + z * (S5 + z * S6)));
+        return t + t * z * (S1 + z * r);
+    }
+
+    /**
+     * Returns the cosine of an angle of at most pi/4 radians.
+     *
+     * @param t the angle in radians
+     * @return the cosine of the angle
+     */
+    private static double cosKernel(double t) {
+        double z = t * t;
+        double r = z * (C1 + z * (C2 + z * (C3 + z * (C4 + z * (C5 + z * C6)))));
+        double h = 0.5 * z;
+        double w = 1 - h;
+        // Add the rounding error of 1 - h back, as fdlibm does
+        return w + (((1 - w) - h) + z * r);
+    }
+}
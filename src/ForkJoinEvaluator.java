@@ -0,0 +1,186 @@
+// itay alter 206132284
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The ForkJoinEvaluator class evaluates one large expression on several cores.
+ * At every binary node whose two operands both have a depth of at least the
+ * split depth, the first operand is forked to the ForkJoinPool and the second
+ * one is evaluated by the current thread. Smaller operands are evaluated with
+ * evaluate(Map), so the tasks are never smaller than a subtree of the split
+ * depth. This pays off on balanced trees, such as the ones of the
+ * ExpressionRebalancer; a chain has a leaf on one side of each node and is
+ * evaluated by one thread.
+ *
+ * <p>The values are the ones of evaluate(Map), and so are the exceptions: when
+ * both halves of a node throw, the exception of the operand that evaluate(Map)
+ * evaluates first is thrown. A division evaluates its denominator first and
+ * its numerator only if the denominator is not 0, so it is never split. The
+ * assignment is only read, by several threads at once, so it must not be
+ * modified during the evaluation.
+ */
+public final class ForkJoinEvaluator {
+    /**
+     * The default split depth. A balanced subtree of this depth has thousands
+     * of nodes, which takes microseconds to evaluate, well above the cost of a
+     * task.
+     */
+    public static final int DEFAULT_SPLIT_DEPTH = 12;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    /**
+     * Constructs an evaluator over the common pool, with the default split
+     * depth.
+     */
+    public ForkJoinEvaluator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Constructs an evaluator.
+     *
+     * @param pool the pool that runs the tasks
+     * @param splitDepth the smallest depth of the operands of a node that is
+     * split
+     */
+    public ForkJoinEvaluator(ForkJoinPool pool, int splitDepth) {
+        if (splitDepth < 1) {
+            throw new IllegalArgumentException("split depth must be positive: " + splitDepth);
+        }
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * Returns the smallest depth of the operands of a node that is split.
+     *
+     * @return the split depth
+     */
+    public int getSplitDepth() {
+        return this.splitDepth;
+    }
+
+    /**
+     * Evaluates an expression using a variable assignment, like evaluate(Map).
+     *
+     * @param expression the expression to evaluate
+     * @param assignment a map of variable names to values, which is not
+     * modified during the evaluation
+     * @return the value of the expression
+     * @throws Exception in the cases where evaluate(Map) throws
+     */
+    public double evaluate(Expression expression, Map<String, Double> assignment) throws Exception {
+        Task task = new Task(expression, assignment, this.splitDepth);
+        this.pool.invoke(task);
+        if (task.error != null) {
+            throw task.error;
+        }
+        return task.value;
+    }
+
+    /**
+     * Returns the depth of an expression.
+     *
+     * @param expression the expression
+     * @return its depth, 1 for a leaf
+     */
+    private static int depthOf(Expression expression) {
+        if (expression instanceof BaseExpression) {
+            return ((BaseExpression) expression).getDepth();
+        }
+        return 1;
+    }
+
+    /**
+     * The Task class evaluates a subtree, and holds its value or the exception
+     * its evaluation threw.
+     */
+    private static final class Task extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Expression expression;
+        private final Map<String, Double> assignment;
+        private final int splitDepth;
+        private double value;
+        private Exception error;
+
+        /**
+         * Constructs a task.
+         *
+         * @param expression the subtree to evaluate
+         * @param assignment a map of variable names to values
+         * @param splitDepth the smallest depth of the operands of a node that
+         * is split
+         */
+        Task(Expression expression, Map<String, Double> assignment, int splitDepth) {
+            this.expression = expression;
+            this.assignment = assignment;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                this.value = this.evaluate(this.expression);
+            } catch (Exception e) {
+                this.error = e;
+            }
+        }
+
+        /**
+         * Evaluates a subtree, splitting the nodes whose operands are both deep
+         * enough. Deep subtrees, which the ExpressionEngine walks, and subtrees
+         * that cannot be split are evaluated with evaluate(Map), so the
+         * recursion is bounded.
+         *
+         * @param node the subtree
+         * @return the value of the subtree
+         * @throws Exception if the subtree cannot be evaluated
+         */
+        private double evaluate(Expression node) throws Exception {
+            if (depthOf(node) <= this.splitDepth || ExpressionEngine.isDeep(node)) {
+                return node.evaluate(this.assignment);
+            }
+            if (node instanceof UnaryExpression) {
+                UnaryExpression unary = (UnaryExpression) node;
+                ExpressionMetrics.visit(Operator.of(unary));
+                double x = this.evaluate(unary.getOperand());
+                return unary.evaluateWith(x, 0, true);
+            }
+            BinaryExpression binary = (BinaryExpression) node;
+            ExpressionMetrics.visit(Operator.of(binary));
+            if (binary.isRightFirst()) {
+                double y = this.evaluate(binary.getRight());
+                binary.checkRight(y);
+                double x = this.evaluate(binary.getLeft());
+                return binary.evaluateWith(x, y, true);
+            }
+            if (depthOf(binary.getLeft()) < this.splitDepth || depthOf(binary.getRight()) < this.splitDepth) {
+                double x = this.evaluate(binary.getLeft());
+                double y = this.evaluate(binary.getRight());
+                return binary.evaluateWith(x, y, true);
+            }
+            Task left = new Task(binary.getLeft(), this.assignment, this.splitDepth);
+            left.fork();
+            double y = 0;
+            Exception rightError = null;
+            try {
+                y = this.evaluate(binary.getRight());
+            } catch (Exception e) {
+                rightError = e;
+            }
+            left.join();
+            // The first operand is evaluated first by evaluate(Map)
+            if (left.error != null) {
+                throw left.error;
+            }
+            if (rightError != null) {
+                throw rightError;
+            }
+            return binary.evaluateWith(left.value, y, true);
+        }
+    }
+}
@@ -0,0 +1,497 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Integrator class computes definite integrals of an expression over an
+ * interval of one variable, or over a box of up to MAX_DIMENSIONS variables,
+ * with the adaptive 15-point Gauss-Kronrod rule. The rule is applied to every
+ * box, along every dimension, and the difference from the embedded 7-point
+ * Gauss rule estimates its error. Boxes whose error is too large for their
+ * share of the volume are split in halves, along the dimension whose Gauss
+ * rule differs the most, until every box is accurate enough.
+ *
+ * <p>The boxes are refined level by level: the abscissae of all the boxes of
+ * a level are evaluated together, as columns of one batch of the compiled
+ * expression, and the batch is split between the tasks of a ForkJoinPool. The
+ * expression is compiled once per integral, with the parameters, the other
+ * variables, folded into constants.
+ *
+ * <p>The abscissae are inside the boxes, so an expression that is undefined at
+ * an end of the interval can still be integrated, but the center of every box
+ * is an abscissa. An undefined abscissa throws the exception of
+ * evaluate(Map), and an integral that needs more than the maximal number of
+ * evaluations throws an exception that it does not converge.
+ */
+public final class Integrator {
+    /**
+     * The largest number of variables of an integral. A box takes 15 to the
+     * power of its dimension evaluations.
+     */
+    public static final int MAX_DIMENSIONS = 3;
+
+    /**
+     * The default absolute tolerance of an integral.
+     */
+    public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-10;
+
+    /**
+     * The default tolerance of an integral, relative to its value.
+     */
+    public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-10;
+
+    /**
+     * The default number of evaluations after which an integral gives up.
+     */
+    public static final long DEFAULT_MAX_EVALUATIONS = 10000000L;
+
+    private static final int ROWS_PER_TASK = 4096;
+    private static final int POINTS = 15;
+
+    // The 15-point Kronrod abscissae in [-1, 1], with the 15-point Kronrod
+    // weights and the weights of the 7-point Gauss rule on every other one
+    private static final double[] ABSCISSAE = new double[POINTS];
+    private static final double[] KRONROD = new double[POINTS];
+    private static final double[] GAUSS = new double[POINTS];
+
+    static {
+        double[] x = {0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+            0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+            0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+            0.207784955007898467600689403773245, 0};
+        double[] k = {0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+            0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+            0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+            0.204432940075298892414161999234649, 0.209482141084727828012999174891714};
+        double[] g = {0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+            0.381830050505118944950369775488975, 0.417959183673469387755102040816327};
+        for (int i = 0; i < POINTS; i++) {
+            int m = Math.min(i, POINTS - 1 - i);
+            ABSCISSAE[i] = i < POINTS / 2 ? -x[m] : x[m];
+            KRONROD[i] = k[m];
+            GAUSS[i] = m % 2 == 1 ? g[(m - 1) / 2] : 0;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private double absoluteTolerance = DEFAULT_ABSOLUTE_TOLERANCE;
+    private double relativeTolerance = DEFAULT_RELATIVE_TOLERANCE;
+    private long maxEvaluations = DEFAULT_MAX_EVALUATIONS;
+
+    /**
+     * Constructs an integrator over the common pool.
+     */
+    public Integrator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs an integrator.
+     *
+     * @param pool the pool that evaluates the abscissae
+     */
+    public Integrator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the absolute tolerance of an integral. An integral is accurate
+     * enough when its estimated error is at most the larger of the absolute
+     * tolerance and the relative tolerance times its value.
+     *
+     * @param tolerance the absolute tolerance, not negative
+     */
+    public void setAbsoluteTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("the tolerance must not be negative: " + tolerance);
+        }
+        this.absoluteTolerance = tolerance;
+    }
+
+    /**
+     * Returns the absolute tolerance of an integral.
+     *
+     * @return the absolute tolerance
+     */
+    public double getAbsoluteTolerance() {
+        return this.absoluteTolerance;
+    }
+
+    /**
+     * Sets the tolerance of an integral relative to its value.
+     *
+     * @param tolerance the relative tolerance, not negative
+     */
+    public void setRelativeTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("the tolerance must not be negative: " + tolerance);
+        }
+        this.relativeTolerance = tolerance;
+    }
+
+    /**
+     * Returns the tolerance of an integral relative to its value.
+     *
+     * @return the relative tolerance
+     */
+    public double getRelativeTolerance() {
+        return this.relativeTolerance;
+    }
+
+    /**
+     * Sets the number of evaluations after which an integral gives up.
+     *
+     * @param maxEvaluations the number of evaluations, positive
+     */
+    public void setMaxEvaluations(long maxEvaluations) {
+        if (maxEvaluations < 1) {
+            throw new IllegalArgumentException("the number of evaluations must be positive: " + maxEvaluations);
+        }
+        this.maxEvaluations = maxEvaluations;
+    }
+
+    /**
+     * Returns the number of evaluations after which an integral gives up.
+     *
+     * @return the number of evaluations
+     */
+    public long getMaxEvaluations() {
+        return this.maxEvaluations;
+    }
+
+    /**
+     * Integrates an expression in one variable over an interval.
+     *
+     * @param expression the expression to integrate
+     * @param var the variable of integration, the only variable of the
+     * expression
+     * @param a the lower limit
+     * @param b the upper limit, which may be below the lower one
+     * @return the integral
+     * @throws Exception if the expression is undefined at an abscissa, with
+     * the message of evaluate(Map), or if the integral does not converge
+     */
+    public double integrate(Expression expression, String var, double a, double b) throws Exception {
+        return this.integrate(expression, Collections.singletonList(var), new double[] {a}, new double[] {b},
+                Collections.<String, Double>emptyMap());
+    }
+
+    /**
+     * Integrates an expression over a box.
+     *
+     * @param expression the expression to integrate
+     * @param vars the variables of integration
+     * @param lower the lower limit of every variable
+     * @param upper the upper limit of every variable, which may be below the
+     * lower one
+     * @param parameters the values of the other variables of the expression
+     * @return the integral
+     * @throws Exception if the expression is undefined at an abscissa, with
+     * the message of evaluate(Map), or if the integral does not converge
+     * @throws IllegalArgumentException if there are no variables or more than
+     * MAX_DIMENSIONS, the limits do not match them, or a variable of the
+     * expression has no value
+     */
+    public double integrate(Expression expression, List<String> vars, double[] lower, double[] upper,
+                            Map<String, Double> parameters) throws Exception {
+        int dimensions = vars.size();
+        if (dimensions < 1 || dimensions > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("expected 1 to " + MAX_DIMENSIONS + " variables, got "
+                    + dimensions);
+        }
+        if (lower.length != dimensions || upper.length != dimensions) {
+            throw new IllegalArgumentException("expected " + dimensions + " limits, got " + lower.length
+                    + " and " + upper.length);
+        }
+        CompiledExpression compiled = new ExpressionCompiler().specialize(expression, parameters, vars);
+        // Integrate over the box with the limits in order, and flip the sign
+        // for every pair of limits that is reversed
+        Box root = new Box(dimensions);
+        double sign = 1;
+        for (int j = 0; j < dimensions; j++) {
+            root.center[j] = 0.5 * (lower[j] + upper[j]);
+            root.half[j] = 0.5 * Math.abs(upper[j] - lower[j]);
+            if (upper[j] < lower[j]) {
+                sign = -sign;
+            }
+            if (root.half[j] == 0) {
+                return 0;
+            }
+        }
+        return sign * this.integrate(compiled, root);
+    }
+
+    /**
+     * Integrates a compiled expression over a box, refining the boxes level
+     * by level.
+     *
+     * @param compiled the expression, compiled over the slots of the
+     * variables of integration
+     * @param root the box
+     * @return the integral
+     * @throws Exception if the expression is undefined at an abscissa, or if
+     * the integral does not converge
+     */
+    private double integrate(CompiledExpression compiled, Box root) throws Exception {
+        int dimensions = root.center.length;
+        int points = 1;
+        for (int j = 0; j < dimensions; j++) {
+            points *= POINTS;
+        }
+        double rootVolume = root.volume();
+        double accepted = 0;
+        long evaluations = 0;
+        List<Box> active = new ArrayList<>();
+        active.add(root);
+        while (!active.isEmpty()) {
+            evaluations += (long) active.size() * points;
+            if (evaluations > this.maxEvaluations) {
+                throw new Exception("the integral does not converge within " + this.maxEvaluations
+                        + " evaluations");
+            }
+            double[] values = this.evaluate(compiled, active, points);
+            double estimate = accepted;
+            for (int i = 0; i < active.size(); i++) {
+                active.get(i).apply(values, i * points);
+                estimate += active.get(i).kronrod;
+            }
+            double tolerance = Math.max(this.absoluteTolerance, this.relativeTolerance * Math.abs(estimate));
+            List<Box> next = new ArrayList<>();
+            for (Box box : active) {
+                double share = tolerance * box.volume() / rootVolume;
+                if (box.error <= share || box.isTiny()) {
+                    accepted += box.kronrod;
+                } else {
+                    box.split(next);
+                }
+            }
+            active = next;
+        }
+        return accepted;
+    }
+
+    /**
+     * Evaluates the expression at the abscissae of boxes, in one batch that is
+     * split between the tasks of the pool.
+     *
+     * @param compiled the compiled expression
+     * @param boxes the boxes
+     * @param points the number of abscissae of a box
+     * @return the values at the abscissae of every box, box after box
+     * @throws Exception if the expression is undefined at an abscissa
+     */
+    private double[] evaluate(CompiledExpression compiled, List<Box> boxes, int points) throws Exception {
+        int dimensions = boxes.get(0).center.length;
+        int rows = boxes.size() * points;
+        double[][] columns = new double[dimensions][rows];
+        for (int i = 0; i < boxes.size(); i++) {
+            Box box = boxes.get(i);
+            for (int p = 0; p < points; p++) {
+                int digits = p;
+                for (int j = 0; j < dimensions; j++) {
+                    columns[j][i * points + p] = box.center[j] + box.half[j] * ABSCISSAE[digits % POINTS];
+                    digits /= POINTS;
+                }
+            }
+        }
+        double[] values = new double[rows];
+        Batch batch = new Batch(compiled, columns, values, 0, rows);
+        this.pool.invoke(batch);
+        Exception error = batch.firstError();
+        if (error != null) {
+            throw error;
+        }
+        return values;
+    }
+
+    /**
+     * The Box class is a box of the integration, with the results of the
+     * rule over it.
+     */
+    private static final class Box {
+        private final double[] center;
+        private final double[] half;
+        private double kronrod;
+        private double error;
+        private int splitDimension;
+
+        /**
+         * Constructs a box whose center and half widths are set later.
+         *
+         * @param dimensions the number of variables
+         */
+        Box(int dimensions) {
+            this.center = new double[dimensions];
+            this.half = new double[dimensions];
+        }
+
+        /**
+         * Returns the volume of the box.
+         *
+         * @return the product of the widths
+         */
+        double volume() {
+            double volume = 1;
+            for (double h : this.half) {
+                volume *= 2 * h;
+            }
+            return volume;
+        }
+
+        /**
+         * Returns whether the box cannot be split any more, because its
+         * abscissae along the dimension to split would not be distinct.
+         *
+         * @return true if the box is too narrow to split
+         */
+        boolean isTiny() {
+            int j = this.splitDimension;
+            return this.center[j] + this.half[j] * ABSCISSAE[0] == this.center[j] + this.half[j] * ABSCISSAE[1];
+        }
+
+        /**
+         * Applies the Kronrod and the Gauss rules to the values at the
+         * abscissae of the box, and chooses the dimension to split along: the
+         * one where replacing the Kronrod rule by the Gauss rule changes the
+         * result the most.
+         *
+         * @param values the values at the abscissae
+         * @param from the index of the first value of the box
+         */
+        void apply(double[] values, int from) {
+            int dimensions = this.center.length;
+            int points = 1;
+            for (int j = 0; j < dimensions; j++) {
+                points *= POINTS;
+            }
+            double kronrodSum = 0;
+            double gaussSum = 0;
+            double[] mixed = new double[dimensions];
+            for (int p = 0; p < points; p++) {
+                double f = values[from + p];
+                double kronrodWeight = 1;
+                double gaussWeight = 1;
+                int digits = p;
+                for (int j = 0; j < dimensions; j++) {
+                    kronrodWeight *= KRONROD[digits % POINTS];
+                    gaussWeight *= GAUSS[digits % POINTS];
+                    digits /= POINTS;
+                }
+                kronrodSum += f * kronrodWeight;
+                gaussSum += f * gaussWeight;
+                digits = p;
+                for (int j = 0; j < dimensions; j++) {
+                    int i = digits % POINTS;
+                    mixed[j] += f * kronrodWeight / KRONROD[i] * GAUSS[i];
+                    digits /= POINTS;
+                }
+            }
+            double scale = 1;
+            for (double h : this.half) {
+                scale *= h;
+            }
+            this.kronrod = kronrodSum * scale;
+            this.error = Math.abs(kronrodSum - gaussSum) * scale;
+            this.splitDimension = 0;
+            for (int j = 1; j < dimensions; j++) {
+                if (Math.abs(kronrodSum - mixed[j]) > Math.abs(kronrodSum - mixed[this.splitDimension])) {
+                    this.splitDimension = j;
+                }
+            }
+            if (Double.isNaN(this.error)) {
+                this.error = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        /**
+         * Splits the box in halves along the chosen dimension.
+         *
+         * @param boxes where to add the halves
+         */
+        void split(List<Box> boxes) {
+            int j = this.splitDimension;
+            for (int side = -1; side <= 1; side += 2) {
+                Box half = new Box(this.center.length);
+                System.arraycopy(this.center, 0, half.center, 0, this.center.length);
+                System.arraycopy(this.half, 0, half.half, 0, this.half.length);
+                half.half[j] = 0.5 * this.half[j];
+                half.center[j] = this.center[j] + side * half.half[j];
+                boxes.add(half);
+            }
+        }
+    }
+
+    /**
+     * The Batch class evaluates a range of rows of the columns, splitting it
+     * in halves until the halves are small.
+     */
+    private static final class Batch extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledExpression compiled;
+        private final double[][] columns;
+        private final double[] values;
+        private final int from;
+        private final int to;
+        private Batch left;
+        private Batch right;
+        private Exception error;
+
+        /**
+         * Constructs a task.
+         *
+         * @param compiled the compiled expression
+         * @param columns the abscissae, one column per variable
+         * @param values where to write the values
+         * @param from the first row of the range
+         * @param to the end of the range, exclusive
+         */
+        Batch(CompiledExpression compiled, double[][] columns, double[] values, int from, int to) {
+            this.compiled = compiled;
+            this.columns = columns;
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > ROWS_PER_TASK) {
+                int middle = (this.from + this.to) >>> 1;
+                this.left = new Batch(this.compiled, this.columns, this.values, this.from, middle);
+                this.right = new Batch(this.compiled, this.columns, this.values, middle, this.to);
+                invokeAll(this.left, this.right);
+                return;
+            }
+            int rows = this.to - this.from;
+            double[][] slice = new double[this.columns.length][rows];
+            for (int j = 0; j < slice.length; j++) {
+                System.arraycopy(this.columns[j], this.from, slice[j], 0, rows);
+            }
+            double[] out = new double[rows];
+            try {
+                this.compiled.evaluate(slice, out);
+            } catch (Exception e) {
+                this.error = e;
+            }
+            System.arraycopy(out, 0, this.values, this.from, rows);
+        }
+
+        /**
+         * Returns the exception of the first row that is undefined.
+         *
+         * @return the exception, or null if every row was defined
+         */
+        Exception firstError() {
+            if (this.left != null) {
+                Exception e = this.left.firstError();
+                return e != null ? e : this.right.firstError();
+            }
+            return this.error;
+        }
+    }
+}
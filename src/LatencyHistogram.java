@@ -0,0 +1,165 @@
+// itay alter 206132284
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class records durations in nanoseconds into
+ * logarithmic buckets. Every power of two is split into 8 buckets, so a
+ * reported value is within 12.5% of the recorded ones, and durations below 16
+ * nanoseconds are exact. The buckets are LongAdders, so threads recording at
+ * the same time do not contend on a single counter.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private LongAdder[] buckets = new LongAdder[BUCKETS];
+    private LongAdder total = new LongAdder();
+    private LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a duration. Negative durations are recorded as 0.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        this.buckets[bucket(value)].increment();
+        this.total.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : this.buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = this.getCount();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) this.total.sum() / count;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * Returns an estimate of a percentile of the recorded durations: the upper
+     * bound of the bucket that holds it, but never more than the maximum.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated percentile in nanoseconds, or 0 if nothing was
+     * recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("the percentile must be between 0 and 100");
+        }
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // The last bucket reaches Long.MAX_VALUE itself
+                long upper = i + 1 < BUCKETS ? lowest(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(upper, this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+    /**
+     * Clears all the recorded durations.
+     */
+    public void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.total.reset();
+        this.max.reset();
+    }
+
+    /**
+     * Returns a summary of the histogram.
+     *
+     * @return the count, mean, median, 99th percentile and maximum
+     */
+    public String toString() {
+        return "count=" + this.getCount() + " mean=" + Math.round(this.getMean()) + "ns p50="
+                + this.getPercentile(50) + "ns p99=" + this.getPercentile(99) + "ns max=" + this.getMax() + "ns";
+    }
+
+    /**
+     * Returns the index of the bucket of a duration.
+     *
+     * @param value the non-negative duration
+     * @return the index of its bucket
+     */
+    private static int bucket(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the smallest duration that falls into a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the lower bound of the bucket, or Long.MAX_VALUE past the last
+     * bucket
+     */
+    private static long lowest(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        if (index >= BUCKETS) {
+            return Long.MAX_VALUE;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+}
@@ -1,6 +1,4 @@
 // itay alter 206132284
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -41,22 +39,14 @@ public class Log extends BinaryExpression implements Expression {
      * than or equal to 0, or if the base is 1 and the argument is not 1
      * (undefined logarithm)
      */
+    @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        double logResult, base, argument;
-        // evaluate the base and argument expressions using the assignment
-        base = super.getOperands().get(0).evaluate(assignment);
-        argument = super.getOperands().get(1).evaluate(assignment);
-        /*
-         * check if the base and argument values meet the conditions for a
-         *  defined logarithm
-         */
-        if (base <= 0 || argument <= 0 || (base == 1 && argument != 1)) {
-            throw new Exception("the logarithm operation is undefined for"
-                    + " numbers that are equal or smaller than 0");
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
         }
-        // calculate the logarithm result
-        logResult = log(base, argument);
-        return logResult;
+        ExpressionMetrics.visit(Operator.LOG);
+        return this.evaluateWith(this.getLeft().evaluate(assignment),
+                this.getRight().evaluate(assignment), true);
     }
 
     /**
@@ -85,21 +75,40 @@ public class Log extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        double logResult, base, argument;
-        // evaluate the base and argument expressions using the assignment
-        base = super.getOperands().get(0).evaluate();
-        argument = super.getOperands().get(1).evaluate();
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
+        }
+        ExpressionMetrics.visit(Operator.LOG);
+        return this.evaluateWith(this.getLeft().evaluate(),
+                this.getRight().evaluate(), false);
+    }
+
+    /**
+     * Computes the logarithm of the value of the argument in the base of the
+     * value of the base.
+     *
+     * @param x the value of the base
+     * @param y the value of the argument
+     * @param assigned whether the values come from evaluate(Map), which
+     * reports an undefined logarithm with a different message than evaluate()
+     * @return the logarithm
+     * @throws Exception if the logarithm is undefined for the values
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) throws Exception {
         /*
          * check if the base and argument values meet the conditions for a
          *  defined logarithm
          */
-        if (base <= 0 || argument <= 0 || (base == 1 && argument != 1)) {
+        if (x <= 0 || y <= 0 || (x == 1 && y != 1)) {
+            if (assigned) {
+                throw new Exception("the logarithm operation is undefined for"
+                        + " numbers that are equal or smaller than 0");
+            }
             throw new Exception("the logarithm operation is undefined for"
                     + " numbers that are equal or smaller than 0, and for base 1");
         }
-        // calculate the logarithm result
-        logResult = log(base, argument);
-        return logResult;
+        return log(x, y);
     }
     /**
      * Assigns a new expression to the variable in the logarithm expression.
@@ -113,13 +122,34 @@ public class Log extends BinaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        // Assign the variable and expression to each operand
-        for (Expression operand : super.getOperands()) {
-            newOperands.add(operand.assign(var, expression));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
         }
-        // Create a new logarithm expression with the assigned operands
-        return new Log(newOperands.get(0), newOperands.get(1));
+        return new Log(this.getLeft().assign(var, expression),
+                this.getRight().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the logarithm expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the logarithm expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
+        }
+        return new Log(this.getLeft().assign(assignments),
+                this.getRight().assign(assignments));
     }
     /**
      * Calculates the derivative of the logarithm expression with respect to the
@@ -127,15 +157,15 @@ public class Log extends BinaryExpression implements Expression {
      * ((ln(f)*f*g') - (ln(g)*g*f')) / (g*f*(ln(f))^2)
      *
      * @param var the variable with respect to which the derivative is calculated
+     * @param baseDerivative the derivative of the base
+     * @param argumentDerivative the derivative of the argument
      * @return the derivative of the logarithm expression
      */
     @Override
-    public Expression differentiate(String var) {
-        Expression base = super.getOperands().get(0);
-        Expression argument = super.getOperands().get(1);
-        // Calculate the derivatives of the base and argument expressions
-        Expression baseDerivative = base.differentiate(var);
-        Expression argumentDerivative = argument.differentiate(var);
+    protected Expression differentiateWith(String var, Expression baseDerivative,
+            Expression argumentDerivative) {
+        Expression base = this.getLeft();
+        Expression argument = this.getRight();
         // Calculate the numerator of the derivative expression
         Expression numerator = new Minus(new Mult(new Mult(new Log(new Var("e"),
                 base), base), argumentDerivative), new Mult(new Mult(new Log(
@@ -148,47 +178,68 @@ public class Log extends BinaryExpression implements Expression {
     }
     /**
      * This method simplifies the logarithm expression by evaluating it if both
-     * operands are numbers, checking for logarithmic identities, or recursively
-     * simplifying the operands. It returns the simplified expression.
+     * operands are numbers, checking for logarithmic identities, or keeping
+     * the simplified operands. It returns the simplified expression.
      *
+     * @param x the simplified first operand
+     * @param y the simplified second operand
      * @return The simplified expression.
      */
-    public Expression simplify() {
-        Expression x = super.getOperands().get(0);
-        Expression y = super.getOperands().get(1);
+    @Override
+    protected Expression simplifyWith(Expression x, Expression y) {
+        Expression base = this.getLeft();
+        Expression argument = this.getRight();
         // Evaluate the logarithm expression if both operands are numbers
-        if (x instanceof Num && y instanceof Num) {
+        if (base instanceof Num && argument instanceof Num) {
             try {
-                double logResult = log(x.evaluate(), y.evaluate());
+                double logResult = log(base.evaluate(), argument.evaluate());
                 return new Num(logResult);
                 // Handle any exceptions that may occur during evaluation
             } catch (Exception e) {
             }
         }
         // Check for logarithmic identity: log(x, x) = 1
-        if (x instanceof Expression && y instanceof Expression) {
+        if (sameDepth(base, argument)) {
             try {
-                if (y.toString().equals(x.toString())) {
+                if (argument.toString().equals(base.toString())) {
                     return new Num(1);
                 }
              // Handle any exceptions that may occur during evaluation
             } catch (Exception e) {
             }
         }
-        // Recursively simplify the operands
-        return new Log(x.simplify(), y.simplify());
+        // Otherwise keep the logarithm of the simplified operands
+        return new Log(x, y);
+    }
+
+
+    /**
+     * Returns the text written before the operands of the logarithm.
+     *
+     * @return the prefix of the logarithm
+     */
+    @Override
+    protected String prefix() {
+        return "log(";
     }
 
+    /**
+     * Returns the text written between the operands of the logarithm.
+     *
+     * @return the infix of the logarithm
+     */
+    @Override
+    protected String infix() {
+        return ", ";
+    }
 
     /**
-     * Returns a string representation of the logarithm expression.
+     * Returns the text written after the operands of the logarithm.
      *
-     * @return The string representation of the logarithm expression.
+     * @return the suffix of the logarithm
      */
-    public String toString() {
-        double logResult = 0;
-        String x = super.getOperands().get(0).toString();
-        String y = super.getOperands().get(1).toString();
-        return "log(" + x + ", " + y + ")";
+    @Override
+    protected String suffix() {
+        return ")";
     }
 }
@@ -0,0 +1,164 @@
+// itay alter 206132284
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The MeteredExpression class wraps an expression and records the durations of
+ * its evaluate(), simplify() and differentiate() calls in the histograms of
+ * ExpressionMetrics. Everything else is passed to the wrapped expression, and
+ * the expressions it returns are not metered.
+ */
+public class MeteredExpression implements Expression {
+    private Expression expression;
+
+    /**
+     * Constructs a metered expression. Use ExpressionMetrics.meter() to create
+     * one.
+     *
+     * @param expression the expression to meter
+     */
+    MeteredExpression(Expression expression) {
+        this.expression = expression;
+    }
+
+    /**
+     * Evaluates the wrapped expression and records the duration.
+     *
+     * @param assignment a map of variable assignments
+     * @return the result of the evaluation
+     * @throws Exception if the evaluation of the wrapped expression fails
+     */
+    @Override
+    public double evaluate(Map<String, Double> assignment) throws Exception {
+        if (!ExpressionMetrics.isEnabled()) {
+            return this.expression.evaluate(assignment);
+        }
+        long start = System.nanoTime();
+        try {
+            return this.expression.evaluate(assignment);
+        } finally {
+            ExpressionMetrics.getEvaluateLatency().record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Evaluates the wrapped expression and records the duration.
+     *
+     * @return the result of the evaluation
+     * @throws Exception if the evaluation of the wrapped expression fails
+     */
+    @Override
+    public double evaluate() throws Exception {
+        if (!ExpressionMetrics.isEnabled()) {
+            return this.expression.evaluate();
+        }
+        long start = System.nanoTime();
+        try {
+            return this.expression.evaluate();
+        } finally {
+            ExpressionMetrics.getEvaluateLatency().record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the variables of the wrapped expression.
+     *
+     * @return a list of the variables
+     */
+    @Override
+    public List<String> getVariables() {
+        return this.expression.getVariables();
+    }
+
+    /**
+     * Returns the variable set of the wrapped expression.
+     *
+     * @return the set of the variables
+     */
+    @Override
+    public Set<String> getVariableSet() {
+        return this.expression.getVariableSet();
+    }
+
+    /**
+     * Returns the string representation of the wrapped expression.
+     *
+     * @return the string representation of the expression
+     */
+    public String toString() {
+        return this.expression.toString();
+    }
+
+    /**
+     * Appends the string representation of the wrapped expression.
+     *
+     * @param out where to append the representation
+     * @throws IOException if appending to the Appendable fails
+     */
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        this.expression.appendTo(out);
+    }
+
+    /**
+     * Assigns an expression to a variable of the wrapped expression.
+     *
+     * @param var the variable to be replaced
+     * @param assigned the expression to replace the variable with
+     * @return the wrapped expression with the variable replaced
+     */
+    @Override
+    public Expression assign(String var, Expression assigned) {
+        return this.expression.assign(var, assigned);
+    }
+
+    /**
+     * Assigns expressions to several variables of the wrapped expression.
+     *
+     * @param assignments the expressions to replace the variables with
+     * @return the wrapped expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        return this.expression.assign(assignments);
+    }
+
+    /**
+     * Differentiates the wrapped expression and records the duration.
+     *
+     * @param var the variable with respect to which the derivative is calculated
+     * @return the derivative of the wrapped expression
+     */
+    @Override
+    public Expression differentiate(String var) {
+        if (!ExpressionMetrics.isEnabled()) {
+            return this.expression.differentiate(var);
+        }
+        long start = System.nanoTime();
+        try {
+            return this.expression.differentiate(var);
+        } finally {
+            ExpressionMetrics.getDifferentiateLatency().record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Simplifies the wrapped expression and records the duration.
+     *
+     * @return the simplified wrapped expression
+     */
+    @Override
+    public Expression simplify() {
+        if (!ExpressionMetrics.isEnabled()) {
+            return this.expression.simplify();
+        }
+        long start = System.nanoTime();
+        try {
+            return this.expression.simplify();
+        } finally {
+            ExpressionMetrics.getSimplifyLatency().record(System.nanoTime() - start);
+        }
+    }
+}
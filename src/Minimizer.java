@@ -0,0 +1,481 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Minimizer class minimizes an expression over its variables with the
+ * limited-memory BFGS method, optionally within bounds. The expression and its
+ * gradient are compiled once, into a CompiledGradient, so an iteration costs
+ * runs of one program and never differentiates or walks a tree. The
+ * derivative trees are built only once, when the minimizer is constructed,
+ * and the program computes every subexpression that they share with the
+ * objective and with each other once. The gradient is compiled with the
+ * degree factor of the ExpressionCompiler and the power rules of
+ * ExpressionEngine.derivative(), so it is the true gradient of the objective,
+ * defined wherever the objective is.
+ *
+ * <p>L-BFGS keeps the last steps and the changes of the gradient along them,
+ * and turns the gradient into a quasi-Newton direction with the two-loop
+ * recursion. Bounds are handled by projection: a variable at a bound whose
+ * gradient pushes it out is held fixed for the iteration, the direction is
+ * computed over the free variables, and the line search backtracks along the
+ * projection of the direction onto the box. A point where the objective is
+ * undefined counts as infinitely high, so the line search backtracks away
+ * from it.
+ *
+ * <p>The minimization converges when the projected gradient is below the
+ * gradient tolerance, or when an iteration no longer lowers the objective by
+ * more than its rounding. minimizeAll() runs the minimization from many
+ * starting points in parallel, on a ForkJoinPool, e.g. from the random points
+ * of randomStarts().
+ */
+public final class Minimizer {
+    /**
+     * The default number of steps kept by L-BFGS.
+     */
+    public static final int DEFAULT_MEMORY = 10;
+
+    /**
+     * The default number of iterations after which a minimization gives up.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+    /**
+     * The default tolerance of the largest component of the projected
+     * gradient.
+     */
+    public static final double DEFAULT_GRADIENT_TOLERANCE = 1e-8;
+
+    private static final double ARMIJO = 1e-4;
+    private static final int MAX_BACKTRACKS = 60;
+
+    private final CompiledGradient gradient;
+    private final ForkJoinPool pool;
+    private final double[] lower;
+    private final double[] upper;
+    private int memory = DEFAULT_MEMORY;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double gradientTolerance = DEFAULT_GRADIENT_TOLERANCE;
+
+    /**
+     * Constructs a minimizer over the variables of an expression, in the
+     * order of their first occurrence, that runs minimizeAll() on the common
+     * pool.
+     *
+     * @param objective the expression to minimize
+     */
+    public Minimizer(Expression objective) {
+        this(objective, new ArrayList<>(objective.getVariableSet()), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a minimizer over the given variables.
+     *
+     * @param objective the expression to minimize
+     * @param variables the variables, which must include all the variables of
+     * the expression
+     * @param pool the pool that runs minimizeAll()
+     * @throws IllegalArgumentException if a variable of the expression is not
+     * in the list, or a variable appears twice
+     */
+    public Minimizer(Expression objective, List<String> variables, ForkJoinPool pool) {
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        compiler.setDegreeFactor(true);
+        this.gradient = compiler.compileGradient(objective, variables);
+        this.pool = pool;
+        this.lower = new double[variables.size()];
+        this.upper = new double[variables.size()];
+        Arrays.fill(this.lower, Double.NEGATIVE_INFINITY);
+        Arrays.fill(this.upper, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the variables, in the order of the components of the points.
+     *
+     * @return the list of the variables
+     */
+    public List<String> getVariables() {
+        return this.gradient.getVariables();
+    }
+
+    /**
+     * Bounds the variables to a box. Infinite bounds leave a side open.
+     *
+     * @param lowerBounds the lowest value of every variable
+     * @param upperBounds the highest value of every variable
+     * @throws IllegalArgumentException if the bounds do not match the
+     * variables, or a lower bound is above its upper bound
+     */
+    public void setBounds(double[] lowerBounds, double[] upperBounds) {
+        int n = this.lower.length;
+        if (lowerBounds.length != n || upperBounds.length != n) {
+            throw new IllegalArgumentException("expected " + n + " bounds, got " + lowerBounds.length + " and "
+                    + upperBounds.length);
+        }
+        for (int i = 0; i < n; i++) {
+            if (!(lowerBounds[i] <= upperBounds[i])) {
+                throw new IllegalArgumentException("invalid bounds of " + this.getVariables().get(i) + ": ["
+                        + lowerBounds[i] + ", " + upperBounds[i] + "]");
+            }
+        }
+        System.arraycopy(lowerBounds, 0, this.lower, 0, n);
+        System.arraycopy(upperBounds, 0, this.upper, 0, n);
+    }
+
+    /**
+     * Sets the number of steps kept by L-BFGS.
+     *
+     * @param memory the number of steps, positive
+     */
+    public void setMemory(int memory) {
+        if (memory < 1) {
+            throw new IllegalArgumentException("the memory must be positive: " + memory);
+        }
+        this.memory = memory;
+    }
+
+    /**
+     * Returns the number of steps kept by L-BFGS.
+     *
+     * @return the number of steps
+     */
+    public int getMemory() {
+        return this.memory;
+    }
+
+    /**
+     * Sets the number of iterations after which a minimization gives up.
+     *
+     * @param maxIterations the number of iterations, positive
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("the number of iterations must be positive: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Returns the number of iterations after which a minimization gives up.
+     *
+     * @return the number of iterations
+     */
+    public int getMaxIterations() {
+        return this.maxIterations;
+    }
+
+    /**
+     * Sets the tolerance of the largest component of the projected gradient.
+     *
+     * @param tolerance the tolerance, not negative
+     */
+    public void setGradientTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("the tolerance must not be negative: " + tolerance);
+        }
+        this.gradientTolerance = tolerance;
+    }
+
+    /**
+     * Returns the tolerance of the largest component of the projected
+     * gradient.
+     *
+     * @return the tolerance
+     */
+    public double getGradientTolerance() {
+        return this.gradientTolerance;
+    }
+
+    /**
+     * Minimizes the objective from a starting point, which is first moved
+     * into the bounds.
+     *
+     * @param start the starting point, in the order of the variables
+     * @return the minimum found
+     * @throws Exception if the objective or its gradient is undefined at the
+     * starting point, with the message of evaluate(Map)
+     */
+    public Minimum minimize(double[] start) throws Exception {
+        int n = this.lower.length;
+        if (start.length != n) {
+            throw new IllegalArgumentException("expected " + n + " coordinates, got " + start.length);
+        }
+        double[] registers = new double[this.gradient.getRegisterCount()];
+        double[] x = new double[n];
+        this.project(start, x);
+        double[] g = new double[n];
+        double f = this.gradient.evaluate(x, registers, g);
+        double[][] steps = new double[this.memory][n];
+        double[][] changes = new double[this.memory][n];
+        double[] rho = new double[this.memory];
+        double[] alpha = new double[this.memory];
+        int stored = 0;
+        int newest = -1;
+        double[] d = new double[n];
+        double[] trial = new double[n];
+        double[] trialGradient = new double[n];
+        for (int iteration = 0; iteration < this.maxIterations; iteration++) {
+            boolean[] free = new boolean[n];
+            if (this.projectedGradientNorm(x, g, free) <= this.gradientTolerance) {
+                return new Minimum(x, f, iteration, true);
+            }
+            // The two-loop recursion over the free variables
+            for (int i = 0; i < n; i++) {
+                d[i] = free[i] ? -g[i] : 0;
+            }
+            for (int k = 0; k < stored; k++) {
+                int j = Math.floorMod(newest - k, this.memory);
+                alpha[j] = rho[j] * dot(steps[j], d, free);
+                axpy(-alpha[j], changes[j], d, free);
+            }
+            if (stored > 0) {
+                double gamma = dot(steps[newest], changes[newest], free)
+                        / dot(changes[newest], changes[newest], free);
+                if (gamma > 0 && !Double.isInfinite(gamma)) {
+                    for (int i = 0; i < n; i++) {
+                        d[i] *= gamma;
+                    }
+                }
+            }
+            for (int k = stored - 1; k >= 0; k--) {
+                int j = Math.floorMod(newest - k, this.memory);
+                double beta = rho[j] * dot(changes[j], d, free);
+                axpy(alpha[j] - beta, steps[j], d, free);
+            }
+            double slope = dot(g, d, free);
+            if (!(slope < 0)) {
+                // Not a descent direction: forget the history and go downhill
+                stored = 0;
+                for (int i = 0; i < n; i++) {
+                    d[i] = free[i] ? -g[i] : 0;
+                }
+                slope = dot(g, d, free);
+            }
+            // The first step is scaled to move by about 1
+            double step = stored == 0 ? Math.min(1, 1 / Math.sqrt(-slope)) : 1;
+            double trialValue = Double.POSITIVE_INFINITY;
+            boolean accepted = false;
+            for (int backtrack = 0; backtrack < MAX_BACKTRACKS && !accepted; backtrack++) {
+                for (int i = 0; i < n; i++) {
+                    trial[i] = x[i] + step * d[i];
+                }
+                this.project(trial, trial);
+                double decrease = 0;
+                for (int i = 0; i < n; i++) {
+                    decrease += g[i] * (trial[i] - x[i]);
+                }
+                try {
+                    trialValue = this.gradient.evaluate(trial, registers, trialGradient);
+                } catch (Exception e) {
+                    trialValue = Double.POSITIVE_INFINITY;
+                }
+                accepted = trialValue <= f + ARMIJO * decrease;
+                step *= 0.5;
+            }
+            if (!accepted) {
+                if (stored == 0) {
+                    return new Minimum(x, f, iteration, false);
+                }
+                stored = 0;
+                continue;
+            }
+            newest = (newest + 1) % this.memory;
+            double curvature = 0;
+            double norm = 0;
+            for (int i = 0; i < n; i++) {
+                steps[newest][i] = trial[i] - x[i];
+                changes[newest][i] = trialGradient[i] - g[i];
+                curvature += steps[newest][i] * changes[newest][i];
+                norm += changes[newest][i] * changes[newest][i];
+            }
+            if (curvature > 1e-12 * norm) {
+                rho[newest] = 1 / curvature;
+                stored = Math.min(stored + 1, this.memory);
+            } else {
+                // Keep the history positive definite by skipping the update
+                newest = Math.floorMod(newest - 1, this.memory);
+            }
+            boolean stalled = f - trialValue <= 1e-15 * Math.max(1, Math.max(Math.abs(f), Math.abs(trialValue)));
+            System.arraycopy(trial, 0, x, 0, n);
+            System.arraycopy(trialGradient, 0, g, 0, n);
+            f = trialValue;
+            if (stalled) {
+                return new Minimum(x, f, iteration + 1, true);
+            }
+        }
+        return new Minimum(x, f, this.maxIterations, false);
+    }
+
+    /**
+     * Minimizes the objective from many starting points, in parallel.
+     *
+     * @param starts the starting points
+     * @return the minimum found from every starting point, or null for the
+     * starting points where minimize() throws
+     */
+    public Minimum[] minimizeAll(double[][] starts) {
+        Minimum[] minima = new Minimum[starts.length];
+        this.pool.invoke(new Starts(starts, minima, 0, starts.length));
+        return minima;
+    }
+
+    /**
+     * Returns the lowest of minima.
+     *
+     * @param minima the minima, some of which may be null
+     * @return the minimum with the lowest value, or null if there is none
+     */
+    public static Minimum best(Minimum[] minima) {
+        Minimum best = null;
+        for (Minimum minimum : minima) {
+            if (minimum != null && (best == null || minimum.getValue() < best.getValue())) {
+                best = minimum;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns random starting points, uniform within the bounds.
+     *
+     * @param count the number of points
+     * @param seed the seed of the random numbers, so that the points can be
+     * reproduced
+     * @return the points
+     * @throws IllegalStateException if a bound is infinite
+     */
+    public double[][] randomStarts(int count, long seed) {
+        int n = this.lower.length;
+        for (int i = 0; i < n; i++) {
+            if (Double.isInfinite(this.lower[i]) || Double.isInfinite(this.upper[i])) {
+                throw new IllegalStateException("random starting points need finite bounds for "
+                        + this.getVariables().get(i));
+            }
+        }
+        Random random = new Random(seed);
+        double[][] starts = new double[count][n];
+        for (double[] start : starts) {
+            for (int i = 0; i < n; i++) {
+                start[i] = this.lower[i] + random.nextDouble() * (this.upper[i] - this.lower[i]);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Moves a point into the bounds.
+     *
+     * @param point the point
+     * @param out where to write the projected point, which may be the point
+     */
+    private void project(double[] point, double[] out) {
+        for (int i = 0; i < point.length; i++) {
+            out[i] = Math.min(this.upper[i], Math.max(this.lower[i], point[i]));
+        }
+    }
+
+    /**
+     * Returns the largest component of the projected gradient, and marks the
+     * variables that are free: not at a bound that the gradient pushes them
+     * out of.
+     *
+     * @param x the point
+     * @param g the gradient at the point
+     * @param free where to mark the free variables
+     * @return the largest absolute component of the gradient over the free
+     * variables
+     */
+    private double projectedGradientNorm(double[] x, double[] g, boolean[] free) {
+        double norm = 0;
+        for (int i = 0; i < x.length; i++) {
+            free[i] = !(x[i] <= this.lower[i] && g[i] > 0) && !(x[i] >= this.upper[i] && g[i] < 0);
+            if (free[i]) {
+                norm = Math.max(norm, Math.abs(g[i]));
+            }
+        }
+        return norm;
+    }
+
+    /**
+     * Returns the dot product of two vectors over the free variables.
+     *
+     * @param a the first vector
+     * @param b the second vector
+     * @param free the free variables
+     * @return the dot product
+     */
+    private static double dot(double[] a, double[] b, boolean[] free) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (free[i]) {
+                sum += a[i] * b[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Adds a multiple of a vector to another over the free variables.
+     *
+     * @param factor the multiple
+     * @param a the vector to add
+     * @param b the vector to add to
+     * @param free the free variables
+     */
+    private static void axpy(double factor, double[] a, double[] b, boolean[] free) {
+        for (int i = 0; i < a.length; i++) {
+            if (free[i]) {
+                b[i] += factor * a[i];
+            }
+        }
+    }
+
+    /**
+     * The Starts class minimizes from a range of starting points, splitting
+     * it in halves until every task has one.
+     */
+    private final class Starts extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] starts;
+        private final Minimum[] minima;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs a task.
+         *
+         * @param starts the starting points
+         * @param minima where to write the minima
+         * @param from the first starting point of the range
+         * @param to the end of the range, exclusive
+         */
+        Starts(double[][] starts, Minimum[] minima, int from, int to) {
+            this.starts = starts;
+            this.minima = minima;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > 1) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new Starts(this.starts, this.minima, this.from, middle),
+                        new Starts(this.starts, this.minima, middle, this.to));
+                return;
+            }
+            for (int i = this.from; i < this.to; i++) {
+                try {
+                    this.minima[i] = Minimizer.this.minimize(this.starts[i]);
+                } catch (Exception e) {
+                    this.minima[i] = null;
+                }
+            }
+        }
+    }
+}
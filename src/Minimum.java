@@ -0,0 +1,74 @@
+// itay alter 206132284
+/**
+ * The Minimum class is the result of a minimization: the point it stopped
+ * at, the value of the objective there, the number of iterations it took and
+ * whether it met its convergence criterion or gave up.
+ */
+public final class Minimum {
+    private final double[] point;
+    private final double value;
+    private final int iterations;
+    private final boolean converged;
+
+    /**
+     * Constructs a result.
+     *
+     * @param point the point the minimization stopped at, which is copied
+     * @param value the value of the objective at the point
+     * @param iterations the number of iterations
+     * @param converged true if the convergence criterion was met
+     */
+    public Minimum(double[] point, double value, int iterations, boolean converged) {
+        this.point = point.clone();
+        this.value = value;
+        this.iterations = iterations;
+        this.converged = converged;
+    }
+
+    /**
+     * Returns the point the minimization stopped at.
+     *
+     * @return a copy of the point, in the order of the variables
+     */
+    public double[] getPoint() {
+        return this.point.clone();
+    }
+
+    /**
+     * Returns the value of the objective at the point.
+     *
+     * @return the value
+     */
+    public double getValue() {
+        return this.value;
+    }
+
+    /**
+     * Returns the number of iterations of the minimization.
+     *
+     * @return the number of iterations
+     */
+    public int getIterations() {
+        return this.iterations;
+    }
+
+    /**
+     * Returns whether the minimization met its convergence criterion, rather
+     * than running out of iterations or of descent directions.
+     *
+     * @return true if it converged
+     */
+    public boolean isConverged() {
+        return this.converged;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("minimum ").append(this.value).append(" at (");
+        for (int i = 0; i < this.point.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(this.point[i]);
+        }
+        return builder.append(") after ").append(this.iterations).append(" iterations")
+                .append(this.converged ? "" : ", not converged").toString();
+    }
+}
@@ -1,6 +1,4 @@
 // itay alter 206132284
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,9 +30,12 @@ public class Minus extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        double differense = super.getOperands().get(0).evaluate(assignment);
-        differense -= super.getOperands().get(1).evaluate(assignment);
-        return differense;
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
+        }
+        ExpressionMetrics.visit(Operator.MINUS);
+        return this.evaluateWith(this.getLeft().evaluate(assignment),
+                this.getRight().evaluate(assignment), true);
     }
     /**
      * Evaluates the subtraction operation between the operands without any
@@ -45,8 +46,26 @@ public class Minus extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        double differense = super.getOperands().get(0).evaluate();
-        differense -= super.getOperands().get(1).evaluate();
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
+        }
+        ExpressionMetrics.visit(Operator.MINUS);
+        return this.evaluateWith(this.getLeft().evaluate(),
+                this.getRight().evaluate(), false);
+    }
+
+    /**
+     * Subtracts the value of the second operand from the value of the first.
+     *
+     * @param x the value of the first operand
+     * @param y the value of the second operand
+     * @param assigned whether the values come from evaluate(Map)
+     * @return the difference of the values
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) {
+        double differense = x;
+        differense -= y;
         return differense;
     }
 
@@ -60,52 +79,80 @@ public class Minus extends BinaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        // Assign the variable within each operand
-        for (Expression operand : super.getOperands()) {
-            newOperands.add(operand.assign(var, expression));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
         }
-        // Create a new subtraction expression with the updated variable assignment
-        return new Minus(newOperands.get(0), newOperands.get(1));
+        return new Minus(this.getLeft().assign(var, expression),
+                this.getRight().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the subtraction expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the subtraction expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
+        }
+        return new Minus(this.getLeft().assign(assignments),
+                this.getRight().assign(assignments));
     }
     /**
      * Computes the derivative of the subtraction expression with respect to the
      * specified variable.
      *
      * @param var The variable with respect to which the derivative is computed.
+     * @param dx The derivative of the first operand.
+     * @param dy The derivative of the second operand.
      * @return The derivative of the subtraction expression.
      */
     @Override
-    public Expression differentiate(String var) {
-        // Compute the derivatives of the operands
-        Expression dx = super.getOperands().get(0).differentiate(var);
-        Expression dy = super.getOperands().get(1).differentiate(var);
+    protected Expression differentiateWith(String var, Expression dx, Expression dy) {
         /*
          * Subtract the derivatives to obtain the derivative of the subtraction
          *  expression
          */
         return new Minus(dx, dy);
     }
+    /**
+     * A subtraction of a negation is simplified as the addition of the negated
+     * expression.
+     *
+     * @return the addition if the second operand is a negation, otherwise
+     * this expression
+     */
+    @Override
+    protected Expression simplifyTarget() {
+        if (this.getRight() instanceof Neg) {
+            Neg neg = (Neg) this.getRight();
+            return new Plus(this.getLeft(), neg.getOperand());
+        }
+        return this;
+    }
+
     /**
      * This method simplifies a subtraction expression by performing algebraic
-     * simplifications. It handles cases such as subtracting a negation,
-     * subtracting numbers, subtracting zero, and subtracting identical
-     * expressions. The method returns the simplified subtraction expression.
+     * simplifications. It handles cases such as subtracting numbers,
+     * subtracting zero, and subtracting identical expressions. The method
+     * returns the simplified subtraction expression.
      *
+     * @param x the simplified first operand
+     * @param y the simplified second operand
      * @return The simplified expression.
      */
-    public Expression simplify() {
-        if (super.getOperands().get(1) instanceof Neg) {
-            /*
-             * If the second operand is a negation, convert it to addition and
-             *  simplify
-             */
-            Neg neg = (Neg) super.getOperands().get(1);
-            Plus plus = new Plus(super.getOperands().get(0), neg.getOperand());
-            return plus.simplify();
-        }
-        Expression x = super.getOperands().get(0).simplify();
-        Expression y = super.getOperands().get(1).simplify();
+    @Override
+    protected Expression simplifyWith(Expression x, Expression y) {
         // If both operands are numbers, evaluate and return the difference
         if (x instanceof Num && y instanceof Num) {
             try {
@@ -136,7 +183,7 @@ public class Minus extends BinaryExpression implements Expression {
          * If both operands are expressions, check for subtraction of identical
          *  expressions
          */
-        if (x instanceof Expression && y instanceof Expression) {
+        if (sameDepth(x, y)) {
             try {
                 if (y.toString().equals(x.toString())) {
                     return new Num(0);
@@ -148,14 +195,32 @@ public class Minus extends BinaryExpression implements Expression {
         return new Minus(x, y);
     }
     /**
-     * Returns a string representation of the subtraction expression in the form
-     * "(x - y)".
+     * Returns the text written before the operands of the subtraction.
+     *
+     * @return the prefix of the subtraction
+     */
+    @Override
+    protected String prefix() {
+        return "(";
+    }
+
+    /**
+     * Returns the text written between the operands of the subtraction.
+     *
+     * @return the infix of the subtraction
+     */
+    @Override
+    protected String infix() {
+        return " - ";
+    }
+
+    /**
+     * Returns the text written after the operands of the subtraction.
      *
-     * @return The string representation of the subtraction expression.
+     * @return the suffix of the subtraction
      */
-    public String toString() {
-        String x = super.getOperands().get(0).toString();
-        String y = super.getOperands().get(1).toString();
-        return "(" + x + " - " + y + ")";
+    @Override
+    protected String suffix() {
+        return ")";
     }
 }
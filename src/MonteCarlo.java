@@ -0,0 +1,215 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The MonteCarlo class propagates the uncertainty of the inputs of an
+ * expression to its value: it draws the input variables from their
+ * distributions, evaluates the expression at every draw and summarizes the
+ * values in a SampleSummary, with their mean, variance and quantiles. The
+ * values are never stored, so a run of 10^8 samples needs no more memory than
+ * a run of a thousand.
+ *
+ * <p>The expression is compiled once per run, with the parameters, the
+ * variables that are not uncertain, folded into constants. The samples are
+ * split in halves between the tasks of a ForkJoinPool, and every task fills
+ * columns of draws and evaluates them as one batch of the compiled
+ * expression, then summarizes the values in its own summary, which is merged
+ * into the one of its parent. Every split also splits the random stream, with
+ * SplittableRandom.split(), so every task draws from its own stream and no
+ * task waits for another. The splits depend only on the number of samples,
+ * so a run with a given seed gives the same summary on any pool.
+ *
+ * <p>A draw where the expression is undefined throws the exception of
+ * evaluate(Map).
+ */
+public final class MonteCarlo {
+    /**
+     * The default seed of the random streams.
+     */
+    public static final long DEFAULT_SEED = 206132284L;
+
+    private static final long SAMPLES_PER_TASK = 1 << 20;
+    private static final int ROWS_PER_BATCH = 4096;
+
+    private final ForkJoinPool pool;
+    private final ExpressionCompiler compiler = new ExpressionCompiler();
+    private long seed = DEFAULT_SEED;
+
+    /**
+     * Constructs a simulator over the common pool.
+     */
+    public MonteCarlo() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a simulator.
+     *
+     * @param pool the pool that draws and evaluates the samples
+     */
+    public MonteCarlo(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the seed of the random streams of the next runs.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the seed of the random streams.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Summarizes the values of an expression whose variables are all inputs.
+     *
+     * @param expression the expression
+     * @param inputs the distribution of every variable
+     * @param samples the number of samples, positive
+     * @return the summary of the values
+     * @throws Exception if the expression is undefined at a draw, with the
+     * message of evaluate(Map)
+     */
+    public SampleSummary run(Expression expression, Map<String, Distribution> inputs, long samples)
+            throws Exception {
+        return this.run(expression, inputs, Collections.<String, Double>emptyMap(), samples);
+    }
+
+    /**
+     * Summarizes the values of an expression.
+     *
+     * @param expression the expression
+     * @param inputs the distribution of every uncertain variable
+     * @param parameters the values of the other variables
+     * @param samples the number of samples, positive
+     * @return the summary of the values
+     * @throws Exception if the expression is undefined at a draw, with the
+     * message of evaluate(Map)
+     * @throws IllegalArgumentException if the number of samples is not
+     * positive, a variable is both an input and a parameter, or a variable of
+     * the expression is neither
+     */
+    public SampleSummary run(Expression expression, Map<String, Distribution> inputs,
+                             Map<String, Double> parameters, long samples) throws Exception {
+        if (samples < 1) {
+            throw new IllegalArgumentException("the number of samples must be positive: " + samples);
+        }
+        // The inputs are drawn in the order of their names, so that the
+        // streams are used the same way whatever the order of the map
+        Map<String, Distribution> sorted = new TreeMap<>(inputs);
+        for (String var : sorted.keySet()) {
+            if (parameters.containsKey(var)) {
+                throw new IllegalArgumentException("variable " + var + " is both an input and a parameter");
+            }
+        }
+        List<String> variables = new ArrayList<>(sorted.keySet());
+        Distribution[] distributions = sorted.values().toArray(new Distribution[0]);
+        CompiledExpression compiled = this.compiler.specialize(expression, parameters, variables);
+        Sampling root = new Sampling(compiled, distributions, new SplittableRandom(this.seed), samples);
+        this.pool.invoke(root);
+        Exception error = root.firstError();
+        if (error != null) {
+            throw error;
+        }
+        return root.summary;
+    }
+
+    /**
+     * The Sampling class draws and summarizes a number of samples, splitting
+     * them in halves until the halves are small.
+     */
+    private static final class Sampling extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledExpression compiled;
+        private final Distribution[] distributions;
+        private final SplittableRandom random;
+        private final long samples;
+        private Sampling left;
+        private Sampling right;
+        private SampleSummary summary;
+        private Exception error;
+
+        /**
+         * Constructs a task.
+         *
+         * @param compiled the compiled expression, with one slot per input
+         * @param distributions the distributions of the slots
+         * @param random the random stream of the task
+         * @param samples the number of samples
+         */
+        Sampling(CompiledExpression compiled, Distribution[] distributions, SplittableRandom random,
+                 long samples) {
+            this.compiled = compiled;
+            this.distributions = distributions;
+            this.random = random;
+            this.samples = samples;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.samples > SAMPLES_PER_TASK) {
+                long half = this.samples / 2;
+                this.right = new Sampling(this.compiled, this.distributions, this.random.split(), half);
+                this.left = new Sampling(this.compiled, this.distributions, this.random, this.samples - half);
+                invokeAll(this.left, this.right);
+                this.summary = this.left.summary;
+                this.summary.merge(this.right.summary);
+                this.right.summary = null;
+                return;
+            }
+            this.summary = new SampleSummary();
+            int batch = (int) Math.min(ROWS_PER_BATCH, this.samples);
+            double[][] columns = new double[this.distributions.length][batch];
+            double[] values = new double[batch];
+            try {
+                for (long done = 0; done < this.samples; done += batch) {
+                    int rows = (int) Math.min(batch, this.samples - done);
+                    if (rows < batch) {
+                        values = new double[rows];
+                    }
+                    for (int slot = 0; slot < columns.length; slot++) {
+                        Distribution distribution = this.distributions[slot];
+                        double[] column = columns[slot];
+                        for (int row = 0; row < rows; row++) {
+                            column[row] = distribution.sample(this.random);
+                        }
+                    }
+                    this.compiled.evaluate(columns, values);
+                    this.summary.add(values, rows);
+                }
+            } catch (Exception e) {
+                this.error = e;
+            }
+        }
+
+        /**
+         * Returns the exception of the first task with an undefined draw.
+         *
+         * @return the exception, or null if every draw was defined
+         */
+        Exception firstError() {
+            if (this.left != null) {
+                Exception e = this.left.firstError();
+                return e != null ? e : this.right.firstError();
+            }
+            return this.error;
+        }
+    }
+}
@@ -1,6 +1,4 @@
 // itay alter 206132284
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,18 +34,12 @@ public class Mult extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        boolean flag = true;
-        double multResult = 0;
-        // Iterate over the operands and perform multiplication
-        for (Expression operand : super.getOperands()) {
-            if (flag) {
-                multResult += operand.evaluate(assignment);
-                flag = false;
-            } else {
-                multResult *= operand.evaluate(assignment);
-            }
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
         }
-        return multResult;
+        ExpressionMetrics.visit(Operator.MULT);
+        return this.evaluateWith(this.getLeft().evaluate(assignment),
+                this.getRight().evaluate(assignment), true);
     }
 
     /**
@@ -60,17 +52,28 @@ public class Mult extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        boolean flag = true;
-        double multResult = 0;
-        // Iterate over the operands and perform multiplication
-        for (Expression operand : super.getOperands()) {
-            if (flag) {
-                multResult += operand.evaluate();
-                flag = false;
-            } else {
-                multResult *= operand.evaluate();
-            }
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
         }
+        ExpressionMetrics.visit(Operator.MULT);
+        return this.evaluateWith(this.getLeft().evaluate(),
+                this.getRight().evaluate(), false);
+    }
+
+    /**
+     * Multiplies the values of the operands.
+     *
+     * @param x the value of the first operand
+     * @param y the value of the second operand
+     * @param assigned whether the values come from evaluate(Map)
+     * @return the product of the values
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) {
+        double multResult = 0;
+        // Add the first operand to 0 and multiply by the second one
+        multResult += x;
+        multResult *= y;
         return multResult;
     }
 
@@ -87,13 +90,34 @@ public class Mult extends BinaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        for (Expression operand : super.getOperands()) {
-            // Assign the variable with the provided expression.
-            newOperands.add(operand.assign(var, expression));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
+        }
+        return new Mult(this.getLeft().assign(var, expression),
+                this.getRight().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the multiplication expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the multiplication expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
         }
-        // Create and return a new multiplication expression with the new operands
-        return new Mult(newOperands.get(0), newOperands.get(1));
+        return new Mult(this.getLeft().assign(assignments),
+                this.getRight().assign(assignments));
     }
 
     /**
@@ -102,14 +126,14 @@ public class Mult extends BinaryExpression implements Expression {
      * (f(x) * g(x))' = f'(x) * g(x) + f(x) * g'(x).
      *
      * @param var The variable to differentiate with respect to.
+     * @param dx the derivative of the first operand
+     * @param dy the derivative of the second operand
      * @return The derivative of the expression with respect to the variable.
      */
-    public Expression differentiate(String var) {
-        // Compute the derivatives of the operands with respect to the given variable
-        Expression dx = super.getOperands().get(0).differentiate(var);
-        Expression dy = super.getOperands().get(1).differentiate(var);
-        Expression x = super.getOperands().get(0);
-        Expression y = super.getOperands().get(1);
+    @Override
+    protected Expression differentiateWith(String var, Expression dx, Expression dy) {
+        Expression x = this.getLeft();
+        Expression y = this.getRight();
         // Apply the product rule of differentiation: (x * dy) + (dx * y)
         return new Plus(new Mult(dx, y), new Mult(x, dy));
     }
@@ -122,11 +146,12 @@ public class Mult extends BinaryExpression implements Expression {
      * simplifications apply, otherwise it returns the original multiplication
      * expression.
      *
+     * @param x the simplified first operand
+     * @param y the simplified second operand
      * @return the simplified expression
      */
-    public Expression simplify() {
-        Expression x = super.getOperands().get(0).simplify();
-        Expression y = super.getOperands().get(1).simplify();
+    @Override
+    protected Expression simplifyWith(Expression x, Expression y) {
         // If both operands are numbers, evaluate the result
         if (x instanceof Num && y instanceof Num) {
             try {
@@ -178,23 +203,39 @@ public class Mult extends BinaryExpression implements Expression {
     }
 
     /**
-     * This method returns a string representation of the multiplication
-     * expression. If the operands of the expression consist of a number and a
-     * variable, it simplifies the representation to concatenate them without
-     * the multiplication symbol. Otherwise, it returns the operands enclosed in
-     * parentheses, separated by the multiplication symbol.
+     * Returns the text written before the operands of the multiplication.
+     *
+     * @return the prefix of the multiplication
+     */
+    @Override
+    protected String prefix() {
+        return "(";
+    }
+
+    /**
+     * Returns the text written between the operands of the multiplication. A
+     * number multiplied by a variable is written without the multiplication
+     * symbol, e.g. (2x).
      *
-     * @return The string representation of the multiplication expression.
+     * @return the infix of the multiplication
      */
-    public String toString() {
-        String x = super.getOperands().get(0).toString();
-        String y = super.getOperands().get(1).toString();
-        // Simplify the multiplication of a number and a variable
-        if (super.getOperands().get(0) instanceof Num
-                && super.getOperands().get(1)instanceof Var) {
-            return "(" + x + y + ")";
+    @Override
+    protected String infix() {
+        if (this.getLeft() instanceof Num
+                && this.getRight() instanceof Var) {
+            return "";
         }
-        return "(" + x + " * " + y + ")";
+        return " * ";
+    }
+
+    /**
+     * Returns the text written after the operands of the multiplication.
+     *
+     * @return the suffix of the multiplication
+     */
+    @Override
+    protected String suffix() {
+        return ")";
     }
 
 }
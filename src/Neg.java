@@ -1,6 +1,4 @@
 // itay alter 206132284
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,7 +27,11 @@ public class Neg extends UnaryExpression implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        return -super.getOperands().get(0).evaluate(assignment);
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
+        }
+        ExpressionMetrics.visit(Operator.NEG);
+        return this.evaluateWith(this.getOperand().evaluate(assignment), 0, true);
     }
     /**
      * This method evaluates the negative of the expression without assignment
@@ -41,7 +43,24 @@ public class Neg extends UnaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        return -super.getOperands().get(0).evaluate();
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
+        }
+        ExpressionMetrics.visit(Operator.NEG);
+        return this.evaluateWith(this.getOperand().evaluate(), 0, false);
+    }
+
+    /**
+     * Negates the value of the operand.
+     *
+     * @param x the value of the operand
+     * @param y unused
+     * @param assigned whether the value comes from evaluate(Map)
+     * @return the negated value
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) {
+        return -x;
     }
     /**
      * This method assigns a new value to the variable in the expression by
@@ -54,59 +73,86 @@ public class Neg extends UnaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        // Assign the variable in the expression.
-        newOperands.add(super.getOperands().get(0).assign(var, expression));
-        // Create a new Neg expression with the assigned operand.
-        return new Neg(newOperands.get(0));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
+        }
+        return new Neg(this.getOperand().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the negation expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the negation expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
+        }
+        return new Neg(this.getOperand().assign(assignments));
     }
     /**
      * This method calculates the derivative of the expression by taking the
      * derivative of its operand and negating it.
      *
      * @param var the variable with respect to which the derivative is calculated.
+     * @param operandDiff the derivative of the operand
+     * @param dy null, as a unary expression has no second operand
      * @return the derivative of the expression.
      */
-    public Expression differentiate(String var) {
-        Expression operand = super.getOperands().get(0);
-        // Calculate the derivative of the operand with respect to the variable.
-        Expression operandDiff = operand.differentiate(var);
+    @Override
+    protected Expression differentiateWith(String var, Expression operandDiff, Expression dy) {
         // Create a new Neg expression with the derivative of the operand.
         return new Neg(operandDiff);
     }
 
-    /**
-     * Retrieves the operand of the expression.
-     *
-     * @return The operand of the expression.
-     */
-    public Expression getOperand() {
-        return super.getOperands().get(0);
-    }
     /**
      * Simplifies the expression by applying specific rules for negation.
      *
+     * @param x the simplified operand
+     * @param y null, as a unary expression has no second operand
      * @return The simplified expression.
      */
     @Override
-    public Expression simplify() {
-        Expression x = super.getOperands().get(0).simplify();
-        // Evaluate the negation expression if possible.
-        try {
-            double negResult = this.evaluate();
-            return new Num(negResult);
-        } catch (Exception e) {
+    protected Expression simplifyWith(Expression x, Expression y) {
+        // Evaluate the negation expression if possible. With variables it
+        // is not, and trying would walk the whole operand at every level.
+        if (this.getVariableSet().isEmpty()) {
+            try {
+                double negResult = this.evaluate();
+                return new Num(negResult);
+            } catch (Exception e) {
+            }
         }
         // If evaluation fails, return the negation of the simplified operand.
         return new Neg(x);
     }
     /**
-     * Returns a string representation of the negation expression.
+     * Returns the text written before the operand of the negation.
      *
-     * @return The string representation of the negation expression.
+     * @return the prefix of the negation
      */
-    public String toString() {
-        String x = super.getOperands().get(0).toString();
-        return "(-" + x + ")";
+    @Override
+    protected String prefix() {
+        return "(-";
+    }
+
+    /**
+     * Returns the text written after the operand of the negation.
+     *
+     * @return the suffix of the negation
+     */
+    @Override
+    protected String suffix() {
+        return ")";
     }
 }
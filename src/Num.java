@@ -1,6 +1,10 @@
 // itay alter 206132284
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The Num class represents a numeric constant in an arithmetic expression. It
@@ -18,6 +22,16 @@ public class Num implements Expression {
     public Num(double val) {
         this.value = val;
     }
+
+    /**
+     * Returns the numeric value of the Num object.
+     *
+     * @return The stored value.
+     */
+    public double getValue() {
+        return this.value;
+    }
+
     /**
      * Returns a string representation of the Num object.
      * If the value is an integer, it is represented as an integer string.
@@ -33,6 +47,17 @@ public class Num implements Expression {
         // Otherwise, return decimal string representation.
         return Double.toString(this.value);
     }
+    /**
+     * Appends the string representation of the Num object, as returned by
+     * toString().
+     *
+     * @param out where to append the representation
+     * @throws IOException if appending to the Appendable fails
+     */
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        out.append(this.toString());
+    }
     /**
      * Evaluates the Num expression by returning its stored value.
      *
@@ -44,6 +69,7 @@ public class Num implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
+        ExpressionMetrics.visit(Operator.NUM);
         /*
          * Since Num expression represents a constant value, return the stored
          *  value directly
@@ -59,6 +85,7 @@ public class Num implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
+        ExpressionMetrics.visit(Operator.NUM);
         /*
          * Since Num expression represents a constant value, return the stored
          *  value directly
@@ -73,7 +100,16 @@ public class Num implements Expression {
     @Override
     public List<String> getVariables() {
         // Num expression does not have any variables, so return an empty list
-        return null;
+        return new ArrayList<>();
+    }
+    /**
+     * Retrieves the set of variables present in the expression.
+     *
+     * @return An empty set, as Num expression does not contain any variables
+     */
+    @Override
+    public Set<String> getVariableSet() {
+        return Collections.emptySet();
     }
     /**
      * Assigns a new value to the specified variable in the expression.
@@ -81,12 +117,23 @@ public class Num implements Expression {
      * not affect it.
      * @param var The variable to be assigned a new value
      * @param expression The expression representing the new value of the variable
-     * @return A new Num expression with the same value as the original Num
-     * expression
+     * @return This Num expression, which is not changed by the assignment
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        return new Num(this.value);
+        return this;
+    }
+
+    /**
+     * Assigns expressions to several variables. A Num has no variables, so it
+     * is returned as it is.
+     *
+     * @param assignments The expressions to replace the variables with
+     * @return This Num expression
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        return this;
     }
     /**
      * Returns the 0 because the derivative of a constant value is always 0.
@@ -0,0 +1,446 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The OdeSolver class integrates systems of ordinary differential equations
+ * dy_i / dt = f_i(t, y), where every right-hand side f_i is an expression in
+ * the time, the state variables y and fixed parameters. The right-hand sides
+ * are compiled together into one CompiledGroup over the slots of the time and
+ * the state, so an evaluation of the whole system is one run of one program,
+ * and the subexpressions the right-hand sides share are computed once.
+ *
+ * <p>rk4() takes fixed steps of the classical fourth-order Runge-Kutta method.
+ * dormandPrince() takes adaptive steps of the Dormand-Prince 5(4) method: the
+ * difference between its fifth-order and embedded fourth-order solutions
+ * estimates the error of a step, which is rejected and retried smaller when
+ * the error is above the tolerance, and the next step is sized from the
+ * error. Its last stage is the first stage of the next step, so an accepted
+ * step costs six evaluations of the system.
+ *
+ * <p>The arrays of a solve are allocated when it starts, so the steps
+ * allocate nothing. An evaluation where a right-hand side is undefined throws
+ * the exception of evaluate(Map). An OdeSolver does not change after it is
+ * created, apart from its settings, and can be shared between threads.
+ */
+public final class OdeSolver {
+    /**
+     * The default absolute tolerance of a step of dormandPrince().
+     */
+    public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-9;
+
+    /**
+     * The default tolerance of a step of dormandPrince(), relative to the
+     * state.
+     */
+    public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-9;
+
+    /**
+     * The default number of steps after which dormandPrince() gives up.
+     */
+    public static final int DEFAULT_MAX_STEPS = 1000000;
+
+    // The Butcher tableau of Dormand-Prince 5(4)
+    private static final double C2 = 1.0 / 5;
+    private static final double C3 = 3.0 / 10;
+    private static final double C4 = 4.0 / 5;
+    private static final double C5 = 8.0 / 9;
+    private static final double A21 = 1.0 / 5;
+    private static final double A31 = 3.0 / 40;
+    private static final double A32 = 9.0 / 40;
+    private static final double A41 = 44.0 / 45;
+    private static final double A42 = -56.0 / 15;
+    private static final double A43 = 32.0 / 9;
+    private static final double A51 = 19372.0 / 6561;
+    private static final double A52 = -25360.0 / 2187;
+    private static final double A53 = 64448.0 / 6561;
+    private static final double A54 = -212.0 / 729;
+    private static final double A61 = 9017.0 / 3168;
+    private static final double A62 = -355.0 / 33;
+    private static final double A63 = 46732.0 / 5247;
+    private static final double A64 = 49.0 / 176;
+    private static final double A65 = -5103.0 / 18656;
+    private static final double B1 = 35.0 / 384;
+    private static final double B3 = 500.0 / 1113;
+    private static final double B4 = 125.0 / 192;
+    private static final double B5 = -2187.0 / 6784;
+    private static final double B6 = 11.0 / 84;
+    // The differences between the weights of the fifth-order and the
+    // fourth-order solutions
+    private static final double E1 = 71.0 / 57600;
+    private static final double E3 = -71.0 / 16695;
+    private static final double E4 = 71.0 / 1920;
+    private static final double E5 = -17253.0 / 339200;
+    private static final double E6 = 22.0 / 525;
+    private static final double E7 = -1.0 / 40;
+
+    private final CompiledGroup system;
+    private final List<String> state;
+    private double absoluteTolerance = DEFAULT_ABSOLUTE_TOLERANCE;
+    private double relativeTolerance = DEFAULT_RELATIVE_TOLERANCE;
+    private int maxSteps = DEFAULT_MAX_STEPS;
+
+    /**
+     * Constructs a solver.
+     *
+     * @param rightHandSides the derivative of every state variable, in the
+     * order of the state
+     * @param time the variable of the time
+     * @param state the state variables
+     * @throws IllegalArgumentException if the number of right-hand sides is
+     * not the number of state variables, or a variable of a right-hand side
+     * is neither the time nor a state variable
+     */
+    public OdeSolver(List<Expression> rightHandSides, String time, List<String> state) {
+        this(rightHandSides, time, state, Collections.<String, Double>emptyMap());
+    }
+
+    /**
+     * Constructs a solver with parameters, which are folded into the compiled
+     * right-hand sides.
+     *
+     * @param rightHandSides the derivative of every state variable, in the
+     * order of the state
+     * @param time the variable of the time
+     * @param state the state variables
+     * @param parameters the values of the other variables of the right-hand
+     * sides
+     * @throws IllegalArgumentException if the number of right-hand sides is
+     * not the number of state variables, or a variable of a right-hand side
+     * is neither the time, a state variable nor a parameter
+     */
+    public OdeSolver(List<Expression> rightHandSides, String time, List<String> state,
+                     Map<String, Double> parameters) {
+        if (rightHandSides.size() != state.size()) {
+            throw new IllegalArgumentException("expected " + state.size() + " right-hand sides, got "
+                    + rightHandSides.size());
+        }
+        List<String> slots = new ArrayList<>(state.size() + 1);
+        slots.add(time);
+        slots.addAll(state);
+        this.system = new ExpressionCompiler().specializeAll(rightHandSides, parameters, slots);
+        this.state = Collections.unmodifiableList(new ArrayList<>(state));
+    }
+
+    /**
+     * Returns the state variables, in the order of the components of a state.
+     *
+     * @return the list of the state variables
+     */
+    public List<String> getState() {
+        return this.state;
+    }
+
+    /**
+     * Sets the absolute tolerance of a step of dormandPrince(). A step is
+     * accepted when the root mean square of its error, every component scaled
+     * by the absolute tolerance plus the relative tolerance times the size of
+     * the component, is at most 1.
+     *
+     * @param tolerance the absolute tolerance, not negative
+     */
+    public void setAbsoluteTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("the tolerance must not be negative: " + tolerance);
+        }
+        this.absoluteTolerance = tolerance;
+    }
+
+    /**
+     * Returns the absolute tolerance of a step of dormandPrince().
+     *
+     * @return the absolute tolerance
+     */
+    public double getAbsoluteTolerance() {
+        return this.absoluteTolerance;
+    }
+
+    /**
+     * Sets the tolerance of a step of dormandPrince() relative to the state.
+     *
+     * @param tolerance the relative tolerance, not negative
+     */
+    public void setRelativeTolerance(double tolerance) {
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("the tolerance must not be negative: " + tolerance);
+        }
+        this.relativeTolerance = tolerance;
+    }
+
+    /**
+     * Returns the tolerance of a step of dormandPrince() relative to the
+     * state.
+     *
+     * @return the relative tolerance
+     */
+    public double getRelativeTolerance() {
+        return this.relativeTolerance;
+    }
+
+    /**
+     * Sets the number of steps, accepted or rejected, after which
+     * dormandPrince() gives up.
+     *
+     * @param maxSteps the number of steps, positive
+     */
+    public void setMaxSteps(int maxSteps) {
+        if (maxSteps < 1) {
+            throw new IllegalArgumentException("the number of steps must be positive: " + maxSteps);
+        }
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Returns the number of steps after which dormandPrince() gives up.
+     *
+     * @return the number of steps
+     */
+    public int getMaxSteps() {
+        return this.maxSteps;
+    }
+
+    /**
+     * Evaluates the right-hand sides at a time and a state.
+     *
+     * @param t the time
+     * @param y the state
+     * @param derivatives where to write the derivative of every state
+     * variable
+     * @throws Exception if a right-hand side is undefined, with the message of
+     * evaluate(Map)
+     */
+    public void derivatives(double t, double[] y, double[] derivatives) throws Exception {
+        new Workspace(y.length).evaluate(t, y, derivatives);
+    }
+
+    /**
+     * Integrates the system with fixed steps of the classical Runge-Kutta
+     * method.
+     *
+     * @param t0 the initial time
+     * @param y0 the initial state
+     * @param t1 the final time, which may be before the initial one
+     * @param steps the number of steps
+     * @return the state at the final time
+     * @throws Exception if a right-hand side is undefined at a stage, with the
+     * message of evaluate(Map)
+     */
+    public double[] rk4(double t0, double[] y0, double t1, int steps) throws Exception {
+        int n = this.checkState(y0);
+        if (steps < 1) {
+            throw new IllegalArgumentException("the number of steps must be positive: " + steps);
+        }
+        Workspace w = new Workspace(n);
+        double[] y = y0.clone();
+        double h = (t1 - t0) / steps;
+        for (int step = 0; step < steps; step++) {
+            double t = t0 + step * h;
+            w.evaluate(t, y, w.k1);
+            for (int i = 0; i < n; i++) {
+                w.stage[i] = y[i] + 0.5 * h * w.k1[i];
+            }
+            w.evaluate(t + 0.5 * h, w.stage, w.k2);
+            for (int i = 0; i < n; i++) {
+                w.stage[i] = y[i] + 0.5 * h * w.k2[i];
+            }
+            w.evaluate(t + 0.5 * h, w.stage, w.k3);
+            for (int i = 0; i < n; i++) {
+                w.stage[i] = y[i] + h * w.k3[i];
+            }
+            w.evaluate(t + h, w.stage, w.k4);
+            for (int i = 0; i < n; i++) {
+                y[i] += h / 6 * (w.k1[i] + 2 * w.k2[i] + 2 * w.k3[i] + w.k4[i]);
+            }
+        }
+        return y;
+    }
+
+    /**
+     * Integrates the system with adaptive steps of the Dormand-Prince 5(4)
+     * method.
+     *
+     * @param t0 the initial time
+     * @param y0 the initial state
+     * @param t1 the final time, which may be before the initial one
+     * @return the state at the final time
+     * @throws Exception if a right-hand side is undefined at a stage, with the
+     * message of evaluate(Map), or if the final time is not reached within
+     * the maximal number of steps
+     */
+    public double[] dormandPrince(double t0, double[] y0, double t1) throws Exception {
+        int n = this.checkState(y0);
+        Workspace w = new Workspace(n);
+        double[] y = y0.clone();
+        double direction = Math.signum(t1 - t0);
+        if (direction == 0) {
+            return y;
+        }
+        double t = t0;
+        w.evaluate(t, y, w.k1);
+        double h = direction * this.initialStep(t0, y, t1, w);
+        for (int step = 0; step < this.maxSteps; step++) {
+            boolean last = direction * (t + h - t1) >= 0;
+            if (last) {
+                h = t1 - t;
+            }
+            this.stages(t, y, h, w);
+            double error = 0;
+            for (int i = 0; i < n; i++) {
+                double e = h * (E1 * w.k1[i] + E3 * w.k3[i] + E4 * w.k4[i] + E5 * w.k5[i] + E6 * w.k6[i]
+                        + E7 * w.k7[i]);
+                double scale = this.absoluteTolerance
+                        + this.relativeTolerance * Math.max(Math.abs(y[i]), Math.abs(w.next[i]));
+                error += e * e / (scale * scale);
+            }
+            error = Math.sqrt(error / n);
+            if (error <= 1) {
+                t = last ? t1 : t + h;
+                System.arraycopy(w.next, 0, y, 0, n);
+                if (last) {
+                    return y;
+                }
+                // The last stage is the first one of the next step
+                double[] swap = w.k1;
+                w.k1 = w.k7;
+                w.k7 = swap;
+            }
+            double factor = error == 0 ? 5 : 0.9 * Math.pow(error, -0.2);
+            h *= Math.min(5, Math.max(0.2, Double.isNaN(factor) ? 0.2 : factor));
+            if (t + h == t) {
+                throw new Exception("the step size underflowed at t = " + t);
+            }
+        }
+        throw new Exception("the final time was not reached within " + this.maxSteps + " steps");
+    }
+
+    /**
+     * Computes the stages of a Dormand-Prince step and the fifth-order
+     * solution, given the first stage in k1.
+     *
+     * @param t the time
+     * @param y the state
+     * @param h the step
+     * @param w the workspace, whose next receives the solution
+     * @throws Exception if a right-hand side is undefined at a stage
+     */
+    private void stages(double t, double[] y, double h, Workspace w) throws Exception {
+        int n = y.length;
+        for (int i = 0; i < n; i++) {
+            w.stage[i] = y[i] + h * A21 * w.k1[i];
+        }
+        w.evaluate(t + C2 * h, w.stage, w.k2);
+        for (int i = 0; i < n; i++) {
+            w.stage[i] = y[i] + h * (A31 * w.k1[i] + A32 * w.k2[i]);
+        }
+        w.evaluate(t + C3 * h, w.stage, w.k3);
+        for (int i = 0; i < n; i++) {
+            w.stage[i] = y[i] + h * (A41 * w.k1[i] + A42 * w.k2[i] + A43 * w.k3[i]);
+        }
+        w.evaluate(t + C4 * h, w.stage, w.k4);
+        for (int i = 0; i < n; i++) {
+            w.stage[i] = y[i] + h * (A51 * w.k1[i] + A52 * w.k2[i] + A53 * w.k3[i] + A54 * w.k4[i]);
+        }
+        w.evaluate(t + C5 * h, w.stage, w.k5);
+        for (int i = 0; i < n; i++) {
+            w.stage[i] = y[i] + h * (A61 * w.k1[i] + A62 * w.k2[i] + A63 * w.k3[i] + A64 * w.k4[i]
+                    + A65 * w.k5[i]);
+        }
+        w.evaluate(t + h, w.stage, w.k6);
+        for (int i = 0; i < n; i++) {
+            w.next[i] = y[i] + h * (B1 * w.k1[i] + B3 * w.k3[i] + B4 * w.k4[i] + B5 * w.k5[i] + B6 * w.k6[i]);
+        }
+        w.evaluate(t + h, w.next, w.k7);
+    }
+
+    /**
+     * Chooses the size of the first step from the sizes of the state and of
+     * its derivatives, so that an Euler step would change the state by about
+     * one percent.
+     *
+     * @param t0 the initial time
+     * @param y the initial state
+     * @param t1 the final time
+     * @param w the workspace, whose k1 holds the initial derivatives
+     * @return the size of the first step
+     */
+    private double initialStep(double t0, double[] y, double t1, Workspace w) {
+        double size = 0;
+        double rate = 0;
+        for (int i = 0; i < y.length; i++) {
+            double scale = this.absoluteTolerance + this.relativeTolerance * Math.abs(y[i]);
+            size += (y[i] / scale) * (y[i] / scale);
+            rate += (w.k1[i] / scale) * (w.k1[i] / scale);
+        }
+        size = Math.sqrt(size / y.length);
+        rate = Math.sqrt(rate / y.length);
+        double h = size < 1e-5 || rate < 1e-5 ? 1e-6 : 0.01 * size / rate;
+        return Math.min(h, Math.abs(t1 - t0));
+    }
+
+    /**
+     * Checks that a state has a component for every state variable.
+     *
+     * @param y the state
+     * @return the number of components
+     */
+    private int checkState(double[] y) {
+        if (y.length != this.state.size()) {
+            throw new IllegalArgumentException("expected " + this.state.size() + " components "
+                    + this.state + ", got " + y.length);
+        }
+        return y.length;
+    }
+
+    /**
+     * The Workspace class holds the arrays of one solve, so that its steps
+     * allocate nothing.
+     */
+    private final class Workspace {
+        private final double[] point;
+        private final double[] registers;
+        private final double[] stage;
+        private final double[] next;
+        private double[] k1;
+        private final double[] k2;
+        private final double[] k3;
+        private final double[] k4;
+        private final double[] k5;
+        private final double[] k6;
+        private double[] k7;
+
+        /**
+         * Constructs a workspace.
+         *
+         * @param n the number of state variables
+         */
+        Workspace(int n) {
+            this.point = new double[n + 1];
+            this.registers = new double[OdeSolver.this.system.getRegisterCount()];
+            this.stage = new double[n];
+            this.next = new double[n];
+            this.k1 = new double[n];
+            this.k2 = new double[n];
+            this.k3 = new double[n];
+            this.k4 = new double[n];
+            this.k5 = new double[n];
+            this.k6 = new double[n];
+            this.k7 = new double[n];
+        }
+
+        /**
+         * Evaluates the right-hand sides.
+         *
+         * @param t the time
+         * @param y the state
+         * @param out where to write the derivatives
+         * @throws Exception if a right-hand side is undefined
+         */
+        void evaluate(double t, double[] y, double[] out) throws Exception {
+            this.point[0] = t;
+            System.arraycopy(y, 0, this.point, 1, y.length);
+            OdeSolver.this.system.evaluate(this.point, this.registers, out);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+// itay alter 206132284
+
+/**
+ * The Operator enum lists the kinds of nodes an expression tree is made of,
+ * one for every Expression class.
+ */
+public enum Operator {
+    /**
+     * A numeric constant (Num).
+     */
+    NUM,
+    /**
+     * A variable (Var).
+     */
+    VAR,
+    /**
+     * An addition (Plus).
+     */
+    PLUS,
+    /**
+     * A subtraction (Minus).
+     */
+    MINUS,
+    /**
+     * A multiplication (Mult).
+     */
+    MULT,
+    /**
+     * A division (Div).
+     */
+    DIV,
+    /**
+     * An exponentiation (Pow).
+     */
+    POW,
+    /**
+     * A logarithm (Log).
+     */
+    LOG,
+    /**
+     * A sine in degrees (Sin).
+     */
+    SIN,
+    /**
+     * A cosine in degrees (Cos).
+     */
+    COS,
+    /**
+     * A negation (Neg).
+     */
+    NEG;
+
+    /**
+     * Returns the operator of the given expression.
+     *
+     * @param expression the expression
+     * @return the operator of the root of the expression
+     * @throws IllegalArgumentException if the expression is not one of the
+     * Expression classes of this project
+     */
+    public static Operator of(Expression expression) {
+        if (expression instanceof Num) {
+            return NUM;
+        }
+        if (expression instanceof Var) {
+            return VAR;
+        }
+        if (expression instanceof Plus) {
+            return PLUS;
+        }
+        if (expression instanceof Minus) {
+            return MINUS;
+        }
+        if (expression instanceof Mult) {
+            return MULT;
+        }
+        if (expression instanceof Div) {
+            return DIV;
+        }
+        if (expression instanceof Pow) {
+            return POW;
+        }
+        if (expression instanceof Log) {
+            return LOG;
+        }
+        if (expression instanceof Sin) {
+            return SIN;
+        }
+        if (expression instanceof Cos) {
+            return COS;
+        }
+        if (expression instanceof Neg) {
+            return NEG;
+        }
+        throw new IllegalArgumentException("unknown expression: " + expression);
+    }
+
+    /**
+     * Returns whether applying the operator to the given operands is defined,
+     * which is when evaluate() of its Expression class does not throw. Unary
+     * operators ignore the second operand, and constants and variables are
+     * always defined.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @return true if the operator can be applied to the operands
+     */
+    public boolean isDefined(double x, double y) {
+        switch (this) {
+            case DIV:
+                return y != 0;
+            case POW:
+                return !(x < 0 && y < 1);
+            case LOG:
+                return !(x <= 0 || y <= 0 || (x == 1 && y != 1));
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Applies the operator to the values of its operands, with the same
+     * arithmetic as evaluate() of its Expression class, so the results are
+     * identical to the bit. Unary operators ignore the second operand. The
+     * operands are not checked; see isDefined().
+     *
+     * @param x the value of the first operand
+     * @param y the value of the second operand
+     * @return the value of the operator
+     * @throws UnsupportedOperationException if the operator is NUM or VAR,
+     * which have no operands
+     */
+    public double apply(double x, double y) {
+        double result;
+        switch (this) {
+            case PLUS:
+                result = 0;
+                result += x;
+                result += y;
+                return result;
+            case MINUS:
+                return x - y;
+            case MULT:
+                result = 0;
+                result += x;
+                result *= y;
+                return result;
+            case DIV:
+                return x / y;
+            case POW:
+                return Math.pow(x, y);
+            case LOG:
+                return Math.log(y) / Math.log(x);
+            case SIN:
+                return Math.sin(Math.toRadians(x));
+            case COS:
+                return Math.cos(Math.toRadians(x));
+            case NEG:
+                return -x;
+            default:
+                throw new UnsupportedOperationException(this + " has no operands");
+        }
+    }
+
+    /**
+     * Creates an expression of the operator over the given operands. Unary
+     * operators ignore the second operand.
+     *
+     * @param x the first operand
+     * @param y the second operand
+     * @return a new expression of the operator
+     * @throws UnsupportedOperationException if the operator is NUM or VAR,
+     * which have no operands
+     */
+    public Expression create(Expression x, Expression y) {
+        switch (this) {
+            case PLUS:
+                return new Plus(x, y);
+            case MINUS:
+                return new Minus(x, y);
+            case MULT:
+                return new Mult(x, y);
+            case DIV:
+                return new Div(x, y);
+            case POW:
+                return new Pow(x, y);
+            case LOG:
+                return new Log(x, y);
+            case SIN:
+                return new Sin(x);
+            case COS:
+                return new Cos(x);
+            case NEG:
+                return new Neg(x);
+            default:
+                throw new UnsupportedOperationException(this + " has no operands");
+        }
+    }
+
+    /**
+     * Returns whether the operator has two operands.
+     *
+     * @return true for the BinaryExpression operators
+     */
+    public boolean isBinary() {
+        return this != NUM && this != VAR && this != SIN && this != COS && this != NEG;
+    }
+}
@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -33,11 +31,12 @@ public class Plus extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        double sum = 0;
-        for (Expression operand : super.getOperands()) {
-            sum += operand.evaluate(assignment);
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
         }
-        return sum;
+        ExpressionMetrics.visit(Operator.PLUS);
+        return this.evaluateWith(this.getLeft().evaluate(assignment),
+                this.getRight().evaluate(assignment), true);
     }
 
     /**
@@ -51,10 +50,27 @@ public class Plus extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        double sum = 0;
-        for (Expression operand : super.getOperands()) {
-            sum += operand.evaluate();
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
         }
+        ExpressionMetrics.visit(Operator.PLUS);
+        return this.evaluateWith(this.getLeft().evaluate(),
+                this.getRight().evaluate(), false);
+    }
+
+    /**
+     * Adds the values of the operands.
+     *
+     * @param x the value of the first operand
+     * @param y the value of the second operand
+     * @param assigned whether the values come from evaluate(Map)
+     * @return the sum of the values
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) {
+        double sum = 0;
+        sum += x;
+        sum += y;
         return sum;
     }
 
@@ -68,24 +84,64 @@ public class Plus extends BinaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        // Iterate over the operands and assign the variable
-        for (Expression operand : super.getOperands()) {
-            newOperands.add(operand.assign(var, expression));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
+        }
+        return new Plus(this.getLeft().assign(var, expression),
+                this.getRight().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the addition expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the addition expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
         }
-        // Create a new Plus expression with the assigned variable
-        return new Plus(newOperands.get(0), newOperands.get(1));
+        return new Plus(this.getLeft().assign(assignments),
+                this.getRight().assign(assignments));
     }
 
     /**
-     * Returns a string representation of the Plus expression.
+     * Returns the text written before the operands of the addition.
      *
-     * @return The string representation of the Plus expression.
+     * @return the prefix of the addition
      */
-    public String toString() {
-        String x = super.getOperands().get(0).toString();
-        String y = super.getOperands().get(1).toString();
-        return "(" + x + " + " + y + ")";
+    @Override
+    protected String prefix() {
+        return "(";
+    }
+
+    /**
+     * Returns the text written between the operands of the addition.
+     *
+     * @return the infix of the addition
+     */
+    @Override
+    protected String infix() {
+        return " + ";
+    }
+
+    /**
+     * Returns the text written after the operands of the addition.
+     *
+     * @return the suffix of the addition
+     */
+    @Override
+    protected String suffix() {
+        return ")";
     }
 
     /**
@@ -93,14 +149,12 @@ public class Plus extends BinaryExpression implements Expression {
      * variable.
      *
      * @param var The variable to differentiate with respect to.
+     * @param dx the derivative of the first operand
+     * @param dy the derivative of the second operand
      * @return The derivative of the Plus expression.
      */
     @Override
-    public Expression differentiate(String var) {
-        // Differentiate the first operand with respect to the variable
-        Expression dx = super.getOperands().get(0).differentiate(var);
-        // Differentiate the second operand with respect to the variable
-        Expression dy = super.getOperands().get(1).differentiate(var);
+    protected Expression differentiateWith(String var, Expression dx, Expression dy) {
         // Return the sum of the derivatives
         return new Plus(dx, dy);
     }
@@ -112,11 +166,12 @@ public class Plus extends BinaryExpression implements Expression {
      * If none of the operands are constants or zero, the method returns the
      * simplified expression.
      *
+     * @param x the simplified first operand
+     * @param y the simplified second operand
      * @return the simplified expression
      */
-    public Expression simplify() {
-        Expression x = super.getOperands().get(0).simplify();
-        Expression y = super.getOperands().get(1).simplify();
+    @Override
+    protected Expression simplifyWith(Expression x, Expression y) {
         // If both operands are numbers, evaluate the sum and return it
         if (x instanceof Num && y instanceof Num) {
             try {
@@ -143,8 +198,11 @@ public class Plus extends BinaryExpression implements Expression {
             } catch (Exception e) {
             }
         }
-        // If the first operand is zero it return the second operand
-        if (x instanceof Expression) {
+        // If the first operand is zero it return the second operand. An
+        // operand with variables cannot be evaluated without an assignment,
+        // so it is not tried, which would walk the whole operand at every
+        // level of a chain
+        if (x.getVariableSet().isEmpty()) {
             try {
                 if (x.evaluate() == 0) {
                     return y;
@@ -153,7 +211,7 @@ public class Plus extends BinaryExpression implements Expression {
             }
         }
         // If the second operand is zero it return the first operand
-        if (y instanceof Expression) {
+        if (y.getVariableSet().isEmpty()) {
             try {
                 if (y.evaluate() == 0) {
                     return x;
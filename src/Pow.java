@@ -1,6 +1,4 @@
 // itay alter 206132284
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -33,16 +31,12 @@ public class Pow extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        double powResult, base, exponent;
-        // Evaluate the base and exponent using the given variable assignments
-        base = super.getOperands().get(0).evaluate(assignment);
-        exponent = super.getOperands().get(1).evaluate(assignment);
-        if (base < 0 && exponent < 1) {
-            throw new Exception("math error!");
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
         }
-        // Compute the power using the Math.pow() method
-        powResult = Math.pow(base, exponent);
-        return powResult;
+        ExpressionMetrics.visit(Operator.POW);
+        return this.evaluateWith(this.getLeft().evaluate(assignment),
+                this.getRight().evaluate(assignment), true);
     }
 
     /**
@@ -56,16 +50,30 @@ public class Pow extends BinaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        double powResult, base, exponent;
-        // Evaluate the base and exponent expressions
-        base = super.getOperands().get(0).evaluate();
-        exponent = super.getOperands().get(1).evaluate();
-        if (base < 0 && exponent < 1) {
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
+        }
+        ExpressionMetrics.visit(Operator.POW);
+        return this.evaluateWith(this.getLeft().evaluate(),
+                this.getRight().evaluate(), false);
+    }
+
+    /**
+     * Raises the value of the base to the value of the exponent.
+     *
+     * @param x the value of the base
+     * @param y the value of the exponent
+     * @param assigned whether the values come from evaluate(Map)
+     * @return the power
+     * @throws Exception if the base is negative and the exponent is less than 1
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) throws Exception {
+        if (x < 0 && y < 1) {
             throw new Exception("math error!");
         }
         // Compute the power using the Math.pow() method
-        powResult = Math.pow(base, exponent);
-        return powResult;
+        return Math.pow(x, y);
     }
 
     /**
@@ -79,13 +87,34 @@ public class Pow extends BinaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        // Assign the variable to each operand
-        for (Expression operand : super.getOperands()) {
-            newOperands.add(operand.assign(var, expression));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
+        }
+        return new Pow(this.getLeft().assign(var, expression),
+                this.getRight().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the power expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the power expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
         }
-        // Create a new power expression with the updated operands
-        return new Pow(newOperands.get(0), newOperands.get(1));
+        return new Pow(this.getLeft().assign(assignments),
+                this.getRight().assign(assignments));
     }
 
     /**
@@ -93,15 +122,15 @@ public class Pow extends BinaryExpression implements Expression {
      * (f^g)' = f^g * (g * f' / f + ln(e,f) * g').
      *
      * @param var the variable to differentiate the expression by.
+     * @param dF the derivative of the base
+     * @param dG the derivative of the exponent
      * @return the derivative of the power function.
      */
-    public Expression differentiate(String var) {
+    @Override
+    protected Expression differentiateWith(String var, Expression dF, Expression dG) {
         // Get the two operands of the power expression
-        Expression f = super.getOperands().get(0);
-        Expression g = super.getOperands().get(1);
-        // Get the derivatives of the two operands
-        Expression dF = f.differentiate(var);
-        Expression dG = g.differentiate(var);
+        Expression f = this.getLeft();
+        Expression g = this.getRight();
         // Calculate the first term of the derivative, which is f^g
         Expression firstTerm = new Pow(f, g);
         // Calculate the second term of the derivative
@@ -114,12 +143,12 @@ public class Pow extends BinaryExpression implements Expression {
     /**
      * A method that simplifies a Pow expression.
      *
+     * @param x the simplified first operand
+     * @param y the simplified second operand
      * @return the simplified expression
      */
     @Override
-    public Expression simplify() {
-        Expression x = super.getOperands().get(0).simplify();
-        Expression y = super.getOperands().get(1).simplify();
+    protected Expression simplifyWith(Expression x, Expression y) {
         // if both operands are numbers calculate the result of the Pow expression
         if (x instanceof Num && y instanceof Num) {
             try {
@@ -140,14 +169,32 @@ public class Pow extends BinaryExpression implements Expression {
     }
 
     /**
-     * Returns a string representation of the power expression.
+     * Returns the text written before the operands of the power expression.
+     *
+     * @return the prefix of the power expression
+     */
+    @Override
+    protected String prefix() {
+        return "(";
+    }
+
+    /**
+     * Returns the text written between the operands of the power expression.
+     *
+     * @return the infix of the power expression
+     */
+    @Override
+    protected String infix() {
+        return "^";
+    }
+
+    /**
+     * Returns the text written after the operands of the power expression.
      *
-     * @return a string representing the power expression in the form
-     * "(base ^ exponent)".
+     * @return the suffix of the power expression
      */
-    public String toString() {
-        String x = super.getOperands().get(0).toString();
-        String y = super.getOperands().get(1).toString();
-        return "(" + x + "^" + y + ")";
+    @Override
+    protected String suffix() {
+        return ")";
     }
 }
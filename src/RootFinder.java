@@ -0,0 +1,518 @@
+// itay alter 206132284
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The RootFinder class finds the roots of an expression in one variable, the
+ * unknown, for given values of its other variables, the parameters. The
+ * expression and its derivative with respect to the unknown are compiled once,
+ * into one program that computes both, so an iteration costs one run of the
+ * program instead of evaluate(Map) and differentiate(var).evaluate(Map).
+ *
+ * <p>Three methods are offered. newton() converges quadratically from a good
+ * guess, but may diverge from a bad one. brent() needs a bracket, two points
+ * where the expression has opposite signs, and always converges, using only
+ * the values. solve() is a safeguarded Newton method inside a bracket: it
+ * takes Newton steps while they stay inside the bracket and shrink it fast
+ * enough, and bisects otherwise, so it converges like Newton near the root and
+ * never leaves the bracket. It also bisects where only the derivative is
+ * undefined. solveAll() solves many rows of parameters with solve(), in
+ * parallel on a ForkJoinPool.
+ *
+ * <p>Every method stops when a step is below the tolerance, relative to the
+ * size of the root, or when the value is exactly 0. The derivative is
+ * compiled with the degree factor of the ExpressionCompiler, so the
+ * derivatives of Sin and Cos are the ones of angles in degrees. A RootFinder
+ * does not change after it is created, apart from its settings, and can be
+ * shared between threads.
+ */
+public final class RootFinder {
+    /**
+     * The default tolerance of a step, relative to the size of the root.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+
+    /**
+     * The default number of iterations after which a method gives up.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private static final int ROWS_PER_TASK = 64;
+
+    private final String unknown;
+    private final List<String> parameters;
+    private final CompiledExpression value;
+    private final CompiledGroup valueAndDerivative;
+    private final ForkJoinPool pool;
+    private double tolerance = DEFAULT_TOLERANCE;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+
+    /**
+     * Constructs a root finder that solves rows on the common pool.
+     *
+     * @param expression the expression whose roots are found
+     * @param unknown the variable to solve for
+     */
+    public RootFinder(Expression expression, String unknown) {
+        this(expression, unknown, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a root finder.
+     *
+     * @param expression the expression whose roots are found
+     * @param unknown the variable to solve for
+     * @param pool the pool that solves the rows of solveAll()
+     */
+    public RootFinder(Expression expression, String unknown, ForkJoinPool pool) {
+        List<String> slots = new ArrayList<>();
+        slots.add(unknown);
+        for (String var : expression.getVariableSet()) {
+            if (!var.equals(unknown)) {
+                slots.add(var);
+            }
+        }
+        ExpressionCompiler compiler = new ExpressionCompiler();
+        compiler.setDegreeFactor(true);
+        this.unknown = unknown;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(slots.subList(1, slots.size())));
+        this.value = compiler.compile(expression, slots);
+        this.valueAndDerivative = compiler.compileDerivatives(expression, slots,
+                Collections.singletonList(unknown));
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the variable that is solved for.
+     *
+     * @return the name of the unknown
+     */
+    public String getUnknown() {
+        return this.unknown;
+    }
+
+    /**
+     * Returns the other variables of the expression, in the order of the
+     * values of the parameters.
+     *
+     * @return the list of the parameters
+     */
+    public List<String> getParameters() {
+        return this.parameters;
+    }
+
+    /**
+     * Sets the tolerance of a step, relative to the size of the root: a method
+     * stops once a step is at most tolerance * (1 + |x|).
+     *
+     * @param tolerance the tolerance, positive
+     */
+    public void setTolerance(double tolerance) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("the tolerance must be positive: " + tolerance);
+        }
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Returns the tolerance of a step.
+     *
+     * @return the tolerance
+     */
+    public double getTolerance() {
+        return this.tolerance;
+    }
+
+    /**
+     * Sets the number of iterations after which a method gives up.
+     *
+     * @param maxIterations the number of iterations, positive
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("the number of iterations must be positive: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Returns the number of iterations after which a method gives up.
+     *
+     * @return the number of iterations
+     */
+    public int getMaxIterations() {
+        return this.maxIterations;
+    }
+
+    /**
+     * Finds a root with the Newton method.
+     *
+     * @param guess the first guess of the root
+     * @param parameters the values of the parameters, in the order of
+     * getParameters()
+     * @return the root
+     * @throws Exception if the expression or its derivative is undefined at an
+     * iterate, with the message of evaluate(Map), or if the derivative is 0
+     * or the method does not converge
+     */
+    public double newton(double guess, double... parameters) throws Exception {
+        Workspace workspace = this.workspace(parameters);
+        double x = guess;
+        for (int i = 0; i < this.maxIterations; i++) {
+            double f = workspace.valueAndDerivative(x, true);
+            if (f == 0) {
+                return x;
+            }
+            double step = f / workspace.derivative;
+            if (workspace.derivative == 0 || Double.isNaN(step) || Double.isInfinite(step)) {
+                throw new Exception("no root found: the derivative is " + workspace.derivative + " at " + x);
+            }
+            x -= step;
+            if (Math.abs(step) <= this.tolerance * (1 + Math.abs(x))) {
+                return x;
+            }
+        }
+        throw new Exception("no root found after " + this.maxIterations + " iterations from " + guess);
+    }
+
+    /**
+     * Finds a root in a bracket with the Brent method, which combines
+     * bisection, the secant method and inverse quadratic interpolation.
+     *
+     * @param a one end of the bracket
+     * @param b the other end of the bracket
+     * @param parameters the values of the parameters, in the order of
+     * getParameters()
+     * @return the root
+     * @throws Exception if the expression is undefined at an iterate, with the
+     * message of evaluate(Map), or if the method does not converge
+     * @throws IllegalArgumentException if the values at the ends of the
+     * bracket have the same sign
+     */
+    public double brent(double a, double b, double... parameters) throws Exception {
+        Workspace workspace = this.workspace(parameters);
+        double fa = workspace.value(a);
+        double fb = workspace.value(b);
+        checkBracket(a, fa, b, fb);
+        if (fa == 0) {
+            return a;
+        }
+        double c = b;
+        double fc = fb;
+        double d = b - a;
+        double e = d;
+        for (int i = 0; i < this.maxIterations; i++) {
+            if ((fb > 0 && fc > 0) || (fb < 0 && fc < 0)) {
+                // Keep the root between b and c
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tol = 0.5 * this.tolerance * (1 + Math.abs(b));
+            double middle = 0.5 * (c - b);
+            if (Math.abs(middle) <= tol || fb == 0) {
+                return b;
+            }
+            if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+                // Interpolate: the secant when only two points differ, and
+                // inverse quadratic interpolation otherwise
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * middle * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    q = fa / fc;
+                    p = s * (2 * middle * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                }
+                p = Math.abs(p);
+                if (2 * p < Math.min(3 * middle * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = middle;
+                    e = d;
+                }
+            } else {
+                d = middle;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tol ? d : Math.copySign(tol, middle);
+            fb = workspace.value(b);
+        }
+        throw new Exception("no root found after " + this.maxIterations + " iterations in the bracket");
+    }
+
+    /**
+     * Finds a root in a bracket with the Newton method, falling back to
+     * bisection whenever a Newton step would leave the bracket or would not
+     * halve it fast enough.
+     *
+     * @param a one end of the bracket
+     * @param b the other end of the bracket
+     * @param parameters the values of the parameters, in the order of
+     * getParameters()
+     * @return the root
+     * @throws Exception if the expression is undefined at an iterate, with the
+     * message of evaluate(Map), or if the method does not converge
+     * @throws IllegalArgumentException if the values at the ends of the
+     * bracket have the same sign
+     */
+    public double solve(double a, double b, double... parameters) throws Exception {
+        return this.solve(this.workspace(parameters), a, b);
+    }
+
+    /**
+     * Finds a root in a bracket for every row of parameters, with solve(). The
+     * rows are split between the tasks of the pool.
+     *
+     * @param a one end of the bracket
+     * @param b the other end of the bracket
+     * @param rows the values of the parameters of every row, in the order of
+     * getParameters()
+     * @return the root of every row, or NaN for the rows where solve() throws
+     */
+    public double[] solveAll(double a, double b, double[][] rows) {
+        double[] roots = new double[rows.length];
+        this.pool.invoke(new Rows(a, b, rows, roots, 0, rows.length));
+        return roots;
+    }
+
+    /**
+     * Finds a root in a bracket with the safeguarded Newton method.
+     *
+     * @param workspace the workspace of the row
+     * @param a one end of the bracket
+     * @param b the other end of the bracket
+     * @return the root
+     * @throws Exception if the expression is undefined at an iterate, or if
+     * the method does not converge
+     */
+    private double solve(Workspace workspace, double a, double b) throws Exception {
+        double fa = workspace.value(a);
+        double fb = workspace.value(b);
+        checkBracket(a, fa, b, fb);
+        if (fa == 0) {
+            return a;
+        }
+        if (fb == 0) {
+            return b;
+        }
+        // The bracket is oriented so that the value is negative at low
+        double low = fa < 0 ? a : b;
+        double high = fa < 0 ? b : a;
+        double x = 0.5 * (a + b);
+        double oldStep = Math.abs(b - a);
+        double step = oldStep;
+        double f = workspace.valueAndDerivative(x, false);
+        if (f == 0) {
+            return x;
+        }
+        if (f < 0) {
+            low = x;
+        } else {
+            high = x;
+        }
+        for (int i = 0; i < this.maxIterations; i++) {
+            double df = workspace.derivative;
+            boolean outside = ((x - high) * df - f) * ((x - low) * df - f) > 0;
+            boolean slow = Math.abs(2 * f) > Math.abs(oldStep * df);
+            double previous = x;
+            oldStep = step;
+            if (outside || slow || Double.isNaN(df)) {
+                step = 0.5 * (high - low);
+                x = low + step;
+            } else {
+                step = f / df;
+                x -= step;
+            }
+            if (x == previous || Math.abs(step) <= this.tolerance * (1 + Math.abs(x))) {
+                return x;
+            }
+            f = workspace.valueAndDerivative(x, false);
+            if (f == 0) {
+                return x;
+            }
+            if (f < 0) {
+                low = x;
+            } else {
+                high = x;
+            }
+        }
+        throw new Exception("no root found after " + this.maxIterations + " iterations in the bracket");
+    }
+
+    /**
+     * Checks that the values at the ends of a bracket do not have the same
+     * sign.
+     *
+     * @param a one end of the bracket
+     * @param fa the value at a
+     * @param b the other end of the bracket
+     * @param fb the value at b
+     */
+    private static void checkBracket(double a, double fa, double b, double fb) {
+        if ((fa > 0 && fb > 0) || (fa < 0 && fb < 0) || Double.isNaN(fa) || Double.isNaN(fb)) {
+            throw new IllegalArgumentException("[" + a + ", " + b + "] is not a bracket: the values are "
+                    + fa + " and " + fb);
+        }
+    }
+
+    /**
+     * Creates the workspace of one solve.
+     *
+     * @param parameters the values of the parameters
+     * @return the workspace
+     */
+    private Workspace workspace(double[] parameters) {
+        Workspace workspace = new Workspace();
+        workspace.setParameters(parameters);
+        return workspace;
+    }
+
+    /**
+     * The Workspace class holds the point and the registers of one solve, so
+     * that the iterations allocate nothing.
+     */
+    private final class Workspace {
+        private final double[] point;
+        private final double[] registers;
+        private final double[] outputs = new double[2];
+        private double derivative;
+
+        /**
+         * Constructs a workspace.
+         */
+        Workspace() {
+            this.point = new double[RootFinder.this.parameters.size() + 1];
+            this.registers = new double[Math.max(RootFinder.this.value.getRegisterCount(),
+                    RootFinder.this.valueAndDerivative.getRegisterCount())];
+        }
+
+        /**
+         * Sets the values of the parameters.
+         *
+         * @param parameters the values of the parameters, in the order of
+         * getParameters()
+         */
+        void setParameters(double[] parameters) {
+            if (parameters.length != this.point.length - 1) {
+                throw new IllegalArgumentException("expected " + (this.point.length - 1) + " parameters "
+                        + RootFinder.this.parameters + ", got " + parameters.length);
+            }
+            System.arraycopy(parameters, 0, this.point, 1, parameters.length);
+        }
+
+        /**
+         * Evaluates the expression.
+         *
+         * @param x the value of the unknown
+         * @return the value of the expression
+         * @throws Exception if the expression is undefined at x
+         */
+        double value(double x) throws Exception {
+            this.point[0] = x;
+            return RootFinder.this.value.evaluate(this.point, this.registers);
+        }
+
+        /**
+         * Evaluates the expression and its derivative, which is kept in the
+         * derivative field.
+         *
+         * @param x the value of the unknown
+         * @param exact true to throw when the derivative is undefined, false
+         * to set it to NaN
+         * @return the value of the expression
+         * @throws Exception if the expression is undefined at x, or the
+         * derivative is undefined and exact is true
+         */
+        double valueAndDerivative(double x, boolean exact) throws Exception {
+            this.point[0] = x;
+            CompiledGroup group = RootFinder.this.valueAndDerivative;
+            if (group.run(this.point, this.registers)) {
+                this.derivative = group.output(this.registers, 1);
+                return group.output(this.registers, 0);
+            }
+            if (!exact) {
+                this.derivative = Double.NaN;
+                return this.value(x);
+            }
+            group.evaluate(this.point, this.registers, this.outputs);
+            this.derivative = this.outputs[1];
+            return this.outputs[0];
+        }
+    }
+
+    /**
+     * The Rows class solves a range of rows, splitting it in halves until the
+     * halves are small.
+     */
+    private final class Rows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double a;
+        private final double b;
+        private final double[][] rows;
+        private final double[] roots;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs a task.
+         *
+         * @param a one end of the bracket
+         * @param b the other end of the bracket
+         * @param rows the values of the parameters of every row
+         * @param roots where to write the roots
+         * @param from the first row of the range
+         * @param to the end of the range, exclusive
+         */
+        Rows(double a, double b, double[][] rows, double[] roots, int from, int to) {
+            this.a = a;
+            this.b = b;
+            this.rows = rows;
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > ROWS_PER_TASK) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new Rows(this.a, this.b, this.rows, this.roots, this.from, middle),
+                        new Rows(this.a, this.b, this.rows, this.roots, middle, this.to));
+                return;
+            }
+            Workspace workspace = new Workspace();
+            for (int row = this.from; row < this.to; row++) {
+                try {
+                    workspace.setParameters(this.rows[row]);
+                    this.roots[row] = RootFinder.this.solve(workspace, this.a, this.b);
+                } catch (Exception e) {
+                    this.roots[row] = Double.NaN;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+// itay alter 206132284
+/**
+ * The SampleSummary class summarizes a stream of samples without storing
+ * them: it keeps their count, mean, variance, minimum and maximum exactly, and
+ * estimates their quantiles from a histogram with logarithmic buckets. Two
+ * summaries of disjoint streams can be merged into the summary of both, so
+ * every task of a parallel run can summarize its own samples.
+ *
+ * <p>The mean and the variance are accumulated by the method of Welford, and
+ * merged by the formula of Chan et al., which do not lose the variance to
+ * cancellation when it is small next to the mean. Every power of two, of
+ * either sign, is split into 128 buckets, so a quantile is within 0.4% of the
+ * samples around it. The buckets are a dense array that covers only the range
+ * of the samples seen, and grows when a sample falls outside it.
+ */
+public final class SampleSummary {
+    private static final int SUB_BITS = 7;
+    private static final int SHIFT = 52 - SUB_BITS;
+    private static final long MAGNITUDE = Long.MAX_VALUE;
+
+    private long count;
+    private double mean;
+    private double squares;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long[] buckets = new long[0];
+    private int offset;
+
+    /**
+     * Adds a sample.
+     *
+     * @param value the sample
+     * @throws IllegalArgumentException if the sample is NaN
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("a sample is NaN");
+        }
+        this.count++;
+        double delta = value - this.mean;
+        this.mean += delta / this.count;
+        this.squares += delta * (value - this.mean);
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+        int key = key(value);
+        int index = key - this.offset;
+        if (index < 0 || index >= this.buckets.length) {
+            this.cover(key, key);
+            index = key - this.offset;
+        }
+        this.buckets[index]++;
+    }
+
+    /**
+     * Adds the first samples of an array.
+     *
+     * @param values the samples
+     * @param length the number of samples to add
+     */
+    public void add(double[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            this.add(values[i]);
+        }
+    }
+
+    /**
+     * Merges the samples of another summary into this one. The other summary
+     * is not changed.
+     *
+     * @param other the summary to merge
+     */
+    public void merge(SampleSummary other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = this.count + other.count;
+        double delta = other.mean - this.mean;
+        this.mean += delta * other.count / total;
+        this.squares += other.squares + delta * delta * ((double) this.count * other.count / total);
+        this.count = total;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+        this.cover(other.offset, other.offset + other.buckets.length - 1);
+        for (int i = 0; i < other.buckets.length; i++) {
+            this.buckets[other.offset + i - this.offset] += other.buckets[i];
+        }
+    }
+
+    /**
+     * Returns the number of samples.
+     *
+     * @return the number of samples
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the mean of the samples.
+     *
+     * @return the mean, or NaN if there are no samples
+     */
+    public double getMean() {
+        return this.count == 0 ? Double.NaN : this.mean;
+    }
+
+    /**
+     * Returns the variance of the samples, with the correction of Bessel.
+     *
+     * @return the variance, or NaN if there are fewer than 2 samples
+     */
+    public double getVariance() {
+        return this.count < 2 ? Double.NaN : this.squares / (this.count - 1);
+    }
+
+    /**
+     * Returns the standard deviation of the samples.
+     *
+     * @return the square root of the variance
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(this.getVariance());
+    }
+
+    /**
+     * Returns the smallest sample.
+     *
+     * @return the minimum, or NaN if there are no samples
+     */
+    public double getMin() {
+        return this.count == 0 ? Double.NaN : this.min;
+    }
+
+    /**
+     * Returns the largest sample.
+     *
+     * @return the maximum, or NaN if there are no samples
+     */
+    public double getMax() {
+        return this.count == 0 ? Double.NaN : this.max;
+    }
+
+    /**
+     * Returns an estimate of a quantile of the samples: the middle of the
+     * bucket that holds it, but never outside the minimum and the maximum.
+     *
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimated quantile, or NaN if there are no samples
+     */
+    public double getQuantile(double quantile) {
+        if (!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("the quantile must be between 0 and 1");
+        }
+        if (this.count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * this.count));
+        long seen = 0;
+        for (int i = 0; i < this.buckets.length; i++) {
+            seen += this.buckets[i];
+            if (seen >= rank) {
+                double middle = middle(this.offset + i);
+                return Math.max(this.min, Math.min(this.max, middle));
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Returns a summary of the samples.
+     *
+     * @return the count, mean, standard deviation and some quantiles
+     */
+    public String toString() {
+        return "count=" + this.count + " mean=" + this.getMean() + " sd=" + this.getStandardDeviation() + " min="
+                + this.getMin() + " p5=" + this.getQuantile(0.05) + " p50=" + this.getQuantile(0.5) + " p95="
+                + this.getQuantile(0.95) + " max=" + this.getMax();
+    }
+
+    /**
+     * Grows the buckets so that they cover a range of keys.
+     *
+     * @param low the smallest key to cover
+     * @param high the largest key to cover
+     */
+    private void cover(int low, int high) {
+        if (this.buckets.length == 0) {
+            this.offset = low;
+            this.buckets = new long[high - low + 1];
+            return;
+        }
+        int from = Math.min(low, this.offset);
+        int to = Math.max(high, this.offset + this.buckets.length - 1);
+        if (from == this.offset && to == this.offset + this.buckets.length - 1) {
+            return;
+        }
+        // Grow by at least half, so that a stream that widens slowly copies
+        // the buckets a logarithmic number of times
+        int slack = this.buckets.length / 2;
+        if (from < this.offset) {
+            from = Math.max(Math.min(from, this.offset - slack), key(Double.NEGATIVE_INFINITY));
+        }
+        if (to > this.offset + this.buckets.length - 1) {
+            to = Math.min(Math.max(to, this.offset + this.buckets.length - 1 + slack),
+                    key(Double.POSITIVE_INFINITY));
+        }
+        long[] grown = new long[to - from + 1];
+        System.arraycopy(this.buckets, 0, grown, this.offset - from, this.buckets.length);
+        this.buckets = grown;
+        this.offset = from;
+    }
+
+    /**
+     * Returns the key of the bucket of a sample. The keys are in the order of
+     * the samples: the bits of the magnitude of a double are in its order, so
+     * their top bits number the buckets of the positive samples, and the
+     * negative samples get the negated keys, below -1.
+     *
+     * @param value the sample, not NaN
+     * @return the key of its bucket
+     */
+    private static int key(double value) {
+        int magnitude = (int) ((Double.doubleToRawLongBits(value) & MAGNITUDE) >>> SHIFT);
+        return value < 0 || (value == 0 && 1 / value < 0) ? -magnitude - 1 : magnitude;
+    }
+
+    /**
+     * Returns the middle of a bucket.
+     *
+     * @param key the key of the bucket
+     * @return the middle of the range of the samples it holds
+     */
+    private static double middle(int key) {
+        int magnitude = key < 0 ? -key - 1 : key;
+        double low = Double.longBitsToDouble((long) magnitude << SHIFT);
+        double high = Double.longBitsToDouble((long) (magnitude + 1) << SHIFT);
+        double middle = Double.isInfinite(low) ? low : low + 0.5 * (Math.min(high, Double.MAX_VALUE) - low);
+        return key < 0 ? -middle : middle;
+    }
+}
@@ -0,0 +1,51 @@
+// itay alter 206132284
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The SimplifyEvent class is the Java Flight Recorder event of a simplify()
+ * call that took longer than the threshold. It is disabled by default, and
+ * while it is disabled creating and committing it costs nothing once the code
+ * is compiled. The sizes of the expressions are only measured for events that
+ * are actually committed.
+ */
+@Name("expressions.Simplify")
+@Label("Simplify")
+@Category("Expressions")
+@Description("Simplification of an expression")
+@Enabled(false)
+@Threshold("10 ms")
+public class SimplifyEvent extends Event {
+    @Label("Input Nodes")
+    private int inputNodes;
+
+    @Label("Input Depth")
+    private int inputDepth;
+
+    @Label("Output Nodes")
+    private int outputNodes;
+
+    @Label("Output Depth")
+    private int outputDepth;
+
+    /**
+     * Measures the number of nodes and the depth of the expression the
+     * operation started from and of the expression it produced.
+     *
+     * @param input the expression the operation started from
+     * @param output the expression the operation produced
+     */
+    public void measure(Expression input, Expression output) {
+        TreeSize in = TreeSize.of(input);
+        TreeSize out = TreeSize.of(output);
+        this.inputNodes = in.getNodes();
+        this.inputDepth = in.getDepth();
+        this.outputNodes = out.getNodes();
+        this.outputDepth = out.getDepth();
+    }
+}
@@ -1,6 +1,4 @@
 // itay alter 206132284
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,8 +27,11 @@ public class Sin extends UnaryExpression implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
-        double x = Math.toRadians(super.getOperands().get(0).evaluate(assignment));
-        return Math.sin(x);
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this, assignment);
+        }
+        ExpressionMetrics.visit(Operator.SIN);
+        return this.evaluateWith(this.getOperand().evaluate(assignment), 0, true);
     }
 
     /**
@@ -41,8 +42,24 @@ public class Sin extends UnaryExpression implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
-        double x = Math.toRadians(super.getOperands().get(0).evaluate());
-        return Math.sin(x);
+        if (this.isDeep()) {
+            return ExpressionEngine.evaluate(this);
+        }
+        ExpressionMetrics.visit(Operator.SIN);
+        return this.evaluateWith(this.getOperand().evaluate(), 0, false);
+    }
+
+    /**
+     * Computes the sine of the value of the operand, in degrees.
+     *
+     * @param x the value of the operand
+     * @param y unused
+     * @param assigned whether the value comes from evaluate(Map)
+     * @return the sine of the value
+     */
+    @Override
+    protected double evaluateWith(double x, double y, boolean assigned) {
+        return Math.sin(Math.toRadians(x));
     }
 
     /**
@@ -55,11 +72,32 @@ public class Sin extends UnaryExpression implements Expression {
      */
     @Override
     public Expression assign(String var, Expression expression) {
-        List<Expression> newOperands = new ArrayList<>();
-        // Assign the new expression to the variable in the operand
-        newOperands.add(super.getOperands().get(0).assign(var, expression));
-        // Create a new Sin expression with the updated operand
-        return new Sin(newOperands.get(0));
+        if (!this.getVariableSet().contains(var)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, var, expression);
+        }
+        return new Sin(this.getOperand().assign(var, expression));
+    }
+
+    /**
+     * Assigns expressions to several variables of the sine expression in one
+     * pass. Operands that have none of the variables are kept as they are, and
+     * so is this expression when it has none of them.
+     *
+     * @param assignments the expressions to replace the variables with, by name
+     * @return the sine expression with the variables replaced
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        if (!this.hasAnyOf(assignments)) {
+            return this;
+        }
+        if (this.isDeep()) {
+            return ExpressionEngine.assign(this, assignments);
+        }
+        return new Sin(this.getOperand().assign(assignments));
     }
 
     /**
@@ -67,13 +105,13 @@ public class Sin extends UnaryExpression implements Expression {
      * variable. According to: (sin(g(x)))' = cos(g(x)) * g'(x).
      *
      * @param var the variable to differentiate by.
+     * @param operandDiff the derivative of the operand
+     * @param dy null, as a unary expression has no second operand
      * @return the derivative of this Sin expression.
      */
-    public Expression differentiate(String var) {
-        Expression operand = super.getOperands().get(0);
-        // Differentiate the operand with respect to the variable
-        Expression operandDiff = operand.differentiate(var);
-        Expression cos = new Cos(operand);
+    @Override
+    protected Expression differentiateWith(String var, Expression operandDiff, Expression dy) {
+        Expression cos = new Cos(this.getOperand());
         // Multiply the cosine expression by the derivative of the operand
         return new Mult(cos, operandDiff);
     }
@@ -81,31 +119,44 @@ public class Sin extends UnaryExpression implements Expression {
     /**
      * This method simplifies the Sin expression by evaluating it if possible.
      * If the expression can be evaluated to a numerical value, a Num expression
-     * is returned. Otherwise, the Sin expression is simplified by recursively
-     * simplifying its operand.
+     * is returned. Otherwise, the Sin expression keeps its simplified operand.
      *
+     * @param x the simplified operand
+     * @param y null, as a unary expression has no second operand
      * @return a simplified version of the Sin expression.
      */
     @Override
-    public Expression simplify() {
-        Expression x = super.getOperands().get(0);
-        // Try to evaluate the Sin expression
+    protected Expression simplifyWith(Expression x, Expression y) {
+        // Try to evaluate the Sin expression, which needs it to have no
+        // variables
+        if (this.getVariableSet().isEmpty()) {
             try {
                 double sinResult = this.evaluate();
                 return new Num(sinResult);
             } catch (Exception e) {
             }
-        // If evaluation fails, simplify the operand expression
-        return new Sin(x.simplify());
+        }
+        // If evaluation fails, keep the sine of the simplified operand
+        return new Sin(x);
+    }
+
+    /**
+     * Returns the text written before the operand of the sine.
+     *
+     * @return the prefix of the sine
+     */
+    @Override
+    protected String prefix() {
+        return "sin(";
     }
 
     /**
-     * Returns a string representation of the Sin expression.
+     * Returns the text written after the operand of the sine.
      *
-     * @return the string representation of the Sin expression.
+     * @return the suffix of the sine
      */
-    public String toString() {
-        String x = super.getOperands().get(0).toString();
-        return "sin(" + x + ")";
+    @Override
+    protected String suffix() {
+        return ")";
     }
 }
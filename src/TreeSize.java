@@ -0,0 +1,74 @@
+// itay alter 206132284
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The TreeSize class holds the number of nodes and the depth of an expression
+ * tree. It is used to describe the expressions in diagnostic events.
+ */
+public final class TreeSize {
+    private int nodes;
+    private int depth;
+
+    /**
+     * Constructs a tree size.
+     *
+     * @param nodes the number of nodes
+     * @param depth the depth
+     */
+    private TreeSize(int nodes, int depth) {
+        this.nodes = nodes;
+        this.depth = depth;
+    }
+
+    /**
+     * Measures an expression. The tree is walked with an explicit stack, so
+     * deep expressions are measured too.
+     *
+     * @param expression the expression to measure
+     * @return the size of the expression
+     */
+    public static TreeSize of(Expression expression) {
+        int nodes = 0;
+        int depth = 0;
+        Deque<Expression> stack = new ArrayDeque<>();
+        Deque<Integer> depths = new ArrayDeque<>();
+        stack.push(expression);
+        depths.push(1);
+        while (!stack.isEmpty()) {
+            Expression node = stack.pop();
+            int level = depths.pop();
+            nodes++;
+            depth = Math.max(depth, level);
+            if (node instanceof BinaryExpression) {
+                BinaryExpression binary = (BinaryExpression) node;
+                stack.push(binary.getLeft());
+                depths.push(level + 1);
+                stack.push(binary.getRight());
+                depths.push(level + 1);
+            } else if (node instanceof UnaryExpression) {
+                stack.push(((UnaryExpression) node).getOperand());
+                depths.push(level + 1);
+            }
+        }
+        return new TreeSize(nodes, depth);
+    }
+
+    /**
+     * Returns the number of nodes of the tree.
+     *
+     * @return the number of nodes
+     */
+    public int getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Returns the depth of the tree. A single node has depth 1.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+}
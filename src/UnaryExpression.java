@@ -1,4 +1,5 @@
 // itay alter 206132284
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -7,6 +8,8 @@ import java.util.List;
  * expression involving a single operand.
  */
 public abstract class UnaryExpression extends BaseExpression {
+    private final Expression operand;
+
     /**
      * This is a constructor that takes a single expression as the operand and
      * passes it to the superclass constructor to initialize the operand.
@@ -15,15 +18,50 @@ public abstract class UnaryExpression extends BaseExpression {
      */
     public UnaryExpression(Expression x) {
         super(x);
+        this.operand = x;
+    }
+
+    /**
+     * Retrieves the operand of the expression.
+     *
+     * @return The operand of the expression.
+     */
+    public Expression getOperand() {
+        return this.operand;
+    }
+
+    /**
+     * Returns a new list holding the operand.
+     *
+     * @return a list of Expression operands
+     */
+    @Override
+    public List<Expression> getOperands() {
+        List<Expression> operands = new ArrayList<>(1);
+        operands.add(this.operand);
+        return operands;
+    }
+
+    /**
+     * Simplifies the operand recursively, and then this node with
+     * simplifyWith().
+     *
+     * @return the simplified expression
+     */
+    @Override
+    protected Expression simplifyNode() {
+        return this.simplifyWith(this.getOperand().simplify(), null);
     }
 
     /**
-     * It is a method that returns a list of variables present in the unary
-     * expression.
+     * Differentiates the operand recursively, and then this node with
+     * differentiateWith().
      *
-     * @return a list of variables in the expression.
+     * @param var the variable with respect to which the derivative is calculated
+     * @return the derivative of the expression
      */
-    public List<String> getVariables() {
-        return super.getOperands().get(0).getVariables();
+    @Override
+    protected Expression differentiateNode(String var) {
+        return this.differentiateWith(var, this.getOperand().differentiate(var), null);
     }
 }
@@ -1,7 +1,10 @@
 // itay alter 206132284
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The Var class represents a variable in an arithmetic expression. It stores
@@ -11,6 +14,7 @@ import java.util.Map;
  */
 public class Var implements Expression {
     private String varName;
+    private Set<String> variables;
 
     /**
      * Constructs a new variable expression with the given variable name.
@@ -19,6 +23,16 @@ public class Var implements Expression {
      */
     public Var(String val) {
         this.varName = val;
+        this.variables = Collections.singleton(val);
+    }
+
+    /**
+     * Returns the name of the variable.
+     *
+     * @return the variable name
+     */
+    public String getName() {
+        return this.varName;
     }
 
     /**
@@ -30,6 +44,17 @@ public class Var implements Expression {
         return this.varName;
     }
 
+    /**
+     * Appends the name of the variable.
+     *
+     * @param out where to append the variable name
+     * @throws IOException if appending to the Appendable fails
+     */
+    @Override
+    public void appendTo(Appendable out) throws IOException {
+        out.append(this.varName);
+    }
+
     /**
      * This method retrieves the value of the variable from the given assignment
      * map based on its name. It returns the value if the variable is present in
@@ -42,6 +67,7 @@ public class Var implements Expression {
      */
     @Override
     public double evaluate(Map<String, Double> assignment) throws Exception {
+        ExpressionMetrics.visit(Operator.VAR);
         try {
             return assignment.get(this.varName);
         } catch (Exception e) {
@@ -60,6 +86,7 @@ public class Var implements Expression {
      */
     @Override
     public double evaluate() throws Exception {
+        ExpressionMetrics.visit(Operator.VAR);
         throw new Exception("This var has no value");
     }
 
@@ -71,28 +98,52 @@ public class Var implements Expression {
      */
     @Override
     public List<String> getVariables() {
-        List<String> vars = new ArrayList<>();
-        vars.add(this.varName);
-        return vars;
+        return new ArrayList<>(this.variables);
+    }
+
+    /**
+     * This method returns the set holding the name of the variable, which is
+     * created once with the variable.
+     *
+     * @return A set containing the name of the variable
+     */
+    @Override
+    public Set<String> getVariableSet() {
+        return this.variables;
     }
 
     /**
      * This method assigns a new expression to the variable. If the provided
      * variable name matches the current variable name, the expression is
-     * assigned to the variable. Otherwise, a new variable expression with the
-     * same name is returned.
+     * assigned to the variable. Otherwise, the variable itself is returned.
      *
      * @param var The variable name to assign the expression to.
      * @param expression The expression to be assigned to the variable.
-     * @return The assigned expression if the variable name matches, or a new
-     * variable expression with the same name.
+     * @return The assigned expression if the variable name matches, or this
+     * variable expression.
      */
     @Override
     public Expression assign(String var, Expression expression) {
         if (var.equals(this.varName)) {
             return expression;
         }
-        return new Var(this.varName);
+        return this;
+    }
+
+    /**
+     * This method looks the variable up in the given map and returns the
+     * expression assigned to it, or this variable if it is not assigned.
+     *
+     * @param assignments The expressions to replace the variables with.
+     * @return The expression assigned to the variable, or this variable.
+     */
+    @Override
+    public Expression assign(Map<String, Expression> assignments) {
+        Expression assigned = assignments.get(this.varName);
+        if (assigned == null) {
+            return this;
+        }
+        return assigned;
     }
 
     /**
@@ -0,0 +1,193 @@
+// itay alter 206132284
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The VariableSet class is the unmodifiable set of the variables of an
+ * expression, in the order of their first occurrence. A set is a prefix of a
+ * shared, append-only table of names: the union of a set with the variables of
+ * a new operand appends them to the table in place, when the set is still the
+ * whole table, and only copies the table when another union has already
+ * appended to it. So a chain that adds a variable at every level, like
+ * ((x1 + x2) + x3) + ..., takes constant time and memory per level instead of
+ * copying the variables of the level below.
+ */
+final class VariableSet extends AbstractSet<String> {
+    private final Table table;
+    private final int size;
+
+    /**
+     * Constructs a prefix of a table.
+     *
+     * @param table the table
+     * @param size the number of names of the table in the set
+     */
+    private VariableSet(Table table, int size) {
+        this.table = table;
+        this.size = size;
+    }
+
+    /**
+     * Returns the union of two sets of variables: the variables of the first,
+     * followed by the ones of the second that the first does not have.
+     *
+     * @param x the first set
+     * @param y the second set
+     * @return the union, which may be one of the sets itself
+     */
+    static Set<String> union(Set<String> x, Set<String> y) {
+        if (y.isEmpty() || x.containsAll(y)) {
+            return x;
+        }
+        if (x.isEmpty()) {
+            return y;
+        }
+        VariableSet prefix = x instanceof VariableSet ? (VariableSet) x : copy(x);
+        return prefix.extend(y);
+    }
+
+    /**
+     * Returns a set with the variables of another set, in its order.
+     *
+     * @param variables the variables
+     * @return a new set on a new table
+     */
+    private static VariableSet copy(Set<String> variables) {
+        Table table = new Table(variables.size() + 1);
+        for (String var : variables) {
+            table.append(var);
+        }
+        return new VariableSet(table, table.size);
+    }
+
+    /**
+     * Returns this set with the variables of another set appended.
+     *
+     * @param variables the variables to add
+     * @return the extended set
+     */
+    private VariableSet extend(Set<String> variables) {
+        synchronized (this.table) {
+            if (this.table.size == this.size) {
+                for (String var : variables) {
+                    if (!this.contains(var)) {
+                        this.table.append(var);
+                    }
+                }
+                return new VariableSet(this.table, this.table.size);
+            }
+        }
+        // Another union appended past this set, so it starts a table of its
+        // own
+        VariableSet copy = copy(this);
+        synchronized (copy.table) {
+            for (String var : variables) {
+                if (!copy.table.positions.containsKey(var)) {
+                    copy.table.append(var);
+                }
+            }
+            return new VariableSet(copy.table, copy.table.size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Integer position = this.table.positions.get(o);
+        return position != null && position < this.size;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (c instanceof VariableSet && ((VariableSet) c).table == this.table) {
+            return ((VariableSet) c).size <= this.size;
+        }
+        return super.containsAll(c);
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Names(this.table.names, this.size);
+    }
+
+    /**
+     * The Table class holds the names of all the sets that share it, in the
+     * order they were appended, and the position of every name.
+     */
+    private static final class Table {
+        private final Map<String, Integer> positions = new ConcurrentHashMap<>();
+        private volatile String[] names;
+        private int size;
+
+        /**
+         * Constructs an empty table.
+         *
+         * @param capacity the initial capacity
+         */
+        Table(int capacity) {
+            this.names = new String[capacity];
+        }
+
+        /**
+         * Appends a name that is not in the table. The names below the size of
+         * any set are never moved or changed, so sets can read them while a
+         * name is appended.
+         *
+         * @param name the name
+         */
+        void append(String name) {
+            String[] current = this.names;
+            if (this.size == current.length) {
+                String[] grown = new String[2 * current.length + 1];
+                System.arraycopy(current, 0, grown, 0, this.size);
+                current = grown;
+            }
+            current[this.size] = name;
+            this.names = current;
+            this.positions.put(name, this.size);
+            this.size++;
+        }
+    }
+
+    /**
+     * The Names class iterates over a prefix of the names of a table.
+     */
+    private static final class Names implements Iterator<String> {
+        private final String[] names;
+        private final int size;
+        private int next;
+
+        /**
+         * Constructs an iterator.
+         *
+         * @param names the names of the table
+         * @param size the number of names to iterate over
+         */
+        Names(String[] names, int size) {
+            this.names = names;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.size;
+        }
+
+        @Override
+        public String next() {
+            if (this.next >= this.size) {
+                throw new NoSuchElementException();
+            }
+            return this.names[this.next++];
+        }
+    }
+}